@@ -0,0 +1,53 @@
+package chess;
+
+import org.glassfish.jersey.message.GZipEncoder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.glassfish.jersey.server.filter.EncodingFilter;
+
+import com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider;
+import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
+
+import chess.monitoring.FlightRecorderSupport;
+import chess.monitoring.FlightRecording;
+import chess.monitoring.RequestEventFilter;
+import chess.tenant.TenantRequestFilter;
+
+/**
+ * JAX-RS application of the chess rating service. Resources and providers are registered explicitly instead of
+ * being discovered by package and classpath scanning, which keeps the startup time short. This configuration is
+ * used both by the servlet container (see web.xml) and by the embedded {@link chess.server.ChessServer}.
+ * <p>
+ * Responses are negotiated between JSON, for browsers, and the binary Smile and CBOR encodings of the same
+ * resources, for internal consumers (see {@link ChessMediaTypes}). Responses are gzip compressed for clients sending
+ * {@code Accept-Encoding: gzip}.
+ * <p>
+ * Each request is recorded as a flight recorder event (see {@link RequestEventFilter}) when the JVM has the flight
+ * recorder API, and in the metrics of its tenant (see {@link TenantRequestFilter}). Creating the application starts
+ * the optional always-on {@link FlightRecording} and the {@link WarmUp} in the background.
+ */
+public class ChessApplication extends ResourceConfig {
+
+   public ChessApplication() {
+      register(ChessService.class);
+      register(TournamentService.class);
+      register(MetricsService.class);
+      register(HealthService.class);
+      register(JacksonJsonProvider.class);
+      register(JacksonSmileProvider.class);
+      register(JacksonCBORProvider.class);
+      if (FlightRecorderSupport.isAvailable()) {
+         register(RequestEventFilter.class);
+      }
+      register(new TenantRequestFilter(TournamentService.TENANTS));
+      EncodingFilter.enableFor(this, GZipEncoder.class);
+
+      property(ServerProperties.FEATURE_AUTO_DISCOVERY_DISABLE, true);
+      property(ServerProperties.METAINF_SERVICES_LOOKUP_DISABLE, true);
+      property(ServerProperties.WADL_FEATURE_DISABLE, true);
+
+      FlightRecording.startIfConfigured();
+      WarmUp.get().start();
+   }
+}
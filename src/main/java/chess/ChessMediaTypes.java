@@ -0,0 +1,30 @@
+package chess;
+
+/**
+ * Media types negotiated by the chess resources besides JSON.
+ */
+public final class ChessMediaTypes {
+
+   /**
+    * Media type of the Smile binary JSON encoding.
+    */
+   public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+   /**
+    * Media type of the CBOR binary encoding.
+    */
+   public static final String APPLICATION_CBOR = "application/cbor";
+
+   /**
+    * Media type of newline delimited JSON, one value per line.
+    */
+   public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+   /**
+    * Media type of comma separated values, the separator of the chess resources being the semicolon.
+    */
+   public static final String TEXT_CSV = "text/csv";
+
+   private ChessMediaTypes() {
+   }
+}
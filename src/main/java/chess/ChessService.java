@@ -2,37 +2,281 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
+import chess.api.PairingEntry;
+import chess.api.PreviewRequest;
+import chess.api.PreviewResult;
 import chess.models.Player;
+import chess.registry.PlayerSnapshot;
+import chess.registry.TournamentSnapshot;
+import chess.store.PlayerField;
+import chess.store.PlayerStore;
+import chess.store.RatingSnapshot;
+import chess.tenant.Tenant;
+import chess.tenant.TenantDirectory;
 
 
 @Path("chess")
 public class ChessService {
 
    /**
-    * Method handling HTTP GET requests. The returned object will be sent
-    * to the client as "text/plain" media type.
+    * Maximum number of players returned by a single page or batch lookup.
+    */
+   static final int MAX_PAGE_SIZE = 1000;
+
+   /**
+    * Maximum number of boards or grid points of a preview.
+    */
+   static final int MAX_PREVIEW_SIZE = 10000;
+
+   /**
+    * Response header carrying the version of the ratings a response was read from.
+    */
+   static final String RATING_VERSION_HEADER = "X-Rating-Version";
+
+   @HeaderParam(TenantDirectory.TENANT_HEADER)
+   private String tenantId;
+
+   /**
+    * Adds the sample players to the player list of a tenant.
+    *
+    * @param store The player list.
+    */
+   static void addSamplePlayers(PlayerStore store) {
+      String[][] names = {{"Jimmy", "Forest"}, {"Sylvain", "Mireault"}, {"Roger", "Gendron"}, {"Guillaume", "Levebvre"}};
+      double[] ratings = {1783, 1711, 1607, 1551};
+      List<Player> players = new ArrayList<>();
+      for (int i = 0; i < names.length; i++) {
+         Player player = new Player(names[i][0], names[i][1], ratings[i]);
+         player.setId(i + 1);
+         players.add(player);
+      }
+      store.commit(players);
+   }
+
+   /**
+    * Player list of the tenant of the request, named by the {@value TenantDirectory#TENANT_HEADER} header.
+    */
+   private PlayerStore playerStore() {
+      try {
+         return TournamentService.TENANTS.resolve(tenantId).getPlayerStore();
+      } catch (NoSuchElementException e) {
+         throw new NotFoundException(e.getMessage());
+      }
+   }
+
+   /**
+    * Publishes the new ratings of a rated tournament as one version of the player store of its tenant, so that
+    * readers see either all of them or none.
+    *
+    * @param tenant     Tenant of the tournament.
+    * @param tournament The rated tournament.
+    * @return The published version.
+    */
+   static RatingSnapshot publishRatings(Tenant tenant, TournamentSnapshot tournament) {
+      List<Player> rated = new ArrayList<>(tournament.getStanding().size());
+      for (PlayerSnapshot snapshot : tournament.getStanding()) {
+         Player player = new Player(snapshot.getLastName(), snapshot.getFirstName(), snapshot.getRating());
+         player.setId(snapshot.getId());
+         player.setOldRating(snapshot.getOldRating());
+         player.setRatingPermanent(snapshot.isRatingPermanent());
+         player.setUnratedGamesPlayed(snapshot.getUnratedGamesPlayed());
+         rated.add(player);
+      }
+      return tenant.getPlayerStore().commit(rated);
+   }
+
+   /**
+    * Method handling HTTP GET requests on the player list. Without a limit, every player is returned. With a limit,
+    * the players are paged on their id and a "next" link containing the {@code after} cursor is added to the
+    * response when more players may follow. The version of the ratings read is returned in the
+    * {@value #RATING_VERSION_HEADER} header; passing it back as {@code version} reads the following pages from the
+    * same version, as long as the store retains it.
     *
-    * @return String that will be returned as a text/plain response.
+    * @param after   Id of the last player of the previous page.
+    * @param limit   Maximum number of players in the page.
+    * @param fields  Optional comma separated list of the player properties to return.
+    * @param version Optional version of the ratings to read, the current version by default.
+    * @return The list of players serialized as JSON.
     */
    @Path("/players")
    @GET
-   @Produces(MediaType.APPLICATION_JSON)
-   public List<Player> getIt() {
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public Response getIt(@QueryParam("after") Integer after,
+                         @QueryParam("limit") Integer limit,
+                         @QueryParam("fields") String fields,
+                         @QueryParam("version") Long version,
+                         @Context UriInfo uriInfo) {
 
-      List<Player> players = new ArrayList<>();
+      if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+         throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+      }
+      PlayerStore store = playerStore();
+      RatingSnapshot snapshot = pin(store, version);
+      try {
+         if (limit == null) {
+            return versioned(Response.ok(project(snapshot.getAll(), fields)), snapshot);
+         }
+         List<Player> page = snapshot.page(after, limit);
+         Response.ResponseBuilder response = Response.ok(project(page, fields));
+         if (page.size() == limit) {
+            int lastId = page.get(page.size() - 1).getId();
+            response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("after", lastId).build(), "next");
+         }
+         return versioned(response, snapshot);
+      } finally {
+         release(store, version, snapshot);
+      }
+   }
+
+   /**
+    * Method handling batch lookups of players by id, replacing one request per player.
+    *
+    * @param ids     JSON array of player ids.
+    * @param fields  Optional comma separated list of the player properties to return.
+    * @param version Optional version of the ratings to read, the current version by default.
+    * @return The players found, in the order of the requested ids. Unknown ids are skipped.
+    */
+   @Path("/players:batchGet")
+   @POST
+   @Consumes({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public Response batchGetPlayers(List<Integer> ids,
+                                   @QueryParam("fields") String fields,
+                                   @QueryParam("version") Long version) {
+      if (ids == null || ids.size() > MAX_PAGE_SIZE) {
+         throw new BadRequestException("A batch must contain at most " + MAX_PAGE_SIZE + " ids");
+      }
+      PlayerStore store = playerStore();
+      RatingSnapshot snapshot = pin(store, version);
+      try {
+         return versioned(Response.ok(project(snapshot.getAll(ids), fields)), snapshot);
+      } finally {
+         release(store, version, snapshot);
+      }
+   }
+
+   /**
+    * Returns the requested version of the ratings, pinned while the response is built, or the current version.
+    */
+   private static RatingSnapshot pin(PlayerStore store, Long version) {
+      if (version == null) {
+         return store.current();
+      }
+      RatingSnapshot snapshot = store.pin(version);
+      if (snapshot == null) {
+         if (version > store.current().getVersion() || version < 0) {
+            throw new NotFoundException("Unknown rating version " + version);
+         }
+         throw new ClientErrorException("Rating version " + version + " is no longer available",
+               Response.Status.GONE);
+      }
+      return snapshot;
+   }
+
+   private static void release(PlayerStore store, Long version, RatingSnapshot snapshot) {
+      if (version != null) {
+         store.release(snapshot);
+      }
+   }
 
-      players.add(new Player("Jimmy", "Forest", 1783));
-      players.add(new Player("Sylvain", "Mireault", 1711));
-      players.add(new Player("Roger", "Gendron", 1607));
-      players.add(new Player("Guillaume", "Levebvre", 1551));
+   private static Response versioned(Response.ResponseBuilder response, RatingSnapshot snapshot) {
+      return response.header(RATING_VERSION_HEADER, snapshot.getVersion()).build();
+   }
+
+   /**
+    * Method handling previews of the expected score and of the rating change of each outcome, either for the
+    * boards of a round, before it is played, or for a grid of rating differences. Players of a board given by id
+    * are read from the current version of the ratings.
+    *
+    * @param request The pairings or the grid.
+    * @return The expected scores and deltas, in the order of the boards or of the grid.
+    */
+   @Path("/preview")
+   @POST
+   @Consumes({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public PreviewResult preview(PreviewRequest request) {
+      if (request == null) {
+         throw new BadRequestException("A preview needs pairings or a grid");
+      }
+      boolean grid = request.getFrom() != null || request.getTo() != null || request.getStep() != null;
+      if (grid == (request.getPairings() != null)) {
+         throw new BadRequestException("A preview needs either pairings or a grid from, to and step");
+      }
+      return new PreviewResult(grid ? gridDifferences(request)
+            : pairingDifferences(playerStore(), request.getPairings()));
+   }
+
+   private static double[] pairingDifferences(PlayerStore store, List<PairingEntry> pairings) {
+      if (pairings.size() > MAX_PREVIEW_SIZE) {
+         throw new BadRequestException("A preview must contain at most " + MAX_PREVIEW_SIZE + " boards");
+      }
+      RatingSnapshot snapshot = store.current();
+      double[] differences = new double[pairings.size()];
+      for (int i = 0; i < differences.length; i++) {
+         PairingEntry pairing = pairings.get(i);
+         differences[i] = rating(snapshot, pairing.getWhiteRating(), pairing.getWhite())
+               - rating(snapshot, pairing.getBlackRating(), pairing.getBlack());
+      }
+      return differences;
+   }
+
+   private static double rating(RatingSnapshot snapshot, Double rating, Integer id) {
+      if (rating != null) {
+         return rating;
+      }
+      Player player = id == null ? null : snapshot.get(id);
+      if (player == null) {
+         throw new BadRequestException("Each player of a board needs a rating or the id of a registered player");
+      }
+      return player.getRating();
+   }
+
+   private static double[] gridDifferences(PreviewRequest request) {
+      if (request.getFrom() == null || request.getTo() == null || request.getStep() == null
+            || !(request.getStep() > 0) || !(request.getTo() >= request.getFrom())) {
+         throw new BadRequestException("A grid needs from <= to and a positive step");
+      }
+      double points = Math.floor((request.getTo() - request.getFrom()) / request.getStep()) + 1;
+      if (points > MAX_PREVIEW_SIZE) {
+         throw new BadRequestException("A preview must contain at most " + MAX_PREVIEW_SIZE + " grid points");
+      }
+      double[] differences = new double[(int) points];
+      for (int i = 0; i < differences.length; i++) {
+         differences[i] = request.getFrom() + i * request.getStep();
+      }
+      return differences;
+   }
 
-      return players;
+   private static Object project(List<Player> players, String fields) {
+      if (fields == null || fields.isEmpty()) {
+         return players;
+      }
+      Set<PlayerField> projection;
+      try {
+         projection = PlayerField.parse(fields);
+      } catch (IllegalArgumentException e) {
+         throw new BadRequestException(e.getMessage());
+      }
+      return PlayerField.project(players, projection);
    }
 
    @Path("/test")
@@ -0,0 +1,56 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * REST resource of the health checks used by the load balancer.
+ */
+@Path("chess/health")
+public class HealthService {
+
+   private final WarmUp warmUp;
+
+   public HealthService() {
+      this(WarmUp.get());
+   }
+
+   HealthService(WarmUp warmUp) {
+      this.warmUp = warmUp;
+   }
+
+   /**
+    * Liveness check, successful as soon as the service answers.
+    *
+    * @return "OK".
+    */
+   @GET
+   @Path("live")
+   @Produces(MediaType.TEXT_PLAIN)
+   public String live() {
+      return "OK";
+   }
+
+   /**
+    * Readiness check, answered with status 503 until the {@link WarmUp} is done.
+    *
+    * @return The warm-up progress.
+    */
+   @GET
+   @Path("ready")
+   @Produces(MediaType.APPLICATION_JSON)
+   public Response ready() {
+      Map<String, Object> status = new LinkedHashMap<>();
+      status.put("ready", warmUp.isReady());
+      status.put("warmUpIterations", warmUp.getCompletedIterations());
+      status.put("warmUpMillis", warmUp.getElapsedMillis());
+      Response.Status code = warmUp.isReady() ? Response.Status.OK : Response.Status.SERVICE_UNAVAILABLE;
+      return Response.status(code).entity(status).build();
+   }
+}
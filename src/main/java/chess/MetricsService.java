@@ -0,0 +1,29 @@
+package chess;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import chess.tenant.Tenant;
+
+/**
+ * REST resource exposing the operational metrics of the service, by tenant.
+ */
+@Path("chess/metrics")
+public class MetricsService {
+
+   @GET
+   @Produces(MediaType.APPLICATION_JSON)
+   public Map<String, Object> getMetrics() {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      for (Tenant tenant : TournamentService.TENANTS.getAll()) {
+         metrics.put(tenant.getId(), tenant.getMetrics());
+      }
+      return Collections.singletonMap("tenants", metrics);
+   }
+}
@@ -0,0 +1,511 @@
+package chess;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import chess.admission.AdmissionController;
+import chess.admission.AdmissionRejectedException;
+import chess.api.GameEntry;
+import chess.api.PlayerEntry;
+import chess.api.TournamentSubmission;
+import chess.io.CrosstableWriter;
+import chess.models.Crosstable;
+import chess.models.InvalidRoundException;
+import chess.models.Player;
+import chess.models.RoundValidator;
+import chess.models.RoundViolation;
+import chess.rating.GameRecord;
+import chess.registry.RatingCache;
+import chess.registry.ResultStreamIngester;
+import chess.registry.TournamentJournal;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+import chess.tenant.Tenant;
+import chess.tenant.TenantDirectory;
+import chess.tenant.TenantQuotaExceededException;
+
+/**
+ * REST resource of the tournaments in progress. Mutations are queued on the tournament mailbox of the
+ * {@link TournamentRegistry} and answered asynchronously once applied; reads return the last published snapshot.
+ * Each request is routed to the registry of its {@link Tenant}.
+ */
+@Path("chess/tournaments")
+public class TournamentService {
+
+   private static final long DEFAULT_GROUP_COMMIT_MICROS = 2000;
+
+   private static final int TOO_MANY_REQUESTS = 429;
+
+   private static final int RESULT_STREAM_BATCH_SIZE = Integer.getInteger("chess.resultStream.batchSize",
+         ResultStreamIngester.DEFAULT_BATCH_SIZE);
+
+   /**
+    * Header identifying the client for the per-client admission limits. The id is trusted as sent, see
+    * {@link AdmissionController}.
+    */
+   static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+   private static final int MAX_CROSSTABLE_LIMIT = 1000;
+
+   private static final String ANONYMOUS_CLIENT = "anonymous";
+
+   /**
+    * Tenants of the deployment, each with its own registry, player list, executor and quotas.
+    */
+   static final TenantDirectory TENANTS = createTenants();
+
+   @HeaderParam(TenantDirectory.TENANT_HEADER)
+   private String tenantId;
+
+   /**
+    * Creates the default tenant and the tenants listed in the {@code chess.tenants} system property, comma
+    * separated. Each tenant gets an equal share of the processors unless {@code chess.tenant.threads} sets its number
+    * of threads, and a heap quota of {@code chess.tenant.heapQuotaMegabytes} (1024 by default) for its tournaments in
+    * progress. The sample players are added to the default tenant, then the ratings of the tournaments rated in
+    * the journal of each tenant are published again to its players.
+    */
+   private static TenantDirectory createTenants() {
+      Set<String> ids = TenantDirectory.parseIds(System.getProperty("chess.tenants"));
+      int threads = Integer.getInteger("chess.tenant.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / ids.size()));
+      long heapQuota = Long.getLong("chess.tenant.heapQuotaMegabytes", 1024L) << 20;
+      List<Tenant> tenants = new ArrayList<>(ids.size());
+      for (String id : ids) {
+         ThreadPoolExecutor executor = Tenant.newExecutor(id, threads);
+         RatingCache ratingCache = createRatingCache();
+         // By default, one thread of the tenant is left to the other mutations of its registry.
+         AdmissionController admission = new AdmissionController(
+               Long.getLong("chess.admission.costBudget", 5_000_000L),
+               Integer.getInteger("chess.admission.maxAdmitted", Math.max(1, threads - 1)),
+               Integer.getInteger("chess.admission.maxPerClient", 2));
+         tenants.add(new Tenant(id, executor, createRegistry(id, executor, ratingCache), ratingCache, admission,
+               heapQuota));
+      }
+      TenantDirectory directory = new TenantDirectory(tenants);
+      ChessService.addSamplePlayers(directory.resolve(null).getPlayerStore());
+      for (Tenant tenant : directory.getAll()) {
+         List<Player> recovered = tenant.getRegistry().getRecoveredRatings();
+         if (!recovered.isEmpty()) {
+            tenant.getPlayerStore().commit(recovered);
+         }
+      }
+      return directory;
+   }
+
+   /**
+    * Creates the registry of a tenant, durable when the {@code chess.journal.file} system property names a journal
+    * file. The default tenant logs to this file and every other tenant to the file suffixed with its id. The group
+    * commit window is set in microseconds by {@code chess.journal.groupCommitMicros}, and the size under which the
+    * journal is never compacted by {@code chess.journal.compactionMegabytes}.
+    */
+   private static TournamentRegistry createRegistry(String tenant, Executor executor, RatingCache ratingCache) {
+      String journalFile = System.getProperty("chess.journal.file");
+      if (journalFile == null) {
+         return new TournamentRegistry(executor, ratingCache);
+      }
+      if (!TenantDirectory.DEFAULT_TENANT.equals(tenant)) {
+         journalFile = journalFile + "." + tenant;
+      }
+      try {
+         long window = Long.getLong("chess.journal.groupCommitMicros", DEFAULT_GROUP_COMMIT_MICROS);
+         long minCompactionBytes = Long.getLong("chess.journal.compactionMegabytes",
+               TournamentJournal.DEFAULT_MIN_COMPACTION_BYTES >> 20) << 20;
+         TournamentJournal journal = new TournamentJournal(Paths.get(journalFile), window, minCompactionBytes);
+         return new TournamentRegistry(executor, journal, ratingCache);
+      } catch (IOException e) {
+         throw new UncheckedIOException("Cannot open the tournament journal " + journalFile, e);
+      }
+   }
+
+   /**
+    * Cache of the rating outcomes of a tenant, bounded by {@code chess.ratingCache.maxPlayers} players in total, or
+    * disabled when 0.
+    */
+   private static RatingCache createRatingCache() {
+      long maxPlayers = Long.getLong("chess.ratingCache.maxPlayers", 200_000L);
+      return maxPlayers > 0 ? new RatingCache(maxPlayers) : null;
+   }
+
+   /**
+    * Tenant of the request, named by the {@value TenantDirectory#TENANT_HEADER} header.
+    */
+   private Tenant tenant() {
+      try {
+         return TENANTS.resolve(tenantId);
+      } catch (NoSuchElementException e) {
+         throw new NotFoundException(e.getMessage());
+      }
+   }
+
+   /**
+    * Registers a tournament with its players and the rounds already played, then optionally rates it.
+    *
+    * @param submission The tournament.
+    * @param rate       Whether the tournament is rated once its rounds are added.
+    * @param response   Resumed with the snapshot of the tournament, with status 201.
+    */
+   @POST
+   @Consumes({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public void createTournament(TournamentSubmission submission,
+                                @QueryParam("rate") boolean rate,
+                                @HeaderParam(CLIENT_ID_HEADER) String client,
+                                @Suspended AsyncResponse response) {
+      if (submission == null || submission.getPlayers() == null || submission.getPlayers().isEmpty()) {
+         throw new BadRequestException("A tournament needs at least one player");
+      }
+      String id = submission.getId() != null ? submission.getId() : UUID.randomUUID().toString();
+      List<Player> players = submission.getPlayers().stream()
+            .map(PlayerEntry::toPlayer)
+            .collect(Collectors.toList());
+
+      if (submission.getRounds() != null) {
+         try {
+            List<RoundViolation> violations = RoundValidator.of(players).validateRounds(0, submission.getRounds(),
+                  GameEntry::getWhite, GameEntry::getBlack, GameEntry::getResult);
+            if (!violations.isEmpty()) {
+               throw new InvalidRoundException(violations);
+            }
+         } catch (RuntimeException e) {
+            throw toWebApplicationException(e);
+         }
+      }
+
+      Tenant tenant = tenant();
+      TournamentRegistry registry = tenant.getRegistry();
+      AdmissionController.Permit permit = null;
+      CompletableFuture<TournamentSnapshot> published;
+      try {
+         if (rate) {
+            int games = submission.getRounds() == null ? 0 : submission.getRounds().stream().mapToInt(List::size).sum();
+            permit = tenant.getAdmission().acquire(clientId(client),
+                  AdmissionController.ratingCost(players.size(), games));
+         }
+         published = CompletableFuture.completedFuture(tenant.register(id, players));
+         if (submission.getRounds() != null) {
+            for (List<GameEntry> round : submission.getRounds()) {
+               published = registry.addRound(id, toRecords(round));
+            }
+         }
+         if (rate) {
+            published = publishWhenRated(tenant, registry.rate(id));
+         }
+      } catch (RuntimeException e) {
+         if (permit != null) {
+            permit.release();
+         }
+         throw toWebApplicationException(e);
+      }
+      resume(response, releaseWhenDone(published, permit), Response.Status.CREATED);
+   }
+
+   /**
+    * Returns the last published snapshot of a tournament, used to poll the standing.
+    *
+    * @param id Tournament id.
+    * @return The snapshot.
+    */
+   @GET
+   @Path("{id}")
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public TournamentSnapshot getTournament(@PathParam("id") String id) {
+      TournamentSnapshot snapshot = tenant().getRegistry().getSnapshot(id);
+      if (snapshot == null) {
+         throw new NotFoundException("Unknown tournament " + id);
+      }
+      return snapshot;
+   }
+
+   /**
+    * Removes a tournament, whether rated or not, and returns its heap to the quota of the tenant.
+    *
+    * @param id Tournament id.
+    * @return An empty response with status 204.
+    */
+   @DELETE
+   @Path("{id}")
+   public Response deleteTournament(@PathParam("id") String id) {
+      boolean removed;
+      try {
+         removed = tenant().remove(id);
+      } catch (RuntimeException e) {
+         throw toWebApplicationException(e);
+      }
+      if (!removed) {
+         throw new NotFoundException("Unknown tournament " + id);
+      }
+      return Response.noContent().build();
+   }
+
+   /**
+    * Adds a round of games to a tournament.
+    *
+    * @param id       Tournament id.
+    * @param games    Games of the round.
+    * @param response Resumed with the snapshot published once the round is added.
+    */
+   @POST
+   @Path("{id}/rounds")
+   @Consumes({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public void addRound(@PathParam("id") String id, List<GameEntry> games, @Suspended AsyncResponse response) {
+      if (games == null) {
+         throw new BadRequestException("A round needs a list of games");
+      }
+      try {
+         resume(response, tenant().getRegistry().addRound(id, toRecords(games)), Response.Status.OK);
+      } catch (RuntimeException e) {
+         throw toWebApplicationException(e);
+      }
+   }
+
+   /**
+    * Adds the results of a tournament streamed as newline delimited JSON over a single chunked request, such as the
+    * results relayed from electronic boards. The results are added in micro-batches and each batch is acknowledged
+    * by a line of the response as soon as it is applied, see {@link ResultStreamIngester}.
+    *
+    * @param id      Tournament id.
+    * @param results The results, one JSON object per line.
+    * @return The acknowledgements, one JSON object per line.
+    */
+   @POST
+   @Path("{id}/results:stream")
+   @Consumes(ChessMediaTypes.APPLICATION_NDJSON)
+   @Produces(ChessMediaTypes.APPLICATION_NDJSON)
+   public Response streamResults(@PathParam("id") String id, InputStream results) {
+      getTournament(id);
+      TournamentRegistry registry = tenant().getRegistry();
+      StreamingOutput acknowledgements = out -> new ResultStreamIngester(registry, id, RESULT_STREAM_BATCH_SIZE)
+            .ingest(results, out);
+      return Response.ok(acknowledgements).build();
+   }
+
+   /**
+    * Page of the crosstable of a tournament as JSON: for each row, the games against the opponents of the columns
+    * of the page with their colors, results and the rating adjustment of the pair. The players are in registration
+    * order until the tournament is rated, then sorted on the standing.
+    *
+    * @param id           Tournament id.
+    * @param rowOffset    Position of the first row.
+    * @param rowLimit     Maximum number of rows, at most 1000.
+    * @param columnOffset Position of the first column.
+    * @param columnLimit  Maximum number of columns, at most 1000.
+    * @param response     Resumed with the page, streamed row by row.
+    */
+   @GET
+   @Path("{id}/crosstable")
+   @Produces(MediaType.APPLICATION_JSON)
+   public void getCrosstableJson(@PathParam("id") String id,
+                                 @QueryParam("rowOffset") @DefaultValue("0") int rowOffset,
+                                 @QueryParam("rowLimit") @DefaultValue("100") int rowLimit,
+                                 @QueryParam("columnOffset") @DefaultValue("0") int columnOffset,
+                                 @QueryParam("columnLimit") @DefaultValue("100") int columnLimit,
+                                 @Suspended AsyncResponse response) {
+      resumeCrosstable(response, id, rowOffset, rowLimit, columnOffset, columnLimit, false);
+   }
+
+   /**
+    * Page of the crosstable of a tournament as CSV, see {@link CrosstableWriter}.
+    *
+    * @see #getCrosstableJson(String, int, int, int, int, AsyncResponse)
+    */
+   @GET
+   @Path("{id}/crosstable")
+   @Produces(ChessMediaTypes.TEXT_CSV)
+   public void getCrosstableCsv(@PathParam("id") String id,
+                                @QueryParam("rowOffset") @DefaultValue("0") int rowOffset,
+                                @QueryParam("rowLimit") @DefaultValue("100") int rowLimit,
+                                @QueryParam("columnOffset") @DefaultValue("0") int columnOffset,
+                                @QueryParam("columnLimit") @DefaultValue("100") int columnLimit,
+                                @Suspended AsyncResponse response) {
+      resumeCrosstable(response, id, rowOffset, rowLimit, columnOffset, columnLimit, true);
+   }
+
+   private void resumeCrosstable(AsyncResponse response, String id, int rowOffset, int rowLimit, int columnOffset,
+                                 int columnLimit, boolean csv) {
+      checkPage("row", rowOffset, rowLimit);
+      checkPage("column", columnOffset, columnLimit);
+      CompletableFuture<Crosstable> crosstable;
+      try {
+         crosstable = tenant().getRegistry().getCrosstable(id);
+      } catch (RuntimeException e) {
+         throw toWebApplicationException(e);
+      }
+      crosstable.whenComplete((table, error) -> {
+         if (error != null) {
+            response.resume(toWebApplicationException(error));
+            return;
+         }
+         CrosstableWriter writer = new CrosstableWriter(table, rowOffset, rowLimit, columnOffset, columnLimit);
+         StreamingOutput page = csv ? writer::writeCsv : writer::writeJson;
+         response.resume(Response.ok(page, csv ? ChessMediaTypes.TEXT_CSV + ";charset=UTF-8"
+               : MediaType.APPLICATION_JSON).build());
+      });
+   }
+
+   private static void checkPage(String name, int offset, int limit) {
+      if (offset < 0 || limit < 0 || limit > MAX_CROSSTABLE_LIMIT) {
+         throw new BadRequestException("The " + name + " offset must not be negative and the " + name
+               + " limit must be between 0 and " + MAX_CROSSTABLE_LIMIT);
+      }
+   }
+
+   /**
+    * Explains the new rating of a player of a rated tournament game by game: opponent, opponent rating, expected and
+    * actual scores and rating adjustment of each game, then the bonus. The breakdown is computed on request from the
+    * games of the player.
+    *
+    * @param id       Tournament id.
+    * @param playerId Player id.
+    * @param response Resumed with the breakdown, or with status 409 if the tournament is not rated.
+    */
+   @GET
+   @Path("{id}/players/{playerId}/breakdown")
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public void getRatingBreakdown(@PathParam("id") String id, @PathParam("playerId") int playerId,
+                                  @Suspended AsyncResponse response) {
+      try {
+         resume(response, tenant().getRegistry().getRatingBreakdown(id, playerId), Response.Status.OK);
+      } catch (RuntimeException e) {
+         throw toWebApplicationException(e);
+      }
+   }
+
+   /**
+    * Rates a tournament.
+    *
+    * @param id       Tournament id.
+    * @param response Resumed with the snapshot published once the ratings are computed and published to the player
+    *                 list.
+    */
+   @POST
+   @Path("{id}/rate")
+   @Produces({MediaType.APPLICATION_JSON, ChessMediaTypes.APPLICATION_SMILE, ChessMediaTypes.APPLICATION_CBOR})
+   public void rateTournament(@PathParam("id") String id,
+                              @HeaderParam(CLIENT_ID_HEADER) String client,
+                              @Suspended AsyncResponse response) {
+      TournamentSnapshot snapshot = getTournament(id);
+      Tenant tenant = tenant();
+      AdmissionController.Permit permit = null;
+      try {
+         permit = tenant.getAdmission().acquire(clientId(client),
+               AdmissionController.ratingCost(snapshot.getStanding().size(), snapshot.getGameCount()));
+         resume(response, releaseWhenDone(publishWhenRated(tenant, tenant.getRegistry().rate(id)), permit),
+               Response.Status.OK);
+      } catch (RuntimeException e) {
+         if (permit != null) {
+            permit.release();
+         }
+         throw toWebApplicationException(e);
+      }
+   }
+
+   private static String clientId(String client) {
+      return client == null || client.isEmpty() ? ANONYMOUS_CLIENT : client;
+   }
+
+   private static <T> CompletableFuture<T> releaseWhenDone(CompletableFuture<T> future,
+                                                          AdmissionController.Permit permit) {
+      if (permit != null) {
+         future.whenComplete((result, error) -> permit.release());
+      }
+      return future;
+   }
+
+   /**
+    * Publishes the new ratings to the player list of the tenant, as one version, before the rating is acknowledged.
+    */
+   private static CompletableFuture<TournamentSnapshot> publishWhenRated(Tenant tenant,
+                                                                         CompletableFuture<TournamentSnapshot> rated) {
+      return rated.thenApply(snapshot -> {
+         ChessService.publishRatings(tenant, snapshot);
+         return snapshot;
+      });
+   }
+
+   private static List<GameRecord> toRecords(List<GameEntry> games) {
+      List<GameRecord> records = new ArrayList<>(games.size());
+      for (GameEntry game : games) {
+         records.add(game.toRecord());
+      }
+      return records;
+   }
+
+   private static <T> void resume(AsyncResponse response, CompletableFuture<T> published, Response.Status status) {
+      published.whenComplete((entity, error) -> {
+         if (error == null) {
+            response.resume(Response.status(status).entity(entity).build());
+         } else {
+            response.resume(toWebApplicationException(error));
+         }
+      });
+   }
+
+   /**
+    * Maps the exceptions of the registry to HTTP errors.
+    */
+   static WebApplicationException toWebApplicationException(Throwable error) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+      if (cause instanceof WebApplicationException) {
+         return (WebApplicationException) cause;
+      } else if (cause instanceof AdmissionRejectedException) {
+         return new WebApplicationException(cause.getMessage(), Response.status(TOO_MANY_REQUESTS)
+               .header(HttpHeaders.RETRY_AFTER, ((AdmissionRejectedException) cause).getRetryAfterSeconds())
+               .type(MediaType.TEXT_PLAIN)
+               .entity(cause.getMessage())
+               .build());
+      } else if (cause instanceof TenantQuotaExceededException) {
+         return new WebApplicationException(cause.getMessage(), Response.status(TOO_MANY_REQUESTS)
+               .type(MediaType.TEXT_PLAIN)
+               .entity(cause.getMessage())
+               .build());
+      } else if (cause instanceof InvalidRoundException) {
+         return new BadRequestException(cause.getMessage(), Response.status(Response.Status.BAD_REQUEST)
+               .type(MediaType.APPLICATION_JSON)
+               .entity(((InvalidRoundException) cause).getViolations())
+               .build());
+      } else if (cause instanceof NoSuchElementException) {
+         return new NotFoundException(cause.getMessage());
+      } else if (cause instanceof IllegalArgumentException) {
+         return new BadRequestException(cause.getMessage());
+      } else if (cause instanceof IllegalStateException) {
+         return new ClientErrorException(cause.getMessage(), Response.Status.CONFLICT);
+      }
+      return new InternalServerErrorException(cause);
+   }
+}
@@ -0,0 +1,214 @@
+package chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
+
+import chess.api.PreviewRequest;
+import chess.api.TournamentSubmission;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.store.PlayerField;
+
+/**
+ * Warm-up stage run at startup so that the rating code and the JSON serialization are compiled by the JIT before
+ * real traffic arrives. Synthetic tournaments mixing unrated, provisional and permanent players are rated and
+ * serialized through the same {@link JacksonJsonProvider} as the responses, until the time budget
+ * ({@code chess.warmup.millis}, 20 s by default) or the iteration budget ({@code chess.warmup.iterations}, 5000 by
+ * default) is spent, whichever comes first. A budget of 0 disables the warm-up.
+ * <p>
+ * The service answers requests during the warm-up, but {@link HealthService} reports it as not ready until the
+ * warm-up is done, so that a load balancer only routes traffic to warm instances.
+ */
+public final class WarmUp implements Runnable {
+
+   private static final WarmUp INSTANCE = new WarmUp(Long.getLong("chess.warmup.millis", 20_000),
+         Integer.getInteger("chess.warmup.iterations", 5000));
+
+   private static final int PLAYERS = 16;
+   private static final int ROUNDS = 5;
+
+   private static final byte[] SUBMISSION = ("{\"id\":\"warm-up\",\"players\":[{\"id\":1,\"lastName\":\"Doe\","
+         + "\"firstName\":\"John\",\"rating\":1500.0},{\"id\":2,\"lastName\":\"Roe\",\"firstName\":\"Jane\","
+         + "\"rating\":0.0}],\"rounds\":[[{\"white\":1,\"black\":2,\"result\":0.5}]]}")
+         .getBytes(StandardCharsets.UTF_8);
+
+   @SuppressWarnings("unchecked")
+   private static final Class<Object> SUBMISSION_TYPE = (Class<Object>) (Class<?>) TournamentSubmission.class;
+
+   private static final OutputStream DISCARD = new OutputStream() {
+      @Override
+      public void write(int b) {
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+      }
+   };
+
+   private final long millis;
+
+   private final int iterations;
+
+   private final AtomicBoolean started = new AtomicBoolean(false);
+
+   private final CountDownLatch done = new CountDownLatch(1);
+
+   private volatile int completedIterations = 0;
+
+   private volatile long elapsedMillis = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param millis     Time budget in milliseconds.
+    * @param iterations Maximum number of synthetic tournaments.
+    */
+   public WarmUp(long millis, int iterations) {
+      this.millis = millis;
+      this.iterations = iterations;
+   }
+
+   /**
+    * The warm-up of this service, configured by the system properties.
+    *
+    * @return The warm-up.
+    */
+   public static WarmUp get() {
+      return INSTANCE;
+   }
+
+   /**
+    * Starts the warm-up on a background thread. Later calls do nothing.
+    */
+   public void start() {
+      if (started.compareAndSet(false, true)) {
+         Thread thread = new Thread(this, "warm-up");
+         thread.setDaemon(true);
+         thread.start();
+      }
+   }
+
+   /**
+    * Runs the warm-up on the calling thread. A failure of the synthetic load is reported and ends the warm-up, so
+    * that it never keeps the service out of the load balancer.
+    */
+   @Override
+   public void run() {
+      started.set(true);
+      long start = System.nanoTime();
+      long deadline = start + TimeUnit.MILLISECONDS.toNanos(millis);
+      try {
+         JacksonJsonProvider provider = new JacksonJsonProvider();
+         Random random = new Random(42);
+         for (int i = 0; i < iterations && System.nanoTime() - deadline < 0; i++) {
+            iteration(provider, random);
+            completedIterations = i + 1;
+         }
+      } catch (IOException | RuntimeException e) {
+         System.err.println("Warm-up stopped after " + completedIterations + " iterations: " + e);
+      } finally {
+         elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+         done.countDown();
+      }
+   }
+
+   public boolean isReady() {
+      return done.getCount() == 0;
+   }
+
+   /**
+    * Waits for the end of the warm-up.
+    *
+    * @param timeout Maximum time to wait.
+    * @param unit    Unit of the timeout.
+    * @return Whether the warm-up is done.
+    * @throws InterruptedException If interrupted while waiting.
+    */
+   public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+      return done.await(timeout, unit);
+   }
+
+   public int getCompletedIterations() {
+      return completedIterations;
+   }
+
+   /**
+    * Duration of the warm-up, once done.
+    *
+    * @return The duration in milliseconds, 0 while the warm-up runs.
+    */
+   public long getElapsedMillis() {
+      return elapsedMillis;
+   }
+
+   private static void iteration(JacksonJsonProvider provider, Random random) throws IOException {
+      Tournament tournament = syntheticTournament(random);
+      tournament.computeTournamentRatings();
+      List<Player> standing = Arrays.asList(tournament.getPlayersStanding());
+
+      MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+      Annotation[] annotations = new Annotation[0];
+      provider.writeTo(standing, standing.getClass(), standing.getClass(), annotations,
+            MediaType.APPLICATION_JSON_TYPE, headers, DISCARD);
+      Object projected = PlayerField.project(standing, PlayerField.parse("id,fullName,rating"));
+      provider.writeTo(projected, projected.getClass(), projected.getClass(), annotations,
+            MediaType.APPLICATION_JSON_TYPE, headers, DISCARD);
+      provider.readFrom(SUBMISSION_TYPE, TournamentSubmission.class, annotations, MediaType.APPLICATION_JSON_TYPE,
+            new MultivaluedHashMap<>(), new ByteArrayInputStream(SUBMISSION));
+
+      PreviewRequest preview = new PreviewRequest();
+      preview.setFrom(-800.0);
+      preview.setTo(800.0);
+      preview.setStep(10.0);
+      Object result = new ChessService().preview(preview);
+      provider.writeTo(result, result.getClass(), result.getClass(), annotations, MediaType.APPLICATION_JSON_TYPE,
+            headers, DISCARD);
+   }
+
+   /**
+    * A tournament of unrated, provisional and permanent players, paired at random with random results.
+    */
+   private static Tournament syntheticTournament(Random random) {
+      List<Player> players = new ArrayList<>(PLAYERS);
+      for (int i = 0; i < PLAYERS; i++) {
+         Player player;
+         if (i % 4 == 0) {
+            player = new Player("Unrated", "Player" + i, 0, 0);
+         } else if (i % 4 == 1) {
+            player = new Player("Provisional", "Player" + i, 1000 + random.nextInt(800), 1 + random.nextInt(23));
+         } else {
+            player = new Player("Permanent", "Player" + i, 1000 + random.nextInt(1400));
+         }
+         player.setId(i + 1);
+         players.add(player);
+      }
+      Tournament tournament = new Tournament(players);
+      for (int r = 0; r < ROUNDS; r++) {
+         List<Player> shuffled = new ArrayList<>(players);
+         Collections.shuffle(shuffled, random);
+         Round round = new Round();
+         for (int i = 0; i < PLAYERS; i += 2) {
+            round.addGame(shuffled.get(i), shuffled.get(i + 1), random.nextInt(3) / 2.0);
+         }
+         tournament.addRound(round);
+      }
+      return tournament;
+   }
+}
@@ -0,0 +1,159 @@
+package chess.admission;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admission control of expensive requests such as tournament ratings. Each request carries an estimated cost, and
+ * is admitted only if the total cost of the admitted requests stays within the budget, if fewer than the maximum
+ * number of requests are admitted, and if its client has fewer than the per-client limit. Otherwise it is
+ * rejected immediately with an estimate of when to retry. There is no wait queue: the admitted requests are the
+ * ones in flight, and a rejected request is retried by its client.
+ * <p>
+ * The client id is the one declared by the caller and is not authenticated, so the per-client limit only keeps
+ * well-behaved clients from crowding each other out; a client sending a different id with each request escapes it,
+ * but stays bounded by the budget and the maximum number of admitted requests.
+ * <p>
+ * The cost of rating a tournament is estimated as players x games, which bounds the performance rating and
+ * result matrix passes of {@link chess.models.Tournament#computeTournamentRatings()}. A request costlier than
+ * the whole budget is only admitted when nothing else is.
+ */
+public class AdmissionController {
+
+   private static final double SMOOTHING = 0.2;
+
+   private final long costBudget;
+
+   private final int maxAdmitted;
+
+   private final int maxPerClient;
+
+   private final Map<String, Integer> admittedPerClient = new HashMap<>();
+
+   private long admittedCost = 0;
+
+   private int admitted = 0;
+
+   private long totalAdmitted = 0;
+
+   private long rejectedOverCapacity = 0;
+
+   private long rejectedOverClientLimit = 0;
+
+   /**
+    * Smoothed number of cost units completed per second, used to estimate when capacity frees up.
+    */
+   private double costPerSecond;
+
+   /**
+    * Constructor.
+    *
+    * @param costBudget   Maximum total cost of the admitted requests.
+    * @param maxAdmitted  Maximum number of admitted requests.
+    * @param maxPerClient Maximum number of admitted requests of a single client.
+    */
+   public AdmissionController(long costBudget, int maxAdmitted, int maxPerClient) {
+      this.costBudget = costBudget;
+      this.maxAdmitted = maxAdmitted;
+      this.maxPerClient = maxPerClient;
+      this.costPerSecond = costBudget;
+   }
+
+   /**
+    * Estimated cost of rating a tournament.
+    *
+    * @param players Number of players.
+    * @param games   Number of games.
+    * @return The cost.
+    */
+   public static long ratingCost(int players, int games) {
+      return Math.max(1, (long) players * Math.max(1, games));
+   }
+
+   /**
+    * Admits a request or rejects it immediately.
+    *
+    * @param client Client id, as declared by the caller.
+    * @param cost   Estimated cost of the request.
+    * @return The permit to release once the request completes.
+    * @throws AdmissionRejectedException If the service or the client is over capacity.
+    */
+   public synchronized Permit acquire(String client, long cost) {
+      int clientAdmitted = admittedPerClient.getOrDefault(client, 0);
+      if (clientAdmitted >= maxPerClient) {
+         rejectedOverClientLimit++;
+         throw new AdmissionRejectedException("Too many concurrent requests for client " + client, retryAfter());
+      }
+      boolean overBudget = admittedCost + cost > costBudget && admitted > 0;
+      if (admitted >= maxAdmitted || overBudget) {
+         rejectedOverCapacity++;
+         throw new AdmissionRejectedException("The service is over capacity", retryAfter());
+      }
+      admittedPerClient.put(client, clientAdmitted + 1);
+      admittedCost += cost;
+      admitted++;
+      totalAdmitted++;
+      return new Permit(client, cost);
+   }
+
+   private synchronized void release(Permit permit, long elapsedNanos) {
+      admittedCost -= permit.cost;
+      admitted--;
+      int clientAdmitted = admittedPerClient.get(permit.client) - 1;
+      if (clientAdmitted == 0) {
+         admittedPerClient.remove(permit.client);
+      } else {
+         admittedPerClient.put(permit.client, clientAdmitted);
+      }
+      double observed = permit.cost / Math.max(1e-3, elapsedNanos / 1e9);
+      costPerSecond = (1 - SMOOTHING) * costPerSecond + SMOOTHING * observed;
+   }
+
+   private long retryAfter() {
+      return Math.max(1, Math.min(60, (long) Math.ceil(admittedCost / costPerSecond)));
+   }
+
+   /**
+    * Current state and counters, exposed as metrics.
+    *
+    * @return The metrics by name.
+    */
+   public synchronized Map<String, Object> getMetrics() {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      metrics.put("inFlight", admitted);
+      metrics.put("inFlightCost", admittedCost);
+      metrics.put("costBudget", costBudget);
+      metrics.put("admitted", totalAdmitted);
+      metrics.put("rejectedOverCapacity", rejectedOverCapacity);
+      metrics.put("rejectedOverClientLimit", rejectedOverClientLimit);
+      metrics.put("costPerSecond", costPerSecond);
+      return metrics;
+   }
+
+   /**
+    * Admission of a request, to release exactly once when the request completes, successfully or not.
+    */
+   public final class Permit {
+
+      private final String client;
+      private final long cost;
+      private final long admittedAt = System.nanoTime();
+      private boolean released = false;
+
+      private Permit(String client, long cost) {
+         this.client = client;
+         this.cost = cost;
+      }
+
+      public void release() {
+         synchronized (AdmissionController.this) {
+            if (released) {
+               return;
+            }
+            released = true;
+            AdmissionController.this.release(this, System.nanoTime() - admittedAt);
+         }
+      }
+   }
+}
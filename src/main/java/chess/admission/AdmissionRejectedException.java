@@ -0,0 +1,25 @@
+package chess.admission;
+
+/**
+ * Thrown when a request is not admitted because the service or the client is over capacity.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+   private static final long serialVersionUID = 1L;
+
+   private final long retryAfterSeconds;
+
+   public AdmissionRejectedException(String message, long retryAfterSeconds) {
+      super(message);
+      this.retryAfterSeconds = retryAfterSeconds;
+   }
+
+   /**
+    * Estimated delay before capacity is available again.
+    *
+    * @return The delay in seconds, at least 1.
+    */
+   public long getRetryAfterSeconds() {
+      return retryAfterSeconds;
+   }
+}
@@ -0,0 +1,55 @@
+package chess.api;
+
+import chess.rating.GameRecord;
+
+/**
+ * JSON representation of a game result, players being referenced by id.
+ */
+public class GameEntry {
+
+   private int white;
+   private int black;
+   private double result;
+
+   public GameEntry() {
+   }
+
+   public GameEntry(int white, int black, double result) {
+      this.white = white;
+      this.black = black;
+      this.result = result;
+   }
+
+   public GameRecord toRecord() {
+      return new GameRecord(white, black, result);
+   }
+
+   public int getWhite() {
+      return white;
+   }
+
+   public void setWhite(int white) {
+      this.white = white;
+   }
+
+   public int getBlack() {
+      return black;
+   }
+
+   public void setBlack(int black) {
+      this.black = black;
+   }
+
+   /**
+    * Result : 1 if white wins, 0 if white loses, 0.5 in case of a draw.
+    *
+    * @return The result.
+    */
+   public double getResult() {
+      return result;
+   }
+
+   public void setResult(double result) {
+      this.result = result;
+   }
+}
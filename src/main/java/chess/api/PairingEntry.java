@@ -0,0 +1,53 @@
+package chess.api;
+
+/**
+ * JSON representation of a board to preview. Each player is given either by the id of a registered player or
+ * directly by a rating; a rating takes precedence over an id.
+ */
+public class PairingEntry {
+
+   private Integer white;
+   private Integer black;
+   private Double whiteRating;
+   private Double blackRating;
+
+   public PairingEntry() {
+   }
+
+   public PairingEntry(double whiteRating, double blackRating) {
+      this.whiteRating = whiteRating;
+      this.blackRating = blackRating;
+   }
+
+   public Integer getWhite() {
+      return white;
+   }
+
+   public void setWhite(Integer white) {
+      this.white = white;
+   }
+
+   public Integer getBlack() {
+      return black;
+   }
+
+   public void setBlack(Integer black) {
+      this.black = black;
+   }
+
+   public Double getWhiteRating() {
+      return whiteRating;
+   }
+
+   public void setWhiteRating(Double whiteRating) {
+      this.whiteRating = whiteRating;
+   }
+
+   public Double getBlackRating() {
+      return blackRating;
+   }
+
+   public void setBlackRating(Double blackRating) {
+      this.blackRating = blackRating;
+   }
+}
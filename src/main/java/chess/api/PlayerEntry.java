@@ -0,0 +1,79 @@
+package chess.api;
+
+import chess.models.Player;
+
+/**
+ * JSON representation of a player registered in a submitted tournament, with its rating before the tournament.
+ */
+public class PlayerEntry {
+
+   private int id;
+   private String lastName;
+   private String firstName;
+   private double rating;
+   private int unratedGamesPlayed;
+
+   public PlayerEntry() {
+   }
+
+   public PlayerEntry(int id, String lastName, String firstName, double rating, int unratedGamesPlayed) {
+      this.id = id;
+      this.lastName = lastName;
+      this.firstName = firstName;
+      this.rating = rating;
+      this.unratedGamesPlayed = unratedGamesPlayed;
+   }
+
+   /**
+    * Creates the {@link Player}, with a temporary rating when unrated games were played or when the rating is 0.
+    *
+    * @return A new {@link Player}.
+    */
+   public Player toPlayer() {
+      Player player = unratedGamesPlayed > 0 || rating == 0
+            ? new Player(lastName, firstName, rating, unratedGamesPlayed)
+            : new Player(lastName, firstName, rating);
+      player.setId(id);
+      return player;
+   }
+
+   public int getId() {
+      return id;
+   }
+
+   public void setId(int id) {
+      this.id = id;
+   }
+
+   public String getLastName() {
+      return lastName;
+   }
+
+   public void setLastName(String lastName) {
+      this.lastName = lastName;
+   }
+
+   public String getFirstName() {
+      return firstName;
+   }
+
+   public void setFirstName(String firstName) {
+      this.firstName = firstName;
+   }
+
+   public double getRating() {
+      return rating;
+   }
+
+   public void setRating(double rating) {
+      this.rating = rating;
+   }
+
+   public int getUnratedGamesPlayed() {
+      return unratedGamesPlayed;
+   }
+
+   public void setUnratedGamesPlayed(int unratedGamesPlayed) {
+      this.unratedGamesPlayed = unratedGamesPlayed;
+   }
+}
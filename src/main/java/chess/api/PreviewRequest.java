@@ -0,0 +1,47 @@
+package chess.api;
+
+import java.util.List;
+
+/**
+ * JSON representation of a rating change preview: either the pairings of a round or a grid of rating
+ * differences, from {@code from} to {@code to} by {@code step}.
+ */
+public class PreviewRequest {
+
+   private List<PairingEntry> pairings;
+   private Double from;
+   private Double to;
+   private Double step;
+
+   public List<PairingEntry> getPairings() {
+      return pairings;
+   }
+
+   public void setPairings(List<PairingEntry> pairings) {
+      this.pairings = pairings;
+   }
+
+   public Double getFrom() {
+      return from;
+   }
+
+   public void setFrom(Double from) {
+      this.from = from;
+   }
+
+   public Double getTo() {
+      return to;
+   }
+
+   public void setTo(Double to) {
+      this.to = to;
+   }
+
+   public Double getStep() {
+      return step;
+   }
+
+   public void setStep(Double step) {
+      this.step = step;
+   }
+}
@@ -0,0 +1,59 @@
+package chess.api;
+
+import chess.models.Game;
+
+/**
+ * JSON representation of a rating change preview, one column per value so that a large round stays compact.
+ * Index {@code i} of every column describes the board or the grid point {@code i} of the request, from the point of
+ * view of the white player; the deltas of the black player are the opposite values.
+ */
+public class PreviewResult {
+
+   private final double[] ratingDifferences;
+   private final double[] expectedScores;
+   private final double[] winDeltas;
+   private final double[] drawDeltas;
+   private final double[] lossDeltas;
+
+   /**
+    * Computes the expected scores and the rating deltas of a win, a draw and a loss, as given by
+    * {@link Game#getDelta}, for each rating difference.
+    *
+    * @param ratingDifferences Rating of the white player minus the rating of the black player.
+    */
+   public PreviewResult(double[] ratingDifferences) {
+      int count = ratingDifferences.length;
+      this.ratingDifferences = ratingDifferences;
+      this.expectedScores = new double[count];
+      this.winDeltas = new double[count];
+      this.drawDeltas = new double[count];
+      this.lossDeltas = new double[count];
+      for (int i = 0; i < count; i++) {
+         double difference = ratingDifferences[i];
+         expectedScores[i] = Game.getExpectedResult(difference);
+         winDeltas[i] = Game.getDelta(difference, 0, 1);
+         drawDeltas[i] = Game.getDelta(difference, 0, 0.5);
+         lossDeltas[i] = Game.getDelta(difference, 0, 0);
+      }
+   }
+
+   public double[] getRatingDifferences() {
+      return ratingDifferences;
+   }
+
+   public double[] getExpectedScores() {
+      return expectedScores;
+   }
+
+   public double[] getWinDeltas() {
+      return winDeltas;
+   }
+
+   public double[] getDrawDeltas() {
+      return drawDeltas;
+   }
+
+   public double[] getLossDeltas() {
+      return lossDeltas;
+   }
+}
@@ -0,0 +1,38 @@
+package chess.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON representation of a submitted tournament: its players and, optionally, the rounds already played.
+ */
+public class TournamentSubmission {
+
+   private String id;
+   private List<PlayerEntry> players = new ArrayList<>();
+   private List<List<GameEntry>> rounds = new ArrayList<>();
+
+   public String getId() {
+      return id;
+   }
+
+   public void setId(String id) {
+      this.id = id;
+   }
+
+   public List<PlayerEntry> getPlayers() {
+      return players;
+   }
+
+   public void setPlayers(List<PlayerEntry> players) {
+      this.players = players;
+   }
+
+   public List<List<GameEntry>> getRounds() {
+      return rounds;
+   }
+
+   public void setRounds(List<List<GameEntry>> rounds) {
+      this.rounds = rounds;
+   }
+}
@@ -0,0 +1,189 @@
+package chess.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import chess.models.Crosstable;
+
+/**
+ * Streams a page of a {@link Crosstable}, a range of rows and a range of columns, as JSON or as semicolon separated
+ * CSV. Rows are written one at a time from the games of the player, the page is never materialized.
+ * <p>
+ * In JSON, each row lists only the non-empty cells of the page, each with the games against one opponent. In CSV,
+ * each row has one column per opponent of the page, holding the games against this opponent as {@code +}, {@code =}
+ * or {@code -} followed by {@code B} for the first move (blancs) or {@code N} (noirs), and the round, then the
+ * rating adjustment of the pair in parentheses, such as {@code +B1 =N3 (+12.4)}.
+ */
+public final class CrosstableWriter {
+
+   private static final JsonFactory JSON = new JsonFactory();
+
+   private final Crosstable crosstable;
+   private final int rowFrom;
+   private final int rowTo;
+   private final int columnFrom;
+   private final int columnTo;
+
+   /**
+    * Constructor. The ranges are clipped to the size of the crosstable.
+    *
+    * @param crosstable   The crosstable.
+    * @param rowOffset    Position of the first row.
+    * @param rowLimit     Maximum number of rows.
+    * @param columnOffset Position of the first column.
+    * @param columnLimit  Maximum number of columns.
+    */
+   public CrosstableWriter(Crosstable crosstable, int rowOffset, int rowLimit, int columnOffset, int columnLimit) {
+      if (rowOffset < 0 || rowLimit < 0 || columnOffset < 0 || columnLimit < 0) {
+         throw new IllegalArgumentException("Offsets and limits must not be negative");
+      }
+      this.crosstable = crosstable;
+      this.rowFrom = Math.min(rowOffset, crosstable.size());
+      this.rowTo = (int) Math.min((long) rowOffset + rowLimit, crosstable.size());
+      this.columnFrom = Math.min(columnOffset, crosstable.size());
+      this.columnTo = (int) Math.min((long) columnOffset + columnLimit, crosstable.size());
+   }
+
+   /**
+    * Writes the page as a JSON object.
+    *
+    * @param out The output, left open.
+    * @throws IOException If the output cannot be written.
+    */
+   public void writeJson(OutputStream out) throws IOException {
+      try (JsonGenerator json = JSON.createGenerator(out)) {
+         json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+         json.writeStartObject();
+         json.writeNumberField("players", crosstable.size());
+         json.writeNumberField("rounds", crosstable.getRoundCount());
+         json.writeNumberField("rowOffset", rowFrom);
+         json.writeNumberField("columnOffset", columnFrom);
+         json.writeArrayFieldStart("rows");
+         for (int row = rowFrom; row < rowTo; row++) {
+            json.writeStartObject();
+            json.writeNumberField("rank", row + 1);
+            json.writeNumberField("id", crosstable.getId(row));
+            json.writeStringField("name", crosstable.getFullName(row));
+            json.writeNumberField("oldRating", crosstable.getOldRating(row));
+            json.writeNumberField("rating", crosstable.getRating(row));
+            json.writeNumberField("score", crosstable.getScore(row));
+            json.writeArrayFieldStart("cells");
+            int[] open = {-1};
+            crosstable.forEachGame(row, columnFrom, columnTo, (column, round, white, result, delta) -> {
+               try {
+                  if (column != open[0]) {
+                     if (open[0] >= 0) {
+                        json.writeEndArray();
+                        json.writeEndObject();
+                     }
+                     open[0] = column;
+                     json.writeStartObject();
+                     json.writeNumberField("rank", column + 1);
+                     json.writeNumberField("opponent", crosstable.getId(column));
+                     json.writeNumberField("delta", delta);
+                     json.writeArrayFieldStart("games");
+                  }
+                  json.writeStartObject();
+                  json.writeNumberField("round", round + 1);
+                  json.writeStringField("color", white ? "white" : "black");
+                  json.writeNumberField("result", result);
+                  json.writeEndObject();
+               } catch (IOException e) {
+                  throw new java.io.UncheckedIOException(e);
+               }
+            });
+            if (open[0] >= 0) {
+               json.writeEndArray();
+               json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+         }
+         json.writeEndArray();
+         json.writeEndObject();
+      } catch (java.io.UncheckedIOException e) {
+         throw e.getCause();
+      }
+   }
+
+   /**
+    * Writes the page as CSV, with a header line naming the opponents by rank.
+    *
+    * @param out The output, left open.
+    * @throws IOException If the output cannot be written.
+    */
+   public void writeCsv(OutputStream out) throws IOException {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+      writer.write("Rang;Id;Nom;Ancienne cote;Nouvelle cote;Points");
+      for (int column = columnFrom; column < columnTo; column++) {
+         writer.write(';');
+         writer.write(Integer.toString(column + 1));
+      }
+      writer.write('\n');
+      StringBuilder cell = new StringBuilder();
+      for (int row = rowFrom; row < rowTo; row++) {
+         writer.write(Integer.toString(row + 1));
+         writer.write(';');
+         writer.write(Integer.toString(crosstable.getId(row)));
+         writer.write(';');
+         writer.write(csvString(crosstable.getFullName(row)));
+         writer.write(';');
+         writer.write(Long.toString(Math.round(crosstable.getOldRating(row))));
+         writer.write(';');
+         writer.write(Long.toString(Math.round(crosstable.getRating(row))));
+         writer.write(';');
+         writer.write(Double.toString(crosstable.getScore(row)));
+         int[] written = {columnFrom};
+         double[] openDelta = {Double.NaN};
+         crosstable.forEachGame(row, columnFrom, columnTo, (column, round, white, result, delta) -> {
+            if (written[0] <= column) {
+               appendDelta(cell, openDelta[0]);
+               while (written[0] <= column) {
+                  cell.append(';');
+                  written[0]++;
+               }
+               openDelta[0] = delta;
+            } else {
+               cell.append(' ');
+            }
+            cell.append(result == 1 ? '+' : result == 0 ? '-' : '=').append(white ? 'B' : 'N').append(round + 1);
+         });
+         appendDelta(cell, openDelta[0]);
+         while (written[0] < columnTo) {
+            cell.append(';');
+            written[0]++;
+         }
+         writer.append(cell);
+         cell.setLength(0);
+         writer.write('\n');
+      }
+      writer.flush();
+   }
+
+   /**
+    * Closes the cell of the games against an opponent with their rating adjustment, if a cell is open.
+    */
+   private static void appendDelta(StringBuilder cell, double delta) {
+      if (!Double.isNaN(delta)) {
+         cell.append(" (").append(String.format(Locale.ROOT, "%+.1f", delta)).append(')');
+      }
+   }
+
+   private static String csvString(String value) {
+      if (value == null) {
+         return "";
+      }
+      if (value.indexOf(';') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+         return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+   }
+}
@@ -0,0 +1,404 @@
+package chess.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import chess.models.Player;
+
+/**
+ * Exports a complete rating list, such as the monthly list of the federation, to a CSV or JSON lines file.
+ * <p>
+ * The players are sorted with {@link Arrays#parallelSort} and split in chunks of consecutive rows. Each worker
+ * owns one fixed size buffer and encodes the chunks it claims in two passes: the first pass only measures the
+ * encoded length of every chunk, the prefix sum of these lengths gives the file offset of each chunk, and the
+ * second pass encodes the chunks again and writes them at their offset with positional writes. The workers never
+ * wait on each other while writing and the memory used for encoding is {@code parallelism * bufferSize}, whatever
+ * the number of players.
+ * <p>
+ * Ratings are rounded to the nearest integer with ties to even, as the {@code DecimalFormat} used by
+ * {@link chess.models.Tournament#printTournamentReportToCsvFile(String)} does.
+ */
+public final class RatingListExporter {
+
+   /**
+    * Order of the rows of the list.
+    */
+   public enum Order {
+      /**
+       * Highest rating first, then by name.
+       */
+      RATING(Comparator.comparingDouble((SortKey key) -> key.player.getRating()).reversed()
+            .thenComparing(RatingListExporter::compareNames)),
+      /**
+       * Alphabetical order of the full names.
+       */
+      NAME(RatingListExporter::compareNames);
+
+      private final Comparator<SortKey> comparator;
+
+      Order(Comparator<SortKey> comparator) {
+         this.comparator = comparator.thenComparingInt(key -> key.player.getId());
+      }
+   }
+
+   /**
+    * Encoding of the rows.
+    */
+   public enum Format {
+      /**
+       * Semicolon separated values with a header row, like the tournament reports.
+       */
+      CSV,
+      /**
+       * One JSON object per line, without header.
+       */
+      JSON_LINES
+   }
+
+   static final String CSV_HEADER = "Id;Nom;Cote;Cote permanente;Parties provisoires\n";
+
+   private static final int DEFAULT_ROWS_PER_CHUNK = 4096;
+   private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+   private final Order order;
+   private final Format format;
+   private final Executor executor;
+   private final int parallelism;
+   private final int rowsPerChunk;
+   private final int bufferSize;
+
+   /**
+    * Creates an exporter running on the common fork-join pool.
+    *
+    * @param order  Order of the rows.
+    * @param format Encoding of the rows.
+    */
+   public RatingListExporter(Order order, Format format) {
+      this(order, format, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(),
+            DEFAULT_ROWS_PER_CHUNK, DEFAULT_BUFFER_SIZE);
+   }
+
+   /**
+    * Creates an exporter.
+    *
+    * @param order        Order of the rows.
+    * @param format       Encoding of the rows.
+    * @param executor     Executor running the encoding workers.
+    * @param parallelism  Number of encoding workers, each owning one buffer.
+    * @param rowsPerChunk Number of rows in a chunk, the unit of work claimed by a worker.
+    * @param bufferSize   Size in bytes of the buffer of a worker.
+    */
+   public RatingListExporter(Order order, Format format, Executor executor, int parallelism, int rowsPerChunk,
+                             int bufferSize) {
+      if (parallelism < 1 || rowsPerChunk < 1 || bufferSize < 1) {
+         throw new IllegalArgumentException("parallelism, rowsPerChunk and bufferSize must be positive");
+      }
+      this.order = order;
+      this.format = format;
+      this.executor = executor;
+      this.parallelism = parallelism;
+      this.rowsPerChunk = rowsPerChunk;
+      this.bufferSize = bufferSize;
+   }
+
+   /**
+    * Sorts the players and writes the rating list to a file, replacing it if it exists. The collection is copied
+    * before sorting and is not modified.
+    *
+    * @param players Players of the list.
+    * @param path    Destination file.
+    * @return The size of the file in bytes.
+    * @throws IOException Thrown if IO problems with file generation.
+    */
+   public long export(Collection<Player> players, Path path) throws IOException {
+      SortKey[] keys = new SortKey[players.size()];
+      int index = 0;
+      for (Player player : players) {
+         keys[index++] = new SortKey(player);
+      }
+      Arrays.parallelSort(keys, order.comparator);
+      Player[] sorted = new Player[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+         sorted[i] = keys[i].player;
+      }
+
+      byte[] header = format == Format.CSV ? CSV_HEADER.getBytes(StandardCharsets.UTF_8) : new byte[0];
+      int chunkCount = (sorted.length + rowsPerChunk - 1) / rowsPerChunk;
+      long[] offsets = new long[chunkCount + 1];
+
+      runWorkers(chunkCount, buffer -> new ChunkEncoder(sorted, buffer) {
+         @Override
+         void flush(int chunk, long position) {
+            offsets[chunk + 1] += buffer.position();
+            buffer.clear();
+         }
+      });
+
+      offsets[0] = header.length;
+      for (int chunk = 0; chunk < chunkCount; chunk++) {
+         offsets[chunk + 1] += offsets[chunk];
+      }
+
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+         writeFully(channel, ByteBuffer.wrap(header), 0);
+         runWorkers(chunkCount, buffer -> new ChunkEncoder(sorted, buffer) {
+            @Override
+            void flush(int chunk, long position) {
+               buffer.flip();
+               try {
+                  writeFully(channel, buffer, offsets[chunk] + position);
+               } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+               }
+               buffer.clear();
+            }
+         });
+         return offsets[chunkCount];
+      }
+   }
+
+   /**
+    * Starts the workers, each claiming chunks until none are left, and waits for all of them.
+    */
+   private void runWorkers(int chunkCount, Function<ByteBuffer, ChunkEncoder> encoders)
+         throws IOException {
+      AtomicInteger nextChunk = new AtomicInteger();
+      int workers = Math.max(1, Math.min(parallelism, chunkCount));
+      CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+      for (int i = 0; i < workers; i++) {
+         futures[i] = CompletableFuture.runAsync(() -> {
+            ChunkEncoder encoder = encoders.apply(ByteBuffer.allocateDirect(bufferSize));
+            for (int chunk = nextChunk.getAndIncrement(); chunk < chunkCount; chunk = nextChunk.getAndIncrement()) {
+               encoder.encodeChunk(chunk);
+            }
+         }, executor);
+      }
+      try {
+         CompletableFuture.allOf(futures).join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) e.getCause()).getCause();
+         }
+         throw e;
+      }
+   }
+
+   private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+      while (buffer.hasRemaining()) {
+         position += channel.write(buffer, position);
+      }
+   }
+
+   private static int compareNames(SortKey a, SortKey b) {
+      int compare = String.CASE_INSENSITIVE_ORDER.compare(a.fullName, b.fullName);
+      return compare != 0 ? compare : a.fullName.compareTo(b.fullName);
+   }
+
+   /**
+    * A player with its full name, which is computed once before sorting rather than at every comparison.
+    */
+   private static final class SortKey {
+
+      final Player player;
+      final String fullName;
+
+      SortKey(Player player) {
+         this.player = player;
+         this.fullName = player.getFullName();
+      }
+   }
+
+   /**
+    * Encodes the rows of a chunk into the buffer of a worker, handing the buffer to {@link #flush} whenever it is
+    * full and once at the end of the chunk.
+    */
+   private abstract class ChunkEncoder {
+
+      private final Player[] players;
+      final ByteBuffer buffer;
+      private int chunk;
+      private long chunkPosition;
+
+      ChunkEncoder(Player[] players, ByteBuffer buffer) {
+         this.players = players;
+         this.buffer = buffer;
+      }
+
+      /**
+       * Consumes the bytes of the buffer, which are located at {@code position} relative to the start of the chunk,
+       * and clears the buffer.
+       */
+      abstract void flush(int chunk, long position);
+
+      void encodeChunk(int chunk) {
+         this.chunk = chunk;
+         this.chunkPosition = 0;
+         int end = Math.min(players.length, (chunk + 1) * rowsPerChunk);
+         for (int i = chunk * rowsPerChunk; i < end; i++) {
+            if (format == Format.CSV) {
+               encodeCsv(players[i]);
+            } else {
+               encodeJson(players[i]);
+            }
+         }
+         flushBuffer();
+      }
+
+      private void encodeCsv(Player player) {
+         putLong(player.getId());
+         put(';');
+         putCsvString(player.getFullName());
+         put(';');
+         putLong((long) Math.rint(player.getRating()));
+         put(';');
+         putAscii(player.isRatingPermanent() ? "oui" : "non");
+         put(';');
+         putLong(player.getUnratedGamesPlayed());
+         put('\n');
+      }
+
+      private void encodeJson(Player player) {
+         putAscii("{\"id\":");
+         putLong(player.getId());
+         putAscii(",\"fullName\":");
+         putJsonString(player.getFullName());
+         putAscii(",\"rating\":");
+         putLong((long) Math.rint(player.getRating()));
+         putAscii(",\"ratingPermanent\":");
+         putAscii(player.isRatingPermanent() ? "true" : "false");
+         putAscii(",\"unratedGamesPlayed\":");
+         putLong(player.getUnratedGamesPlayed());
+         putAscii("}\n");
+      }
+
+      private void putCsvString(String value) {
+         boolean quoted = false;
+         for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ';' || c == '"' || c == '\n' || c == '\r';
+         }
+         if (!quoted) {
+            putUtf8(value);
+            return;
+         }
+         put('"');
+         for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+               put('"');
+            }
+            i = putUtf8Char(value, i);
+         }
+         put('"');
+      }
+
+      private void putJsonString(String value) {
+         put('"');
+         for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+               put('\\');
+               put(c);
+            } else if (c < 0x20) {
+               putAscii("\\u00");
+               put(Character.forDigit(c >> 4, 16));
+               put(Character.forDigit(c & 0xF, 16));
+            } else {
+               i = putUtf8Char(value, i);
+            }
+         }
+         put('"');
+      }
+
+      private void putUtf8(String value) {
+         for (int i = 0; i < value.length(); i++) {
+            i = putUtf8Char(value, i);
+         }
+      }
+
+      /**
+       * Encodes the character at {@code index}, or the surrogate pair starting there.
+       *
+       * @return The index of the last char consumed.
+       */
+      private int putUtf8Char(String value, int index) {
+         char c = value.charAt(index);
+         if (c < 0x80) {
+            put(c);
+         } else if (c < 0x800) {
+            put(0xC0 | c >> 6);
+            put(0x80 | c & 0x3F);
+         } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+               && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            put(0xF0 | codePoint >> 18);
+            put(0x80 | codePoint >> 12 & 0x3F);
+            put(0x80 | codePoint >> 6 & 0x3F);
+            put(0x80 | codePoint & 0x3F);
+            return index + 1;
+         } else if (Character.isSurrogate(c)) {
+            put('?');
+         } else {
+            put(0xE0 | c >> 12);
+            put(0x80 | c >> 6 & 0x3F);
+            put(0x80 | c & 0x3F);
+         }
+         return index;
+      }
+
+      private void putAscii(String value) {
+         for (int i = 0; i < value.length(); i++) {
+            put(value.charAt(i));
+         }
+      }
+
+      /**
+       * Writes the decimal digits of a value without the intermediate String of {@link Long#toString(long)}.
+       */
+      private void putLong(long value) {
+         if (value < 0) {
+            put('-');
+            if (value == Long.MIN_VALUE) {
+               putAscii("9223372036854775808");
+               return;
+            }
+            value = -value;
+         }
+         long divisor = 1;
+         while (divisor <= value / 10) {
+            divisor *= 10;
+         }
+         for (; divisor > 0; divisor /= 10) {
+            put('0' + (int) (value / divisor % 10));
+         }
+      }
+
+      private void put(int b) {
+         if (!buffer.hasRemaining()) {
+            flushBuffer();
+         }
+         buffer.put((byte) b);
+      }
+
+      private void flushBuffer() {
+         int length = buffer.position();
+         flush(chunk, chunkPosition);
+         chunkPosition += length;
+      }
+   }
+}
@@ -0,0 +1,62 @@
+package chess.io;
+
+import java.nio.ByteOrder;
+
+/**
+ * Constants describing version 2 of the binary tournament format. All values are little-endian.
+ *
+ * <pre>
+ * header        magic:int version:short flags:short players:int rounds:int games:int strings:int reserved:long
+ * player table  players x (id:int unratedGamesPlayed:int rating:double oldRating:double
+ *                          lastName:int firstName:int flags:int fullName:int)
+ * round index   (rounds + 1) x offset of the first game of the round:int
+ * games         games x packed (white, black, result) on 4 bytes, or 8 bytes with the WIDE_GAMES flag
+ * results       players x (wins:int losses:int ties:int score:double), only with the HAS_RESULTS flag
+ * string table  UTF-8 names, each prefixed by its length:int
+ * </pre>
+ *
+ * Players in games are referenced by their position in the player table. Names are referenced by their offset
+ * in the string table, -1 standing for a null name. The full name is only stored when it was set explicitly, and
+ * differs from the last name followed by the first name.
+ * <p>
+ * Version 1 has no full name in the player records, which are then {@value #PLAYER_RECORD_SIZE_V1} bytes long.
+ */
+final class TournamentBinaryFormat {
+
+   static final int MAGIC = 0x46525443;
+   static final short VERSION = 2;
+   static final short VERSION_1 = 1;
+   static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+   static final int FLAG_HAS_RESULTS = 1;
+   static final int FLAG_WIDE_GAMES = 1 << 1;
+   static final int PLAYER_FLAG_PERMANENT = 1;
+
+   static final int HEADER_SIZE = 32;
+   static final int PLAYER_RECORD_SIZE = 40;
+   static final int PLAYER_RECORD_SIZE_V1 = 36;
+   static final int RESULT_RECORD_SIZE = 20;
+
+   /**
+    * Players which can be referenced by a game packed on 4 bytes.
+    */
+   static final int MAX_COMPACT_PLAYERS = 1 << 15;
+
+   private TournamentBinaryFormat() {
+   }
+
+   static int encodeResult(double result) {
+      if (result == 0) {
+         return 0;
+      } else if (result == 0.5) {
+         return 1;
+      } else if (result == 1) {
+         return 2;
+      }
+      throw new IllegalArgumentException("Invalid game result: " + result);
+   }
+
+   static double decodeResult(int code) {
+      return code * 0.5;
+   }
+}
@@ -0,0 +1,291 @@
+package chess.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+import static chess.io.TournamentBinaryFormat.*;
+
+/**
+ * Zero-copy reader over a tournament encoded by {@link TournamentBinaryWriter}. Values are read directly from the
+ * underlying buffer on each access, so a memory-mapped file can be browsed without loading it on the heap.
+ * {@link #toTournament()} materializes a complete {@link Tournament} when needed.
+ */
+public final class TournamentBinaryReader {
+
+   private final ByteBuffer buffer;
+   private final boolean hasResults;
+   private final boolean wideGames;
+   private final int playerRecordSize;
+   private final int playerCount;
+   private final int roundCount;
+   private final int gameCount;
+   private final int roundIndexOffset;
+   private final int gamesOffset;
+   private final int resultsOffset;
+   private final int stringsOffset;
+
+   private TournamentBinaryReader(ByteBuffer source) {
+      this.buffer = source.slice().order(ORDER);
+      if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+         throw new IllegalArgumentException("Not a binary tournament");
+      }
+      short version = buffer.getShort(4);
+      if (version != VERSION && version != VERSION_1) {
+         throw new IllegalArgumentException("Unsupported binary tournament version: " + version);
+      }
+      this.playerRecordSize = version == VERSION ? PLAYER_RECORD_SIZE : PLAYER_RECORD_SIZE_V1;
+      int flags = buffer.getShort(6);
+      this.hasResults = (flags & FLAG_HAS_RESULTS) != 0;
+      this.wideGames = (flags & FLAG_WIDE_GAMES) != 0;
+      this.playerCount = buffer.getInt(8);
+      this.roundCount = buffer.getInt(12);
+      this.gameCount = buffer.getInt(16);
+      int stringsLength = buffer.getInt(20);
+
+      this.roundIndexOffset = HEADER_SIZE + playerCount * playerRecordSize;
+      this.gamesOffset = roundIndexOffset + (roundCount + 1) * Integer.BYTES;
+      this.resultsOffset = gamesOffset + gameCount * (wideGames ? Long.BYTES : Integer.BYTES);
+      this.stringsOffset = resultsOffset + (hasResults ? playerCount * RESULT_RECORD_SIZE : 0);
+      if (stringsOffset + stringsLength > buffer.limit()) {
+         throw new IllegalArgumentException("Truncated binary tournament");
+      }
+   }
+
+   /**
+    * Reads a binary tournament from a buffer, starting at its current position. The buffer is not copied.
+    *
+    * @param buffer The encoded tournament.
+    * @return The reader.
+    */
+   public static TournamentBinaryReader wrap(ByteBuffer buffer) {
+      return new TournamentBinaryReader(buffer);
+   }
+
+   /**
+    * Memory-maps a binary tournament file.
+    *
+    * @param path The file to read.
+    * @return The reader.
+    * @throws IOException Thrown if the file cannot be mapped.
+    */
+   public static TournamentBinaryReader open(Path path) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         return new TournamentBinaryReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      }
+   }
+
+   public int getPlayerCount() {
+      return playerCount;
+   }
+
+   public int getRoundCount() {
+      return roundCount;
+   }
+
+   public int getGameCount() {
+      return gameCount;
+   }
+
+   /**
+    * Whether the tournament was rated before being written, in which case the player scores are available.
+    *
+    * @return true if the computed results are present.
+    */
+   public boolean hasResults() {
+      return hasResults;
+   }
+
+   public int getPlayerId(int player) {
+      return buffer.getInt(playerOffset(player));
+   }
+
+   public int getUnratedGamesPlayed(int player) {
+      return buffer.getInt(playerOffset(player) + 4);
+   }
+
+   public double getRating(int player) {
+      return buffer.getDouble(playerOffset(player) + 8);
+   }
+
+   public double getOldRating(int player) {
+      return buffer.getDouble(playerOffset(player) + 16);
+   }
+
+   public String getLastName(int player) {
+      return readString(buffer.getInt(playerOffset(player) + 24));
+   }
+
+   public String getFirstName(int player) {
+      return readString(buffer.getInt(playerOffset(player) + 28));
+   }
+
+   /**
+    * Full name of a player, set explicitly or computed from the last and first names.
+    *
+    * @param player Position of the player in the player table.
+    * @return The full name.
+    */
+   public String getFullName(int player) {
+      String fullName = getFullNameOverride(player);
+      return fullName != null ? fullName : getLastName(player) + " " + getFirstName(player);
+   }
+
+   public boolean isRatingPermanent(int player) {
+      return (buffer.getInt(playerOffset(player) + 32) & PLAYER_FLAG_PERMANENT) != 0;
+   }
+
+   public int getRoundSize(int round) {
+      return firstGameOfRound(round + 1) - firstGameOfRound(round);
+   }
+
+   /**
+    * Position in the player table of the first player of a game.
+    *
+    * @param round Round index.
+    * @param game  Game index in the round.
+    * @return The player position.
+    */
+   public int getWhite(int round, int game) {
+      int index = gameIndex(round, game);
+      if (wideGames) {
+         return (int) (buffer.getLong(gamesOffset + index * Long.BYTES) >>> 33);
+      }
+      return buffer.getInt(gamesOffset + index * Integer.BYTES) >>> 17;
+   }
+
+   /**
+    * Position in the player table of the second player of a game.
+    *
+    * @param round Round index.
+    * @param game  Game index in the round.
+    * @return The player position.
+    */
+   public int getBlack(int round, int game) {
+      int index = gameIndex(round, game);
+      if (wideGames) {
+         return (int) ((buffer.getLong(gamesOffset + index * Long.BYTES) >>> 2) & 0x7FFFFFFF);
+      }
+      return (buffer.getInt(gamesOffset + index * Integer.BYTES) >>> 2) & 0x7FFF;
+   }
+
+   public double getResult(int round, int game) {
+      int index = gameIndex(round, game);
+      int packed = wideGames
+            ? (int) buffer.getLong(gamesOffset + index * Long.BYTES)
+            : buffer.getInt(gamesOffset + index * Integer.BYTES);
+      return decodeResult(packed & 0x3);
+   }
+
+   public int getWins(int player) {
+      return buffer.getInt(resultOffset(player));
+   }
+
+   public int getLosses(int player) {
+      return buffer.getInt(resultOffset(player) + 4);
+   }
+
+   public int getTies(int player) {
+      return buffer.getInt(resultOffset(player) + 8);
+   }
+
+   public double getScore(int player) {
+      return buffer.getDouble(resultOffset(player) + 12);
+   }
+
+   /**
+    * Materializes a {@link Tournament} with its players and rounds. When the computed results are present, the
+    * player scores are restored and the standing is computed again. The rating adjustments matrix is not part of
+    * the format and is left empty.
+    *
+    * @return The {@link Tournament}.
+    */
+   public Tournament toTournament() {
+      List<Player> players = new ArrayList<>(playerCount);
+      for (int i = 0; i < playerCount; i++) {
+         Player player = new Player(getLastName(i), getFirstName(i), getRating(i));
+         player.setId(getPlayerId(i));
+         player.setFullName(getFullNameOverride(i));
+         player.setOldRating(getOldRating(i));
+         player.setUnratedGamesPlayed(getUnratedGamesPlayed(i));
+         player.setRatingPermanent(isRatingPermanent(i));
+         if (hasResults) {
+            player.setWins(getWins(i));
+            player.setLosses(getLosses(i));
+            player.setTies(getTies(i));
+            player.setScore(getScore(i));
+         }
+         players.add(player);
+      }
+
+      Tournament tournament = new Tournament(players);
+      for (int r = 0; r < roundCount; r++) {
+         int size = getRoundSize(r);
+         Round round = new Round();
+         for (int g = 0; g < size; g++) {
+            round.addGame(players.get(getWhite(r, g)), players.get(getBlack(r, g)), getResult(r, g));
+         }
+         tournament.addRound(round);
+      }
+      if (hasResults) {
+         tournament.computePlayerStanding();
+      }
+      return tournament;
+   }
+
+   private int playerOffset(int player) {
+      if (player < 0 || player >= playerCount) {
+         throw new IndexOutOfBoundsException("No player at position " + player);
+      }
+      return HEADER_SIZE + player * playerRecordSize;
+   }
+
+   private String getFullNameOverride(int player) {
+      return playerRecordSize == PLAYER_RECORD_SIZE_V1 ? null : readString(buffer.getInt(playerOffset(player) + 36));
+   }
+
+   private int resultOffset(int player) {
+      if (!hasResults) {
+         throw new IllegalStateException("The tournament was written before being rated");
+      }
+      playerOffset(player);
+      return resultsOffset + player * RESULT_RECORD_SIZE;
+   }
+
+   private int firstGameOfRound(int round) {
+      return buffer.getInt(roundIndexOffset + round * Integer.BYTES);
+   }
+
+   private int gameIndex(int round, int game) {
+      if (round < 0 || round >= roundCount || game < 0 || game >= getRoundSize(round)) {
+         throw new IndexOutOfBoundsException("No game " + game + " in round " + round);
+      }
+      return firstGameOfRound(round) + game;
+   }
+
+   private String readString(int offset) {
+      if (offset < 0) {
+         return null;
+      }
+      int position = stringsOffset + offset;
+      int length = buffer.getInt(position);
+      if (buffer.hasArray()) {
+         return new String(buffer.array(), buffer.arrayOffset() + position + Integer.BYTES, length,
+               StandardCharsets.UTF_8);
+      }
+      byte[] bytes = new byte[length];
+      ByteBuffer view = buffer.duplicate();
+      view.position(position + Integer.BYTES);
+      view.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+}
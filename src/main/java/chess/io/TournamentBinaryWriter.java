@@ -0,0 +1,179 @@
+package chess.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.models.Game;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+import static chess.io.TournamentBinaryFormat.*;
+
+/**
+ * Writes a complete {@link Tournament} in the compact binary format described by {@link TournamentBinaryFormat}.
+ */
+public final class TournamentBinaryWriter {
+
+   private TournamentBinaryWriter() {
+   }
+
+   /**
+    * Writes a {@link Tournament} to a file, replacing it if it exists.
+    *
+    * @param tournament The {@link Tournament} to save.
+    * @param path       Destination file.
+    * @throws IOException Thrown if IO problems with file generation.
+    */
+   public static void write(Tournament tournament, Path path) throws IOException {
+      ByteBuffer buffer = write(tournament);
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+      }
+   }
+
+   /**
+    * Encodes a {@link Tournament} into a buffer sized to the exact length of the encoding.
+    *
+    * @param tournament The {@link Tournament} to encode.
+    * @return A buffer positioned at 0 and limited to the end of the encoding.
+    */
+   public static ByteBuffer write(Tournament tournament) {
+      List<Player> players = tournament.getPlayers();
+      List<Round> rounds = tournament.getRounds();
+      int playerCount = players.size();
+      int gameCount = rounds.stream().mapToInt(Round::getSize).sum();
+      boolean hasResults = playerCount > 0 && tournament.getPlayersStanding()[0] != null;
+      boolean wideGames = playerCount > MAX_COMPACT_PLAYERS;
+
+      StringTable strings = new StringTable();
+      int[] lastNames = new int[playerCount];
+      int[] firstNames = new int[playerCount];
+      int[] fullNames = new int[playerCount];
+      for (int i = 0; i < playerCount; i++) {
+         Player player = players.get(i);
+         lastNames[i] = strings.add(player.getLastName());
+         firstNames[i] = strings.add(player.getFirstName());
+         String fullName = player.getFullName();
+         fullNames[i] = strings.add(fullName.equals(player.getLastName() + " " + player.getFirstName())
+               ? null : fullName);
+      }
+
+      int size = HEADER_SIZE
+            + playerCount * PLAYER_RECORD_SIZE
+            + (rounds.size() + 1) * Integer.BYTES
+            + gameCount * (wideGames ? Long.BYTES : Integer.BYTES)
+            + (hasResults ? playerCount * RESULT_RECORD_SIZE : 0)
+            + strings.length();
+      ByteBuffer buffer = ByteBuffer.allocate(size).order(ORDER);
+
+      buffer.putInt(MAGIC);
+      buffer.putShort(VERSION);
+      buffer.putShort((short) ((hasResults ? FLAG_HAS_RESULTS : 0) | (wideGames ? FLAG_WIDE_GAMES : 0)));
+      buffer.putInt(playerCount);
+      buffer.putInt(rounds.size());
+      buffer.putInt(gameCount);
+      buffer.putInt(strings.length());
+      buffer.putLong(0);
+
+      for (int i = 0; i < playerCount; i++) {
+         Player player = players.get(i);
+         buffer.putInt(player.getId());
+         buffer.putInt(player.getUnratedGamesPlayed());
+         buffer.putDouble(player.getRating());
+         buffer.putDouble(player.getOldRating());
+         buffer.putInt(lastNames[i]);
+         buffer.putInt(firstNames[i]);
+         buffer.putInt(player.isRatingPermanent() ? PLAYER_FLAG_PERMANENT : 0);
+         buffer.putInt(fullNames[i]);
+      }
+
+      int firstGame = 0;
+      for (Round round : rounds) {
+         buffer.putInt(firstGame);
+         firstGame += round.getSize();
+      }
+      buffer.putInt(firstGame);
+
+      for (Round round : rounds) {
+         for (Game game : round.getGames()) {
+            int white = indexOf(tournament, game.player1);
+            int black = indexOf(tournament, game.player2);
+            int result = encodeResult(game.result);
+            if (wideGames) {
+               buffer.putLong((long) white << 33 | (long) black << 2 | result);
+            } else {
+               buffer.putInt(white << 17 | black << 2 | result);
+            }
+         }
+      }
+
+      if (hasResults) {
+         for (Player player : players) {
+            buffer.putInt(player.getWins());
+            buffer.putInt(player.getLosses());
+            buffer.putInt(player.getTies());
+            buffer.putDouble(player.getScore());
+         }
+      }
+
+      strings.writeTo(buffer);
+      buffer.flip();
+      return buffer;
+   }
+
+   private static int indexOf(Tournament tournament, Player player) {
+      int index = tournament.indexOf(player);
+      if (index < 0) {
+         throw new IllegalArgumentException("Game played by a player who is not in the tournament: " + player);
+      }
+      return index;
+   }
+
+   /**
+    * String table where each distinct name is stored once.
+    */
+   private static final class StringTable {
+
+      private final Map<String, Integer> offsets = new HashMap<>();
+      private final List<byte[]> entries = new ArrayList<>();
+      private int length = 0;
+
+      int add(String value) {
+         if (value == null) {
+            return -1;
+         }
+         Integer offset = offsets.get(value);
+         if (offset == null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            offset = length;
+            offsets.put(value, offset);
+            entries.add(bytes);
+            length += Integer.BYTES + bytes.length;
+         }
+         return offset;
+      }
+
+      int length() {
+         return length;
+      }
+
+      void writeTo(ByteBuffer buffer) {
+         for (byte[] entry : entries) {
+            buffer.putInt(entry.length);
+            buffer.put(entry);
+         }
+      }
+   }
+}
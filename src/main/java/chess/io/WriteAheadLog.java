@@ -0,0 +1,497 @@
+package chess.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of binary records with group commit. Appends from concurrent threads are queued, and a single
+ * committer thread writes every record queued within the group commit window with one write and one fsync, then
+ * completes their futures. The cost of an fsync is thus shared by all the submitters of a window.
+ * <p>
+ * Each record is framed as {@code length:int crc32:int payload}. A torn record at the end of the file, left by a
+ * crash during a write, is discarded when the log is opened. A group whose write or fsync fails is truncated away
+ * and fails its appends, then the log fails every later append: a later record may depend on a lost one, and the
+ * state of the page cache after a failed fsync is unknown. The log must be opened again to append.
+ */
+public class WriteAheadLog implements Closeable {
+
+   private static final int FRAME_HEADER_SIZE = 8;
+
+   /**
+    * Size of the buffered records above which a group is committed without waiting for the end of the window.
+    */
+   private static final int MAX_GROUP_BYTES = 1 << 20;
+
+   private static final int COMPACTION_BUFFER_SIZE = 1 << 16;
+
+   private final Path file;
+
+   private final long groupCommitWindowNanos;
+
+   private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+
+   private final Thread committer;
+
+   private FileChannel channel;
+
+   private volatile boolean closed = false;
+
+   /**
+    * Error of a failed group, after which nothing is written. Only accessed by the committer thread.
+    */
+   private IOException failure;
+
+   /**
+    * Opens or creates a log, truncating a torn record at its end.
+    *
+    * @param file              The log file.
+    * @param groupCommitWindow Time during which appends are gathered before an fsync, in microseconds.
+    * @throws IOException Thrown if the file cannot be opened.
+    */
+   public WriteAheadLog(Path file, long groupCommitWindow) throws IOException {
+      this.file = file;
+      this.groupCommitWindowNanos = TimeUnit.MICROSECONDS.toNanos(groupCommitWindow);
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+      long validLength = scan(channel, record -> { });
+      channel.truncate(validLength);
+      channel.position(validLength);
+
+      this.committer = new Thread(this::commitLoop, "wal-group-commit");
+      this.committer.setDaemon(true);
+      this.committer.start();
+   }
+
+   /**
+    * Queues a record.
+    *
+    * @param record The payload.
+    * @return A future completed once the record is written and synced to disk.
+    */
+   public CompletableFuture<Void> append(byte[] record) {
+      Append append = new Append(record);
+      enqueue(append);
+      return append.durable;
+   }
+
+   /**
+    * Rewrites the log keeping only the records accepted by the filter. The compaction is applied by the committer
+    * thread between two groups, and the new log atomically replaces the old one.
+    *
+    * @param keep Filter called with each record.
+    * @return A future completed once the compacted log is in place.
+    */
+   public CompletableFuture<Void> compact(Predicate<ByteBuffer> keep) {
+      return compact(record -> { }, keep, () -> null);
+   }
+
+   /**
+    * Rewrites the log keeping only the records accepted by the filter. The log is read twice: every record is first
+    * passed to {@code inspect}, so that the filter can drop a record made obsolete by a later one, then the kept
+    * records are streamed to the new log. The compaction is applied by the committer thread between two groups, and
+    * the new log atomically replaces the old one. If a callback throws, the compaction fails with its exception and
+    * the log is left unchanged.
+    *
+    * @param inspect Called with each record before the filter.
+    * @param keep    Filter called with each record, in order.
+    * @return A future completed once the compacted log is in place.
+    */
+   public CompletableFuture<Void> compact(Consumer<ByteBuffer> inspect, Predicate<ByteBuffer> keep) {
+      return compact(inspect, keep, () -> null);
+   }
+
+   /**
+    * Rewrites the log like {@link #compact(Consumer, Predicate)}, then appends a record summarizing the dropped
+    * ones, such as a checkpoint of the state they built.
+    *
+    * @param inspect Called with each record before the filter.
+    * @param keep    Filter called with each record, in order.
+    * @param last    Called once the kept records are written, returns the record to append after them, or null.
+    * @return A future completed once the compacted log is in place.
+    */
+   public CompletableFuture<Void> compact(Consumer<ByteBuffer> inspect, Predicate<ByteBuffer> keep,
+                                          Supplier<byte[]> last) {
+      Compaction compaction = new Compaction(inspect, keep, last);
+      enqueue(compaction);
+      return compaction.done;
+   }
+
+   /**
+    * Reads every record of the log, in order. Must be called before any append, typically on startup.
+    *
+    * @param consumer Called with a read-only buffer over each record.
+    * @throws IOException Thrown if the log cannot be read.
+    */
+   public void replay(Consumer<ByteBuffer> consumer) throws IOException {
+      try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+         scan(reader, consumer);
+      }
+   }
+
+   public long size() throws IOException {
+      return Files.size(file);
+   }
+
+   /**
+    * Commits the records already queued, then stops the committer thread and closes the file.
+    *
+    * @throws IOException Thrown if the file cannot be closed.
+    */
+   @Override
+   public void close() throws IOException {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      queue.add(new Close());
+      boolean interrupted = false;
+      while (committer.isAlive()) {
+         try {
+            committer.join();
+         } catch (InterruptedException e) {
+            interrupted = true;
+         }
+      }
+      if (interrupted) {
+         Thread.currentThread().interrupt();
+      }
+      channel.close();
+   }
+
+   private void enqueue(Command command) {
+      if (closed) {
+         throw new IllegalStateException("The log is closed");
+      }
+      queue.add(command);
+   }
+
+   private void commitLoop() {
+      List<Command> group = new ArrayList<>();
+      boolean running = true;
+      while (running) {
+         Command last = take();
+         group.add(last);
+         long deadline = System.nanoTime() + groupCommitWindowNanos;
+         int groupBytes = last.size();
+         while (groupBytes < MAX_GROUP_BYTES && !(last instanceof Compaction) && !(last instanceof Close)) {
+            long remaining = deadline - System.nanoTime();
+            last = remaining > 0 ? poll(remaining) : queue.poll();
+            if (last == null) {
+               break;
+            }
+            group.add(last);
+            groupBytes += last.size();
+         }
+         running = !(last instanceof Close);
+         commit(group);
+         group.clear();
+      }
+
+      List<Command> rejected = new ArrayList<>();
+      queue.drainTo(rejected);
+      IllegalStateException closedError = new IllegalStateException("The log is closed");
+      for (Command command : rejected) {
+         command.fail(closedError);
+      }
+   }
+
+   private Command take() {
+      while (true) {
+         try {
+            return queue.take();
+         } catch (InterruptedException e) {
+            // only the Close command stops the committer
+         }
+      }
+   }
+
+   private Command poll(long timeoutNanos) {
+      try {
+         return queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+         return null;
+      }
+   }
+
+   private void commit(List<Command> group) {
+      List<Append> appends = new ArrayList<>(group.size());
+      for (Command command : group) {
+         if (command instanceof Append) {
+            appends.add((Append) command);
+         } else if (command instanceof Compaction) {
+            writeGroup(appends);
+            appends.clear();
+            ((Compaction) command).run();
+         }
+      }
+      writeGroup(appends);
+   }
+
+   private void writeGroup(List<Append> appends) {
+      if (appends.isEmpty()) {
+         return;
+      }
+      if (failure != null) {
+         appends.forEach(append -> append.fail(failure));
+         return;
+      }
+      int size = 0;
+      for (Append append : appends) {
+         size += append.size();
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(size);
+      for (Append append : appends) {
+         frame(buffer, append.record);
+      }
+      buffer.flip();
+      long start = -1;
+      try {
+         start = channel.position();
+         while (buffer.hasRemaining()) {
+            channel.write(buffer);
+         }
+         channel.force(false);
+         for (Append append : appends) {
+            append.durable.complete(null);
+         }
+      } catch (IOException e) {
+         discardGroup(start, e);
+         for (Append append : appends) {
+            append.fail(e);
+         }
+      }
+   }
+
+   /**
+    * Truncates a group which could not be written or synced, so that a torn frame is not left in the file, then
+    * stops the log.
+    */
+   private void discardGroup(long start, IOException error) {
+      failure = error;
+      if (start >= 0) {
+         try {
+            channel.truncate(start);
+         } catch (IOException e) {
+            error.addSuppressed(e);
+         }
+      }
+   }
+
+   private static void frame(ByteBuffer buffer, byte[] record) {
+      CRC32 crc = new CRC32();
+      crc.update(record, 0, record.length);
+      buffer.putInt(record.length);
+      buffer.putInt((int) crc.getValue());
+      buffer.put(record);
+   }
+
+   /**
+    * Reads the records of a log from its start.
+    *
+    * @return The length of the valid part of the log.
+    */
+   private static long scan(FileChannel reader, Consumer<ByteBuffer> consumer) throws IOException {
+      long length = reader.size();
+      long position = 0;
+      ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+      while (position + FRAME_HEADER_SIZE <= length) {
+         header.clear();
+         readFully(reader, header, position);
+         header.flip();
+         int recordLength = header.getInt();
+         int checksum = header.getInt();
+         if (recordLength < 0 || position + FRAME_HEADER_SIZE + recordLength > length) {
+            break;
+         }
+         ByteBuffer record = ByteBuffer.allocate(recordLength);
+         readFully(reader, record, position + FRAME_HEADER_SIZE);
+         CRC32 crc = new CRC32();
+         crc.update(record.array(), 0, recordLength);
+         if ((int) crc.getValue() != checksum) {
+            break;
+         }
+         record.flip();
+         consumer.accept(record.asReadOnlyBuffer());
+         position += FRAME_HEADER_SIZE + recordLength;
+      }
+      return position;
+   }
+
+   private static void readFully(FileChannel reader, ByteBuffer buffer, long position) throws IOException {
+      while (buffer.hasRemaining()) {
+         if (reader.read(buffer, position + buffer.position()) < 0) {
+            throw new IOException("Unexpected end of log");
+         }
+      }
+   }
+
+   private abstract static class Command {
+
+      abstract int size();
+
+      abstract void fail(Throwable error);
+   }
+
+   private static final class Append extends Command {
+
+      private final byte[] record;
+      private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+      Append(byte[] record) {
+         this.record = record;
+      }
+
+      @Override
+      int size() {
+         return FRAME_HEADER_SIZE + record.length;
+      }
+
+      @Override
+      void fail(Throwable error) {
+         durable.completeExceptionally(error);
+      }
+   }
+
+   private static final class Close extends Command {
+
+      @Override
+      int size() {
+         return 0;
+      }
+
+      @Override
+      void fail(Throwable error) {
+         // nothing is waiting on a close
+      }
+   }
+
+   private final class Compaction extends Command {
+
+      private final Consumer<ByteBuffer> inspect;
+      private final Predicate<ByteBuffer> keep;
+      private final Supplier<byte[]> last;
+      private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+      Compaction(Consumer<ByteBuffer> inspect, Predicate<ByteBuffer> keep, Supplier<byte[]> last) {
+         this.inspect = inspect;
+         this.keep = keep;
+         this.last = last;
+      }
+
+      @Override
+      int size() {
+         return 0;
+      }
+
+      @Override
+      void fail(Throwable error) {
+         done.completeExceptionally(error);
+      }
+
+      void run() {
+         if (failure != null) {
+            done.completeExceptionally(failure);
+            return;
+         }
+         Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+         try {
+            replay(inspect);
+            try (FileChannel output = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                  StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+               DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(output),
+                     COMPACTION_BUFFER_SIZE));
+               replay(record -> {
+                  if (keep.test(record.duplicate())) {
+                     write(out, record);
+                  }
+               });
+               byte[] lastRecord = last.get();
+               if (lastRecord != null) {
+                  write(out, ByteBuffer.wrap(lastRecord));
+               }
+               out.flush();
+               output.force(true);
+            }
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            done.complete(null);
+         } catch (IOException | RuntimeException e) {
+            // Only the compaction fails, the log is left as it was and the committer goes on.
+            deleteQuietly(compacted, e);
+            done.completeExceptionally(e);
+         } finally {
+            reopen();
+         }
+      }
+
+      private void deleteQuietly(Path compacted, Exception error) {
+         try {
+            Files.deleteIfExists(compacted);
+         } catch (IOException e) {
+            error.addSuppressed(e);
+         }
+      }
+
+      private void write(DataOutputStream out, ByteBuffer record) {
+         byte[] bytes = new byte[record.remaining()];
+         record.get(bytes);
+         CRC32 crc = new CRC32();
+         crc.update(bytes, 0, bytes.length);
+         try {
+            out.writeInt(bytes.length);
+            out.writeInt((int) crc.getValue());
+            out.write(bytes);
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      /**
+       * Syncs the directory of the log, so that the move of the compacted log survives a crash.
+       */
+      private void syncDirectory() throws IOException {
+         Path directory = file.toAbsolutePath().getParent();
+         try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+         } catch (IOException e) {
+            // Directories cannot be opened or synced on every platform, Windows in particular.
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+               throw e;
+            }
+         }
+      }
+
+      private void reopen() {
+         try {
+            if (!channel.isOpen()) {
+               channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            channel.position(channel.size());
+         } catch (IOException e) {
+            failure = e;
+            done.completeExceptionally(e);
+         }
+      }
+   }
+}
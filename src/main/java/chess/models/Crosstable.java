@@ -0,0 +1,185 @@
+package chess.models;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable crosstable of a {@link Tournament}: one row per player and one column per opponent, in the same order,
+ * each cell holding the games between the two players and the rating adjustment they gave the row player in the
+ * result matrix.
+ * <p>
+ * The crosstable is built in a single pass over the games and only stores, for each player, the list of its games
+ * sorted on the position of the opponent. A cell is found by scanning the games of its row, so a page of rows and
+ * columns is rendered without materializing the empty cells of the matrix.
+ */
+public final class Crosstable {
+
+   /**
+    * Bits of an entry holding the round, above the color bit and the two bits of the result.
+    */
+   private static final int ROUND_SHIFT = 3;
+
+   private final int roundCount;
+
+   private final int[] ids;
+   private final String[] names;
+   private final double[] ratings;
+   private final double[] oldRatings;
+   private final double[] scores;
+
+   /**
+    * Games of the player at position p, from {@code offsets[p]} to {@code offsets[p + 1]}.
+    */
+   private final int[] offsets;
+
+   /**
+    * Each game of a player, encoded as the position of the opponent in the 32 high bits, then the round, the color
+    * and the result, so that the games of a player are sorted on the opponent then the round.
+    */
+   private final long[] entries;
+
+   /**
+    * Cell of the result matrix of the player and the opponent of each entry.
+    */
+   private final double[] deltas;
+
+   private Crosstable(int size, int gameCount, int roundCount) {
+      this.roundCount = roundCount;
+      ids = new int[size];
+      names = new String[size];
+      ratings = new double[size];
+      oldRatings = new double[size];
+      scores = new double[size];
+      offsets = new int[size + 1];
+      entries = new long[2 * gameCount];
+      deltas = new double[2 * gameCount];
+   }
+
+   /**
+    * Builds the crosstable of a tournament. Must be called by the thread mutating the tournament.
+    *
+    * @param tournament The tournament.
+    * @param byStanding Whether the players are sorted on the standing, which is only computed once the tournament
+    *                   is rated, or kept in registration order.
+    * @return The crosstable.
+    */
+   public static Crosstable of(Tournament tournament, boolean byStanding) {
+      List<Player> players = tournament.getPlayers();
+      int size = players.size();
+      Crosstable crosstable = new Crosstable(size, tournament.getGameCount(), tournament.getRounds().size());
+
+      // Position of each player of the tournament in the crosstable.
+      int[] positions = new int[size];
+      Player[] ordered = byStanding ? tournament.getPlayersStanding() : players.toArray(new Player[0]);
+      for (int p = 0; p < size; p++) {
+         Player player = ordered[p];
+         positions[tournament.indexOf(player)] = p;
+         crosstable.ids[p] = player.getId();
+         crosstable.names[p] = player.getFullName();
+         crosstable.ratings[p] = player.getRating();
+         crosstable.oldRatings[p] = player.getOldRating();
+         crosstable.scores[p] = player.getScore();
+      }
+
+      List<Round> rounds = tournament.getRounds();
+      for (Round round : rounds) {
+         for (Game game : round.getGames()) {
+            crosstable.offsets[positions[tournament.indexOf(game.player1)] + 1]++;
+            crosstable.offsets[positions[tournament.indexOf(game.player2)] + 1]++;
+         }
+      }
+      for (int p = 0; p < size; p++) {
+         crosstable.offsets[p + 1] += crosstable.offsets[p];
+      }
+      int[] next = Arrays.copyOf(crosstable.offsets, size);
+      for (int r = 0; r < rounds.size(); r++) {
+         for (Game game : rounds.get(r).getGames()) {
+            int white = positions[tournament.indexOf(game.player1)];
+            int black = positions[tournament.indexOf(game.player2)];
+            crosstable.entries[next[white]++] = encode(black, r, true, game.result);
+            crosstable.entries[next[black]++] = encode(white, r, false, 1 - game.result);
+         }
+      }
+      for (int p = 0; p < size; p++) {
+         Arrays.sort(crosstable.entries, crosstable.offsets[p], crosstable.offsets[p + 1]);
+         int row = tournament.indexOf(ordered[p]);
+         for (int e = crosstable.offsets[p]; e < crosstable.offsets[p + 1]; e++) {
+            int column = tournament.indexOf(ordered[opponentOf(crosstable.entries[e])]);
+            crosstable.deltas[e] = tournament.getResult(row, column);
+         }
+      }
+      return crosstable;
+   }
+
+   private static long encode(int opponent, int round, boolean white, double result) {
+      int resultCode = result == 1 ? 2 : result == 0.5 ? 1 : 0;
+      return (long) opponent << 32 | (long) round << ROUND_SHIFT | (white ? 4 : 0) | resultCode;
+   }
+
+   private static int opponentOf(long entry) {
+      return (int) (entry >>> 32);
+   }
+
+   public int size() {
+      return ids.length;
+   }
+
+   public int getRoundCount() {
+      return roundCount;
+   }
+
+   public int getId(int position) {
+      return ids[position];
+   }
+
+   public String getFullName(int position) {
+      return names[position];
+   }
+
+   public double getRating(int position) {
+      return ratings[position];
+   }
+
+   public double getOldRating(int position) {
+      return oldRatings[position];
+   }
+
+   public double getScore(int position) {
+      return scores[position];
+   }
+
+   /**
+    * Visits the games of a row against the opponents of a range of columns, sorted on the opponent then the round.
+    *
+    * @param row     Position of the player.
+    * @param from    First column, inclusive.
+    * @param to      Last column, exclusive.
+    * @param visitor Called for each game.
+    */
+   public void forEachGame(int row, int from, int to, GameVisitor visitor) {
+      int start = Arrays.binarySearch(entries, offsets[row], offsets[row + 1], (long) from << 32);
+      for (int e = start < 0 ? -start - 1 : start; e < offsets[row + 1] && opponentOf(entries[e]) < to; e++) {
+         long entry = entries[e];
+         visitor.visit(opponentOf(entry), (int) (entry & 0xFFFFFFFFL) >>> ROUND_SHIFT, (entry & 4) != 0,
+               (entry & 3) / 2.0, deltas[e]);
+      }
+   }
+
+   /**
+    * Receives the games of a row of the crosstable.
+    */
+   @FunctionalInterface
+   public interface GameVisitor {
+
+      /**
+       * Visits a game.
+       *
+       * @param column Position of the opponent.
+       * @param round  Round of the game, starting at 0.
+       * @param white  Whether the row player had the first move.
+       * @param result Result of the row player: 1, 0.5 or 0.
+       * @param delta  Cumulated rating adjustment of the row player from all the games against this opponent.
+       */
+      void visit(int column, int round, boolean white, double result, double delta);
+   }
+}
@@ -0,0 +1,54 @@
+package chess.models;
+
+import java.util.List;
+
+import chess.monitoring.RatingPhase;
+
+/**
+ * Rating rules of the federation. Unrated players first receive a performance rating, players with a temporary
+ * rating then have their performance averaged with their previous rating, and permanent players finally gain or
+ * lose 32 times the difference between their results and the expected results of the table of {@link Game}, with
+ * a bonus for tournaments of 4 rounds or more.
+ */
+public final class FqeRatingSystem implements RatingSystem {
+
+   public static final FqeRatingSystem INSTANCE = new FqeRatingSystem();
+
+   private FqeRatingSystem() {
+   }
+
+   @Override
+   public void rate(Tournament tournament) {
+      String id = tournament.getId();
+      int playerCount = tournament.getPlayers().size();
+      int gameCount = tournament.getGameCount();
+
+      RatingPhase phase = RatingPhase.begin(RatingPhase.CLASSIFICATION);
+      List<Player> unratedPlayers = tournament.getNewPlayers();
+      List<Player> playersWithTemporaryRating = tournament.getPlayersWithTemporaryRating();
+      List<Player> permanentPlayers = tournament.getPermanentPlayers();
+      phase.end(id, playerCount, gameCount);
+
+      // first compute the ratings of unrated players.
+      if (unratedPlayers.size() > 0) {
+         phase = RatingPhase.begin(RatingPhase.UNRATED_PLAYERS);
+         tournament.computeRatingsForNewPlayers(unratedPlayers);
+         phase.end(id, playerCount, gameCount);
+      }
+
+      // Then compute ratings for players with temporary rating.
+      if (playersWithTemporaryRating.size() > 0) {
+         phase = RatingPhase.begin(RatingPhase.PROVISIONAL_PLAYERS);
+         playersWithTemporaryRating.forEach(tournament::computeRatingForPlayerWithTemporaryRating);
+         phase.end(id, playerCount, gameCount);
+      }
+
+      phase = RatingPhase.begin(RatingPhase.RESULT_MATRIX);
+      tournament.addGameResultsToResultMatrix();
+      phase.end(id, playerCount, gameCount);
+
+      phase = RatingPhase.begin(RatingPhase.PERMANENT_PLAYERS);
+      tournament.computeRatingForPermanentPlayers(permanentPlayers);
+      phase.end(id, playerCount, gameCount);
+   }
+}
@@ -65,6 +65,23 @@ public class Game {
       map.put(735, 1.00);
    }
 
+   /**
+    * Rating difference from which the expected result is 1.
+    */
+   private static final int MAX_TABLE_DIFFERENCE = 735;
+
+   /**
+    * The probabilities of the map for every rating difference from 0 to {@link #MAX_TABLE_DIFFERENCE}, so that a
+    * lookup is a single array access.
+    */
+   private static final double[] EXPECTED_RESULTS = new double[MAX_TABLE_DIFFERENCE + 1];
+
+   static {
+      for (int diff = 0; diff <= MAX_TABLE_DIFFERENCE; diff++) {
+         EXPECTED_RESULTS[diff] = map.floorEntry(diff).getValue();
+      }
+   }
+
    public double result;
 
    public Player player1;
@@ -94,18 +111,33 @@ public class Game {
     * @return The rating variation.
     */
    public static double getDeltaFromGame(Player player1, Player player2, double actualResult) {
+      return getDelta(player1.getRating(), player2.getRating(), actualResult);
+   }
 
-      int diff = Math.toIntExact(Math.round(player1.getRating() - player2.getRating()));
-      double expectedResult;
+   /**
+    * Rating adjustment of a player from a game, from the ratings instead of the players.
+    *
+    * @param rating         Rating of the player.
+    * @param opponentRating Rating of the opponent.
+    * @param actualResult   Result of the player: 1, 0.5 or 0.
+    * @return The rating variation.
+    */
+   public static double getDelta(double rating, double opponentRating, double actualResult) {
+      return 32 * (actualResult - getExpectedResult(rating - opponentRating));
+   }
 
-      // To do a lookup for some value in 'key'
+   /**
+    * Expected result of the first player of a game, from the table of the federation.
+    *
+    * @param ratingDifference Rating of the first player minus the rating of the second player.
+    * @return The expected result, between 0 and 1.
+    */
+   public static double getExpectedResult(double ratingDifference) {
+      long diff = Math.round(ratingDifference);
       if (diff < 0) {
-         expectedResult = 1 - map.floorEntry(Math.abs(diff)).getValue();
-      } else {
-         expectedResult = map.floorEntry(diff).getValue();
+         return 1 - EXPECTED_RESULTS[(int) Math.min(-diff, MAX_TABLE_DIFFERENCE)];
       }
-
-      return 32 * (actualResult - expectedResult);
+      return EXPECTED_RESULTS[(int) Math.min(diff, MAX_TABLE_DIFFERENCE)];
    }
 
 }
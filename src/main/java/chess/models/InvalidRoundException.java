@@ -0,0 +1,31 @@
+package chess.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when rounds of games are rejected by {@link RoundValidator}. Carries every violation found, not only the
+ * first one.
+ */
+public class InvalidRoundException extends IllegalArgumentException {
+
+   private static final long serialVersionUID = 1L;
+
+   private final List<RoundViolation> violations;
+
+   /**
+    * Constructor.
+    *
+    * @param violations The violations, at least one.
+    */
+   public InvalidRoundException(List<RoundViolation> violations) {
+      super(violations.get(0).getMessage()
+            + (violations.size() > 1 ? " (and " + (violations.size() - 1) + " more violations)" : ""));
+      this.violations = Collections.unmodifiableList(new ArrayList<>(violations));
+   }
+
+   public List<RoundViolation> getViolations() {
+      return violations;
+   }
+}
@@ -0,0 +1,190 @@
+package chess.models;
+
+import java.util.Arrays;
+
+/**
+ * Computes the performance ratings of a pool of unrated players together. Unrated opponents are first
+ * provisionally assigned a rating of 1100, then every performance rating is computed again from the current
+ * estimates of the opponents until the ratings reach a fixed point. Each iteration only reads the estimates of the
+ * previous one, so the result does not depend on the order in which the players are visited.
+ * <p>
+ * Players are identified by their position in the pool, from 0 to {@code playerCount - 1}. The games against
+ * unrated opponents are stored as adjacency arrays, and all the per-player values are primitive arrays.
+ */
+public final class PerformanceRatingSolver {
+
+   /**
+    * Rating provisionally assigned to an unrated opponent.
+    */
+   public static final double PROVISIONAL_RATING = 1100;
+
+   public static final double DEFAULT_TOLERANCE = 0.01;
+
+   public static final int DEFAULT_MAX_ITERATIONS = 500;
+
+   private final int playerCount;
+
+   private final int[] gamesPlayed;
+
+   /**
+    * Sum of the ratings of the rated opponents of each player.
+    */
+   private final double[] ratedOpponentsSum;
+
+   /**
+    * Number of wins minus number of losses of each player.
+    */
+   private final double[] winsMinusLosses;
+
+   private int[] edgePlayers = new int[16];
+
+   private int[] edgeOpponents = new int[16];
+
+   private int edgeCount = 0;
+
+   private int iterations = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param playerCount Number of unrated players in the pool.
+    */
+   public PerformanceRatingSolver(int playerCount) {
+      this.playerCount = playerCount;
+      this.gamesPlayed = new int[playerCount];
+      this.ratedOpponentsSum = new double[playerCount];
+      this.winsMinusLosses = new double[playerCount];
+   }
+
+   /**
+    * Adds a game played by an unrated player against a rated opponent.
+    *
+    * @param player         Position of the unrated player.
+    * @param opponentRating Rating of the opponent.
+    * @param result         Result for the unrated player: 1 for a win, 0.5 for a draw, 0 for a loss.
+    */
+   public void addGameAgainstRated(int player, double opponentRating, double result) {
+      addResult(player, result);
+      ratedOpponentsSum[player] += opponentRating;
+   }
+
+   /**
+    * Adds a game played by an unrated player against another unrated player of the pool. The game must also be
+    * added from the point of view of the opponent.
+    *
+    * @param player   Position of the unrated player.
+    * @param opponent Position of the unrated opponent.
+    * @param result   Result for the player: 1 for a win, 0.5 for a draw, 0 for a loss.
+    */
+   public void addGameAgainstUnrated(int player, int opponent, double result) {
+      addResult(player, result);
+      if (edgeCount == edgePlayers.length) {
+         edgePlayers = Arrays.copyOf(edgePlayers, edgeCount * 2);
+         edgeOpponents = Arrays.copyOf(edgeOpponents, edgeCount * 2);
+      }
+      edgePlayers[edgeCount] = player;
+      edgeOpponents[edgeCount] = opponent;
+      edgeCount++;
+   }
+
+   private void addResult(int player, double result) {
+      gamesPlayed[player]++;
+      if (result == 1) {
+         winsMinusLosses[player]++;
+      } else if (result == 0) {
+         winsMinusLosses[player]--;
+      }
+   }
+
+   public int getGamesPlayed(int player) {
+      return gamesPlayed[player];
+   }
+
+   /**
+    * Number of iterations used by the last call to {@link #solve(double, int)}.
+    *
+    * @return The number of iterations.
+    */
+   public int getIterations() {
+      return iterations;
+   }
+
+   /**
+    * Solves with the default tolerance and maximum number of iterations.
+    *
+    * @return The performance rating of each player.
+    */
+   public double[] solve() {
+      return solve(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+   }
+
+   /**
+    * Iterates until no performance rating moves by more than the tolerance, or until the maximum number of
+    * iterations is reached. Each step moves halfway towards the new performance ratings, which prevents two
+    * unrated players who only played each other from oscillating. A player who only met rated opponents gets
+    * the exact performance rating from the first step.
+    *
+    * @param tolerance     Largest rating change accepted for convergence.
+    * @param maxIterations Bound on the number of iterations.
+    * @return The performance rating of each player. A player without games keeps the provisional rating.
+    */
+   public double[] solve(double tolerance, int maxIterations) {
+      // Adjacency arrays of the unrated opponents of each player, built with a counting sort.
+      int[] offsets = new int[playerCount + 1];
+      for (int e = 0; e < edgeCount; e++) {
+         offsets[edgePlayers[e] + 1]++;
+      }
+      for (int p = 0; p < playerCount; p++) {
+         offsets[p + 1] += offsets[p];
+      }
+      int[] opponents = new int[edgeCount];
+      int[] cursor = Arrays.copyOf(offsets, playerCount);
+      for (int e = 0; e < edgeCount; e++) {
+         opponents[cursor[edgePlayers[e]]++] = edgeOpponents[e];
+      }
+
+      // Constant part of each performance rating and inverse of the number of games.
+      double[] constant = new double[playerCount];
+      double[] inverseGames = new double[playerCount];
+      for (int p = 0; p < playerCount; p++) {
+         if (gamesPlayed[p] > 0) {
+            inverseGames[p] = 1.0 / gamesPlayed[p];
+            constant[p] = (ratedOpponentsSum[p] + 400 * winsMinusLosses[p]) * inverseGames[p];
+         }
+      }
+
+      // Starting point: the performance ratings with every unrated opponent at the provisional rating.
+      double[] current = new double[playerCount];
+      double[] next = new double[playerCount];
+      for (int p = 0; p < playerCount; p++) {
+         int unratedOpponents = offsets[p + 1] - offsets[p];
+         current[p] = gamesPlayed[p] > 0
+               ? constant[p] + unratedOpponents * PROVISIONAL_RATING * inverseGames[p]
+               : PROVISIONAL_RATING;
+      }
+
+      iterations = 0;
+      while (iterations < maxIterations) {
+         iterations++;
+         double maxChange = 0;
+         for (int p = 0; p < playerCount; p++) {
+            double unratedOpponentsSum = 0;
+            for (int k = offsets[p]; k < offsets[p + 1]; k++) {
+               unratedOpponentsSum += current[opponents[k]];
+            }
+            double performance = gamesPlayed[p] > 0
+                  ? constant[p] + unratedOpponentsSum * inverseGames[p]
+                  : current[p];
+            next[p] = 0.5 * (current[p] + performance);
+            maxChange = Math.max(maxChange, Math.abs(next[p] - current[p]));
+         }
+         double[] swap = current;
+         current = next;
+         next = swap;
+         if (maxChange < tolerance) {
+            break;
+         }
+      }
+      return current;
+   }
+}
@@ -2,10 +2,13 @@ package chess.models;
 
 
 /**
- * This class is responsible for representing a chess player.
+ * This class is responsible for representing a chess player. The full name is computed on demand from the last and
+ * first names unless it is set explicitly. Internal methods go through the accessors, so that a subclass can store
+ * the state elsewhere, as the flyweight views of {@link chess.store.PlayerPool} do.
  */
 public class Player implements Comparable<Player> {
 
+   private int id;
    private String lastName;
    private String firstName;
    private String fullName;
@@ -29,7 +32,6 @@ public class Player implements Comparable<Player> {
    public Player(String lastName, String firstName, double rating) {
       this.firstName = firstName;
       this.lastName = lastName;
-      this.fullName = lastName + " " + firstName;
       this.rating = rating;
       this.oldRating = rating;
    }
@@ -48,21 +50,55 @@ public class Player implements Comparable<Player> {
       this.unratedGamesPlayed = unratedGamesPlayed;
    }
 
+   /**
+    * Copy constructor.
+    *
+    * @param player The {@link Player} to copy.
+    */
+   public Player(Player player) {
+      this.id = player.getId();
+      this.lastName = player.getLastName();
+      this.firstName = player.getFirstName();
+      this.fullName = player.getFullNameOverride();
+      this.rating = player.getRating();
+      this.isRatingPermanent = player.isRatingPermanent();
+      this.oldRating = player.getOldRating();
+      this.score = player.getScore();
+      this.unratedGamesPlayed = player.getUnratedGamesPlayed();
+      this.wins = player.getWins();
+      this.losses = player.getLosses();
+      this.ties = player.getTies();
+   }
+
+   /**
+    * Constructor of subclasses keeping the state of the player outside of this class.
+    */
+   protected Player() {
+   }
+
    @Override
    public String toString() {
-      return "Name=" + fullName + ", rating=" + rating;
+      return "Name=" + getFullName() + ", rating=" + getRating();
    }
 
    @Override
    public int compareTo(Player otherPlayer) {
-      if (this.rating > otherPlayer.rating) {
+      if (this.getRating() > otherPlayer.getRating()) {
          return 1;
-      } else if (this.rating < otherPlayer.rating) {
+      } else if (this.getRating() < otherPlayer.getRating()) {
          return -1;
       }
       return 0;
    }
 
+   public int getId() {
+      return id;
+   }
+
+   public void setId(int id) {
+      this.id = id;
+   }
+
    public String getLastName() {
       return lastName;
    }
@@ -80,6 +116,16 @@ public class Player implements Comparable<Player> {
    }
 
    public String getFullName() {
+      String override = getFullNameOverride();
+      return override != null ? override : getLastName() + " " + getFirstName();
+   }
+
+   /**
+    * Full name set explicitly with {@link #setFullName(String)}.
+    *
+    * @return The full name, or null if it is computed from the last and first names.
+    */
+   protected String getFullNameOverride() {
       return fullName;
    }
 
@@ -136,17 +182,17 @@ public class Player implements Comparable<Player> {
    }
 
    public void addWin() {
-      this.wins++;
-      this.score++;
+      setWins(getWins() + 1);
+      setScore(getScore() + 1);
    }
 
    public void addLoss() {
-      this.losses++;
+      setLosses(getLosses() + 1);
    }
 
    public void addTie() {
-      this.ties++;
-      this.score += 0.5;
+      setTies(getTies() + 1);
+      setScore(getScore() + 0.5);
    }
 
    public int getLosses() {
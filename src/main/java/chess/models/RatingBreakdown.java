@@ -0,0 +1,189 @@
+package chess.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Explanation of the new rating of a player of a rated {@link Tournament}, game by game. It is computed on request
+ * from the stored games, so rating a tournament records nothing beyond which players were rated as permanent.
+ * <p>
+ * The rating adjustments of the games are computed from the ratings the players had when the result matrix was
+ * filled: the old rating of the permanent players, and the new rating of the other players, rated beforehand from
+ * their performance. The rating of a permanent player is its old rating plus the adjustments of its games and the
+ * bonus; the rating of another player is its performance rating, and the adjustments of its games are only given
+ * for reference.
+ */
+public final class RatingBreakdown {
+
+   private final int playerId;
+   private final boolean ratedAsPermanent;
+   private final double gameRating;
+   private final double rating;
+   private final double totalDelta;
+   private final double bonus;
+   private final List<GameDelta> games;
+
+   private RatingBreakdown(int playerId, boolean ratedAsPermanent, double gameRating, double rating,
+                           double totalDelta, double bonus, List<GameDelta> games) {
+      this.playerId = playerId;
+      this.ratedAsPermanent = ratedAsPermanent;
+      this.gameRating = gameRating;
+      this.rating = rating;
+      this.totalDelta = totalDelta;
+      this.bonus = bonus;
+      this.games = Collections.unmodifiableList(games);
+   }
+
+   /**
+    * Explains the rating of a player. The cost is proportional to the number of games of the player, once the index
+    * of the games of the tournament is built by the first call. Once the tournament is rated and no longer
+    * mutated, it may be called by several threads at once.
+    *
+    * @param tournament The tournament, rated with the rules of the federation.
+    * @param player     A player of the tournament.
+    * @return The breakdown.
+    * @throws IllegalStateException    If the tournament is not rated with the rules of the federation.
+    * @throws IllegalArgumentException If the player is not registered in the tournament.
+    */
+   public static RatingBreakdown of(Tournament tournament, Player player) {
+      if (!tournament.isRatedOnGames()) {
+         throw new IllegalStateException("Tournament " + tournament.getId()
+               + " is not rated with the rules of the federation");
+      }
+      int index = tournament.indexOf(player);
+      if (index < 0) {
+         throw new IllegalArgumentException("Player " + player.getId() + " is not registered in tournament "
+               + tournament.getId());
+      }
+      double gameRating = gameRating(tournament, player);
+      long[] refs = tournament.getGameRefs(index);
+      List<GameDelta> games = new ArrayList<>(refs.length);
+      double totalDelta = 0;
+      for (long ref : refs) {
+         int round = (int) (ref >>> 32);
+         Game game = tournament.getRounds().get(round).getGames().get((int) ref);
+         boolean white = game.player1 == player;
+         Player opponent = white ? game.player2 : game.player1;
+         double opponentRating = gameRating(tournament, opponent);
+         double actual = white ? game.result : 1 - game.result;
+         double delta = Game.getDelta(gameRating, opponentRating, actual);
+         games.add(new GameDelta(round + 1, opponent.getId(), white, opponentRating,
+               Game.getExpectedResult(gameRating - opponentRating), actual, delta));
+         totalDelta += delta;
+      }
+      boolean permanent = tournament.isRatedAsPermanent(index);
+      double bonus = permanent ? Tournament.bonus(totalDelta, tournament.getRounds().size()) : 0;
+      return new RatingBreakdown(player.getId(), permanent, gameRating, player.getRating(), totalDelta, bonus,
+            games);
+   }
+
+   /**
+    * Rating of a player when the result matrix was filled.
+    */
+   private static double gameRating(Tournament tournament, Player player) {
+      return tournament.isRatedAsPermanent(tournament.indexOf(player)) ? player.getOldRating() : player.getRating();
+   }
+
+   public int getPlayerId() {
+      return playerId;
+   }
+
+   /**
+    * Whether the player had a permanent rating, so that its new rating is {@link #getGameRating()} plus
+    * {@link #getTotalDelta()} and {@link #getBonus()}.
+    *
+    * @return false if the rating of the player is a performance rating.
+    */
+   public boolean isRatedAsPermanent() {
+      return ratedAsPermanent;
+   }
+
+   /**
+    * Rating of the player used for the expected scores of its games.
+    *
+    * @return The old rating of a permanent player, the new rating of another player.
+    */
+   public double getGameRating() {
+      return gameRating;
+   }
+
+   public double getRating() {
+      return rating;
+   }
+
+   public double getTotalDelta() {
+      return totalDelta;
+   }
+
+   public double getBonus() {
+      return bonus;
+   }
+
+   public List<GameDelta> getGames() {
+      return games;
+   }
+
+   /**
+    * Rating adjustment of a player from one game.
+    */
+   public static final class GameDelta {
+
+      private final int round;
+      private final int opponentId;
+      private final boolean white;
+      private final double opponentRating;
+      private final double expectedScore;
+      private final double actualScore;
+      private final double delta;
+
+      GameDelta(int round, int opponentId, boolean white, double opponentRating, double expectedScore,
+                double actualScore, double delta) {
+         this.round = round;
+         this.opponentId = opponentId;
+         this.white = white;
+         this.opponentRating = opponentRating;
+         this.expectedScore = expectedScore;
+         this.actualScore = actualScore;
+         this.delta = delta;
+      }
+
+      /**
+       * Round of the game, starting at 1.
+       *
+       * @return The round.
+       */
+      public int getRound() {
+         return round;
+      }
+
+      public int getOpponentId() {
+         return opponentId;
+      }
+
+      /**
+       * Color of the player.
+       *
+       * @return "white" if the player had the first move, "black" otherwise.
+       */
+      public String getColor() {
+         return white ? "white" : "black";
+      }
+
+      public double getOpponentRating() {
+         return opponentRating;
+      }
+
+      public double getExpectedScore() {
+         return expectedScore;
+      }
+
+      public double getActualScore() {
+         return actualScore;
+      }
+
+      public double getDelta() {
+         return delta;
+      }
+   }
+}
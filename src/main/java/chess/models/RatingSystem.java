@@ -0,0 +1,18 @@
+package chess.models;
+
+/**
+ * Strategy computing the new ratings of the players of a {@link Tournament} from the games of its rounds. The
+ * rules of the federation, implemented by {@link FqeRatingSystem}, are the default; other systems such as
+ * {@link chess.rating.Glicko2RatingSystem} are given to the tournament at construction.
+ */
+public interface RatingSystem {
+
+   /**
+    * Rates the players of a tournament, called once by {@link Tournament#computeTournamentRatings()} before the
+    * standing is computed. Besides the new rating and the old rating of each player, the implementation counts the
+    * wins, losses and ties of each player, on which the standing is based.
+    *
+    * @param tournament The tournament, with all its rounds.
+    */
+   void rate(Tournament tournament);
+}
@@ -0,0 +1,234 @@
+package chess.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Validates rounds of games before they are added to a {@link Tournament}. A round is valid when both players of
+ * every game are registered, no player is paired with themself or plays twice in the round, and every result is
+ * 0, 0.5 or 1.
+ * <p>
+ * The registered player ids are mapped once to dense indexes, by a plain array when the ids are compact and by a
+ * hash map otherwise, and each round is checked in a single pass over its games, the players already paired being
+ * tracked in a bitset over the indexes. Every violation is reported, not only the first one. A validator is
+ * immutable and may be shared between threads.
+ */
+public final class RoundValidator {
+
+   private static final int NOT_FOUND = -1;
+
+   /**
+    * Largest ratio between the range of the ids and their number for which the ids are indexed by a plain array.
+    */
+   private static final int MAX_DENSE_SPREAD = 4;
+
+   private final int playerCount;
+
+   private final int minId;
+
+   /**
+    * Index of each player plus one, by {@code id - minId}, or null when the ids are too sparse.
+    */
+   private final int[] denseIndex;
+
+   private final Map<Integer, Integer> sparseIndex;
+
+   /**
+    * Constructor.
+    *
+    * @param playerIds Ids of the registered players. The index of a player is its position in the array.
+    * @throws IllegalArgumentException If an id is registered twice.
+    */
+   public RoundValidator(int[] playerIds) {
+      this.playerCount = playerIds.length;
+      int min = Integer.MAX_VALUE;
+      int max = Integer.MIN_VALUE;
+      for (int id : playerIds) {
+         min = Math.min(min, id);
+         max = Math.max(max, id);
+      }
+      this.minId = min;
+      long range = playerIds.length == 0 ? 0 : (long) max - min + 1;
+      if (range <= (long) MAX_DENSE_SPREAD * playerIds.length + 64) {
+         denseIndex = new int[(int) range];
+         sparseIndex = null;
+         for (int i = 0; i < playerIds.length; i++) {
+            if (denseIndex[playerIds[i] - min] != 0) {
+               throw registeredTwice(playerIds[i]);
+            }
+            denseIndex[playerIds[i] - min] = i + 1;
+         }
+      } else {
+         denseIndex = null;
+         sparseIndex = new HashMap<>(playerIds.length * 2);
+         for (int i = 0; i < playerIds.length; i++) {
+            if (sparseIndex.put(playerIds[i], i) != null) {
+               throw registeredTwice(playerIds[i]);
+            }
+         }
+      }
+   }
+
+   /**
+    * Creates a validator for a list of players.
+    *
+    * @param players The registered players.
+    * @return The validator.
+    * @throws IllegalArgumentException If an id is registered twice.
+    */
+   public static RoundValidator of(Collection<Player> players) {
+      return new RoundValidator(players.stream().mapToInt(Player::getId).toArray());
+   }
+
+   /**
+    * Index of a registered player.
+    *
+    * @param playerId The player id.
+    * @return The position of the player in the registered ids, or -1 if the player is not registered.
+    */
+   public int indexOf(int playerId) {
+      if (denseIndex != null) {
+         long offset = (long) playerId - minId;
+         return offset >= 0 && offset < denseIndex.length ? denseIndex[(int) offset] - 1 : NOT_FOUND;
+      }
+      Integer index = sparseIndex.get(playerId);
+      return index == null ? NOT_FOUND : index;
+   }
+
+   /**
+    * Validates a round of games referencing the players by id.
+    *
+    * @param round  Position of the round in the tournament, reported in the violations.
+    * @param games  The games.
+    * @param white  Id of the first player of a game.
+    * @param black  Id of the second player of a game.
+    * @param result Result of a game for the first player.
+    * @param <G>    Type of the games.
+    * @return The violations, empty if the round is valid.
+    */
+   public <G> List<RoundViolation> validateRound(int round, List<G> games, ToIntFunction<? super G> white,
+                                                 ToIntFunction<? super G> black, ToDoubleFunction<? super G> result) {
+      List<RoundViolation> violations = new ArrayList<>();
+      check(round, games, white, black, result, new long[words(playerCount)], violations);
+      return violations;
+   }
+
+   /**
+    * Validates consecutive rounds, such as all the rounds of a submitted tournament.
+    *
+    * @param firstRound Position in the tournament of the first round.
+    * @param rounds     The rounds.
+    * @param white      Id of the first player of a game.
+    * @param black      Id of the second player of a game.
+    * @param result     Result of a game for the first player.
+    * @param <G>        Type of the games.
+    * @return The violations of all the rounds, empty if they are all valid.
+    */
+   public <G> List<RoundViolation> validateRounds(int firstRound, List<? extends List<G>> rounds,
+                                                  ToIntFunction<? super G> white, ToIntFunction<? super G> black,
+                                                  ToDoubleFunction<? super G> result) {
+      List<RoundViolation> violations = new ArrayList<>();
+      long[] paired = new long[words(playerCount)];
+      for (int i = 0; i < rounds.size(); i++) {
+         check(firstRound + i, rounds.get(i), white, black, result, paired, violations);
+         Arrays.fill(paired, 0L);
+      }
+      return violations;
+   }
+
+   private <G> void check(int round, List<G> games, ToIntFunction<? super G> white, ToIntFunction<? super G> black,
+                          ToDoubleFunction<? super G> result, long[] paired, List<RoundViolation> violations) {
+      for (int i = 0; i < games.size(); i++) {
+         G game = games.get(i);
+         int whiteId = white.applyAsInt(game);
+         int blackId = black.applyAsInt(game);
+         checkGame(round, i, whiteId, indexOf(whiteId), blackId, indexOf(blackId), result.applyAsDouble(game),
+               paired, violations);
+      }
+   }
+
+   /**
+    * Validates a round of {@link Player} instances, which must be the instances registered in the tournament.
+    *
+    * @param tournament The tournament.
+    * @param roundIndex Position of the round in the tournament.
+    * @param round      The round.
+    * @return The violations, empty if the round is valid.
+    */
+   static List<RoundViolation> validate(Tournament tournament, int roundIndex, Round round) {
+      List<RoundViolation> violations = new ArrayList<>();
+      long[] paired = new long[words(tournament.getPlayers().size())];
+      List<Game> games = round.getGames();
+      for (int i = 0; i < games.size(); i++) {
+         Game game = games.get(i);
+         checkGame(roundIndex, i, idOf(game.player1), indexOf(tournament, game.player1), idOf(game.player2),
+               indexOf(tournament, game.player2), game.result, paired, violations);
+      }
+      return violations;
+   }
+
+   private static int indexOf(Tournament tournament, Player player) {
+      return player == null ? NOT_FOUND : tournament.indexOf(player);
+   }
+
+   private static int idOf(Player player) {
+      return player == null ? 0 : player.getId();
+   }
+
+   private static void checkGame(int round, int game, int whiteId, int whiteIndex, int blackId, int blackIndex,
+                                 double result, long[] paired, List<RoundViolation> violations) {
+      if (whiteIndex == NOT_FOUND) {
+         violations.add(violation(RoundViolation.Kind.UNKNOWN_PLAYER, round, game, whiteId,
+               "Player " + whiteId + " is not registered"));
+      }
+      if (blackIndex == NOT_FOUND) {
+         violations.add(violation(RoundViolation.Kind.UNKNOWN_PLAYER, round, game, blackId,
+               "Player " + blackId + " is not registered"));
+      }
+      if (whiteIndex != NOT_FOUND && whiteIndex == blackIndex) {
+         violations.add(violation(RoundViolation.Kind.SELF_PAIRING, round, game, whiteId,
+               "Player " + whiteId + " is paired with themself"));
+         markPaired(round, game, whiteId, whiteIndex, paired, violations);
+      } else {
+         markPaired(round, game, whiteId, whiteIndex, paired, violations);
+         markPaired(round, game, blackId, blackIndex, paired, violations);
+      }
+      if (result != 0 && result != 0.5 && result != 1) {
+         violations.add(violation(RoundViolation.Kind.INVALID_RESULT, round, game, whiteId,
+               "Result " + result + " is not 0, 0.5 or 1"));
+      }
+   }
+
+   private static void markPaired(int round, int game, int playerId, int index, long[] paired,
+                                  List<RoundViolation> violations) {
+      if (index == NOT_FOUND) {
+         return;
+      }
+      long bit = 1L << index;
+      if ((paired[index >>> 6] & bit) != 0) {
+         violations.add(violation(RoundViolation.Kind.PAIRED_TWICE, round, game, playerId,
+               "Player " + playerId + " is paired twice in the same round"));
+      }
+      paired[index >>> 6] |= bit;
+   }
+
+   private static RoundViolation violation(RoundViolation.Kind kind, int round, int game, int playerId,
+                                           String message) {
+      return new RoundViolation(kind, round, game, playerId,
+            "Round " + (round + 1) + ", game " + (game + 1) + ": " + message);
+   }
+
+   private static int words(int bits) {
+      return (bits + 63) >>> 6;
+   }
+
+   private static IllegalArgumentException registeredTwice(int playerId) {
+      return new IllegalArgumentException("Player " + playerId + " is registered twice");
+   }
+}
@@ -0,0 +1,83 @@
+package chess.models;
+
+/**
+ * A reason why a round of games cannot be added to a {@link Tournament}, reported by {@link RoundValidator}.
+ */
+public final class RoundViolation {
+
+   /**
+    * Kind of violation.
+    */
+   public enum Kind {
+      /**
+       * The player is not registered in the tournament.
+       */
+      UNKNOWN_PLAYER,
+      /**
+       * The player is paired with themself.
+       */
+      SELF_PAIRING,
+      /**
+       * The player already played a game in the same round.
+       */
+      PAIRED_TWICE,
+      /**
+       * The result is not 0, 0.5 or 1.
+       */
+      INVALID_RESULT
+   }
+
+   private final Kind kind;
+   private final int round;
+   private final int game;
+   private final int playerId;
+   private final String message;
+
+   RoundViolation(Kind kind, int round, int game, int playerId, String message) {
+      this.kind = kind;
+      this.round = round;
+      this.game = game;
+      this.playerId = playerId;
+      this.message = message;
+   }
+
+   public Kind getKind() {
+      return kind;
+   }
+
+   /**
+    * Position of the round in the tournament, starting at 0.
+    *
+    * @return The round index.
+    */
+   public int getRound() {
+      return round;
+   }
+
+   /**
+    * Position of the game in its round, starting at 0.
+    *
+    * @return The game index.
+    */
+   public int getGame() {
+      return game;
+   }
+
+   /**
+    * Id of the player concerned. For an invalid result, the id of the first player of the game.
+    *
+    * @return The player id.
+    */
+   public int getPlayerId() {
+      return playerId;
+   }
+
+   public String getMessage() {
+      return message;
+   }
+
+   @Override
+   public String toString() {
+      return message;
+   }
+}
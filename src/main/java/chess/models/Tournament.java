@@ -6,10 +6,15 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import chess.monitoring.RatingPhase;
+
 
 /**
  * This class is responsible for representing a chess tournament composed of a list of Player and Game.
@@ -18,38 +23,134 @@ public class Tournament {
 
    private static final int MIN_NUM_GAMES_PLAYED_FOR_PERMANENT_RATING = 8;
 
+   private String id;
+
    private List<Player> players = new ArrayList<>();
 
+   /**
+    * Position of each {@link Player} in the players list, used instead of a linear indexOf lookup.
+    */
+   private final Map<Player, Integer> playerIndex = new IdentityHashMap<>();
+
    private List<Round> rounds = new ArrayList<>();
 
    private double[][] resultMatrix;
 
    private Player[] playersStanding;
 
+   private final RatingSystem ratingSystem;
+
+   /**
+    * Whether each player had a permanent rating when the tournament was rated with the rules of the federation, so
+    * that its games can be explained afterwards. Null until the permanent players are rated.
+    */
+   private boolean[] ratedAsPermanent;
+
    /**
-    * Single constructor.
+    * Games of the player at index p, from {@code gameOffsets[p]} to {@code gameOffsets[p + 1]} in
+    * {@code gameRefs}. Built on demand by {@link #getGameRefs(int)} and dropped when games are added.
+    */
+   private int[] gameOffsets;
+
+   private long[] gameRefs;
+
+   /**
+    * Constructor of a tournament rated with the rules of the federation, see {@link FqeRatingSystem}.
     *
     * @param players List of players supplied to initialize the {@link Tournament} instance.
     */
    public Tournament(List<Player> players) {
+      this(players, FqeRatingSystem.INSTANCE);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param players      List of players supplied to initialize the {@link Tournament} instance.
+    * @param ratingSystem Rating system computing the new ratings of the players.
+    */
+   public Tournament(List<Player> players, RatingSystem ratingSystem) {
       this.players = players;
+      this.ratingSystem = ratingSystem;
+      for (int i = 0; i < players.size(); i++) {
+         playerIndex.put(players.get(i), i);
+      }
       this.resultMatrix = new double[players.size()][players.size()];
       this.playersStanding = new Player[players.size()];
    }
 
+   /**
+    * Id of the tournament, reported in the flight recorder events of its rating. May be null.
+    *
+    * @return The id.
+    */
+   public String getId() {
+      return id;
+   }
+
+   public void setId(String id) {
+      this.id = id;
+   }
+
+   public RatingSystem getRatingSystem() {
+      return ratingSystem;
+   }
+
    /**
     * Get the square matrix of the players containing the results. The two dimensions of the matrix is represented
     * by the same list of players where the coordinate of a cell contains the cumulated result of all the games
     * played by these two players in a single tournament.
     *
-    * @return The matrix or the players and the games containing the results.
+    * @return A copy of the matrix or the players and the games containing the results.
     */
    public double[][] getResultMatrix() {
-      double[][] copy = new double[resultMatrix.length][resultMatrix[0].length];
-      System.arraycopy(resultMatrix, 0, copy, 0, resultMatrix.length);
+      double[][] copy = new double[resultMatrix.length][];
+      for (int i = 0; i < resultMatrix.length; i++) {
+         copy[i] = resultMatrix[i].clone();
+      }
       return copy;
    }
 
+   /**
+    * Reads a single cell of the result matrix, without copying the matrix.
+    *
+    * @param row    Index of the player.
+    * @param column Index of the opponent.
+    * @return The cumulated rating adjustment of the player from the games against the opponent.
+    */
+   public double getResult(int row, int column) {
+      return resultMatrix[row][column];
+   }
+
+   /**
+    * Sets a single cell of the result matrix, used when the outcome of a rating is restored instead of computed.
+    *
+    * @param row    Index of the player.
+    * @param column Index of the opponent.
+    * @param result The cumulated rating adjustment of the player from the games against the opponent.
+    */
+   public void setResult(int row, int column, double result) {
+      resultMatrix[row][column] = result;
+   }
+
+   /**
+    * Getter which returns a read-only view of the players of the tournament.
+    *
+    * @return The list of players.
+    */
+   public List<Player> getPlayers() {
+      return Collections.unmodifiableList(players);
+   }
+
+   /**
+    * Getter which returns a read-only view of the rounds of the tournament.
+    *
+    * @return The list of rounds.
+    */
+   public List<Round> getRounds() {
+      return Collections.unmodifiableList(rounds);
+   }
+
    /**
     * Getter which returns a defensive copy of the player standings array.
     *
@@ -60,12 +161,94 @@ public class Tournament {
    }
 
    /**
-    * Adds a {@link Round} instance to the current {@link Tournament} rounds list.
+    * Adds a {@link Round} instance to the current {@link Tournament} rounds list, once validated by
+    * {@link RoundValidator}.
     *
     * @param round The {@link Round} instance to add.
+    * @throws InvalidRoundException If a game references a player who is not registered in this tournament, a player
+    *                               plays twice in the round or against themself, or a result is not 0, 0.5 or 1.
     */
    public void addRound(Round round) {
+      List<RoundViolation> violations = RoundValidator.validate(this, rounds.size(), round);
+      if (!violations.isEmpty()) {
+         throw new InvalidRoundException(violations);
+      }
       rounds.add(round);
+      dropGameIndex();
+   }
+
+   /**
+    * Adds games to a round, such as results relayed from electronic boards while the round is played. The round is
+    * either an existing round or the next one, which is then created. The whole round, including the games already
+    * added, is validated by {@link RoundValidator}.
+    *
+    * @param roundIndex Position of the round, from 0 to the number of rounds.
+    * @param games      The games to add.
+    * @throws InvalidRoundException     If the round would be invalid with the added games.
+    * @throws IndexOutOfBoundsException If the round is neither an existing round nor the next one.
+    */
+   public void addGames(int roundIndex, List<Game> games) {
+      if (roundIndex < 0 || roundIndex > rounds.size()) {
+         throw new IndexOutOfBoundsException("Round " + (roundIndex + 1) + " does not exist and is not the next one");
+      }
+      List<Game> roundGames = new ArrayList<>();
+      if (roundIndex < rounds.size()) {
+         roundGames.addAll(rounds.get(roundIndex).getGames());
+      }
+      roundGames.addAll(games);
+      Round round = new Round(roundGames);
+      List<RoundViolation> violations = RoundValidator.validate(this, roundIndex, round);
+      if (!violations.isEmpty()) {
+         throw new InvalidRoundException(violations);
+      }
+      if (roundIndex < rounds.size()) {
+         rounds.set(roundIndex, round);
+      } else {
+         rounds.add(round);
+      }
+      dropGameIndex();
+   }
+
+   private synchronized void dropGameIndex() {
+      gameOffsets = null;
+      gameRefs = null;
+   }
+
+   /**
+    * Games of a player in round order, each as the position of its round in the 32 high bits and its position in
+    * the round in the low bits. The index of the games of every player is built on the first call in a single pass
+    * over the games, so rating a tournament never pays for it, and later calls only copy the games of the player.
+    * Readers of a rated tournament may build the index concurrently, hence the lock.
+    *
+    * @param playerIndex Index of the player.
+    * @return The positions of the games.
+    */
+   synchronized long[] getGameRefs(int playerIndex) {
+      if (gameOffsets == null) {
+         int[] offsets = new int[players.size() + 1];
+         for (Round round : rounds) {
+            for (Game game : round.getGames()) {
+               offsets[indexOf(game.player1) + 1]++;
+               offsets[indexOf(game.player2) + 1]++;
+            }
+         }
+         for (int p = 0; p < players.size(); p++) {
+            offsets[p + 1] += offsets[p];
+         }
+         long[] refs = new long[offsets[players.size()]];
+         int[] next = Arrays.copyOf(offsets, players.size());
+         for (int r = 0; r < rounds.size(); r++) {
+            List<Game> games = rounds.get(r).getGames();
+            for (int g = 0; g < games.size(); g++) {
+               long ref = (long) r << 32 | g;
+               refs[next[indexOf(games.get(g).player1)]++] = ref;
+               refs[next[indexOf(games.get(g).player2)]++] = ref;
+            }
+         }
+         gameOffsets = offsets;
+         gameRefs = refs;
+      }
+      return Arrays.copyOfRange(gameRefs, gameOffsets[playerIndex], gameOffsets[playerIndex + 1]);
    }
 
    /**
@@ -75,8 +258,8 @@ public class Tournament {
     * @param game The added game.
     */
    public void addResult(Game game) {
-      int coordPlayer1 = players.indexOf(game.player1);
-      int coordPlayer2 = players.indexOf(game.player2);
+      int coordPlayer1 = indexOf(game.player1);
+      int coordPlayer2 = indexOf(game.player2);
       double resultForPlayer1 = game.result;
       double resultForPlayer2 = game.result;
 
@@ -98,31 +281,37 @@ public class Tournament {
    }
 
    /**
-    * Method used to aggregate all the rating adjustments for each player and compute the final rating after
-    * a completed tournament. The bonus is also calculated based on the number of rounds played.
+    * Returns the position of a {@link Player} in this tournament, or -1 if the player is not registered.
+    *
+    * @param player The {@link Player} to look up.
+    * @return The index of the player in the players list.
     */
-   public void computeTournamentRatings() {
-
-      List<Player> unratedPlayers = getNewPlayers();
-      List<Player> playersWithTemporaryRating = getPlayersWithTemporaryRating();
-      List<Player> permanentPlayers = getPermanentPlayers();
-
-      // first compute the ratings of unrated players.
-      if (unratedPlayers.size() > 0) {
-         unratedPlayers.forEach(this::computeRatingForNewPlayer);
-      }
+   public int indexOf(Player player) {
+      Integer index = playerIndex.get(player);
+      return index == null ? -1 : index;
+   }
 
-      // Then compute ratings for players with temporary rating.
-      if (playersWithTemporaryRating.size() > 0) {
-         playersWithTemporaryRating.forEach(this::computeRatingForPlayerWithTemporaryRating);
-      }
+   /**
+    * Computes the new ratings with the {@link RatingSystem} of the tournament, then the standing of the players.
+    */
+   public void computeTournamentRatings() {
+      ratingSystem.rate(this);
 
-      addGameResultsToResultMatrix();
-      computeRatingForPermanentPlayers(permanentPlayers);
+      RatingPhase phase = RatingPhase.begin(RatingPhase.STANDING);
       computePlayerStanding();
+      phase.end(id, players.size(), getGameCount());
+   }
+
+   /**
+    * Number of games of all the rounds.
+    *
+    * @return The number of games.
+    */
+   public int getGameCount() {
+      return rounds.stream().mapToInt(Round::getSize).sum();
    }
 
-   private void addGameResultsToResultMatrix() {
+   void addGameResultsToResultMatrix() {
       for (Round round : rounds) {
          for (Game game : round.getGames()) {
             addResult(game);
@@ -130,31 +319,75 @@ public class Tournament {
       }
    }
 
-   private void computeRatingForPermanentPlayers(List<Player> permanentPlayers) {
+   void computeRatingForPermanentPlayers(List<Player> permanentPlayers) {
+      ratedAsPermanent = new boolean[players.size()];
       for (Player player : permanentPlayers) {
+         ratedAsPermanent[indexOf(player)] = true;
          double newRating = player.getRating();
+         double[] playerResults = resultMatrix[indexOf(player)];
          for (int i = 0; i < players.size(); i++) {
-            newRating += resultMatrix[players.indexOf(player)][i];
+            newRating += playerResults[i];
          }
 
-         // Calculate bonus if 4 rounds or more were played
          player.setOldRating(player.getRating());
-         double delta = newRating - player.getOldRating();
-         double bonus = 0;
-         if (rounds.size() > 3) {
-            bonus = delta - (double) (24 + 2 * (rounds.size() - 4));
-            if (bonus < 0) {
-               bonus = 0;
-            }
-         }
-         player.setRating(newRating + bonus);
+         player.setRating(newRating + bonus(newRating - player.getOldRating(), rounds.size()));
       }
    }
 
+   /**
+    * Bonus of a permanent player, granted if 4 rounds or more were played, for the part of its rating gain above
+    * 24 points plus 2 points for each round after the fourth.
+    *
+    * @param delta      Sum of the rating adjustments of the games of the player.
+    * @param roundCount Number of rounds of the tournament.
+    * @return The bonus, 0 or more.
+    */
+   static double bonus(double delta, int roundCount) {
+      if (roundCount <= 3) {
+         return 0;
+      }
+      return Math.max(0, delta - (double) (24 + 2 * (roundCount - 4)));
+   }
+
+   /**
+    * Whether a player had a permanent rating when the tournament was rated with the rules of the federation, in
+    * which case its new rating is its old rating plus the rating adjustments of its games and the bonus.
+    *
+    * @param playerIndex Index of the player.
+    * @return false if the tournament is not rated with these rules.
+    */
+   public boolean isRatedAsPermanent(int playerIndex) {
+      return ratedAsPermanent != null && ratedAsPermanent[playerIndex];
+   }
+
+   /**
+    * Records whether a player had a permanent rating when the tournament was rated, used when the outcome of a
+    * rating is restored instead of computed.
+    *
+    * @param playerIndex Index of the player.
+    * @param permanent   Whether the player was rated as permanent.
+    */
+   public void setRatedAsPermanent(int playerIndex, boolean permanent) {
+      if (ratedAsPermanent == null) {
+         ratedAsPermanent = new boolean[players.size()];
+      }
+      ratedAsPermanent[playerIndex] = permanent;
+   }
+
+   /**
+    * Whether the permanent players of the tournament were rated with the rules of the federation, by the
+    * computation or by a restored outcome.
+    *
+    * @return true once rated with these rules.
+    */
+   boolean isRatedOnGames() {
+      return ratedAsPermanent != null;
+   }
+
    /**
     * Method used to compute the standing of the player and sort the list.
     */
-   private void computePlayerStanding() {
+   public void computePlayerStanding() {
       IntStream.range(0, players.size()).forEach(i -> playersStanding[i] = players.get(i));
       Player.insertionSortOnScore(playersStanding);
    }
@@ -218,13 +451,13 @@ public class Tournament {
     *
     * @return List of {@link Player}.
     */
-   private List<Player> getNewPlayers() {
+   List<Player> getNewPlayers() {
       return players.stream()
             .filter(p -> p.getRating() == 0)
             .collect(Collectors.toList());
    }
 
-   private List<Player> getPlayersWithTemporaryRating() {
+   List<Player> getPlayersWithTemporaryRating() {
       return players.stream()
             .filter(p -> p.getRating() > 0)
             .filter(p -> p.getUnratedGamesPlayed() > 0)
@@ -232,7 +465,7 @@ public class Tournament {
             .collect(Collectors.toList());
    }
 
-   private List<Player> getPermanentPlayers(){
+   List<Player> getPermanentPlayers(){
       return players.stream()
             .filter(p -> p.getRating() > 0)
             .filter(p -> p.getUnratedGamesPlayed() == 0)
@@ -276,46 +509,102 @@ public class Tournament {
 
    /**
     * Calculates the performance rating of a {@link Player} but also returns the number of games played
-    * to be used subsequently.
+    * to be used subsequently. Unrated opponents are provisionally assigned a rating of 1100.
     *
     * @param player {@link Player} for which the rating is computed.
     * @return An array containing the rating value [0] and the number of games played [1].
     */
    public int[] computePerformanceRating(Player player) {
-      int average = 0;
-      int victories = 0;
+      double opponentsRatingSum = 0;
+      int winsMinusLosses = 0;
       int totalGames = 0;
 
-
       for (Round round : rounds) {
          for (Game game : round.getGames()) {
             if (game.player1 == player) {
-               average += game.player2.getRating();
-               victories += game.result;
+               opponentsRatingSum += ratingOrProvisional(game.player2);
+               winsMinusLosses += winsMinusLosses(game.result);
                totalGames++;
             }
 
             if (game.player2 == player) {
-               average += game.player1.getRating();
-               if (game.result == 0) {
-                  victories += 1;
-               } else if (game.result == 0.5) {
-                  victories += game.result;
-               }
+               opponentsRatingSum += ratingOrProvisional(game.player1);
+               winsMinusLosses += winsMinusLosses(1 - game.result);
                totalGames++;
             }
          }
       }
-      average = average / totalGames;
-      int losses = totalGames - victories;
+      if (totalGames == 0) {
+         return new int[]{(int) player.getRating(), 0};
+      }
 
-      double gamemod = (double) (victories - losses) / (double) totalGames;
-      int modifier = (int) (400. * gamemod);
+      int average = (int) (opponentsRatingSum / totalGames);
+      int modifier = (int) (400. * winsMinusLosses / totalGames);
       int newRating = average + modifier;
 
       return new int[]{newRating, totalGames};
    }
 
+   private static double ratingOrProvisional(Player opponent) {
+      return opponent.getRating() == 0 ? PerformanceRatingSolver.PROVISIONAL_RATING : opponent.getRating();
+   }
+
+   private static int winsMinusLosses(double result) {
+      if (result == 1) {
+         return 1;
+      } else if (result == 0) {
+         return -1;
+      }
+      return 0;
+   }
+
+   /**
+    * Calculates the ratings of all the unrated players together with a {@link PerformanceRatingSolver}, so that
+    * the rating of an unrated player does not depend on the order in which its unrated opponents are rated.
+    *
+    * @param unratedPlayers The players without a rating.
+    */
+   void computeRatingsForNewPlayers(List<Player> unratedPlayers) {
+      Map<Player, Integer> positions = new IdentityHashMap<>();
+      for (int i = 0; i < unratedPlayers.size(); i++) {
+         positions.put(unratedPlayers.get(i), i);
+      }
+
+      PerformanceRatingSolver solver = new PerformanceRatingSolver(unratedPlayers.size());
+      for (Round round : rounds) {
+         for (Game game : round.getGames()) {
+            Integer white = positions.get(game.player1);
+            Integer black = positions.get(game.player2);
+            if (white != null) {
+               if (black != null) {
+                  solver.addGameAgainstUnrated(white, black, game.result);
+               } else {
+                  solver.addGameAgainstRated(white, game.player2.getRating(), game.result);
+               }
+            }
+            if (black != null) {
+               if (white != null) {
+                  solver.addGameAgainstUnrated(black, white, 1 - game.result);
+               } else {
+                  solver.addGameAgainstRated(black, game.player1.getRating(), 1 - game.result);
+               }
+            }
+         }
+      }
+
+      double[] performanceRatings = solver.solve();
+      for (int i = 0; i < unratedPlayers.size(); i++) {
+         int totalGames = solver.getGamesPlayed(i);
+         if (totalGames == 0) {
+            continue;
+         }
+         Player player = unratedPlayers.get(i);
+         player.setRating(compensateLowRating((int) performanceRatings[i]));
+         player.setUnratedGamesPlayed(totalGames);
+         player.setRatingPermanent(false);
+      }
+   }
+
    /**
     * Computed the rating for a player without a permanent rating based on the current {@link Tournament}
     * performance rating and the previous rating value ponderated on the games played.
@@ -0,0 +1,32 @@
+package chess.monitoring;
+
+/**
+ * Detects the flight recorder API, present from Java 11 and in Java 8 builds from update 262. The classes of this
+ * package extending {@code jdk.jfr.Event} must only be loaded when it is present, or they fail with a
+ * {@link NoClassDefFoundError}; this class does not refer to the API.
+ */
+public final class FlightRecorderSupport {
+
+   private static final boolean AVAILABLE = detect();
+
+   private FlightRecorderSupport() {
+   }
+
+   /**
+    * Whether the flight recorder API is present in the running JVM.
+    *
+    * @return true if the events of this package can be recorded.
+    */
+   public static boolean isAvailable() {
+      return AVAILABLE;
+   }
+
+   private static boolean detect() {
+      try {
+         Class.forName("jdk.jfr.Event", false, FlightRecorderSupport.class.getClassLoader());
+         return true;
+      } catch (ClassNotFoundException | LinkageError e) {
+         return false;
+      }
+   }
+}
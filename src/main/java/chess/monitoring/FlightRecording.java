@@ -0,0 +1,58 @@
+package chess.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Optional always-on flight recording, so that a production incident can be analysed after the fact without
+ * attaching an agent. Enabled by the {@code chess.jfr.recording} system property, it uses the low-overhead
+ * {@code default} settings of the JDK plus the events of this package, keeps the last {@code chess.jfr.maxAgeMinutes}
+ * minutes (60 by default) and at most {@code chess.jfr.maxSizeMb} megabytes (250 by default) on disk, and is dumped
+ * to {@code chess.jfr.file} (chess.jfr by default) when the JVM exits. A dump can be taken at any time with
+ * {@code jcmd <pid> JFR.dump name=chess}.
+ */
+public final class FlightRecording {
+
+   /**
+    * Name of the recording, used by {@code jcmd}.
+    */
+   public static final String NAME = "chess";
+
+   private static Recording recording;
+
+   private FlightRecording() {
+   }
+
+   /**
+    * Starts the recording if enabled by the system properties. Later calls do nothing.
+    */
+   public static synchronized void startIfConfigured() {
+      if (recording != null || !Boolean.getBoolean("chess.jfr.recording")) {
+         return;
+      }
+      if (!FlightRecorderSupport.isAvailable()) {
+         System.err.println("Flight recording not started: the JVM has no flight recorder");
+         return;
+      }
+      try {
+         Recording started = new Recording(Configuration.getConfiguration("default"));
+         started.setName(NAME);
+         started.enable(RatingPhaseEvent.class);
+         started.enable(RestRequestEvent.class);
+         started.setToDisk(true);
+         started.setMaxAge(Duration.ofMinutes(Long.getLong("chess.jfr.maxAgeMinutes", 60)));
+         started.setMaxSize(Long.getLong("chess.jfr.maxSizeMb", 250) * 1024 * 1024);
+         started.setDestination(Paths.get(System.getProperty("chess.jfr.file", "chess.jfr")));
+         started.setDumpOnExit(true);
+         started.start();
+         recording = started;
+      } catch (IOException | ParseException | RuntimeException e) {
+         System.err.println("Flight recording not started: " + e);
+      }
+   }
+}
@@ -0,0 +1,76 @@
+package chess.monitoring;
+
+/**
+ * Timing of one phase of {@link chess.models.Tournament#computeTournamentRatings()}, recorded as a
+ * {@link RatingPhaseEvent} when the flight recorder API is present. Without it, the phases are not timed and the
+ * ratings never load a class extending {@code jdk.jfr.Event}.
+ */
+public abstract class RatingPhase {
+
+   /**
+    * Classification of the players as unrated, provisional or permanent.
+    */
+   public static final String CLASSIFICATION = "classification";
+   /**
+    * Performance rating of the unrated players.
+    */
+   public static final String UNRATED_PLAYERS = "unratedPlayers";
+   /**
+    * Rating of the players with a provisional rating.
+    */
+   public static final String PROVISIONAL_PLAYERS = "provisionalPlayers";
+   /**
+    * Accumulation of the game deltas in the result matrix.
+    */
+   public static final String RESULT_MATRIX = "resultMatrix";
+   /**
+    * Rating of the players with a permanent rating.
+    */
+   public static final String PERMANENT_PLAYERS = "permanentPlayers";
+   /**
+    * Sort of the standing.
+    */
+   public static final String STANDING = "standing";
+
+   private static final RatingPhase NOT_RECORDED = new RatingPhase() {
+      @Override
+      public void end(String tournamentId, int playerCount, int gameCount) {
+      }
+   };
+
+   private RatingPhase() {
+   }
+
+   /**
+    * Starts timing a phase.
+    *
+    * @param phase Name of the phase, one of the constants of this class.
+    * @return The started phase.
+    */
+   public static RatingPhase begin(String phase) {
+      return FlightRecorderSupport.isAvailable() ? new Recorded(phase) : NOT_RECORDED;
+   }
+
+   /**
+    * Ends the phase and records it, if the event is enabled and over its threshold.
+    *
+    * @param tournamentId Id of the tournament, may be null.
+    * @param playerCount  Number of players of the tournament.
+    * @param gameCount    Number of games of the tournament.
+    */
+   public abstract void end(String tournamentId, int playerCount, int gameCount);
+
+   private static final class Recorded extends RatingPhase {
+
+      private final RatingPhaseEvent event;
+
+      Recorded(String phase) {
+         this.event = RatingPhaseEvent.begin(phase);
+      }
+
+      @Override
+      public void end(String tournamentId, int playerCount, int gameCount) {
+         event.end(tournamentId, playerCount, gameCount);
+      }
+   }
+}
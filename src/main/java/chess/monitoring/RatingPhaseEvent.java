@@ -0,0 +1,65 @@
+package chess.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering one phase of {@link chess.models.Tournament#computeTournamentRatings()}. The
+ * duration of the event is the duration of the phase. Only created through {@link RatingPhase}, which checks that
+ * the flight recorder API is present.
+ */
+@Name("chess.RatingPhase")
+@Label("Rating Phase")
+@Category({"Chess", "Rating"})
+@Description("One phase of the rating of a tournament")
+@StackTrace(false)
+public final class RatingPhaseEvent extends Event {
+
+   @Label("Tournament")
+   String tournamentId;
+
+   @Label("Phase")
+   String phase;
+
+   @Label("Players")
+   @Description("Number of players of the tournament")
+   int playerCount;
+
+   @Label("Games")
+   @Description("Number of games of the tournament")
+   int gameCount;
+
+   /**
+    * Starts timing a phase.
+    *
+    * @param phase Name of the phase, one of the constants of {@link RatingPhase}.
+    * @return The started event.
+    */
+   public static RatingPhaseEvent begin(String phase) {
+      RatingPhaseEvent event = new RatingPhaseEvent();
+      event.phase = phase;
+      event.begin();
+      return event;
+   }
+
+   /**
+    * Ends the phase and records it, if the event is enabled and over its threshold.
+    *
+    * @param tournamentId Id of the tournament, may be null.
+    * @param playerCount  Number of players of the tournament.
+    * @param gameCount    Number of games of the tournament.
+    */
+   public void end(String tournamentId, int playerCount, int gameCount) {
+      end();
+      if (shouldCommit()) {
+         this.tournamentId = tournamentId;
+         this.playerCount = playerCount;
+         this.gameCount = gameCount;
+         commit();
+      }
+   }
+}
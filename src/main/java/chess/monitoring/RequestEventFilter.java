@@ -0,0 +1,64 @@
+package chess.monitoring;
+
+import java.util.Collection;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+
+import chess.registry.TournamentSnapshot;
+
+/**
+ * Records a {@link RestRequestEvent} for each request matched by a resource. The event begins once the request is
+ * matched and is committed when the response is sent, after a suspended request is resumed.
+ */
+public class RequestEventFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+   private static final String EVENT_PROPERTY = RestRequestEvent.class.getName();
+
+   @Context
+   private ResourceInfo resourceInfo;
+
+   @Override
+   public void filter(ContainerRequestContext request) {
+      RestRequestEvent event = new RestRequestEvent();
+      if (event.isEnabled()) {
+         event.begin();
+         request.setProperty(EVENT_PROPERTY, event);
+      }
+   }
+
+   @Override
+   public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+      Object property = request.getProperty(EVENT_PROPERTY);
+      if (!(property instanceof RestRequestEvent)) {
+         return;
+      }
+      RestRequestEvent event = (RestRequestEvent) property;
+      event.end();
+      if (!event.shouldCommit()) {
+         return;
+      }
+      event.method = request.getMethod();
+      event.path = request.getUriInfo().getPath();
+      if (resourceInfo != null && resourceInfo.getResourceMethod() != null) {
+         event.resource = resourceInfo.getResourceClass().getSimpleName() + "."
+               + resourceInfo.getResourceMethod().getName();
+      }
+      event.status = response.getStatus();
+      event.tournamentId = request.getUriInfo().getPathParameters().getFirst("id");
+      Object entity = response.getEntity();
+      if (entity instanceof TournamentSnapshot) {
+         TournamentSnapshot tournament = (TournamentSnapshot) entity;
+         event.tournamentId = tournament.getId();
+         event.playerCount = tournament.getStanding().size();
+         event.gameCount = tournament.getGameCount();
+      } else if (entity instanceof Collection) {
+         event.playerCount = ((Collection<?>) entity).size();
+      }
+      event.commit();
+   }
+}
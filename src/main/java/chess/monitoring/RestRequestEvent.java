@@ -0,0 +1,44 @@
+package chess.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event covering one REST request, from its matching to its response, including the time a
+ * suspended request waits for its result.
+ */
+@Name("chess.RestRequest")
+@Label("REST Request")
+@Category({"Chess", "REST"})
+@Description("One request served by a resource of the service")
+@StackTrace(false)
+public final class RestRequestEvent extends Event {
+
+   @Label("Method")
+   String method;
+
+   @Label("Path")
+   String path;
+
+   @Label("Resource")
+   @Description("Resource class and method serving the request")
+   String resource;
+
+   @Label("Status")
+   int status;
+
+   @Label("Players")
+   @Description("Number of players of the tournament, for tournament requests")
+   int playerCount;
+
+   @Label("Games")
+   @Description("Number of games of the tournament, for tournament requests")
+   int gameCount;
+
+   @Label("Tournament")
+   String tournamentId;
+}
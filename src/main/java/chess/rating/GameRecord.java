@@ -0,0 +1,36 @@
+package chess.rating;
+
+/**
+ * Immutable record of a single rated game from the historical game log. Players are referenced by id.
+ */
+public final class GameRecord {
+
+   private final int whiteId;
+   private final int blackId;
+   private final double result;
+
+   /**
+    * GameRecord constructor.
+    *
+    * @param whiteId Id of the first player.
+    * @param blackId Id of the second player.
+    * @param result  Result : 1 if first player wins, 0 if first player loses, 0.5 in case of a draw.
+    */
+   public GameRecord(int whiteId, int blackId, double result) {
+      this.whiteId = whiteId;
+      this.blackId = blackId;
+      this.result = result;
+   }
+
+   public int getWhiteId() {
+      return whiteId;
+   }
+
+   public int getBlackId() {
+      return blackId;
+   }
+
+   public double getResult() {
+      return result;
+   }
+}
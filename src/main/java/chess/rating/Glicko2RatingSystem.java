@@ -0,0 +1,300 @@
+package chess.rating;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import chess.models.Game;
+import chess.models.Player;
+import chess.models.RatingSystem;
+import chess.models.Round;
+import chess.models.Tournament;
+
+/**
+ * Glicko-2 rating system, as described by Mark Glickman in "Example of the Glicko-2 system". Each tournament is one
+ * rating period: the new rating, rating deviation and volatility of every player are computed from the values of
+ * all the players before the period, so the players are rated in parallel, over primitive arrays.
+ * <p>
+ * The deviation and the volatility of each player are kept by this system from one rating period to the next, in
+ * primitive columns indexed by a slot assigned to each player id, while the rating is kept by the {@link Player}.
+ * An unrated player starts at 1500, and a player unknown to the system starts with a deviation of 350 and a
+ * volatility of 0.06. The deviation of a player who does not play during a period grows, up to 350.
+ * <p>
+ * Since the state of a player is found by its id, every player of a rated tournament must have a positive id of
+ * its own; a tournament with an unset or a duplicate id is rejected before any player is changed.
+ */
+public final class Glicko2RatingSystem implements RatingSystem {
+
+   public static final double DEFAULT_RATING = 1500;
+
+   public static final double DEFAULT_DEVIATION = 350;
+
+   public static final double DEFAULT_VOLATILITY = 0.06;
+
+   /**
+    * Default system constant, constraining the change of volatility over time.
+    */
+   public static final double DEFAULT_TAU = 0.5;
+
+   /**
+    * Ratio between the Glicko and the Glicko-2 scales.
+    */
+   private static final double SCALE = 173.7178;
+
+   private static final double CONVERGENCE_TOLERANCE = 0.000001;
+
+   private static final int MAX_ITERATIONS = 100;
+
+   private final double tau;
+
+   private final Map<Integer, Integer> slots = new HashMap<>();
+
+   private double[] deviations = new double[16];
+
+   private double[] volatilities = new double[16];
+
+   public Glicko2RatingSystem() {
+      this(DEFAULT_TAU);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param tau System constant, typically between 0.3 and 1.2. Smaller values prevent the volatility from
+    *            changing much.
+    */
+   public Glicko2RatingSystem(double tau) {
+      if (!(tau > 0)) {
+         throw new IllegalArgumentException("tau must be positive");
+      }
+      this.tau = tau;
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * @throws IllegalArgumentException If a player has no id, or the same id as another player.
+    */
+   @Override
+   public synchronized void rate(Tournament tournament) {
+      List<Player> players = tournament.getPlayers();
+      checkIds(players);
+      int playerCount = players.size();
+      double[] ratings = new double[playerCount];
+      double[] periodDeviations = new double[playerCount];
+      double[] periodVolatilities = new double[playerCount];
+      int[] playerSlots = new int[playerCount];
+      for (int i = 0; i < playerCount; i++) {
+         Player player = players.get(i);
+         int slot = slotOf(player.getId());
+         playerSlots[i] = slot;
+         ratings[i] = player.getRating() == 0 ? DEFAULT_RATING : player.getRating();
+         periodDeviations[i] = deviations[slot];
+         periodVolatilities[i] = volatilities[slot];
+      }
+
+      int gameCount = tournament.getGameCount();
+      int[] white = new int[gameCount];
+      int[] black = new int[gameCount];
+      double[] results = new double[gameCount];
+      int g = 0;
+      for (Round round : tournament.getRounds()) {
+         for (Game game : round.getGames()) {
+            white[g] = tournament.indexOf(game.player1);
+            black[g] = tournament.indexOf(game.player2);
+            results[g] = game.result;
+            countResult(game);
+            g++;
+         }
+      }
+
+      ratePeriod(ratings, periodDeviations, periodVolatilities, white, black, results, tau);
+
+      for (int i = 0; i < playerCount; i++) {
+         Player player = players.get(i);
+         player.setOldRating(player.getRating());
+         player.setRating(ratings[i]);
+         deviations[playerSlots[i]] = periodDeviations[i];
+         volatilities[playerSlots[i]] = periodVolatilities[i];
+      }
+   }
+
+   /**
+    * Rating deviation of a player, on the Glicko scale.
+    *
+    * @param playerId Player id.
+    * @return The deviation, 350 for a player never rated by this system.
+    */
+   public synchronized double getDeviation(int playerId) {
+      Integer slot = slots.get(playerId);
+      return slot == null ? DEFAULT_DEVIATION : deviations[slot];
+   }
+
+   /**
+    * Volatility of a player.
+    *
+    * @param playerId Player id.
+    * @return The volatility, 0.06 for a player never rated by this system.
+    */
+   public synchronized double getVolatility(int playerId) {
+      Integer slot = slots.get(playerId);
+      return slot == null ? DEFAULT_VOLATILITY : volatilities[slot];
+   }
+
+   /**
+    * Rates one rating period. The arrays of the players are updated in place with the values after the period.
+    * The players are rated in parallel on the common fork join pool.
+    *
+    * @param ratings      Rating of each player, on the Glicko scale.
+    * @param deviations   Rating deviation of each player, on the Glicko scale.
+    * @param volatilities Volatility of each player.
+    * @param white        Index of the first player of each game.
+    * @param black        Index of the second player of each game.
+    * @param results      Result of each game for the first player: 1, 0.5 or 0.
+    * @param tau          System constant.
+    */
+   public static void ratePeriod(double[] ratings, double[] deviations, double[] volatilities, int[] white,
+                                 int[] black, double[] results, double tau) {
+      int playerCount = ratings.length;
+
+      // Games of each player, as adjacency lists stored in two flat arrays.
+      int[] offsets = new int[playerCount + 1];
+      for (int g = 0; g < white.length; g++) {
+         offsets[white[g] + 1]++;
+         offsets[black[g] + 1]++;
+      }
+      for (int i = 0; i < playerCount; i++) {
+         offsets[i + 1] += offsets[i];
+      }
+      int[] opponents = new int[offsets[playerCount]];
+      double[] scores = new double[offsets[playerCount]];
+      int[] next = Arrays.copyOf(offsets, playerCount);
+      for (int g = 0; g < white.length; g++) {
+         int w = next[white[g]]++;
+         opponents[w] = black[g];
+         scores[w] = results[g];
+         int b = next[black[g]]++;
+         opponents[b] = white[g];
+         scores[b] = 1 - results[g];
+      }
+
+      double[] mu = new double[playerCount];
+      double[] phi = new double[playerCount];
+      double[] weight = new double[playerCount];
+      IntStream.range(0, playerCount).parallel().forEach(i -> {
+         mu[i] = (ratings[i] - DEFAULT_RATING) / SCALE;
+         phi[i] = deviations[i] / SCALE;
+         weight[i] = 1 / Math.sqrt(1 + 3 * phi[i] * phi[i] / (Math.PI * Math.PI));
+      });
+
+      IntStream.range(0, playerCount).parallel().forEach(i -> {
+         double sigma = volatilities[i];
+         if (offsets[i] == offsets[i + 1]) {
+            deviations[i] = Math.min(DEFAULT_DEVIATION, SCALE * Math.sqrt(phi[i] * phi[i] + sigma * sigma));
+            return;
+         }
+         double inverseVariance = 0;
+         double improvement = 0;
+         for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+            int j = opponents[k];
+            double expected = 1 / (1 + Math.exp(-weight[j] * (mu[i] - mu[j])));
+            inverseVariance += weight[j] * weight[j] * expected * (1 - expected);
+            improvement += weight[j] * (scores[k] - expected);
+         }
+         double variance = 1 / inverseVariance;
+         double newSigma = volatility(variance * improvement, phi[i], variance, sigma, tau);
+         double prePeriodPhi = Math.sqrt(phi[i] * phi[i] + newSigma * newSigma);
+         double newPhi = 1 / Math.sqrt(1 / (prePeriodPhi * prePeriodPhi) + inverseVariance);
+         ratings[i] = DEFAULT_RATING + SCALE * (mu[i] + newPhi * newPhi * improvement);
+         deviations[i] = SCALE * newPhi;
+         volatilities[i] = newSigma;
+      });
+   }
+
+   /**
+    * New volatility, root of the function of step 5 of the paper found by the Illinois algorithm.
+    */
+   private static double volatility(double delta, double phi, double variance, double sigma, double tau) {
+      double a = Math.log(sigma * sigma);
+      double phi2 = phi * phi;
+      double delta2 = delta * delta;
+
+      double lowerBound = a;
+      double upperBound;
+      if (delta2 > phi2 + variance) {
+         upperBound = Math.log(delta2 - phi2 - variance);
+      } else {
+         int k = 1;
+         while (f(a - k * tau, a, delta2, phi2, variance, tau) < 0) {
+            k++;
+         }
+         upperBound = a - k * tau;
+      }
+
+      double fLower = f(lowerBound, a, delta2, phi2, variance, tau);
+      double fUpper = f(upperBound, a, delta2, phi2, variance, tau);
+      for (int i = 0; i < MAX_ITERATIONS && Math.abs(upperBound - lowerBound) > CONVERGENCE_TOLERANCE; i++) {
+         double c = lowerBound + (lowerBound - upperBound) * fLower / (fUpper - fLower);
+         double fC = f(c, a, delta2, phi2, variance, tau);
+         if (fC * fUpper <= 0) {
+            lowerBound = upperBound;
+            fLower = fUpper;
+         } else {
+            fLower /= 2;
+         }
+         upperBound = c;
+         fUpper = fC;
+      }
+      return Math.exp(lowerBound / 2);
+   }
+
+   private static double f(double x, double a, double delta2, double phi2, double variance, double tau) {
+      double ex = Math.exp(x);
+      double denominator = phi2 + variance + ex;
+      return ex * (delta2 - phi2 - variance - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+   }
+
+   private static void countResult(Game game) {
+      if (game.result == 1) {
+         game.player1.addWin();
+         game.player2.addLoss();
+      } else if (game.result == 0) {
+         game.player1.addLoss();
+         game.player2.addWin();
+      } else {
+         game.player1.addTie();
+         game.player2.addTie();
+      }
+   }
+
+   private static void checkIds(List<Player> players) {
+      Set<Integer> ids = new HashSet<>(players.size() * 2);
+      for (Player player : players) {
+         if (player.getId() <= 0) {
+            throw new IllegalArgumentException("Player " + player.getFullName() + " has no id");
+         }
+         if (!ids.add(player.getId())) {
+            throw new IllegalArgumentException("Player id " + player.getId() + " is not unique");
+         }
+      }
+   }
+
+   private int slotOf(int playerId) {
+      Integer slot = slots.get(playerId);
+      if (slot == null) {
+         slot = slots.size();
+         if (slot == deviations.length) {
+            deviations = Arrays.copyOf(deviations, slot * 2);
+            volatilities = Arrays.copyOf(volatilities, slot * 2);
+         }
+         deviations[slot] = DEFAULT_DEVIATION;
+         volatilities[slot] = DEFAULT_VOLATILITY;
+         slots.put(playerId, slot);
+      }
+      return slot;
+   }
+}
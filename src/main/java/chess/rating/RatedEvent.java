@@ -0,0 +1,58 @@
+package chess.rating;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable entry of the historical game log: one rated competition, composed of rounds of {@link GameRecord}.
+ * The participants are the players appearing in at least one game.
+ */
+public final class RatedEvent {
+
+   private final List<List<GameRecord>> rounds;
+
+   private final int[] participantIds;
+
+   /**
+    * Constructor.
+    *
+    * @param rounds Rounds of the event in the order they were played.
+    */
+   public RatedEvent(List<List<GameRecord>> rounds) {
+      List<List<GameRecord>> copy = new ArrayList<>(rounds.size());
+      Set<Integer> participants = new LinkedHashSet<>();
+      for (List<GameRecord> round : rounds) {
+         copy.add(Collections.unmodifiableList(new ArrayList<>(round)));
+         for (GameRecord game : round) {
+            participants.add(game.getWhiteId());
+            participants.add(game.getBlackId());
+         }
+      }
+      this.rounds = Collections.unmodifiableList(copy);
+      this.participantIds = participants.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   public List<List<GameRecord>> getRounds() {
+      return rounds;
+   }
+
+   /**
+    * Ids of the players who played at least one game, in order of first appearance.
+    *
+    * @return A copy of the participant ids.
+    */
+   public int[] getParticipantIds() {
+      return participantIds.clone();
+   }
+
+   int participantCount() {
+      return participantIds.length;
+   }
+
+   int participantId(int index) {
+      return participantIds[index];
+   }
+}
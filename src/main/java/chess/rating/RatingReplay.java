@@ -0,0 +1,182 @@
+package chess.rating;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+/**
+ * Replay engine over the full historical game log. Every event is rated in chronological order with
+ * {@link Tournament#computeTournamentRatings()} and a checkpoint of the whole rating state is kept every
+ * {@code snapshotInterval} events, so that a correction only replays the events following the nearest
+ * checkpoint instead of the whole history.
+ */
+public class RatingReplay {
+
+   public static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+
+   private static final int INITIAL_CAPACITY = 1024;
+
+   private final int snapshotInterval;
+
+   private final List<RatedEvent> events = new ArrayList<>();
+
+   /**
+    * Checkpoints keyed by the index of the first event not yet applied to the state.
+    */
+   private final TreeMap<Integer, RatingState> snapshots = new TreeMap<>();
+
+   private RatingState current = new RatingState(INITIAL_CAPACITY);
+
+   /**
+    * Constructor using the default snapshot interval.
+    */
+   public RatingReplay() {
+      this(DEFAULT_SNAPSHOT_INTERVAL);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param snapshotInterval Number of events between two checkpoints of the rating state.
+    */
+   public RatingReplay(int snapshotInterval) {
+      if (snapshotInterval < 1) {
+         throw new IllegalArgumentException("The snapshot interval must be positive: " + snapshotInterval);
+      }
+      this.snapshotInterval = snapshotInterval;
+   }
+
+   /**
+    * Sets the rating a player had before the first event of the log.
+    *
+    * @param id                 Player id.
+    * @param rating             Initial rating, 0 for an unrated player.
+    * @param unratedGamesPlayed Number of games played with a temporary rating, 0 for a permanent rating.
+    */
+   public void seedPlayer(int id, double rating, int unratedGamesPlayed) {
+      if (!events.isEmpty()) {
+         throw new IllegalStateException("Players can only be seeded before the first event");
+      }
+      current.update(id, rating, unratedGamesPlayed);
+   }
+
+   /**
+    * Appends the next chronological event to the log and rates it.
+    *
+    * @param event The {@link RatedEvent} to append.
+    */
+   public void append(RatedEvent event) {
+      if (events.size() % snapshotInterval == 0) {
+         snapshots.put(events.size(), current.copy());
+      }
+      events.add(event);
+      rate(event, current);
+   }
+
+   /**
+    * Replaces an event of the log, for example after a misreported result was fixed, and re-rates every
+    * event from the nearest checkpoint.
+    *
+    * @param index     Index of the event in the log.
+    * @param corrected The corrected {@link RatedEvent}.
+    * @return Ids of the players whose rating differs from the previous run.
+    */
+   public Set<Integer> replaceEvent(int index, RatedEvent corrected) {
+      events.set(index, corrected);
+      return replayFrom(index);
+   }
+
+   /**
+    * Re-rates every event from the given index, for example after a rating rule was corrected.
+    *
+    * @param index Index of the first event affected by the change.
+    * @return Ids of the players whose rating differs from the previous run.
+    */
+   public Set<Integer> replayFrom(int index) {
+      if (index < 0 || index > events.size()) {
+         throw new IndexOutOfBoundsException("No event at index " + index);
+      }
+      if (events.isEmpty()) {
+         return Collections.emptySet();
+      }
+
+      Map.Entry<Integer, RatingState> checkpoint = snapshots.floorEntry(index);
+      int start = checkpoint.getKey();
+      RatingState state = checkpoint.getValue().copy();
+      snapshots.tailMap(start, false).clear();
+
+      for (int i = start; i < events.size(); i++) {
+         if (i > start && i % snapshotInterval == 0) {
+            snapshots.put(i, state.copy());
+         }
+         rate(events.get(i), state);
+      }
+
+      RatingState previous = current;
+      current = state;
+      return previous.diff(state);
+   }
+
+   public double getRating(int id) {
+      return current.getRating(id);
+   }
+
+   public int getUnratedGamesPlayed(int id) {
+      return current.getUnratedGamesPlayed(id);
+   }
+
+   public int getEventCount() {
+      return events.size();
+   }
+
+   public int getSnapshotCount() {
+      return snapshots.size();
+   }
+
+   /**
+    * Rates a single event against the given state and writes the new ratings back into it.
+    */
+   private static void rate(RatedEvent event, RatingState state) {
+      int participants = event.participantCount();
+      List<Player> players = new ArrayList<>(participants);
+      Map<Integer, Player> playersById = new HashMap<>(participants * 2);
+      for (int i = 0; i < participants; i++) {
+         int id = event.participantId(i);
+         Player player = toPlayer(id, state);
+         players.add(player);
+         playersById.put(id, player);
+      }
+
+      Tournament tournament = new Tournament(players);
+      for (List<GameRecord> games : event.getRounds()) {
+         Round round = new Round();
+         for (GameRecord game : games) {
+            round.addGame(playersById.get(game.getWhiteId()), playersById.get(game.getBlackId()), game.getResult());
+         }
+         tournament.addRound(round);
+      }
+      tournament.computeTournamentRatings();
+
+      for (Player player : players) {
+         state.update(player.getId(), player.getRating(), player.getUnratedGamesPlayed());
+      }
+   }
+
+   private static Player toPlayer(int id, RatingState state) {
+      double rating = state.getRating(id);
+      int unratedGamesPlayed = state.getUnratedGamesPlayed(id);
+      Player player = unratedGamesPlayed > 0 || rating == 0
+            ? new Player("", "", rating, unratedGamesPlayed)
+            : new Player("", "", rating);
+      player.setId(id);
+      return player;
+   }
+}
@@ -0,0 +1,80 @@
+package chess.rating;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Rating state of every player of the federation, stored in primitive columns indexed by player id.
+ * A player with a rating of 0 is unrated, and a player with a positive number of unrated games played
+ * has a temporary rating, as in {@link chess.models.Tournament}.
+ */
+class RatingState {
+
+   private double[] ratings;
+
+   private int[] unratedGamesPlayed;
+
+   RatingState(int capacity) {
+      this.ratings = new double[capacity];
+      this.unratedGamesPlayed = new int[capacity];
+   }
+
+   private RatingState(double[] ratings, int[] unratedGamesPlayed) {
+      this.ratings = ratings;
+      this.unratedGamesPlayed = unratedGamesPlayed;
+   }
+
+   int capacity() {
+      return ratings.length;
+   }
+
+   double getRating(int id) {
+      return id < ratings.length ? ratings[id] : 0;
+   }
+
+   int getUnratedGamesPlayed(int id) {
+      return id < unratedGamesPlayed.length ? unratedGamesPlayed[id] : 0;
+   }
+
+   void update(int id, double rating, int gamesPlayed) {
+      ensureCapacity(id + 1);
+      ratings[id] = rating;
+      unratedGamesPlayed[id] = gamesPlayed;
+   }
+
+   /**
+    * Full copy of the state, used as a replay checkpoint.
+    *
+    * @return An independent copy.
+    */
+   RatingState copy() {
+      return new RatingState(ratings.clone(), unratedGamesPlayed.clone());
+   }
+
+   /**
+    * Ids of the players whose rating or number of unrated games differ between the two states.
+    *
+    * @param other The state to compare with.
+    * @return The sorted set of player ids.
+    */
+   Set<Integer> diff(RatingState other) {
+      Set<Integer> changed = new TreeSet<>();
+      int size = Math.max(capacity(), other.capacity());
+      for (int id = 0; id < size; id++) {
+         if (Double.compare(getRating(id), other.getRating(id)) != 0
+               || getUnratedGamesPlayed(id) != other.getUnratedGamesPlayed(id)) {
+            changed.add(id);
+         }
+      }
+      return changed;
+   }
+
+   private void ensureCapacity(int required) {
+      if (required > ratings.length) {
+         int newCapacity = Math.max(required, ratings.length * 2);
+         ratings = Arrays.copyOf(ratings, newCapacity);
+         unratedGamesPlayed = Arrays.copyOf(unratedGamesPlayed, newCapacity);
+      }
+   }
+}
@@ -0,0 +1,169 @@
+package chess.registry;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import chess.models.Game;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+/**
+ * Outcome of the rating of a tournament, stored in primitive arrays indexed by the position of the players in the
+ * tournament, so that it can be applied to the players of an identical tournament. The cells of the result matrix
+ * of the games played are kept too, for the crosstable, and which players were rated as permanent, for the rating
+ * breakdowns. The {@link TournamentJournal} logs the outcome of each rated tournament in the same form.
+ */
+final class CachedRatings {
+
+   private final double[] ratings;
+   private final double[] oldRatings;
+   private final double[] scores;
+   private final boolean[] permanent;
+   private final boolean[] ratedAsPermanent;
+   private final int[] unratedGamesPlayed;
+   private final int[] wins;
+   private final int[] losses;
+   private final int[] ties;
+
+   /**
+    * Cells of the result matrix of each game, player then opponent followed by opponent then player, so that the
+    * matrix is restored without storing its empty cells.
+    */
+   private final double[] results;
+
+   private CachedRatings(int size, int gameCount) {
+      ratings = new double[size];
+      oldRatings = new double[size];
+      scores = new double[size];
+      permanent = new boolean[size];
+      ratedAsPermanent = new boolean[size];
+      unratedGamesPlayed = new int[size];
+      wins = new int[size];
+      losses = new int[size];
+      ties = new int[size];
+      results = new double[2 * gameCount];
+   }
+
+   /**
+    * Captures the state of the players of a rated tournament.
+    *
+    * @param tournament The rated tournament.
+    * @return The outcome.
+    */
+   static CachedRatings capture(Tournament tournament) {
+      List<Player> players = tournament.getPlayers();
+      CachedRatings outcome = new CachedRatings(players.size(), tournament.getGameCount());
+      for (int i = 0; i < players.size(); i++) {
+         Player player = players.get(i);
+         outcome.ratings[i] = player.getRating();
+         outcome.oldRatings[i] = player.getOldRating();
+         outcome.scores[i] = player.getScore();
+         outcome.permanent[i] = player.isRatingPermanent();
+         outcome.ratedAsPermanent[i] = tournament.isRatedAsPermanent(i);
+         outcome.unratedGamesPlayed[i] = player.getUnratedGamesPlayed();
+         outcome.wins[i] = player.getWins();
+         outcome.losses[i] = player.getLosses();
+         outcome.ties[i] = player.getTies();
+      }
+      int cell = 0;
+      for (Round round : tournament.getRounds()) {
+         for (Game game : round.getGames()) {
+            int white = tournament.indexOf(game.player1);
+            int black = tournament.indexOf(game.player2);
+            outcome.results[cell++] = tournament.getResult(white, black);
+            outcome.results[cell++] = tournament.getResult(black, white);
+         }
+      }
+      return outcome;
+   }
+
+   /**
+    * Rates a tournament identical to the captured one by applying the captured state to its players, then computes
+    * its standing.
+    *
+    * @param tournament The tournament, with the same canonical form as the captured one.
+    */
+   void applyTo(Tournament tournament) {
+      List<Player> players = tournament.getPlayers();
+      for (int i = 0; i < players.size(); i++) {
+         Player player = players.get(i);
+         player.setRating(ratings[i]);
+         player.setOldRating(oldRatings[i]);
+         player.setScore(scores[i]);
+         player.setRatingPermanent(permanent[i]);
+         tournament.setRatedAsPermanent(i, ratedAsPermanent[i]);
+         player.setUnratedGamesPlayed(unratedGamesPlayed[i]);
+         player.setWins(wins[i]);
+         player.setLosses(losses[i]);
+         player.setTies(ties[i]);
+      }
+      int cell = 0;
+      for (Round round : tournament.getRounds()) {
+         for (Game game : round.getGames()) {
+            int white = tournament.indexOf(game.player1);
+            int black = tournament.indexOf(game.player2);
+            tournament.setResult(white, black, results[cell++]);
+            tournament.setResult(black, white, results[cell++]);
+         }
+      }
+      tournament.computePlayerStanding();
+   }
+
+   /**
+    * Copies the rating a player of the captured tournament published once rated.
+    *
+    * @param index  Position of the player in the tournament.
+    * @param player The player receiving the rating.
+    */
+   void applyRating(int index, Player player) {
+      player.setRating(ratings[index]);
+      player.setOldRating(oldRatings[index]);
+      player.setRatingPermanent(permanent[index]);
+      player.setUnratedGamesPlayed(unratedGamesPlayed[index]);
+   }
+
+   int size() {
+      return ratings.length;
+   }
+
+   void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(ratings.length);
+      out.writeInt(results.length / 2);
+      for (int i = 0; i < ratings.length; i++) {
+         out.writeDouble(ratings[i]);
+         out.writeDouble(oldRatings[i]);
+         out.writeDouble(scores[i]);
+         out.writeBoolean(permanent[i]);
+         out.writeBoolean(ratedAsPermanent[i]);
+         out.writeInt(unratedGamesPlayed[i]);
+         out.writeInt(wins[i]);
+         out.writeInt(losses[i]);
+         out.writeInt(ties[i]);
+      }
+      for (double result : results) {
+         out.writeDouble(result);
+      }
+   }
+
+   static CachedRatings readFrom(DataInputStream in) throws IOException {
+      CachedRatings outcome = new CachedRatings(in.readInt(), in.readInt());
+      for (int i = 0; i < outcome.ratings.length; i++) {
+         outcome.ratings[i] = in.readDouble();
+         outcome.oldRatings[i] = in.readDouble();
+         outcome.scores[i] = in.readDouble();
+         outcome.permanent[i] = in.readBoolean();
+         outcome.ratedAsPermanent[i] = in.readBoolean();
+         outcome.unratedGamesPlayed[i] = in.readInt();
+         outcome.wins[i] = in.readInt();
+         outcome.losses[i] = in.readInt();
+         outcome.ties[i] = in.readInt();
+      }
+      for (int i = 0; i < outcome.results.length; i++) {
+         outcome.results[i] = in.readDouble();
+      }
+      return outcome;
+   }
+}
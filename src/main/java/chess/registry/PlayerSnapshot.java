@@ -0,0 +1,90 @@
+package chess.registry;
+
+import chess.models.Player;
+
+/**
+ * Immutable copy of the state of a {@link Player} in a tournament, safe to share between threads.
+ */
+public final class PlayerSnapshot {
+
+   private final int id;
+   private final String lastName;
+   private final String firstName;
+   private final String fullName;
+   private final double rating;
+   private final double oldRating;
+   private final boolean ratingPermanent;
+   private final int unratedGamesPlayed;
+   private final int wins;
+   private final int losses;
+   private final int ties;
+   private final double score;
+
+   /**
+    * Copies the current state of a {@link Player}.
+    *
+    * @param player The {@link Player} to copy.
+    */
+   public PlayerSnapshot(Player player) {
+      this.id = player.getId();
+      this.lastName = player.getLastName();
+      this.firstName = player.getFirstName();
+      this.fullName = player.getFullName();
+      this.rating = player.getRating();
+      this.oldRating = player.getOldRating();
+      this.ratingPermanent = player.isRatingPermanent();
+      this.unratedGamesPlayed = player.getUnratedGamesPlayed();
+      this.wins = player.getWins();
+      this.losses = player.getLosses();
+      this.ties = player.getTies();
+      this.score = player.getScore();
+   }
+
+   public int getId() {
+      return id;
+   }
+
+   public String getLastName() {
+      return lastName;
+   }
+
+   public String getFirstName() {
+      return firstName;
+   }
+
+   public String getFullName() {
+      return fullName;
+   }
+
+   public double getRating() {
+      return rating;
+   }
+
+   public double getOldRating() {
+      return oldRating;
+   }
+
+   public boolean isRatingPermanent() {
+      return ratingPermanent;
+   }
+
+   public int getUnratedGamesPlayed() {
+      return unratedGamesPlayed;
+   }
+
+   public int getWins() {
+      return wins;
+   }
+
+   public int getLosses() {
+      return losses;
+   }
+
+   public int getTies() {
+      return ties;
+   }
+
+   public double getScore() {
+      return score;
+   }
+}
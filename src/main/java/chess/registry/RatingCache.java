@@ -0,0 +1,161 @@
+package chess.registry;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.models.FqeRatingSystem;
+import chess.models.Game;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+/**
+ * Cache of the outcome of tournament ratings, so that a tournament submitted again, after a network retry for
+ * instance, is rated without running the rating computation again.
+ * <p>
+ * The key of a tournament is the SHA-256 digest of its canonical form: the starting state of each player in
+ * registration order (rating, provisional game count, permanent flag and counters), then each round with the
+ * positions of the two players of each game and the result. Names and ids are left out since the ratings do not
+ * depend on them. Only tournaments rated with the rules of the federation are cached, other rating systems may keep
+ * state between tournaments.
+ * <p>
+ * The cache is bounded by the total number of players of the cached outcomes, and evicts the least recently used
+ * outcomes first.
+ */
+public final class RatingCache {
+
+   private final long maxPlayers;
+
+   private final LinkedHashMap<String, CachedRatings> outcomes = new LinkedHashMap<>(16, 0.75f, true);
+
+   private long players = 0;
+
+   private long hits = 0;
+
+   private long misses = 0;
+
+   private long evictions = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param maxPlayers Maximum total number of players of the cached outcomes.
+    */
+   public RatingCache(long maxPlayers) {
+      if (maxPlayers < 1) {
+         throw new IllegalArgumentException("maxPlayers must be positive");
+      }
+      this.maxPlayers = maxPlayers;
+   }
+
+   /**
+    * Canonical key of a tournament before it is rated.
+    *
+    * @param tournament The tournament.
+    * @return The hexadecimal SHA-256 digest of the canonical form, or null if the tournament is not cacheable.
+    */
+   static String keyOf(Tournament tournament) {
+      if (tournament.getRatingSystem() != FqeRatingSystem.INSTANCE) {
+         return null;
+      }
+      MessageDigest digest = sha256();
+      ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+      List<Player> tournamentPlayers = tournament.getPlayers();
+      buffer.putInt(tournamentPlayers.size());
+      for (Player player : tournamentPlayers) {
+         ensureRemaining(digest, buffer, 41);
+         buffer.putDouble(player.getRating());
+         buffer.putInt(player.getUnratedGamesPlayed());
+         buffer.put((byte) (player.isRatingPermanent() ? 1 : 0));
+         buffer.putDouble(player.getOldRating());
+         buffer.putDouble(player.getScore());
+         buffer.putInt(player.getWins());
+         buffer.putInt(player.getLosses());
+         buffer.putInt(player.getTies());
+      }
+      ensureRemaining(digest, buffer, 4);
+      buffer.putInt(tournament.getRounds().size());
+      for (Round round : tournament.getRounds()) {
+         ensureRemaining(digest, buffer, 4);
+         buffer.putInt(round.getSize());
+         for (Game game : round.getGames()) {
+            ensureRemaining(digest, buffer, 16);
+            buffer.putInt(tournament.indexOf(game.player1));
+            buffer.putInt(tournament.indexOf(game.player2));
+            buffer.putDouble(game.result);
+         }
+      }
+      buffer.flip();
+      digest.update(buffer);
+      StringBuilder key = new StringBuilder(64);
+      for (byte b : digest.digest()) {
+         key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return key.toString();
+   }
+
+   synchronized CachedRatings get(String key) {
+      CachedRatings outcome = outcomes.get(key);
+      if (outcome == null) {
+         misses++;
+      } else {
+         hits++;
+      }
+      return outcome;
+   }
+
+   synchronized void put(String key, CachedRatings outcome) {
+      if (outcome.size() > maxPlayers) {
+         return;
+      }
+      CachedRatings previous = outcomes.put(key, outcome);
+      if (previous != null) {
+         players -= previous.size();
+      }
+      players += outcome.size();
+      Iterator<CachedRatings> eldest = outcomes.values().iterator();
+      while (players > maxPlayers) {
+         players -= eldest.next().size();
+         eldest.remove();
+         evictions++;
+      }
+   }
+
+   /**
+    * Metrics of the cache: lookups, hit rate, evictions and size.
+    *
+    * @return The metrics by name.
+    */
+   public synchronized Map<String, Object> getMetrics() {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      metrics.put("hits", hits);
+      metrics.put("misses", misses);
+      metrics.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+      metrics.put("evictions", evictions);
+      metrics.put("entries", outcomes.size());
+      metrics.put("players", players);
+      metrics.put("maxPlayers", maxPlayers);
+      return metrics;
+   }
+
+   private static void ensureRemaining(MessageDigest digest, ByteBuffer buffer, int bytes) {
+      if (buffer.remaining() < bytes) {
+         buffer.flip();
+         digest.update(buffer);
+         buffer.clear();
+      }
+   }
+
+   private static MessageDigest sha256() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 is not available", e);
+      }
+   }
+}
@@ -0,0 +1,272 @@
+package chess.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import chess.models.InvalidRoundException;
+import chess.models.RoundViolation;
+import chess.rating.GameRecord;
+
+/**
+ * Ingests a stream of game results into a tournament of a {@link TournamentRegistry}, such as the results relayed
+ * from electronic boards over one long-lived request. The input is newline delimited JSON with one result per line:
+ * <pre>{"round":1,"white":12,"black":7,"result":0.5}</pre>
+ * where the round starts at 1. Each line is parsed with the Jackson streaming parser, without data binding, and the
+ * results are added to their round in micro-batches: a batch is sent to the tournament mailbox when it reaches the
+ * batch size, when the round changes, or when no more input is immediately available, so that a slow relay is not
+ * delayed by the batching. Each applied batch is acknowledged by a line of the output:
+ * <pre>{"accepted":1000,"rounds":3,"version":42}</pre>
+ * and the stream ends with a line with {@code "done":true}, or with an {@code "error"} line when a line cannot be
+ * parsed or a batch is rejected. The results applied before an error are kept: after an invalid line, every result
+ * of the previous lines is applied, and after a rejected batch, every result of the previous batches.
+ */
+public final class ResultStreamIngester {
+
+   public static final int DEFAULT_BATCH_SIZE = 1000;
+
+   /**
+    * Size of the read buffer, which is also the maximum length of a line.
+    */
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   private static final JsonFactory JSON = new JsonFactory();
+
+   private final TournamentRegistry registry;
+
+   private final String tournamentId;
+
+   private final int batchSize;
+
+   private final List<GameRecord> batch = new ArrayList<>();
+
+   private int batchRound = -1;
+
+   private long accepted = 0;
+
+   private long lineNumber = 0;
+
+   private TournamentSnapshot last;
+
+   /**
+    * Constructor.
+    *
+    * @param registry     The registry of the tournament.
+    * @param tournamentId Tournament id.
+    * @param batchSize    Maximum number of results added to the tournament at once.
+    */
+   public ResultStreamIngester(TournamentRegistry registry, String tournamentId, int batchSize) {
+      if (batchSize < 1) {
+         throw new IllegalArgumentException("batchSize must be positive");
+      }
+      this.registry = registry;
+      this.tournamentId = tournamentId;
+      this.batchSize = batchSize;
+   }
+
+   /**
+    * Reads the results until the end of the input or the first error, writing the acknowledgements.
+    *
+    * @param in  The results.
+    * @param out The acknowledgements, flushed after each line.
+    * @return The number of results added to the tournament.
+    * @throws IOException If the input cannot be read or the output written.
+    */
+   public long ingest(InputStream in, OutputStream out) throws IOException {
+      JsonGenerator acks = JSON.createGenerator(out);
+      acks.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // Each acknowledgement ends with its own new line rather than the default space separator.
+      acks.setRootValueSeparator(null);
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int start = 0;
+      int end = 0;
+      try {
+         while (true) {
+            for (int newLine = indexOf(buffer, start, end); newLine >= 0; newLine = indexOf(buffer, start, end)) {
+               parseLine(buffer, start, newLine, acks);
+               start = newLine + 1;
+            }
+            if (!batch.isEmpty() && in.available() == 0) {
+               flush(acks);
+            }
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+            if (end == buffer.length) {
+               lineNumber++;
+               throw invalidLine("longer than " + BUFFER_SIZE + " bytes");
+            }
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+               break;
+            }
+            end += read;
+         }
+         if (start < end) {
+            parseLine(buffer, start, end, acks);
+         }
+         flush(acks);
+         writeAck(acks, true, null, null);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+         RuntimeException error = e;
+         if (e instanceof InvalidLineException) {
+            // The results read before the invalid line are still added, so that the client can resume after them.
+            try {
+               flush(acks);
+            } catch (IllegalArgumentException | IllegalStateException rejected) {
+               error = rejected;
+            }
+         }
+         List<RoundViolation> violations = error instanceof InvalidRoundException
+               ? ((InvalidRoundException) error).getViolations() : null;
+         writeAck(acks, false, error.getMessage(), violations);
+      }
+      acks.close();
+      return accepted;
+   }
+
+   public long getAccepted() {
+      return accepted;
+   }
+
+   private void parseLine(byte[] buffer, int from, int to, JsonGenerator acks) throws IOException {
+      lineNumber++;
+      int round = 0;
+      int white = 0;
+      int black = 0;
+      double result = Double.NaN;
+      int fields = 0;
+      try (JsonParser parser = JSON.createParser(buffer, from, to - from)) {
+         JsonToken token = parser.nextToken();
+         if (token == null) {
+            return;
+         }
+         if (token != JsonToken.START_OBJECT) {
+            throw invalidLine("a result must be a JSON object");
+         }
+         while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+               case "round":
+                  round = parser.getIntValue();
+                  fields |= 1;
+                  break;
+               case "white":
+                  white = parser.getIntValue();
+                  fields |= 2;
+                  break;
+               case "black":
+                  black = parser.getIntValue();
+                  fields |= 4;
+                  break;
+               case "result":
+                  result = parser.getDoubleValue();
+                  fields |= 8;
+                  break;
+               default:
+                  parser.skipChildren();
+            }
+         }
+         if (parser.nextToken() != null) {
+            throw invalidLine("a line must contain a single result");
+         }
+      } catch (JsonProcessingException e) {
+         throw invalidLine(e.getOriginalMessage());
+      }
+      if (fields != 15) {
+         throw invalidLine("round, white, black and result are required");
+      }
+      if (round < 1) {
+         throw invalidLine("rounds start at 1");
+      }
+      if (round - 1 != batchRound && !batch.isEmpty()) {
+         flush(acks);
+      }
+      batchRound = round - 1;
+      batch.add(new GameRecord(white, black, result));
+      if (batch.size() == batchSize) {
+         flush(acks);
+      }
+   }
+
+   /**
+    * Adds the batch to the tournament and acknowledges it once applied.
+    */
+   private void flush(JsonGenerator acks) throws IOException {
+      if (batch.isEmpty()) {
+         return;
+      }
+      try {
+         last = registry.addGames(tournamentId, batchRound, new ArrayList<>(batch)).join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+         }
+         throw e;
+      }
+      accepted += batch.size();
+      batch.clear();
+      writeAck(acks, false, null, null);
+   }
+
+   private void writeAck(JsonGenerator acks, boolean done, String error, List<RoundViolation> violations)
+         throws IOException {
+      acks.writeStartObject();
+      acks.writeNumberField("accepted", accepted);
+      if (last != null) {
+         acks.writeNumberField("rounds", last.getRoundCount());
+         acks.writeNumberField("version", last.getVersion());
+      }
+      if (done) {
+         acks.writeBooleanField("done", true);
+      }
+      if (error != null) {
+         acks.writeStringField("error", error);
+      }
+      if (violations != null) {
+         acks.writeArrayFieldStart("violations");
+         for (RoundViolation violation : violations) {
+            acks.writeString(violation.getMessage());
+         }
+         acks.writeEndArray();
+      }
+      acks.writeEndObject();
+      acks.writeRaw('\n');
+      acks.flush();
+   }
+
+   private InvalidLineException invalidLine(String reason) {
+      return new InvalidLineException("Line " + lineNumber + ": " + reason);
+   }
+
+   private static int indexOf(byte[] buffer, int from, int to) {
+      for (int i = from; i < to; i++) {
+         if (buffer[i] == '\n') {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Thrown when a line of the input is not a valid result.
+    */
+   private static final class InvalidLineException extends IllegalArgumentException {
+
+      private static final long serialVersionUID = 1L;
+
+      InvalidLineException(String message) {
+         super(message);
+      }
+   }
+}
@@ -0,0 +1,479 @@
+package chess.registry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import chess.io.WriteAheadLog;
+import chess.models.Game;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+
+/**
+ * Durable journal of the mutations of the {@link TournamentRegistry}, written to a {@link WriteAheadLog}. On
+ * startup, the journal is replayed to rebuild the tournaments. Once a tournament is rated, its outcome is logged in
+ * a single record which makes its earlier records obsolete; they are dropped by the next compaction of the log.
+ * Every record of a removed tournament is dropped too.
+ * <p>
+ * The ratings published by the rated tournaments outlive their records: each compaction folds them, with the
+ * previous checkpoint, into a checkpoint holding the last published rating of each player, appended after the kept
+ * records. On startup, the checkpoint and the later outcomes give the ratings to publish again.
+ * <p>
+ * Compactions are batched: the log is compacted once it has doubled since the last compaction and is larger than
+ * a minimum size, so that the cost of rewriting the live records is shared by many ratings.
+ */
+public class TournamentJournal implements Closeable {
+
+   private static final byte REGISTERED = 1;
+   private static final byte ROUND_ADDED = 2;
+   private static final byte GAMES_ADDED = 4;
+
+   /**
+    * Rating record holding the players, the games and the outcome of the rating, enough to rebuild the rated
+    * tournament on its own.
+    */
+   private static final byte RATED_OUTCOME = 5;
+   private static final byte REMOVED = 6;
+
+   /**
+    * Last published rating of each player rated by the tournaments dropped from the log. It belongs to no
+    * tournament and has no tournament id.
+    */
+   private static final byte RATINGS_CHECKPOINT = 7;
+
+   /**
+    * Default size of the log under which it is never compacted.
+    */
+   public static final long DEFAULT_MIN_COMPACTION_BYTES = 16L << 20;
+
+   private static final Logger LOGGER = Logger.getLogger(TournamentJournal.class.getName());
+
+   private final WriteAheadLog log;
+
+   private final long minCompactionBytes;
+
+   /**
+    * Size of the log triggering the next compaction.
+    */
+   private volatile long compactionThreshold;
+
+   private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+   /**
+    * Constructor.
+    *
+    * @param file              The log file, created if it does not exist.
+    * @param groupCommitWindow Time during which appends are gathered before an fsync, in microseconds.
+    * @throws IOException Thrown if the log cannot be opened.
+    */
+   public TournamentJournal(Path file, long groupCommitWindow) throws IOException {
+      this(file, groupCommitWindow, DEFAULT_MIN_COMPACTION_BYTES);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param file               The log file, created if it does not exist.
+    * @param groupCommitWindow  Time during which appends are gathered before an fsync, in microseconds.
+    * @param minCompactionBytes Size of the log under which it is never compacted.
+    * @throws IOException Thrown if the log cannot be opened.
+    */
+   public TournamentJournal(Path file, long groupCommitWindow, long minCompactionBytes) throws IOException {
+      this.log = new WriteAheadLog(file, groupCommitWindow);
+      this.minCompactionBytes = minCompactionBytes;
+      this.compactionThreshold = minCompactionBytes;
+   }
+
+   CompletableFuture<Void> logRegistered(String id, List<Player> players) {
+      return log.append(encode(REGISTERED, id, out -> writePlayers(out, players)));
+   }
+
+   CompletableFuture<Void> logRoundAdded(String id, List<GameRecord> games) {
+      return log.append(encode(ROUND_ADDED, id, out -> writeGames(out, games)));
+   }
+
+   CompletableFuture<Void> logGamesAdded(String id, int round, List<GameRecord> games) {
+      return log.append(encode(GAMES_ADDED, id, out -> {
+         out.writeInt(round);
+         writeGames(out, games);
+      }));
+   }
+
+   /**
+    * Logs the outcome of the rating of a tournament, then compacts the log if it has grown enough. Must be called
+    * by the thread mutating the tournament.
+    */
+   CompletableFuture<Void> logRated(String id, Tournament tournament) {
+      CachedRatings outcome = CachedRatings.capture(tournament);
+      byte[] record = encode(RATED_OUTCOME, id, out -> {
+         writePlayers(out, tournament.getPlayers());
+         out.writeInt(tournament.getRounds().size());
+         for (Round round : tournament.getRounds()) {
+            List<GameRecord> games = new ArrayList<>(round.getSize());
+            for (Game game : round.getGames()) {
+               games.add(new GameRecord(game.player1.getId(), game.player2.getId(), game.result));
+            }
+            writeGames(out, games);
+         }
+         outcome.writeTo(out);
+      });
+      return log.append(record).thenRun(this::compactIfGrown);
+   }
+
+   /**
+    * Logs the removal of a tournament, then compacts the log if it has grown enough.
+    */
+   CompletableFuture<Void> logRemoved(String id) {
+      return log.append(encode(REMOVED, id, out -> { })).thenRun(this::compactIfGrown);
+   }
+
+   /**
+    * Starts a compaction if the log has grown enough. A failed compaction is logged and does not fail the mutation
+    * which triggered it: the obsolete records are kept until the next compaction, and are skipped when replayed.
+    */
+   private void compactIfGrown() {
+      try {
+         if (log.size() >= compactionThreshold && compacting.compareAndSet(false, true)) {
+            compact().whenComplete((compacted, error) -> {
+               compacting.set(false);
+               if (error != null) {
+                  LOGGER.log(Level.WARNING, "Tournament journal not compacted", error);
+               }
+            });
+         }
+      } catch (IOException e) {
+         LOGGER.log(Level.WARNING, "Tournament journal not compacted", e);
+      }
+   }
+
+   /**
+    * Rewrites the log without the records made obsolete by the rating or the removal of their tournament.
+    *
+    * @return A future completed once the compacted log is in place.
+    */
+   public CompletableFuture<Void> compact() {
+      ObsoleteRecords obsolete = new ObsoleteRecords();
+      return log.compact(obsolete::inspect, obsolete::keep, obsolete::checkpoint).thenRun(() -> {
+         try {
+            compactionThreshold = Math.max(minCompactionBytes, 2 * log.size());
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      });
+   }
+
+   /**
+    * Rebuilds the tournaments of the log in the registry. Must be called before the registry is used.
+    *
+    * @param registry The registry to fill.
+    * @throws IOException Thrown if the log cannot be read.
+    */
+   void replay(TournamentRegistry registry) throws IOException {
+      log.replay(record -> {
+         try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(toBytes(record)))) {
+            byte type = in.readByte();
+            if (type == RATINGS_CHECKPOINT) {
+               registry.recoverRatings(readRatings(in));
+               return;
+            }
+            String id = in.readUTF();
+            if (type == REGISTERED) {
+               registry.recoverRegistered(id, readPlayers(in));
+            } else if (type == ROUND_ADDED) {
+               registry.recoverRoundAdded(id, readGames(in));
+            } else if (type == GAMES_ADDED) {
+               int round = in.readInt();
+               registry.recoverGamesAdded(id, round, readGames(in));
+            } else if (type == RATED_OUTCOME) {
+               List<Player> players = readPlayers(in);
+               int roundCount = in.readInt();
+               List<List<GameRecord>> rounds = new ArrayList<>(roundCount);
+               for (int i = 0; i < roundCount; i++) {
+                  rounds.add(readGames(in));
+               }
+               CachedRatings outcome = CachedRatings.readFrom(in);
+               registry.recoverRatings(publishedRatings(players, outcome));
+               registry.recoverRated(id, players, rounds, outcome);
+            } else if (type == REMOVED) {
+               registry.recoverRemoved(id);
+            }
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      });
+      compactIfGrown();
+   }
+
+   public long size() throws IOException {
+      return log.size();
+   }
+
+   @Override
+   public void close() throws IOException {
+      log.close();
+   }
+
+   private static String readTournamentId(ByteBuffer record) {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(toBytes(record)))) {
+         in.readByte();
+         return in.readUTF();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Ratings published by a rated tournament, read from its outcome record.
+    */
+   private static List<Player> readPublishedRatings(ByteBuffer record) {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(toBytes(record)))) {
+         in.readByte();
+         in.readUTF();
+         List<Player> players = readPlayers(in);
+         int roundCount = in.readInt();
+         for (int i = 0; i < roundCount; i++) {
+            readGames(in);
+         }
+         return publishedRatings(players, CachedRatings.readFrom(in));
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * Copies of the registered players with the ratings published once their tournament is rated.
+    */
+   private static List<Player> publishedRatings(List<Player> players, CachedRatings outcome) {
+      List<Player> published = new ArrayList<>(players.size());
+      for (int i = 0; i < players.size(); i++) {
+         Player player = new Player(players.get(i));
+         outcome.applyRating(i, player);
+         published.add(player);
+      }
+      return published;
+   }
+
+   private static List<Player> readCheckpoint(ByteBuffer record) {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(toBytes(record)))) {
+         in.readByte();
+         return readRatings(in);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private static byte readType(ByteBuffer record) {
+      return record.get(record.position());
+   }
+
+   private static byte[] toBytes(ByteBuffer record) {
+      byte[] bytes = new byte[record.remaining()];
+      record.duplicate().get(bytes);
+      return bytes;
+   }
+
+   private static byte[] encode(byte type, String id, RecordBody body) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+         out.writeByte(type);
+         out.writeUTF(id);
+         body.write(out);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+   }
+
+   private static void writePlayers(DataOutputStream out, List<Player> players) throws IOException {
+      out.writeInt(players.size());
+      for (Player player : players) {
+         out.writeInt(player.getId());
+         writeNullableString(out, player.getLastName());
+         writeNullableString(out, player.getFirstName());
+         out.writeDouble(player.getRating());
+         out.writeInt(player.getUnratedGamesPlayed());
+      }
+   }
+
+   private static List<Player> readPlayers(DataInputStream in) throws IOException {
+      int size = in.readInt();
+      List<Player> players = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+         int playerId = in.readInt();
+         String lastName = readNullableString(in);
+         String firstName = readNullableString(in);
+         double rating = in.readDouble();
+         int unratedGamesPlayed = in.readInt();
+         Player player = unratedGamesPlayed > 0 || rating == 0
+               ? new Player(lastName, firstName, rating, unratedGamesPlayed)
+               : new Player(lastName, firstName, rating);
+         player.setId(playerId);
+         players.add(player);
+      }
+      return players;
+   }
+
+   private static void writeRatings(DataOutputStream out, Collection<Player> players) throws IOException {
+      out.writeInt(players.size());
+      for (Player player : players) {
+         out.writeInt(player.getId());
+         writeNullableString(out, player.getLastName());
+         writeNullableString(out, player.getFirstName());
+         out.writeDouble(player.getRating());
+         out.writeDouble(player.getOldRating());
+         out.writeBoolean(player.isRatingPermanent());
+         out.writeInt(player.getUnratedGamesPlayed());
+      }
+   }
+
+   private static List<Player> readRatings(DataInputStream in) throws IOException {
+      int size = in.readInt();
+      List<Player> players = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+         int playerId = in.readInt();
+         Player player = new Player(readNullableString(in), readNullableString(in), in.readDouble());
+         player.setId(playerId);
+         player.setOldRating(in.readDouble());
+         player.setRatingPermanent(in.readBoolean());
+         player.setUnratedGamesPlayed(in.readInt());
+         players.add(player);
+      }
+      return players;
+   }
+
+   private static void writeGames(DataOutputStream out, List<GameRecord> games) throws IOException {
+      out.writeInt(games.size());
+      for (GameRecord game : games) {
+         out.writeInt(game.getWhiteId());
+         out.writeInt(game.getBlackId());
+         out.writeDouble(game.getResult());
+      }
+   }
+
+   private static List<GameRecord> readGames(DataInputStream in) throws IOException {
+      int size = in.readInt();
+      List<GameRecord> games = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+         games.add(new GameRecord(in.readInt(), in.readInt(), in.readDouble()));
+      }
+      return games;
+   }
+
+   private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         out.writeUTF(value);
+      }
+   }
+
+   private static String readNullableString(DataInputStream in) throws IOException {
+      return in.readBoolean() ? in.readUTF() : null;
+   }
+
+   private interface RecordBody {
+
+      void write(DataOutputStream out) throws IOException;
+   }
+
+   /**
+    * Filter of a compaction, which finds the obsolete records while the log is inspected. The records of a
+    * registration preceding its rating record are obsolete, since the rating record rebuilds the tournament on its
+    * own, and so are all the records of a removed registration and the previous checkpoint. The ratings published
+    * by the inspected outcomes are folded into the next checkpoint.
+    */
+   private static final class ObsoleteRecords {
+
+      /**
+       * Positions in the log of the records of the current registration of each tournament.
+       */
+      private final Map<String, List<Integer>> registrations = new HashMap<>();
+
+      /**
+       * Last published rating of each player, in the order of the log.
+       */
+      private final Map<Integer, Player> published = new HashMap<>();
+
+      private final BitSet obsolete = new BitSet();
+
+      private int inspected = 0;
+
+      private int filtered = 0;
+
+      void inspect(ByteBuffer record) {
+         int position = inspected++;
+         byte type = readType(record);
+         if (type == RATINGS_CHECKPOINT) {
+            publish(readCheckpoint(record));
+            obsolete.set(position);
+            return;
+         }
+         String id = readTournamentId(record);
+         List<Integer> positions = registrations.computeIfAbsent(id, key -> new ArrayList<>());
+         if (type == RATED_OUTCOME) {
+            markObsolete(positions);
+            publish(readPublishedRatings(record));
+         } else if (type == REMOVED) {
+            markObsolete(positions);
+            obsolete.set(position);
+            registrations.remove(id);
+            return;
+         }
+         positions.add(position);
+      }
+
+      boolean keep(ByteBuffer record) {
+         return !obsolete.get(filtered++);
+      }
+
+      /**
+       * Checkpoint appended after the kept records. The kept outcomes are folded into it too, so that it holds the
+       * last published ratings whatever the order of the records before it.
+       *
+       * @return The checkpoint, or null if no tournament was ever rated.
+       */
+      byte[] checkpoint() {
+         if (published.isEmpty()) {
+            return null;
+         }
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RATINGS_CHECKPOINT);
+            writeRatings(out, published.values());
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+         return bytes.toByteArray();
+      }
+
+      private void publish(List<Player> ratings) {
+         for (Player player : ratings) {
+            published.put(player.getId(), player);
+         }
+      }
+
+      private void markObsolete(List<Integer> positions) {
+         for (int position : positions) {
+            obsolete.set(position);
+         }
+         positions.clear();
+      }
+   }
+}
@@ -0,0 +1,381 @@
+package chess.registry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import chess.models.Crosstable;
+import chess.models.Game;
+import chess.models.InvalidRoundException;
+import chess.models.Player;
+import chess.models.RatingBreakdown;
+import chess.models.Round;
+import chess.models.RoundValidator;
+import chess.models.RoundViolation;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+
+/**
+ * Single writer of a {@link Tournament}. Mutations are queued in a mailbox and applied one at a time by a task
+ * scheduled on the shared executor, so a tournament is never mutated by two threads at once while different
+ * tournaments are mutated in parallel. After each mutation, a new {@link TournamentSnapshot} is published.
+ * With a {@link TournamentJournal}, each mutation is logged by the mailbox thread, in order, and its snapshot is
+ * published and acknowledged once durable, without holding the mailbox during the fsync. If the journal fails, the
+ * tournament becomes read-only: its last durable snapshot stays published and later mutations are rejected.
+ */
+final class TournamentMailbox implements Runnable {
+
+   /**
+    * Maximum number of mutations applied before yielding the executor thread to other tournaments.
+    */
+   private static final int BATCH_SIZE = 64;
+
+   private final String id;
+
+   private final Tournament tournament;
+
+   private final Map<Integer, Player> playersById = new HashMap<>();
+
+   private final RoundValidator validator;
+
+   private final Executor executor;
+
+   private final TournamentJournal journal;
+
+   private final RatingCache ratingCache;
+
+   private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+   private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+   private boolean rated = false;
+
+   private boolean removed = false;
+
+   private long version = 0;
+
+   /**
+    * Snapshot of the last mutation applied, which may not be durable yet. Only accessed by the mailbox thread.
+    */
+   private TournamentSnapshot applied;
+
+   /**
+    * Completes once the last mutation applied is published, or exceptionally if it could not be logged. Only
+    * accessed by the mailbox thread.
+    */
+   private CompletableFuture<TournamentSnapshot> lastMutation;
+
+   private volatile TournamentSnapshot snapshot;
+
+   private volatile Throwable journalFailure;
+
+   TournamentMailbox(String id, List<Player> players, Executor executor, TournamentJournal journal,
+                     RatingCache ratingCache) {
+      for (Player player : players) {
+         if (playersById.put(player.getId(), player) != null) {
+            throw new IllegalArgumentException("Player " + player.getId() + " is registered twice");
+         }
+      }
+      this.id = id;
+      this.validator = RoundValidator.of(players);
+      this.tournament = new Tournament(players);
+      this.tournament.setId(id);
+      this.executor = executor;
+      this.journal = journal;
+      this.ratingCache = ratingCache;
+      this.applied = new TournamentSnapshot(id, version, tournament, rated);
+      this.snapshot = applied;
+      this.lastMutation = CompletableFuture.completedFuture(applied);
+   }
+
+   TournamentSnapshot getSnapshot() {
+      return snapshot;
+   }
+
+   CompletableFuture<TournamentSnapshot> addRound(List<GameRecord> games) {
+      return submit(() -> applyAddRound(games), () -> journal.logRoundAdded(id, games));
+   }
+
+   CompletableFuture<TournamentSnapshot> addGames(int round, List<GameRecord> games) {
+      return submit(() -> applyAddGames(round, games), () -> journal.logGamesAdded(id, round, games));
+   }
+
+   CompletableFuture<TournamentSnapshot> rate() {
+      return submit(this::applyRate, () -> journal.logRated(id, tournament));
+   }
+
+   /**
+    * Queues the removal of the tournament, logged after the mutations already queued. Later mutations are rejected
+    * with a {@link NoSuchElementException}.
+    *
+    * @return A future completed with true once the removal is logged, or false if the tournament was already
+    * removed.
+    */
+   CompletableFuture<Boolean> remove() {
+      CompletableFuture<Boolean> logged = new CompletableFuture<>();
+      enqueue(() -> {
+         if (removed) {
+            logged.complete(false);
+            return;
+         }
+         removed = true;
+         journal.logRemoved(id).whenComplete((durable, error) -> {
+            if (error == null) {
+               logged.complete(true);
+            } else {
+               logged.completeExceptionally(error);
+            }
+         });
+      });
+      return logged;
+   }
+
+   /**
+    * Crosstable of the tournament, built once per snapshot, with the players sorted on the standing once the
+    * tournament is rated. A rated tournament is no longer mutated, so its crosstable is built by the calling thread;
+    * otherwise the construction is queued, since it reads the games and the result matrix and so must run between
+    * two mutations. The last mutation applied may not be durable yet, so the crosstable is only served and cached
+    * once that mutation is published, and fails if it could not be logged.
+    */
+   CompletableFuture<Crosstable> crosstable() {
+      TournamentSnapshot published = snapshot;
+      Crosstable cached = published.cachedCrosstable();
+      if (cached != null) {
+         return CompletableFuture.completedFuture(cached);
+      }
+      if (published.isRated()) {
+         Crosstable built = Crosstable.of(tournament, true);
+         published.cacheCrosstable(built);
+         return CompletableFuture.completedFuture(built);
+      }
+      return query(() -> {
+         TournamentSnapshot current = applied;
+         Crosstable cachedCurrent = current.cachedCrosstable();
+         if (cachedCurrent != null) {
+            return CompletableFuture.completedFuture(cachedCurrent);
+         }
+         Crosstable built = Crosstable.of(tournament, rated);
+         return lastMutation.thenApply(durable -> {
+            current.cacheCrosstable(built);
+            return built;
+         });
+      }).thenCompose(built -> built);
+   }
+
+   /**
+    * Explains the new rating of a player, game by game, once the rating of the tournament is published. A rated
+    * tournament is no longer mutated, so the breakdown is computed by the calling thread without queuing.
+    */
+   CompletableFuture<RatingBreakdown> ratingBreakdown(int playerId) {
+      CompletableFuture<RatingBreakdown> breakdown = new CompletableFuture<>();
+      try {
+         Player player = playersById.get(playerId);
+         if (player == null) {
+            throw new NoSuchElementException("Player " + playerId + " is not registered in tournament " + id);
+         }
+         if (!snapshot.isRated()) {
+            throw new IllegalStateException("Tournament " + id + " is not rated");
+         }
+         breakdown.complete(RatingBreakdown.of(tournament, player));
+      } catch (RuntimeException e) {
+         breakdown.completeExceptionally(e);
+      }
+      return breakdown;
+   }
+
+   /**
+    * Publishes the mutations applied directly while the journal is replayed.
+    *
+    * @return The published snapshot.
+    */
+   TournamentSnapshot publishApplied() {
+      publish(applied);
+      return applied;
+   }
+
+   /**
+    * Adds a round directly, without going through the mailbox. Only used while the journal is replayed.
+    */
+   void applyAddRound(List<GameRecord> games) {
+      checkNotRated();
+      List<RoundViolation> violations = validator.validateRound(tournament.getRounds().size(), games,
+            GameRecord::getWhiteId, GameRecord::getBlackId, GameRecord::getResult);
+      if (!violations.isEmpty()) {
+         throw new InvalidRoundException(violations);
+      }
+      Round round = new Round();
+      for (GameRecord game : games) {
+         round.addGame(player(game.getWhiteId()), player(game.getBlackId()), game.getResult());
+      }
+      tournament.addRound(round);
+      advance();
+   }
+
+   /**
+    * Adds games to a round directly, without going through the mailbox. Only used while the journal is replayed.
+    */
+   void applyAddGames(int roundIndex, List<GameRecord> games) {
+      checkNotRated();
+      List<RoundViolation> violations = validator.validateRound(roundIndex, games, GameRecord::getWhiteId,
+            GameRecord::getBlackId, GameRecord::getResult);
+      if (!violations.isEmpty()) {
+         throw new InvalidRoundException(violations);
+      }
+      List<Game> added = new ArrayList<>(games.size());
+      for (GameRecord game : games) {
+         added.add(new Game(player(game.getWhiteId()), player(game.getBlackId()), game.getResult()));
+      }
+      try {
+         tournament.addGames(roundIndex, added);
+      } catch (IndexOutOfBoundsException e) {
+         throw new IllegalArgumentException(e.getMessage(), e);
+      }
+      advance();
+   }
+
+   /**
+    * Rates the tournament. Only called by the mailbox thread. The outcome of an identical tournament found in the
+    * {@link RatingCache} is reused instead of being computed again.
+    */
+   void applyRate() {
+      checkNotRated();
+      String key = ratingCache == null ? null : RatingCache.keyOf(tournament);
+      CachedRatings cached = key == null ? null : ratingCache.get(key);
+      if (cached != null) {
+         cached.applyTo(tournament);
+      } else {
+         tournament.computeTournamentRatings();
+         if (key != null) {
+            ratingCache.put(key, CachedRatings.capture(tournament));
+         }
+      }
+      rated = true;
+      advance();
+   }
+
+   /**
+    * Rates the tournament with an outcome logged by the journal. Only used while the journal is replayed.
+    */
+   void applyRated(CachedRatings outcome) {
+      checkNotRated();
+      outcome.applyTo(tournament);
+      rated = true;
+      advance();
+   }
+
+   private void advance() {
+      version++;
+      applied = new TournamentSnapshot(id, version, tournament, rated);
+   }
+
+   /**
+    * Publishes a snapshot unless a later one is already published.
+    */
+   private synchronized void publish(TournamentSnapshot durable) {
+      if (durable.getVersion() > snapshot.getVersion()) {
+         snapshot = durable;
+      }
+   }
+
+   private void checkNotRated() {
+      if (rated) {
+         throw new IllegalStateException("Tournament " + id + " is already rated");
+      }
+   }
+
+   private Player player(int playerId) {
+      Player player = playersById.get(playerId);
+      if (player == null) {
+         throw new IllegalArgumentException("Player " + playerId + " is not registered in tournament " + id);
+      }
+      return player;
+   }
+
+   /**
+    * Queues a mutation. The returned future completes with the snapshot published once the mutation is logged, or
+    * exceptionally if the mutation was rejected, in which case the tournament is left unchanged and nothing is
+    * logged, or if it could not be logged, in which case the tournament becomes read-only.
+    */
+   private CompletableFuture<TournamentSnapshot> submit(Runnable mutation,
+                                                        Supplier<CompletableFuture<Void>> logMutation) {
+      CompletableFuture<TournamentSnapshot> published = new CompletableFuture<>();
+      enqueue(() -> {
+         TournamentSnapshot mutated;
+         try {
+            if (removed) {
+               throw new NoSuchElementException("Unknown tournament " + id);
+            }
+            if (journalFailure != null) {
+               throw new IllegalStateException("Tournament " + id + " is read-only after a journal failure",
+                     journalFailure);
+            }
+            mutation.run();
+            mutated = applied;
+         } catch (RuntimeException e) {
+            published.completeExceptionally(e);
+            return;
+         }
+         lastMutation = published;
+         if (journal == null) {
+            publish(mutated);
+            published.complete(mutated);
+            return;
+         }
+         logMutation.get().whenComplete((durable, error) -> {
+            if (error == null) {
+               publish(mutated);
+               published.complete(mutated);
+            } else {
+               journalFailure = error;
+               published.completeExceptionally(error);
+            }
+         });
+      });
+      return published;
+   }
+
+   /**
+    * Queues a read of the tournament. Nothing is logged and nothing is published.
+    */
+   private <T> CompletableFuture<T> query(Supplier<T> read) {
+      CompletableFuture<T> result = new CompletableFuture<>();
+      enqueue(() -> {
+         try {
+            result.complete(read.get());
+         } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+         }
+      });
+      return result;
+   }
+
+   private void enqueue(Runnable task) {
+      mailbox.add(task);
+      if (scheduled.compareAndSet(false, true)) {
+         executor.execute(this);
+      }
+   }
+
+   @Override
+   public void run() {
+      for (int i = 0; i < BATCH_SIZE; i++) {
+         Runnable mutation = mailbox.poll();
+         if (mutation == null) {
+            break;
+         }
+         mutation.run();
+      }
+      scheduled.set(false);
+      if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+         executor.execute(this);
+      }
+   }
+}
@@ -0,0 +1,303 @@
+package chess.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import chess.models.Crosstable;
+import chess.models.Player;
+import chess.models.RatingBreakdown;
+import chess.rating.GameRecord;
+
+/**
+ * In-memory registry of the tournaments in progress. Each tournament has its own single-writer mailbox running
+ * on a shared executor: mutations of different tournaments never contend, and reads return the last published
+ * {@link TournamentSnapshot} without blocking writes. With a {@link TournamentJournal}, the registry survives a
+ * restart.
+ */
+public class TournamentRegistry {
+
+   private final ConcurrentMap<String, TournamentMailbox> tournaments = new ConcurrentHashMap<>();
+
+   private final Executor executor;
+
+   private final TournamentJournal journal;
+
+   private final RatingCache ratingCache;
+
+   /**
+    * Ids being registered, reserved until their registration is logged.
+    */
+   private final Set<String> registering = ConcurrentHashMap.newKeySet();
+
+   /**
+    * Last rating published for each player by the tournaments rated in the journal.
+    */
+   private final Map<Integer, Player> recoveredRatings = new LinkedHashMap<>();
+
+   /**
+    * Constructor using a pool of daemon threads sized on the number of processors.
+    */
+   public TournamentRegistry() {
+      this(defaultExecutor());
+   }
+
+   /**
+    * Constructor of a registry kept in memory only.
+    *
+    * @param executor Executor shared by the mailboxes of all the tournaments.
+    */
+   public TournamentRegistry(Executor executor) {
+      this(executor, (RatingCache) null);
+   }
+
+   /**
+    * Constructor of a registry kept in memory only.
+    *
+    * @param executor    Executor shared by the mailboxes of all the tournaments.
+    * @param ratingCache Cache of the rating outcomes shared by all the tournaments, or null.
+    */
+   public TournamentRegistry(Executor executor, RatingCache ratingCache) {
+      this.executor = executor;
+      this.journal = null;
+      this.ratingCache = ratingCache;
+   }
+
+   /**
+    * Constructor of a durable registry. The tournaments of the journal are rebuilt before the registry is returned,
+    * and every later mutation is acknowledged once logged.
+    *
+    * @param executor Executor shared by the mailboxes of all the tournaments.
+    * @param journal  Journal of the mutations.
+    * @throws IOException Thrown if the journal cannot be replayed.
+    */
+   public TournamentRegistry(Executor executor, TournamentJournal journal) throws IOException {
+      this(executor, journal, null);
+   }
+
+   /**
+    * Constructor of a durable registry. The tournaments of the journal are rebuilt before the registry is returned,
+    * and every later mutation is acknowledged once logged.
+    *
+    * @param executor    Executor shared by the mailboxes of all the tournaments.
+    * @param journal     Journal of the mutations.
+    * @param ratingCache Cache of the rating outcomes shared by all the tournaments, or null.
+    * @throws IOException Thrown if the journal cannot be replayed.
+    */
+   public TournamentRegistry(Executor executor, TournamentJournal journal, RatingCache ratingCache)
+         throws IOException {
+      this.executor = executor;
+      this.journal = journal;
+      this.ratingCache = ratingCache;
+      journal.replay(this);
+      for (TournamentMailbox mailbox : tournaments.values()) {
+         mailbox.publishApplied();
+      }
+   }
+
+   /**
+    * Pool of daemon threads sized on the number of processors.
+    *
+    * @return A new executor.
+    */
+   public static ExecutorService defaultExecutor() {
+      return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+         Thread thread = new Thread(runnable, "tournament-registry");
+         thread.setDaemon(true);
+         return thread;
+      });
+   }
+
+   /**
+    * Registers a new tournament.
+    *
+    * @param id      Tournament id.
+    * @param players Players of the tournament, with distinct ids.
+    * @return The initial snapshot.
+    * @throws IllegalStateException    If a tournament is already registered with this id.
+    * @throws IllegalArgumentException If two players share the same id.
+    */
+   public TournamentSnapshot register(String id, List<Player> players) {
+      TournamentMailbox mailbox = new TournamentMailbox(id, players, executor, journal, ratingCache);
+      // The id is reserved before the registration is logged, so that a registration rejected because of a
+      // concurrent one is never logged.
+      if (!registering.add(id)) {
+         throw new IllegalStateException("Tournament " + id + " already exists");
+      }
+      try {
+         if (tournaments.containsKey(id)) {
+            throw new IllegalStateException("Tournament " + id + " already exists");
+         }
+         if (journal != null) {
+            // Logged before the tournament is visible, so that its first mutation is always logged after it.
+            journal.logRegistered(id, players).join();
+         }
+         tournaments.put(id, mailbox);
+      } finally {
+         registering.remove(id);
+      }
+      return mailbox.getSnapshot();
+   }
+
+   /**
+    * Queues the addition of a round. The future fails with an {@link IllegalArgumentException} if a game refers
+    * to a player who is not registered, or an {@link IllegalStateException} if the tournament is already rated.
+    *
+    * @param id    Tournament id.
+    * @param games Games of the round, players being referenced by id.
+    * @return The snapshot published once the round is added.
+    */
+   public CompletableFuture<TournamentSnapshot> addRound(String id, List<GameRecord> games) {
+      return mailbox(id).addRound(games);
+   }
+
+   /**
+    * Queues the addition of games to a round, either an existing round or the next one. The future fails with an
+    * {@link IllegalArgumentException} if the round would be invalid with the added games or does not exist, or an
+    * {@link IllegalStateException} if the tournament is already rated.
+    *
+    * @param id    Tournament id.
+    * @param round Position of the round, from 0 to the number of rounds.
+    * @param games Games to add, players being referenced by id.
+    * @return The snapshot published once the games are added.
+    */
+   public CompletableFuture<TournamentSnapshot> addGames(String id, int round, List<GameRecord> games) {
+      return mailbox(id).addGames(round, games);
+   }
+
+   /**
+    * Queues the rating of a tournament.
+    *
+    * @param id Tournament id.
+    * @return The snapshot published once the ratings are computed.
+    */
+   public CompletableFuture<TournamentSnapshot> rate(String id) {
+      return mailbox(id).rate();
+   }
+
+   /**
+    * Crosstable of a tournament, built once per published snapshot. Until the tournament is rated, the construction
+    * is queued after the mutations already queued.
+    *
+    * @param id Tournament id.
+    * @return The crosstable, with the players sorted on the standing once the tournament is rated.
+    */
+   public CompletableFuture<Crosstable> getCrosstable(String id) {
+      return mailbox(id).crosstable();
+   }
+
+   /**
+    * Explains the new rating of a player of a rated tournament, game by game, computed from the stored games of the
+    * rated tournament without queuing on its mailbox. The future fails with a {@link NoSuchElementException} if the player is not registered in the
+    * tournament, or an {@link IllegalStateException} if the tournament is not rated with the rules of the
+    * federation.
+    *
+    * @param id       Tournament id.
+    * @param playerId Player id.
+    * @return The breakdown.
+    */
+   public CompletableFuture<RatingBreakdown> getRatingBreakdown(String id, int playerId) {
+      return mailbox(id).ratingBreakdown(playerId);
+   }
+
+   /**
+    * Last published snapshot of a tournament.
+    *
+    * @param id Tournament id.
+    * @return The snapshot, or null if the id is unknown.
+    */
+   public TournamentSnapshot getSnapshot(String id) {
+      TournamentMailbox mailbox = tournaments.get(id);
+      return mailbox == null ? null : mailbox.getSnapshot();
+   }
+
+   /**
+    * Removes a tournament. Mutations already queued are still applied. With a journal, the removal is logged after
+    * them and the tournament stays registered until the removal is durable, so that its id cannot be registered
+    * again in between.
+    *
+    * @param id Tournament id.
+    * @return true if the tournament was registered.
+    */
+   public boolean remove(String id) {
+      TournamentMailbox mailbox = tournaments.get(id);
+      if (mailbox == null) {
+         return false;
+      }
+      if (journal != null && !mailbox.remove().join()) {
+         return false;
+      }
+      return tournaments.remove(id, mailbox);
+   }
+
+   public Set<String> getIds() {
+      return Collections.unmodifiableSet(tournaments.keySet());
+   }
+
+   /**
+    * Last rating published for each player by the tournaments rated in the journal, found on startup, so that the
+    * ratings can be published again.
+    *
+    * @return The rated players, empty for a registry kept in memory only.
+    */
+   public List<Player> getRecoveredRatings() {
+      return Collections.unmodifiableList(new ArrayList<>(recoveredRatings.values()));
+   }
+
+   void recoverRegistered(String id, List<Player> players) {
+      tournaments.put(id, new TournamentMailbox(id, players, executor, journal, ratingCache));
+   }
+
+   void recoverRoundAdded(String id, List<GameRecord> games) {
+      mailbox(id).applyAddRound(games);
+   }
+
+   void recoverGamesAdded(String id, int round, List<GameRecord> games) {
+      mailbox(id).applyAddGames(round, games);
+   }
+
+   void recoverRemoved(String id) {
+      tournaments.remove(id);
+   }
+
+   /**
+    * Rebuilds a rated tournament from its logged outcome, replacing the tournament rebuilt from its earlier records
+    * if they were not compacted yet.
+    */
+   void recoverRated(String id, List<Player> players, List<List<GameRecord>> rounds, CachedRatings outcome) {
+      TournamentMailbox mailbox = new TournamentMailbox(id, players, executor, journal, ratingCache);
+      for (List<GameRecord> games : rounds) {
+         mailbox.applyAddRound(games);
+      }
+      mailbox.applyRated(outcome);
+      tournaments.put(id, mailbox);
+   }
+
+   /**
+    * Records ratings published by rated tournaments, replacing the ratings of the same players recorded before.
+    */
+   void recoverRatings(List<Player> ratings) {
+      for (Player player : ratings) {
+         recoveredRatings.put(player.getId(), player);
+      }
+   }
+
+   private TournamentMailbox mailbox(String id) {
+      TournamentMailbox mailbox = tournaments.get(id);
+      if (mailbox == null) {
+         throw new NoSuchElementException("Unknown tournament " + id);
+      }
+      return mailbox;
+   }
+}
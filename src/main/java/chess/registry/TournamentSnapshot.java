@@ -0,0 +1,86 @@
+package chess.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import chess.models.Crosstable;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+/**
+ * Immutable view of a {@link Tournament} published by its mailbox after each mutation. Readers get the last
+ * published snapshot without ever waiting for a pending mutation.
+ */
+public final class TournamentSnapshot {
+
+   private final String id;
+   private final long version;
+   private final int roundCount;
+   private final int gameCount;
+   private final boolean rated;
+   private final List<PlayerSnapshot> standing;
+
+   /**
+    * Crosstable of the tournament at this version, built on the first request.
+    */
+   private volatile Crosstable crosstable;
+
+   TournamentSnapshot(String id, long version, Tournament tournament, boolean rated) {
+      this.id = id;
+      this.version = version;
+      this.roundCount = tournament.getRounds().size();
+      this.gameCount = tournament.getRounds().stream().mapToInt(Round::getSize).sum();
+      this.rated = rated;
+
+      List<PlayerSnapshot> players = new ArrayList<>(tournament.getPlayers().size());
+      for (Player player : rated ? Arrays.asList(tournament.getPlayersStanding()) : tournament.getPlayers()) {
+         players.add(new PlayerSnapshot(player));
+      }
+      this.standing = Collections.unmodifiableList(players);
+   }
+
+   Crosstable cachedCrosstable() {
+      return crosstable;
+   }
+
+   void cacheCrosstable(Crosstable crosstable) {
+      this.crosstable = crosstable;
+   }
+
+   public String getId() {
+      return id;
+   }
+
+   /**
+    * Number of mutations applied to the tournament, starting at 0 for the registration.
+    *
+    * @return The version of the snapshot.
+    */
+   public long getVersion() {
+      return version;
+   }
+
+   public int getRoundCount() {
+      return roundCount;
+   }
+
+   public int getGameCount() {
+      return gameCount;
+   }
+
+   public boolean isRated() {
+      return rated;
+   }
+
+   /**
+    * Players sorted on their standing once the tournament is rated, in registration order before.
+    *
+    * @return The players.
+    */
+   public List<PlayerSnapshot> getStanding() {
+      return standing;
+   }
+}
@@ -0,0 +1,118 @@
+package chess.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+
+import chess.ChessApplication;
+import chess.WarmUp;
+
+/**
+ * Embedded launcher which serves the {@link ChessApplication} with Grizzly, without a servlet container.
+ * <p>
+ * Usage: {@code ChessServer [port] [--exit-after-start]}. The port defaults to the {@code chess.port} system
+ * property, then 8080. Once started, the launcher sends a first request to the service and logs the time
+ * elapsed since the JVM start. With {@code --exit-after-start}, the server stops right after this first request,
+ * which is used by the {@code cds} Maven profile to record the class-data-sharing archive. Otherwise, the end of the
+ * {@link WarmUp} is reported as well.
+ */
+public final class ChessServer {
+
+   public static final int DEFAULT_PORT = 8080;
+
+   private static final String EXIT_AFTER_START = "--exit-after-start";
+
+   private static final Logger LOGGER = Logger.getLogger(ChessServer.class.getName());
+
+   private final HttpServer server;
+
+   private final URI baseUri;
+
+   private ChessServer(HttpServer server, URI baseUri) {
+      this.server = server;
+      this.baseUri = baseUri;
+   }
+
+   /**
+    * Starts the service on the given port of the loopback and all other interfaces.
+    *
+    * @param port Listening port, 0 to pick a free port.
+    * @return The started server.
+    */
+   public static ChessServer start(int port) {
+      HttpServer server = GrizzlyHttpServerFactory.createHttpServer(
+            URI.create("http://0.0.0.0:" + port + "/"), new ChessApplication(), true);
+      int boundPort = server.getListener("grizzly").getPort();
+      return new ChessServer(server, URI.create("http://localhost:" + boundPort + "/"));
+   }
+
+   /**
+    * Base URI of the running service, such as {@code http://localhost:8080/}.
+    *
+    * @return The base URI.
+    */
+   public URI getBaseUri() {
+      return baseUri;
+   }
+
+   public void stop() {
+      server.shutdownNow();
+   }
+
+   /**
+    * Sends a GET request to the service and reads the whole response.
+    *
+    * @param path Path relative to the base URI.
+    * @return The HTTP status code.
+    * @throws IOException Thrown if the request fails.
+    */
+   public int probe(String path) throws IOException {
+      HttpURLConnection connection = (HttpURLConnection) new URL(baseUri.toURL(), path).openConnection();
+      try (InputStream body = connection.getInputStream()) {
+         byte[] buffer = new byte[4096];
+         while (body.read(buffer) >= 0) {
+            // drain the response
+         }
+         return connection.getResponseCode();
+      } finally {
+         connection.disconnect();
+      }
+   }
+
+   public static void main(String[] args) throws Exception {
+      int port = Integer.getInteger("chess.port", DEFAULT_PORT);
+      boolean exitAfterStart = false;
+      for (String arg : args) {
+         if (EXIT_AFTER_START.equals(arg)) {
+            exitAfterStart = true;
+         } else {
+            port = Integer.parseInt(arg);
+         }
+      }
+
+      ChessServer chessServer = start(port);
+      int status = chessServer.probe("chess/players");
+      long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+      LOGGER.info("Chess rating service listening on " + chessServer.getBaseUri()
+            + ", first request served with status " + status + " " + startupMillis + " ms after JVM start");
+
+      if (exitAfterStart) {
+         chessServer.stop();
+         return;
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(chessServer::stop));
+      WarmUp warmUp = WarmUp.get();
+      warmUp.await(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      LOGGER.info("Warm-up done after " + warmUp.getCompletedIterations() + " iterations in "
+            + warmUp.getElapsedMillis() + " ms, ready for traffic");
+      Thread.currentThread().join();
+   }
+}
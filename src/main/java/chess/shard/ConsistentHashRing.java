@@ -0,0 +1,123 @@
+package chess.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning player ids to nodes. Each node is placed on the ring at several pseudo random
+ * positions, its virtual nodes, and a player id belongs to the first virtual node found clockwise from the hash of
+ * the id. Adding a node therefore only moves the ids falling between the new virtual nodes and their predecessors,
+ * about {@code 1 / nodeCount} of the ids, all of them to the new node.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @param <N> Type of the nodes.
+ */
+public final class ConsistentHashRing<N> {
+
+   /**
+    * Default number of virtual nodes per node, enough to keep the load of the nodes within a few percent.
+    */
+   public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+   private final int virtualNodes;
+
+   private final TreeMap<Long, N> ring = new TreeMap<>();
+
+   private final Map<String, N> nodes = new LinkedHashMap<>();
+
+   public ConsistentHashRing() {
+      this(DEFAULT_VIRTUAL_NODES);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param virtualNodes Number of positions of each node on the ring.
+    */
+   public ConsistentHashRing(int virtualNodes) {
+      if (virtualNodes < 1) {
+         throw new IllegalArgumentException("virtualNodes must be positive");
+      }
+      this.virtualNodes = virtualNodes;
+   }
+
+   /**
+    * Adds a node to the ring.
+    *
+    * @param key  Stable name of the node, such as its address, from which its positions are derived.
+    * @param node The node.
+    * @throws IllegalStateException If a node is already registered with this key.
+    */
+   public void add(String key, N node) {
+      if (nodes.containsKey(key)) {
+         throw new IllegalStateException("Node " + key + " is already on the ring");
+      }
+      nodes.put(key, node);
+      for (int i = 0; i < virtualNodes; i++) {
+         ring.put(position(key, i), node);
+      }
+   }
+
+   /**
+    * Removes a node from the ring.
+    *
+    * @param key Name of the node.
+    * @return The removed node, or null if no node has this key.
+    */
+   public N remove(String key) {
+      N node = nodes.remove(key);
+      if (node != null) {
+         for (int i = 0; i < virtualNodes; i++) {
+            ring.remove(position(key, i), node);
+         }
+      }
+      return node;
+   }
+
+   /**
+    * Returns the node owning a player id.
+    *
+    * @param playerId Id of the player.
+    * @return The owner node.
+    * @throws IllegalStateException If the ring is empty.
+    */
+   public N nodeFor(int playerId) {
+      if (ring.isEmpty()) {
+         throw new IllegalStateException("The ring has no node");
+      }
+      Map.Entry<Long, N> entry = ring.ceilingEntry(mix(playerId));
+      return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+   }
+
+   public Collection<N> getNodes() {
+      return Collections.unmodifiableCollection(nodes.values());
+   }
+
+   public int size() {
+      return nodes.size();
+   }
+
+   private static long position(String key, int replica) {
+      // FNV-1a over the key, then mixed with the replica number.
+      long hash = 0xcbf29ce484222325L;
+      for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+         hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+      }
+      return mix(hash + replica * 0x9E3779B97F4A7C15L);
+   }
+
+   /**
+    * Finalizer of SplitMix64, spreading consecutive ids over the whole ring.
+    */
+   private static long mix(long value) {
+      long z = value + 0x9E3779B97F4A7C15L;
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      return z ^ (z >>> 31);
+   }
+}
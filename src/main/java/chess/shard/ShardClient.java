@@ -0,0 +1,157 @@
+package chess.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Client of one {@link ShardNode}. Connections are kept in a pool so that concurrent requests to the same node do
+ * not wait for each other; a connection is opened when the pool is empty and dropped after an IO error.
+ */
+final class ShardClient implements Closeable {
+
+   private final InetSocketAddress address;
+
+   private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+
+   private volatile boolean closed = false;
+
+   ShardClient(InetSocketAddress address) {
+      this.address = address;
+   }
+
+   InetSocketAddress getAddress() {
+      return address;
+   }
+
+   List<ShardRecord> get(int[] ids) throws IOException {
+      return call(connection -> {
+         DataOutputStream out = connection.out;
+         out.writeByte(ShardNode.GET);
+         out.writeInt(ids.length);
+         for (int id : ids) {
+            out.writeInt(id);
+         }
+         out.flush();
+         DataInputStream in = connection.readStatus();
+         int count = in.readInt();
+         List<ShardRecord> records = new ArrayList<>(count);
+         for (int i = 0; i < count; i++) {
+            records.add(ShardRecord.readFrom(in));
+         }
+         return records;
+      });
+   }
+
+   void put(Collection<ShardRecord> records) throws IOException {
+      call(connection -> {
+         DataOutputStream out = connection.out;
+         out.writeByte(ShardNode.PUT);
+         out.writeInt(records.size());
+         for (ShardRecord record : records) {
+            record.writeTo(out);
+         }
+         out.flush();
+         return connection.readStatus().readInt();
+      });
+   }
+
+   int remove(int[] ids) throws IOException {
+      return call(connection -> {
+         DataOutputStream out = connection.out;
+         out.writeByte(ShardNode.REMOVE);
+         out.writeInt(ids.length);
+         for (int id : ids) {
+            out.writeInt(id);
+         }
+         out.flush();
+         return connection.readStatus().readInt();
+      });
+   }
+
+   int[] ids() throws IOException {
+      return call(connection -> {
+         connection.out.writeByte(ShardNode.IDS);
+         connection.out.flush();
+         DataInputStream in = connection.readStatus();
+         int[] ids = new int[in.readInt()];
+         for (int i = 0; i < ids.length; i++) {
+            ids[i] = in.readInt();
+         }
+         return ids;
+      });
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+      for (Connection connection = idle.poll(); connection != null; connection = idle.poll()) {
+         connection.close();
+      }
+   }
+
+   private <T> T call(Exchange<T> exchange) throws IOException {
+      if (closed) {
+         throw new IOException("Client of " + address + " is closed");
+      }
+      Connection connection = idle.poll();
+      if (connection == null) {
+         connection = new Connection(address);
+      }
+      T result;
+      try {
+         result = exchange.run(connection);
+      } catch (IOException | RuntimeException e) {
+         connection.close();
+         throw e;
+      }
+      idle.add(connection);
+      if (closed) {
+         close();
+      }
+      return result;
+   }
+
+   private interface Exchange<T> {
+      T run(Connection connection) throws IOException;
+   }
+
+   private static final class Connection {
+
+      private final Socket socket;
+      private final DataInputStream in;
+      private final DataOutputStream out;
+
+      Connection(InetSocketAddress address) throws IOException {
+         socket = new Socket(address.getAddress(), address.getPort());
+         socket.setTcpNoDelay(true);
+         in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+         out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      }
+
+      DataInputStream readStatus() throws IOException {
+         if (in.readByte() != ShardNode.OK) {
+            throw new IOException("Shard error: " + in.readUTF());
+         }
+         return in;
+      }
+
+      void close() {
+         try {
+            socket.close();
+         } catch (IOException e) {
+            // Nothing left to release.
+         }
+      }
+   }
+}
@@ -0,0 +1,285 @@
+package chess.shard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+import chess.rating.RatedEvent;
+
+/**
+ * Rates tournaments over player rating state partitioned across {@link ShardNode}s by consistent hashing of the
+ * player id.
+ * <p>
+ * Rating a tournament gathers the records of the participants from their nodes, one request per node sent in
+ * parallel, rates a local {@link Tournament}, then scatters the updated records back to their nodes. Tournaments
+ * sharing players are serialized by striped locks on the player ids, taken in a fixed order, while tournaments
+ * over distinct players are rated in parallel. Adding a node moves the players it now owns from the other nodes
+ * and blocks the ratings until the move is done.
+ */
+public final class ShardCoordinator implements AutoCloseable {
+
+   private static final int LOCK_STRIPES = 1024;
+
+   private final ConsistentHashRing<ShardClient> ring;
+
+   private final ReadWriteLock topology = new ReentrantReadWriteLock();
+
+   private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+   private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "shard-coordinator");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   public ShardCoordinator() {
+      this(ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param virtualNodes Number of positions of each node on the hash ring.
+    */
+   public ShardCoordinator(int virtualNodes) {
+      this.ring = new ConsistentHashRing<>(virtualNodes);
+      for (int i = 0; i < LOCK_STRIPES; i++) {
+         stripes[i] = new ReentrantLock();
+      }
+   }
+
+   /**
+    * Adds a node and moves to it the players it owns from now on. Each other node only sends the players leaving
+    * it. The players are first copied to the new node, and only removed from the other nodes once every copy is
+    * stored: if a copy fails, the node is taken off the ring again and the players are still read from their
+    * previous node.
+    *
+    * @param address Address of the node.
+    * @return The number of players moved to the new node.
+    * @throws IOException           If a node cannot be reached. If the copies failed, the node is not added. If only
+    *                               the removal of the copied players failed, the node is added and the players left
+    *                               on their previous node are no longer read.
+    * @throws IllegalStateException If a node with the same address is already added.
+    */
+   public int addNode(InetSocketAddress address) throws IOException {
+      String key = address.getHostString() + ":" + address.getPort();
+      topology.writeLock().lock();
+      try {
+         List<ShardClient> previous = new ArrayList<>(ring.getNodes());
+         ShardClient added = new ShardClient(address);
+         try {
+            ring.add(key, added);
+         } catch (IllegalStateException e) {
+            added.close();
+            throw e;
+         }
+         Map<ShardClient, int[]> leaving;
+         try {
+            leaving = onShards(previous, node -> {
+               int[] ids = Arrays.stream(node.ids()).filter(id -> ring.nodeFor(id) == added).toArray();
+               if (ids.length > 0) {
+                  added.put(node.get(ids));
+               }
+               return ids;
+            });
+         } catch (IOException | RuntimeException e) {
+            ring.remove(key);
+            added.close();
+            throw e;
+         }
+         onShards(previous, node -> {
+            int[] ids = leaving.get(node);
+            if (ids.length > 0) {
+               node.remove(ids);
+            }
+            return null;
+         });
+         return leaving.values().stream().mapToInt(ids -> ids.length).sum();
+      } finally {
+         topology.writeLock().unlock();
+      }
+   }
+
+   public int getNodeCount() {
+      topology.readLock().lock();
+      try {
+         return ring.size();
+      } finally {
+         topology.readLock().unlock();
+      }
+   }
+
+   /**
+    * Stores the rating state of players on their nodes, replacing the stored state of the same ids.
+    *
+    * @param players The players.
+    * @throws IOException If a node cannot be reached.
+    */
+   public void putPlayers(Collection<Player> players) throws IOException {
+      topology.readLock().lock();
+      try {
+         scatter(players);
+      } finally {
+         topology.readLock().unlock();
+      }
+   }
+
+   /**
+    * Reads the rating state of players from their nodes.
+    *
+    * @param ids Ids of the players.
+    * @return New {@link Player} instances by id. Unknown ids are absent.
+    * @throws IOException If a node cannot be reached.
+    */
+   public Map<Integer, Player> getPlayers(int[] ids) throws IOException {
+      topology.readLock().lock();
+      try {
+         return gather(ids);
+      } finally {
+         topology.readLock().unlock();
+      }
+   }
+
+   /**
+    * Rates a tournament whose participants may be stored on several nodes and stores their new ratings.
+    *
+    * @param event Rounds of the tournament.
+    * @return The standing of the tournament.
+    * @throws IOException              If a node cannot be reached. The ratings are then either all stored on a
+    *                                  node or not at all, but may be stored on some nodes only.
+    * @throws IllegalArgumentException If a participant is not stored on any node.
+    */
+   public List<Player> rate(RatedEvent event) throws IOException {
+      int[] ids = event.getParticipantIds();
+      int[] stripeIndexes = IntStream.of(ids).map(ShardCoordinator::stripe).distinct().sorted().toArray();
+      topology.readLock().lock();
+      try {
+         for (int stripe : stripeIndexes) {
+            stripes[stripe].lock();
+         }
+         try {
+            Map<Integer, Player> players = gather(ids);
+            for (int id : ids) {
+               if (!players.containsKey(id)) {
+                  throw new IllegalArgumentException("Player " + id + " is not stored on any shard");
+               }
+            }
+            Tournament tournament = new Tournament(new ArrayList<>(players.values()));
+            for (List<GameRecord> games : event.getRounds()) {
+               Round round = new Round();
+               for (GameRecord game : games) {
+                  round.addGame(players.get(game.getWhiteId()), players.get(game.getBlackId()), game.getResult());
+               }
+               tournament.addRound(round);
+            }
+            tournament.computeTournamentRatings();
+            scatter(players.values());
+            return Arrays.asList(tournament.getPlayersStanding());
+         } finally {
+            for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+               stripes[stripeIndexes[i]].unlock();
+            }
+         }
+      } finally {
+         topology.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void close() {
+      topology.writeLock().lock();
+      try {
+         ring.getNodes().forEach(ShardClient::close);
+      } finally {
+         topology.writeLock().unlock();
+      }
+      executor.shutdownNow();
+   }
+
+   private Map<Integer, Player> gather(int[] ids) throws IOException {
+      Map<ShardClient, List<Integer>> byNode = new HashMap<>();
+      for (int id : ids) {
+         byNode.computeIfAbsent(ring.nodeFor(id), node -> new ArrayList<>()).add(id);
+      }
+      Map<ShardClient, List<ShardRecord>> found = onShards(byNode.keySet(),
+            node -> node.get(byNode.get(node).stream().mapToInt(Integer::intValue).toArray()));
+
+      Map<Integer, Player> players = new HashMap<>();
+      found.values().forEach(records -> records.forEach(record -> players.put(record.getId(), record.toPlayer())));
+      // Keep the order of the requested ids, which is the registration order of the tournament.
+      Map<Integer, Player> ordered = new LinkedHashMap<>();
+      for (int id : ids) {
+         Player player = players.get(id);
+         if (player != null) {
+            ordered.put(id, player);
+         }
+      }
+      return ordered;
+   }
+
+   private void scatter(Collection<Player> players) throws IOException {
+      Map<ShardClient, List<ShardRecord>> byNode = new HashMap<>();
+      for (Player player : players) {
+         byNode.computeIfAbsent(ring.nodeFor(player.getId()), node -> new ArrayList<>()).add(ShardRecord.of(player));
+      }
+      onShards(byNode.keySet(), node -> {
+         node.put(byNode.get(node));
+         return null;
+      });
+   }
+
+   /**
+    * Sends one request to each node in parallel and waits for all the answers.
+    */
+   private <T> Map<ShardClient, T> onShards(Collection<ShardClient> nodes, ShardCall<T> call) throws IOException {
+      Map<ShardClient, CompletableFuture<T>> futures = new HashMap<>();
+      for (ShardClient node : nodes) {
+         futures.put(node, CompletableFuture.supplyAsync(() -> {
+            try {
+               return call.apply(node);
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         }, executor));
+      }
+      Map<ShardClient, T> results = new HashMap<>();
+      try {
+         for (Map.Entry<ShardClient, CompletableFuture<T>> entry : futures.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().join());
+         }
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) e.getCause()).getCause();
+         }
+         throw e;
+      }
+      return results;
+   }
+
+   private static int stripe(int playerId) {
+      return Math.floorMod(playerId * 0x9E3779B9, LOCK_STRIPES);
+   }
+
+   private interface ShardCall<T> {
+      T apply(ShardClient node) throws IOException;
+   }
+}
@@ -0,0 +1,172 @@
+package chess.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Node holding the rating state of the players of one shard, served over TCP. Nodes only store records; rating a
+ * tournament is done by a {@link ShardCoordinator}, which gathers the records of the participants from their nodes
+ * and scatters the updated records back.
+ * <p>
+ * Each connection is served by its own thread. A request is one operation code followed by its arguments and is
+ * answered with a status byte followed by the result or an error message. See {@link ShardClient} for the
+ * encoding of the operations.
+ */
+public final class ShardNode implements AutoCloseable {
+
+   static final byte GET = 1;
+   static final byte PUT = 2;
+   static final byte REMOVE = 3;
+   static final byte IDS = 4;
+
+   static final byte OK = 0;
+   static final byte ERROR = 1;
+
+   private final Map<Integer, ShardRecord> records = new ConcurrentHashMap<>();
+
+   private final ServerSocket serverSocket;
+
+   private final ExecutorService connections;
+
+   private ShardNode(ServerSocket serverSocket, String name) {
+      this.serverSocket = serverSocket;
+      this.connections = Executors.newCachedThreadPool(runnable -> {
+         Thread thread = new Thread(runnable, name);
+         thread.setDaemon(true);
+         return thread;
+      });
+   }
+
+   /**
+    * Starts a node listening on the loopback interface.
+    *
+    * @param port Port to listen on, or 0 for any free port.
+    * @return The started node.
+    * @throws IOException If the port cannot be bound.
+    */
+   public static ShardNode start(int port) throws IOException {
+      ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+      ShardNode node = new ShardNode(serverSocket, "shard-" + serverSocket.getLocalPort());
+      node.connections.execute(node::accept);
+      return node;
+   }
+
+   public InetSocketAddress getAddress() {
+      return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+   }
+
+   /**
+    * Number of players stored by this node.
+    *
+    * @return The number of records.
+    */
+   public int size() {
+      return records.size();
+   }
+
+   @Override
+   public void close() throws IOException {
+      serverSocket.close();
+      connections.shutdownNow();
+   }
+
+   private void accept() {
+      while (!serverSocket.isClosed()) {
+         try {
+            Socket socket = serverSocket.accept();
+            socket.setTcpNoDelay(true);
+            connections.execute(() -> serve(socket));
+         } catch (IOException e) {
+            // The server socket was closed.
+         }
+      }
+   }
+
+   private void serve(Socket socket) {
+      try (Socket connection = socket;
+           DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+           DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+         while (true) {
+            byte operation;
+            try {
+               operation = in.readByte();
+            } catch (EOFException e) {
+               return;
+            }
+            handle(operation, in, out);
+            out.flush();
+         }
+      } catch (IOException e) {
+         // The client went away, its connection is dropped.
+      }
+   }
+
+   private void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+      switch (operation) {
+         case GET: {
+            int count = in.readInt();
+            ShardRecord[] found = new ShardRecord[count];
+            int foundCount = 0;
+            for (int i = 0; i < count; i++) {
+               ShardRecord record = records.get(in.readInt());
+               if (record != null) {
+                  found[foundCount++] = record;
+               }
+            }
+            out.writeByte(OK);
+            out.writeInt(foundCount);
+            for (int i = 0; i < foundCount; i++) {
+               found[i].writeTo(out);
+            }
+            break;
+         }
+         case PUT: {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+               ShardRecord record = ShardRecord.readFrom(in);
+               records.put(record.getId(), record);
+            }
+            out.writeByte(OK);
+            out.writeInt(count);
+            break;
+         }
+         case REMOVE: {
+            int count = in.readInt();
+            int removed = 0;
+            for (int i = 0; i < count; i++) {
+               if (records.remove(in.readInt()) != null) {
+                  removed++;
+               }
+            }
+            out.writeByte(OK);
+            out.writeInt(removed);
+            break;
+         }
+         case IDS: {
+            int[] ids = records.keySet().stream().mapToInt(Integer::intValue).toArray();
+            out.writeByte(OK);
+            out.writeInt(ids.length);
+            for (int id : ids) {
+               out.writeInt(id);
+            }
+            break;
+         }
+         default:
+            out.writeByte(ERROR);
+            out.writeUTF("Unknown operation " + operation);
+            throw new IOException("Unknown operation " + operation);
+      }
+   }
+}
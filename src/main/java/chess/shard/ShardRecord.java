@@ -0,0 +1,88 @@
+package chess.shard;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import chess.models.Player;
+
+/**
+ * Rating state of one player as stored by a {@link ShardNode}: what a {@link chess.models.Tournament} needs to
+ * rate the player, without the results of any tournament.
+ */
+public final class ShardRecord {
+
+   private final int id;
+   private final String lastName;
+   private final String firstName;
+   private final double rating;
+   private final boolean ratingPermanent;
+   private final int unratedGamesPlayed;
+
+   public ShardRecord(int id, String lastName, String firstName, double rating, boolean ratingPermanent,
+                      int unratedGamesPlayed) {
+      this.id = id;
+      this.lastName = lastName;
+      this.firstName = firstName;
+      this.rating = rating;
+      this.ratingPermanent = ratingPermanent;
+      this.unratedGamesPlayed = unratedGamesPlayed;
+   }
+
+   /**
+    * Copies the rating state of a {@link Player}.
+    *
+    * @param player The player.
+    * @return The record.
+    */
+   public static ShardRecord of(Player player) {
+      return new ShardRecord(player.getId(), player.getLastName(), player.getFirstName(), player.getRating(),
+            player.isRatingPermanent(), player.getUnratedGamesPlayed());
+   }
+
+   /**
+    * Creates a new {@link Player} with this rating state, ready to be registered in a tournament.
+    *
+    * @return The player.
+    */
+   public Player toPlayer() {
+      Player player = new Player(lastName, firstName, rating);
+      player.setId(id);
+      player.setRatingPermanent(ratingPermanent);
+      player.setUnratedGamesPlayed(unratedGamesPlayed);
+      return player;
+   }
+
+   public int getId() {
+      return id;
+   }
+
+   public double getRating() {
+      return rating;
+   }
+
+   void writeTo(DataOutput out) throws IOException {
+      out.writeInt(id);
+      writeNullableString(out, lastName);
+      writeNullableString(out, firstName);
+      out.writeDouble(rating);
+      out.writeBoolean(ratingPermanent);
+      out.writeInt(unratedGamesPlayed);
+   }
+
+   static ShardRecord readFrom(DataInput in) throws IOException {
+      return new ShardRecord(in.readInt(), readNullableString(in), readNullableString(in), in.readDouble(),
+            in.readBoolean(), in.readInt());
+   }
+
+   private static void writeNullableString(DataOutput out, String value) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         out.writeUTF(value);
+      }
+   }
+
+   private static String readNullableString(DataInput in) throws IOException {
+      return in.readBoolean() ? in.readUTF() : null;
+   }
+}
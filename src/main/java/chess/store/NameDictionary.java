@@ -0,0 +1,49 @@
+package chess.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of the name components of a {@link PlayerPool}. Each distinct name is stored once and referenced by
+ * an int code, so a roster repeating the same surnames and first names keeps a single copy of each.
+ */
+final class NameDictionary {
+
+   /**
+    * Code of a null name.
+    */
+   static final int NULL_CODE = -1;
+
+   private final Map<String, Integer> codes = new HashMap<>();
+
+   private final List<String> names = new ArrayList<>();
+
+   /**
+    * Returns the code of a name, adding the name to the dictionary if needed.
+    *
+    * @param name The name, may be null.
+    * @return The code.
+    */
+   int encode(String name) {
+      if (name == null) {
+         return NULL_CODE;
+      }
+      Integer code = codes.get(name);
+      if (code == null) {
+         code = names.size();
+         codes.put(name, code);
+         names.add(name);
+      }
+      return code;
+   }
+
+   String decode(int code) {
+      return code == NULL_CODE ? null : names.get(code);
+   }
+
+   int size() {
+      return names.size();
+   }
+}
@@ -0,0 +1,150 @@
+package chess.store;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable map from non-negative int ids to values, stored as a 32-way trie indexed by the bits of the id.
+ * Updating a map copies only the nodes on the path of the updated ids and shares every other node with the
+ * previous map, so a new version of a map of a million entries costs a few small arrays per updated id. Entries
+ * are iterated in increasing order of id.
+ *
+ * @param <V> Type of the values.
+ */
+final class PersistentIdMap<V> {
+
+   private static final int BITS = 5;
+   private static final int WIDTH = 1 << BITS;
+   private static final int MASK = WIDTH - 1;
+
+   /**
+    * Shift of the root level once the trie covers the 31 bits of a non-negative id.
+    */
+   private static final int MAX_SHIFT = 30;
+
+   private static final PersistentIdMap<?> EMPTY = new PersistentIdMap<>(new Object[WIDTH], 0, 0);
+
+   private final Object[] root;
+   private final int shift;
+   private final int size;
+
+   private PersistentIdMap(Object[] root, int shift, int size) {
+      this.root = root;
+      this.shift = shift;
+      this.size = size;
+   }
+
+   @SuppressWarnings("unchecked")
+   static <V> PersistentIdMap<V> empty() {
+      return (PersistentIdMap<V>) EMPTY;
+   }
+
+   int size() {
+      return size;
+   }
+
+   @SuppressWarnings("unchecked")
+   V get(int id) {
+      if (!fits(id, shift)) {
+         return null;
+      }
+      Object[] node = root;
+      for (int level = shift; level > 0; level -= BITS) {
+         node = (Object[]) node[(id >>> level) & MASK];
+         if (node == null) {
+            return null;
+         }
+      }
+      return (V) node[id & MASK];
+   }
+
+   /**
+    * Returns a new map with the values added or replaced. Nodes created for this update are modified in place
+    * while the update runs, so ids sharing a path only copy it once.
+    *
+    * @param values Values to store.
+    * @param idOf   Id of a value.
+    * @return The new map.
+    * @throws IllegalArgumentException If an id is negative.
+    */
+   PersistentIdMap<V> withAll(Collection<? extends V> values, ToIntFunction<? super V> idOf) {
+      Set<Object[]> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+      Object[] newRoot = root;
+      int newShift = shift;
+      int newSize = size;
+      for (V value : values) {
+         int id = idOf.applyAsInt(value);
+         if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+         }
+         while (!fits(id, newShift)) {
+            Object[] grown = new Object[WIDTH];
+            grown[0] = newSize == 0 ? null : newRoot;
+            owned.add(grown);
+            newRoot = grown;
+            newShift += BITS;
+         }
+         if (!owned.contains(newRoot)) {
+            newRoot = newRoot.clone();
+            owned.add(newRoot);
+         }
+         Object[] node = newRoot;
+         for (int level = newShift; level > 0; level -= BITS) {
+            int index = (id >>> level) & MASK;
+            Object[] child = (Object[]) node[index];
+            if (child == null) {
+               child = new Object[WIDTH];
+               owned.add(child);
+            } else if (!owned.contains(child)) {
+               child = child.clone();
+               owned.add(child);
+            }
+            node[index] = child;
+            node = child;
+         }
+         if (node[id & MASK] == null) {
+            newSize++;
+         }
+         node[id & MASK] = value;
+      }
+      return new PersistentIdMap<>(newRoot, newShift, newSize);
+   }
+
+   /**
+    * Visits the values in increasing order of id, starting at an id.
+    *
+    * @param fromId  Smallest id visited.
+    * @param visitor Called with each value, returns false to stop the iteration.
+    */
+   void forEachFrom(long fromId, Predicate<? super V> visitor) {
+      visit(root, shift, 0, fromId, visitor);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <V> boolean visit(Object[] node, int level, long base, long fromId, Predicate<? super V> visitor) {
+      long span = 1L << level;
+      for (int i = 0; i < WIDTH; i++) {
+         Object child = node[i];
+         long childBase = base + i * span;
+         if (child == null || childBase + span - 1 < fromId) {
+            continue;
+         }
+         if (level == 0) {
+            if (!visitor.test((V) child)) {
+               return false;
+            }
+         } else if (!visit((Object[]) child, level - BITS, childBase, fromId, visitor)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean fits(int id, int shift) {
+      return id >= 0 && (shift >= MAX_SHIFT || (id >>> (shift + BITS)) == 0);
+   }
+}
@@ -0,0 +1,91 @@
+package chess.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import chess.models.Player;
+
+/**
+ * Serializable properties of a {@link Player}, used to project a response on the fields requested by a client.
+ * The names match the JSON property names of a serialized {@link Player}.
+ */
+public enum PlayerField {
+
+   ID("id", Player::getId),
+   LAST_NAME("lastName", Player::getLastName),
+   FIRST_NAME("firstName", Player::getFirstName),
+   FULL_NAME("fullName", Player::getFullName),
+   RATING("rating", Player::getRating),
+   RATING_PERMANENT("ratingPermanent", Player::isRatingPermanent),
+   OLD_RATING("oldRating", Player::getOldRating),
+   SCORE("score", Player::getScore),
+   UNRATED_GAMES_PLAYED("unratedGamesPlayed", Player::getUnratedGamesPlayed),
+   WINS("wins", Player::getWins),
+   LOSSES("losses", Player::getLosses),
+   TIES("ties", Player::getTies);
+
+   private final String jsonName;
+
+   private final Function<Player, Object> getter;
+
+   PlayerField(String jsonName, Function<Player, Object> getter) {
+      this.jsonName = jsonName;
+      this.getter = getter;
+   }
+
+   public String getJsonName() {
+      return jsonName;
+   }
+
+   /**
+    * Parses a comma separated list of field names, such as {@code id,fullName,rating}.
+    *
+    * @param fields The field names.
+    * @return The set of fields, in declaration order.
+    * @throws IllegalArgumentException If a field name is unknown.
+    */
+   public static Set<PlayerField> parse(String fields) {
+      Set<PlayerField> parsed = EnumSet.noneOf(PlayerField.class);
+      for (String name : fields.split(",")) {
+         String trimmed = name.trim();
+         if (!trimmed.isEmpty()) {
+            parsed.add(fromJsonName(trimmed));
+         }
+      }
+      return parsed;
+   }
+
+   private static PlayerField fromJsonName(String name) {
+      for (PlayerField field : values()) {
+         if (field.jsonName.equals(name)) {
+            return field;
+         }
+      }
+      throw new IllegalArgumentException("Unknown player field: " + name);
+   }
+
+   /**
+    * Projects players on the given fields. Only the requested properties are read and serialized.
+    *
+    * @param players The players to project.
+    * @param fields  The requested fields.
+    * @return One map per player, from JSON property name to value.
+    */
+   public static List<Map<String, Object>> project(Collection<Player> players, Set<PlayerField> fields) {
+      List<Map<String, Object>> projected = new ArrayList<>(players.size());
+      for (Player player : players) {
+         Map<String, Object> values = new LinkedHashMap<>();
+         for (PlayerField field : fields) {
+            values.put(field.jsonName, field.getter.apply(player));
+         }
+         projected.add(values);
+      }
+      return projected;
+   }
+}
@@ -0,0 +1,332 @@
+package chess.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.models.Player;
+
+/**
+ * Compact storage of a large roster of players. Instead of one {@link Player} object and two or three
+ * {@code String}s per player, the pool keeps one primitive array per field, indexed by a row number, and stores the
+ * name components once in a {@link NameDictionary}. Players are found by id through an open addressing index.
+ * <p>
+ * {@link #get(int)} returns a flyweight {@link Player} reading and writing the columns of its row, so the rating
+ * code works on pooled players unchanged. Views are short-lived: each call creates a new one, which the pool does
+ * not keep, so that scanning the pool does not leave an object per player behind. Two views of the same player
+ * share their state but not their identity, so a {@link chess.models.Tournament}, which indexes its players by
+ * identity, must be built from one list of views and have its games refer to the same views. Players cannot be
+ * removed, and the id of a pooled player cannot be changed: {@link Player#setId(int)} throws an
+ * {@link UnsupportedOperationException} on a view, a player is added again under its new id instead.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class PlayerPool {
+
+   private static final int EMPTY_SLOT = 0;
+
+   private final NameDictionary names = new NameDictionary();
+
+   /**
+    * Full names set explicitly, which are rare, by row.
+    */
+   private final Map<Integer, String> fullNames = new HashMap<>();
+
+   private int size = 0;
+
+   private int[] ids;
+   private int[] lastNames;
+   private int[] firstNames;
+   private double[] ratings;
+   private double[] oldRatings;
+   private double[] scores;
+   private boolean[] permanent;
+   private int[] unratedGamesPlayed;
+   private int[] wins;
+   private int[] losses;
+   private int[] ties;
+
+   /**
+    * Open addressing index from the id to the row, storing {@code row + 1} so that 0 marks an empty slot.
+    */
+   private int[] slots;
+
+   public PlayerPool() {
+      this(16);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param expectedPlayers Number of players the columns are sized for before growing.
+    */
+   public PlayerPool(int expectedPlayers) {
+      allocateColumns(Math.max(1, expectedPlayers));
+      slots = new int[Integer.highestOneBit(Math.max(2, expectedPlayers) * 2 - 1) * 2];
+   }
+
+   /**
+    * Adds a copy of a {@link Player}, or replaces the player with the same id. A view handed out before sees the new
+    * fields.
+    *
+    * @param player The player.
+    */
+   public void add(Player player) {
+      int row = rowOf(player.getId());
+      if (row < 0) {
+         if (size == ids.length) {
+            allocateColumns(size * 2);
+         }
+         if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+         }
+         row = size++;
+         ids[row] = player.getId();
+         insertSlot(row);
+      }
+      lastNames[row] = names.encode(player.getLastName());
+      firstNames[row] = names.encode(player.getFirstName());
+      String fullName = player.getFullName();
+      if (fullName == null || fullName.equals(player.getLastName() + " " + player.getFirstName())) {
+         fullNames.remove(row);
+      } else {
+         fullNames.put(row, fullName);
+      }
+      ratings[row] = player.getRating();
+      oldRatings[row] = player.getOldRating();
+      scores[row] = player.getScore();
+      permanent[row] = player.isRatingPermanent();
+      unratedGamesPlayed[row] = player.getUnratedGamesPlayed();
+      wins[row] = player.getWins();
+      losses[row] = player.getLosses();
+      ties[row] = player.getTies();
+   }
+
+   /**
+    * Gets a new view of a pooled player, which reads and writes the pool.
+    *
+    * @param id Player id.
+    * @return The view, or null if the id is unknown.
+    */
+   public Player get(int id) {
+      int row = rowOf(id);
+      return row < 0 ? null : new PooledPlayer(this, row);
+   }
+
+   public boolean contains(int id) {
+      return rowOf(id) >= 0;
+   }
+
+   /**
+    * New views of all the pooled players, in the order they were added.
+    *
+    * @return The views.
+    */
+   public List<Player> getAll() {
+      List<Player> all = new ArrayList<>(size);
+      for (int row = 0; row < size; row++) {
+         all.add(new PooledPlayer(this, row));
+      }
+      return all;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Number of distinct last and first names stored.
+    *
+    * @return The size of the name dictionary.
+    */
+   public int getDistinctNameCount() {
+      return names.size();
+   }
+
+   private int rowOf(int id) {
+      int mask = slots.length - 1;
+      for (int slot = hash(id) & mask; slots[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+         int row = slots[slot] - 1;
+         if (ids[row] == id) {
+            return row;
+         }
+      }
+      return -1;
+   }
+
+   private void insertSlot(int row) {
+      int mask = slots.length - 1;
+      int slot = hash(ids[row]) & mask;
+      while (slots[slot] != EMPTY_SLOT) {
+         slot = (slot + 1) & mask;
+      }
+      slots[slot] = row + 1;
+   }
+
+   private void rehash(int capacity) {
+      slots = new int[capacity];
+      for (int row = 0; row < size; row++) {
+         insertSlot(row);
+      }
+   }
+
+   private static int hash(int id) {
+      int h = id * 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+   private void allocateColumns(int capacity) {
+      ids = ids == null ? new int[capacity] : Arrays.copyOf(ids, capacity);
+      lastNames = lastNames == null ? new int[capacity] : Arrays.copyOf(lastNames, capacity);
+      firstNames = firstNames == null ? new int[capacity] : Arrays.copyOf(firstNames, capacity);
+      ratings = ratings == null ? new double[capacity] : Arrays.copyOf(ratings, capacity);
+      oldRatings = oldRatings == null ? new double[capacity] : Arrays.copyOf(oldRatings, capacity);
+      scores = scores == null ? new double[capacity] : Arrays.copyOf(scores, capacity);
+      permanent = permanent == null ? new boolean[capacity] : Arrays.copyOf(permanent, capacity);
+      unratedGamesPlayed = unratedGamesPlayed == null ? new int[capacity] : Arrays.copyOf(unratedGamesPlayed, capacity);
+      wins = wins == null ? new int[capacity] : Arrays.copyOf(wins, capacity);
+      losses = losses == null ? new int[capacity] : Arrays.copyOf(losses, capacity);
+      ties = ties == null ? new int[capacity] : Arrays.copyOf(ties, capacity);
+   }
+
+   /**
+    * Flyweight {@link Player} reading and writing one row of the pool. The fields inherited from {@link Player}
+    * are not used, and the id is fixed since it is the key of the row in the index.
+    */
+   private static final class PooledPlayer extends Player {
+
+      private final PlayerPool pool;
+      private final int row;
+
+      PooledPlayer(PlayerPool pool, int row) {
+         this.pool = pool;
+         this.row = row;
+      }
+
+      @Override
+      public int getId() {
+         return pool.ids[row];
+      }
+
+      @Override
+      public void setId(int id) {
+         throw new UnsupportedOperationException("The id of a pooled player cannot change");
+      }
+
+      @Override
+      public String getLastName() {
+         return pool.names.decode(pool.lastNames[row]);
+      }
+
+      @Override
+      public void setLastName(String lastName) {
+         pool.lastNames[row] = pool.names.encode(lastName);
+      }
+
+      @Override
+      public String getFirstName() {
+         return pool.names.decode(pool.firstNames[row]);
+      }
+
+      @Override
+      public void setFirstName(String firstName) {
+         pool.firstNames[row] = pool.names.encode(firstName);
+      }
+
+      @Override
+      protected String getFullNameOverride() {
+         return pool.fullNames.isEmpty() ? null : pool.fullNames.get(row);
+      }
+
+      @Override
+      public void setFullName(String fullName) {
+         if (fullName == null) {
+            pool.fullNames.remove(row);
+         } else {
+            pool.fullNames.put(row, fullName);
+         }
+      }
+
+      @Override
+      public double getRating() {
+         return pool.ratings[row];
+      }
+
+      @Override
+      public void setRating(double rating) {
+         pool.ratings[row] = rating;
+      }
+
+      @Override
+      public boolean isRatingPermanent() {
+         return pool.permanent[row];
+      }
+
+      @Override
+      public void setRatingPermanent(boolean ratingPermanent) {
+         pool.permanent[row] = ratingPermanent;
+      }
+
+      @Override
+      public double getOldRating() {
+         return pool.oldRatings[row];
+      }
+
+      @Override
+      public void setOldRating(double oldRating) {
+         pool.oldRatings[row] = oldRating;
+      }
+
+      @Override
+      public double getScore() {
+         return pool.scores[row];
+      }
+
+      @Override
+      public void setScore(double score) {
+         pool.scores[row] = score;
+      }
+
+      @Override
+      public int getUnratedGamesPlayed() {
+         return pool.unratedGamesPlayed[row];
+      }
+
+      @Override
+      public void setUnratedGamesPlayed(int unratedGamesPlayed) {
+         pool.unratedGamesPlayed[row] = unratedGamesPlayed;
+      }
+
+      @Override
+      public int getWins() {
+         return pool.wins[row];
+      }
+
+      @Override
+      public void setWins(int wins) {
+         pool.wins[row] = wins;
+      }
+
+      @Override
+      public int getLosses() {
+         return pool.losses[row];
+      }
+
+      @Override
+      public void setLosses(int losses) {
+         pool.losses[row] = losses;
+      }
+
+      @Override
+      public int getTies() {
+         return pool.ties[row];
+      }
+
+      @Override
+      public void setTies(int ties) {
+         pool.ties[row] = ties;
+      }
+   }
+}
@@ -0,0 +1,190 @@
+package chess.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import chess.models.Player;
+
+/**
+ * In-memory store of {@link Player} indexed by id. Players are kept sorted on their id, which is used as the
+ * key for keyset pagination.
+ * <p>
+ * The store is a sequence of immutable {@link RatingSnapshot} versions. A commit copies the given players, builds
+ * the next version next to the current one, sharing all the unchanged players, and publishes it with a single
+ * volatile write: readers never wait for a writer and never see half of a commit. The last
+ * {@code retainedVersions} versions stay readable by version number, as well as any older version still pinned by
+ * a reader; other versions are dropped from the index and left to the garbage collector once unreferenced.
+ * The read methods of this class read the current version.
+ */
+public class PlayerStore {
+
+   /**
+    * Default number of most recent versions kept readable by version number.
+    */
+   public static final int DEFAULT_RETAINED_VERSIONS = 16;
+
+   private final int retainedVersions;
+
+   private final ConcurrentNavigableMap<Long, RatingSnapshot> versions = new ConcurrentSkipListMap<>();
+
+   private volatile RatingSnapshot current = new RatingSnapshot(0, PersistentIdMap.empty());
+
+   public PlayerStore() {
+      this(DEFAULT_RETAINED_VERSIONS);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param retainedVersions Number of most recent versions kept readable by version number, at least 1.
+    */
+   public PlayerStore(int retainedVersions) {
+      if (retainedVersions < 1) {
+         throw new IllegalArgumentException("At least the current version must be retained");
+      }
+      this.retainedVersions = retainedVersions;
+      versions.put(current.getVersion(), current);
+   }
+
+   /**
+    * Adds or replaces a {@link Player} using its id as the key, in a commit of its own.
+    *
+    * @param player The {@link Player} to store.
+    */
+   public void put(Player player) {
+      commit(Collections.singletonList(player));
+   }
+
+   /**
+    * Adds or replaces players, such as the players of a rated tournament, and publishes them atomically as a new
+    * version. The players are copied, later changes to the given instances are not seen by the store.
+    *
+    * @param players The players to store, with a non-negative id.
+    * @return The published version.
+    */
+   public synchronized RatingSnapshot commit(Collection<Player> players) {
+      List<Player> copies = new ArrayList<>(players.size());
+      for (Player player : players) {
+         copies.add(new Player(player));
+      }
+      RatingSnapshot next = new RatingSnapshot(current.getVersion() + 1,
+            current.players().withAll(copies, Player::getId));
+      versions.put(next.getVersion(), next);
+      current = next;
+      reclaim();
+      return next;
+   }
+
+   /**
+    * The current version. A reader keeping the returned snapshot reads a consistent version for as long as it
+    * needs, but the version is not kept readable by number unless it is pinned.
+    *
+    * @return The last published version.
+    */
+   public RatingSnapshot current() {
+      return current;
+   }
+
+   /**
+    * Pins a version, keeping it readable by version number until {@link #release(RatingSnapshot)} is called.
+    *
+    * @param version Version number.
+    * @return The version, or null if it was never published or was already reclaimed.
+    */
+   public RatingSnapshot pin(long version) {
+      RatingSnapshot snapshot = versions.get(version);
+      if (snapshot == null) {
+         return null;
+      }
+      snapshot.pins.incrementAndGet();
+      // The version may have been reclaimed between the lookup and the pin.
+      if (versions.get(version) != snapshot) {
+         snapshot.pins.decrementAndGet();
+         return null;
+      }
+      return snapshot;
+   }
+
+   /**
+    * Releases a version pinned by {@link #pin(long)}.
+    *
+    * @param snapshot The pinned version.
+    */
+   public void release(RatingSnapshot snapshot) {
+      if (snapshot.pins.decrementAndGet() < 0) {
+         snapshot.pins.incrementAndGet();
+         throw new IllegalStateException("Version " + snapshot.getVersion() + " is not pinned");
+      }
+      reclaim();
+   }
+
+   /**
+    * Number of versions currently readable by version number.
+    *
+    * @return The number of versions.
+    */
+   public int getRetainedVersionCount() {
+      return versions.size();
+   }
+
+   /**
+    * Drops from the index the versions older than the retention window that are not pinned.
+    */
+   private void reclaim() {
+      long oldestRetained = current.getVersion() - retainedVersions + 1;
+      for (Map.Entry<Long, RatingSnapshot> entry : versions.headMap(oldestRetained).entrySet()) {
+         if (entry.getValue().pins.get() == 0) {
+            versions.remove(entry.getKey(), entry.getValue());
+         }
+      }
+   }
+
+   /**
+    * Gets a single {@link Player}.
+    *
+    * @param id Player id.
+    * @return The {@link Player} or null if the id is unknown.
+    */
+   public Player get(int id) {
+      return current.get(id);
+   }
+
+   /**
+    * Gets several players in a single lookup. Unknown ids are skipped.
+    *
+    * @param ids Player ids.
+    * @return The players found, in the order of the requested ids.
+    */
+   public List<Player> getAll(Collection<Integer> ids) {
+      return current.getAll(ids);
+   }
+
+   /**
+    * Gets a page of players sorted on their id.
+    *
+    * @param afterId Id of the last player of the previous page, or null for the first page.
+    * @param limit   Maximum number of players returned.
+    * @return The players of the page.
+    */
+   public List<Player> page(Integer afterId, int limit) {
+      return current.page(afterId, limit);
+   }
+
+   /**
+    * All the stored players, sorted on their id.
+    *
+    * @return The players.
+    */
+   public List<Player> getAll() {
+      return current.getAll();
+   }
+
+   public int size() {
+      return current.size();
+   }
+}
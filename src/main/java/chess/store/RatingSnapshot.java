@@ -0,0 +1,105 @@
+package chess.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chess.models.Player;
+
+/**
+ * Immutable version of the ratings of every player of a {@link PlayerStore}. A snapshot is published atomically
+ * by {@link PlayerStore#commit(Collection)} and never changes afterwards, so a reader holding a snapshot sees
+ * either all the ratings of a tournament or none of them, without taking any lock.
+ * <p>
+ * The players of a snapshot are shared by every reader and must not be modified.
+ */
+public final class RatingSnapshot {
+
+   private final long version;
+
+   private final PersistentIdMap<Player> players;
+
+   /**
+    * Number of readers that pinned this version, see {@link PlayerStore#pin(long)}.
+    */
+   final AtomicInteger pins = new AtomicInteger();
+
+   RatingSnapshot(long version, PersistentIdMap<Player> players) {
+      this.version = version;
+      this.players = players;
+   }
+
+   /**
+    * Number of commits published before this snapshot, starting at 0 for the empty store.
+    *
+    * @return The version.
+    */
+   public long getVersion() {
+      return version;
+   }
+
+   PersistentIdMap<Player> players() {
+      return players;
+   }
+
+   /**
+    * Gets a single {@link Player}.
+    *
+    * @param id Player id.
+    * @return The {@link Player} or null if the id is unknown.
+    */
+   public Player get(int id) {
+      return players.get(id);
+   }
+
+   /**
+    * Gets several players in a single lookup. Unknown ids are skipped.
+    *
+    * @param ids Player ids.
+    * @return The players found, in the order of the requested ids.
+    */
+   public List<Player> getAll(Collection<Integer> ids) {
+      List<Player> found = new ArrayList<>(ids.size());
+      for (Integer id : ids) {
+         Player player = id == null ? null : players.get(id);
+         if (player != null) {
+            found.add(player);
+         }
+      }
+      return found;
+   }
+
+   /**
+    * Gets a page of players sorted on their id.
+    *
+    * @param afterId Id of the last player of the previous page, or null for the first page.
+    * @param limit   Maximum number of players returned.
+    * @return The players of the page.
+    */
+   public List<Player> page(Integer afterId, int limit) {
+      List<Player> page = new ArrayList<>(Math.min(limit, players.size()));
+      if (limit > 0) {
+         players.forEachFrom(afterId == null ? 0 : afterId + 1L, player -> {
+            page.add(player);
+            return page.size() < limit;
+         });
+      }
+      return page;
+   }
+
+   /**
+    * All the players, sorted on their id.
+    *
+    * @return The players.
+    */
+   public List<Player> getAll() {
+      List<Player> all = new ArrayList<>(players.size());
+      players.forEachFrom(0, all::add);
+      return all;
+   }
+
+   public int size() {
+      return players.size();
+   }
+}
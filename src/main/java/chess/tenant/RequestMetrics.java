@@ -0,0 +1,153 @@
+package chess.tenant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and throughput of the requests of a tenant. Latencies are counted in buckets of powers of two
+ * microseconds, so percentiles are reported as the upper bound of their bucket, and the throughput is averaged over
+ * the last minute. Recording is lock-free.
+ */
+public final class RequestMetrics {
+
+   private static final int WINDOW_SECONDS = 60;
+
+   /**
+    * Bucket i counts the latencies below 2^i microseconds, the last one every longer latency.
+    */
+   private static final int BUCKETS = 32;
+
+   private static final int TOO_MANY_REQUESTS = 429;
+
+   private final LongAdder requests = new LongAdder();
+
+   private final LongAdder serverErrors = new LongAdder();
+
+   private final LongAdder rejected = new LongAdder();
+
+   private final LongAdder totalMicros = new LongAdder();
+
+   private final AtomicLong maxMicros = new AtomicLong();
+
+   private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+   /**
+    * Requests completed during each second of the last minute, and the second each slot currently counts.
+    */
+   private final AtomicLongArray windowCounts = new AtomicLongArray(WINDOW_SECONDS);
+
+   private final AtomicLongArray windowSeconds = new AtomicLongArray(WINDOW_SECONDS);
+
+   /**
+    * Records a completed request.
+    *
+    * @param elapsedNanos Latency of the request.
+    * @param status       HTTP status of the response.
+    */
+   public void record(long elapsedNanos, int status) {
+      long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+      requests.increment();
+      if (status >= 500) {
+         serverErrors.increment();
+      } else if (status == TOO_MANY_REQUESTS) {
+         rejected.increment();
+      }
+      totalMicros.add(micros);
+      latencies.incrementAndGet(bucketOf(micros));
+      long max = maxMicros.get();
+      while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+         max = maxMicros.get();
+      }
+
+      long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+      int slot = (int) Math.floorMod(second, (long) WINDOW_SECONDS);
+      long slotSecond = windowSeconds.get(slot);
+      if (slotSecond != second && windowSeconds.compareAndSet(slot, slotSecond, second)) {
+         // A request recorded concurrently in the previous minute of the slot may be lost, which is acceptable.
+         windowCounts.set(slot, 0);
+      }
+      windowCounts.incrementAndGet(slot);
+   }
+
+   private static int bucketOf(long micros) {
+      return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+   }
+
+   /**
+    * Counters and latency statistics, exposed as metrics.
+    *
+    * @return The metrics by name.
+    */
+   public Map<String, Object> getMetrics() {
+      long[] counts = latencyCounts();
+      long total = counts[BUCKETS];
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      metrics.put("requests", requests.sum());
+      metrics.put("serverErrors", serverErrors.sum());
+      metrics.put("rejected", rejected.sum());
+      metrics.put("requestsPerSecond", getRequestsPerSecond());
+      metrics.put("meanMillis", total == 0 ? 0.0 : totalMicros.sum() / 1000.0 / total);
+      metrics.put("p50Millis", percentileMillis(counts, total, 0.5));
+      metrics.put("p99Millis", percentileMillis(counts, total, 0.99));
+      metrics.put("maxMillis", maxMicros.get() / 1000.0);
+      return metrics;
+   }
+
+   /**
+    * Mean number of requests completed per second over the last minute.
+    *
+    * @return The throughput.
+    */
+   public double getRequestsPerSecond() {
+      long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+      long count = 0;
+      for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+         if (now - windowSeconds.get(slot) < WINDOW_SECONDS) {
+            count += windowCounts.get(slot);
+         }
+      }
+      return count / (double) WINDOW_SECONDS;
+   }
+
+   /**
+    * Latency below which a fraction of the requests completed, rounded up to the bound of its bucket.
+    *
+    * @param fraction Fraction of the requests, between 0 and 1.
+    * @return The latency in milliseconds, 0 before the first request.
+    */
+   public double getPercentileMillis(double fraction) {
+      long[] counts = latencyCounts();
+      return percentileMillis(counts, counts[BUCKETS], fraction);
+   }
+
+   /**
+    * Count of each bucket, followed by the total.
+    */
+   private long[] latencyCounts() {
+      long[] counts = new long[BUCKETS + 1];
+      for (int i = 0; i < BUCKETS; i++) {
+         counts[i] = latencies.get(i);
+         counts[BUCKETS] += counts[i];
+      }
+      return counts;
+   }
+
+   private static double percentileMillis(long[] counts, long total, double fraction) {
+      if (total == 0) {
+         return 0;
+      }
+      long rank = (long) Math.ceil(fraction * total);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         seen += counts[i];
+         if (seen >= rank) {
+            return (1L << i) / 1000.0;
+         }
+      }
+      return (1L << (BUCKETS - 1)) / 1000.0;
+   }
+}
@@ -0,0 +1,203 @@
+package chess.tenant;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.admission.AdmissionController;
+import chess.models.Player;
+import chess.registry.RatingCache;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+import chess.store.PlayerStore;
+
+/**
+ * Federation hosted by the service, with its own player list, tournaments and resources. The tournaments of a
+ * tenant run on its own executor, so a tenant rating thousands of tournaments only queues behind its own threads,
+ * and are admitted by its own {@link AdmissionController}. The heap held by the tournaments in progress of a tenant
+ * is bounded by a quota, estimated from their number of players since the result matrix of a tournament grows with
+ * the square of its players.
+ */
+public final class Tenant {
+
+   /**
+    * Estimated heap of a player of a tournament, besides its row of the result matrix.
+    */
+   private static final long PLAYER_BYTES = 256;
+
+   private final String id;
+
+   private final ThreadPoolExecutor executor;
+
+   private final TournamentRegistry registry;
+
+   private final PlayerStore playerStore = new PlayerStore();
+
+   private final AdmissionController admission;
+
+   private final RatingCache ratingCache;
+
+   private final long heapQuota;
+
+   private final AtomicLong reservedHeap = new AtomicLong();
+
+   private final RequestMetrics requestMetrics = new RequestMetrics();
+
+   /**
+    * Constructor. The tournaments already in the registry, rebuilt from a journal, are counted in the quota even if
+    * they exceed it.
+    *
+    * @param id          Tenant id.
+    * @param executor    Executor of the tournament mailboxes of the tenant, see {@link #newExecutor(String, int)}.
+    * @param registry    Tournaments of the tenant, running on the executor.
+    * @param ratingCache Cache of the rating outcomes used by the registry, or null.
+    * @param admission   Admission control of the ratings of the tenant.
+    * @param heapQuota   Maximum estimated heap of the tournaments in progress, in bytes.
+    */
+   public Tenant(String id, ThreadPoolExecutor executor, TournamentRegistry registry, RatingCache ratingCache,
+                 AdmissionController admission, long heapQuota) {
+      this.id = id;
+      this.executor = executor;
+      this.registry = registry;
+      this.ratingCache = ratingCache;
+      this.admission = admission;
+      this.heapQuota = heapQuota;
+      for (String tournamentId : registry.getIds()) {
+         TournamentSnapshot snapshot = registry.getSnapshot(tournamentId);
+         if (snapshot != null) {
+            reservedHeap.addAndGet(footprint(snapshot.getStanding().size()));
+         }
+      }
+   }
+
+   /**
+    * Fixed pool of daemon threads running the mailboxes of a tenant. The queue is unbounded since a mailbox
+    * schedules itself at most once at a time, so the queue holds at most one task per tournament.
+    *
+    * @param id      Tenant id, used to name the threads.
+    * @param threads Number of threads.
+    * @return A new executor.
+    */
+   public static ThreadPoolExecutor newExecutor(String id, int threads) {
+      AtomicInteger count = new AtomicInteger();
+      return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+               Thread thread = new Thread(runnable, "tenant-" + id + "-" + count.incrementAndGet());
+               thread.setDaemon(true);
+               return thread;
+            });
+   }
+
+   /**
+    * Estimated heap of a tournament in progress.
+    *
+    * @param players Number of players.
+    * @return The estimate in bytes.
+    */
+   public static long footprint(int players) {
+      return (long) players * players * Double.BYTES + players * PLAYER_BYTES;
+   }
+
+   /**
+    * Registers a tournament of the tenant, within the heap quota.
+    *
+    * @param tournamentId Tournament id.
+    * @param players      Players of the tournament, with distinct ids.
+    * @return The initial snapshot.
+    * @throws TenantQuotaExceededException If the tournament would take the tenant over its quota.
+    */
+   public TournamentSnapshot register(String tournamentId, List<Player> players) {
+      long bytes = footprint(players.size());
+      long reserved;
+      do {
+         reserved = reservedHeap.get();
+         if (reserved + bytes > heapQuota) {
+            throw new TenantQuotaExceededException("Tenant " + id + " cannot hold " + players.size()
+                  + " more players in its tournaments in progress");
+         }
+      } while (!reservedHeap.compareAndSet(reserved, reserved + bytes));
+      try {
+         return registry.register(tournamentId, players);
+      } catch (RuntimeException e) {
+         reservedHeap.addAndGet(-bytes);
+         throw e;
+      }
+   }
+
+   /**
+    * Removes a tournament of the tenant and returns its heap to the quota.
+    *
+    * @param tournamentId Tournament id.
+    * @return true if the tournament was registered.
+    */
+   public boolean remove(String tournamentId) {
+      TournamentSnapshot snapshot = registry.getSnapshot(tournamentId);
+      if (snapshot == null || !registry.remove(tournamentId)) {
+         return false;
+      }
+      reservedHeap.addAndGet(-footprint(snapshot.getStanding().size()));
+      return true;
+   }
+
+   public String getId() {
+      return id;
+   }
+
+   public TournamentRegistry getRegistry() {
+      return registry;
+   }
+
+   public PlayerStore getPlayerStore() {
+      return playerStore;
+   }
+
+   public AdmissionController getAdmission() {
+      return admission;
+   }
+
+   public RequestMetrics getRequestMetrics() {
+      return requestMetrics;
+   }
+
+   public long getHeapQuota() {
+      return heapQuota;
+   }
+
+   public long getReservedHeap() {
+      return reservedHeap.get();
+   }
+
+   /**
+    * Latency, throughput and resource usage of the tenant, exposed as metrics.
+    *
+    * @return The metrics by name.
+    */
+   public Map<String, Object> getMetrics() {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      metrics.put("requests", requestMetrics.getMetrics());
+
+      Map<String, Object> threads = new LinkedHashMap<>();
+      threads.put("threads", executor.getMaximumPoolSize());
+      threads.put("active", executor.getActiveCount());
+      threads.put("queued", executor.getQueue().size());
+      threads.put("completed", executor.getCompletedTaskCount());
+      metrics.put("executor", threads);
+
+      Map<String, Object> heap = new LinkedHashMap<>();
+      heap.put("tournaments", registry.getIds().size());
+      heap.put("reservedBytes", reservedHeap.get());
+      heap.put("quotaBytes", heapQuota);
+      metrics.put("heap", heap);
+
+      metrics.put("admission", admission.getMetrics());
+      if (ratingCache != null) {
+         metrics.put("ratingCache", ratingCache.getMetrics());
+      }
+      return metrics;
+   }
+}
@@ -0,0 +1,99 @@
+package chess.tenant;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Fixed set of the tenants of a deployment, routed by the {@value #TENANT_HEADER} request header. Requests without
+ * the header belong to the {@value #DEFAULT_TENANT} tenant, which always exists. Tenants are configured at startup,
+ * an unknown tenant id never creates a tenant.
+ */
+public final class TenantDirectory {
+
+   /**
+    * Request header naming the tenant of a request.
+    */
+   public static final String TENANT_HEADER = "X-Tenant-Id";
+
+   public static final String DEFAULT_TENANT = "default";
+
+   private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+   private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+   /**
+    * Constructor.
+    *
+    * @param tenants The tenants, including the default tenant, with distinct ids.
+    */
+   public TenantDirectory(Collection<Tenant> tenants) {
+      for (Tenant tenant : tenants) {
+         if (this.tenants.put(tenant.getId(), tenant) != null) {
+            throw new IllegalArgumentException("Tenant " + tenant.getId() + " is configured twice");
+         }
+      }
+      if (!this.tenants.containsKey(DEFAULT_TENANT)) {
+         throw new IllegalArgumentException("The " + DEFAULT_TENANT + " tenant is missing");
+      }
+   }
+
+   /**
+    * Parses a comma separated list of tenant ids, such as the {@code chess.tenants} system property. An id is made
+    * of letters, digits, hyphens and underscores, since it names the threads and the journal of the tenant.
+    *
+    * @param ids The ids, or null.
+    * @return The distinct ids, starting with the default tenant.
+    */
+   public static Set<String> parseIds(String ids) {
+      Set<String> parsed = new LinkedHashSet<>();
+      parsed.add(DEFAULT_TENANT);
+      if (ids != null) {
+         for (String id : ids.split(",")) {
+            String trimmed = id.trim();
+            if (trimmed.isEmpty()) {
+               continue;
+            }
+            if (!VALID_ID.matcher(trimmed).matches()) {
+               throw new IllegalArgumentException("Invalid tenant id " + trimmed);
+            }
+            parsed.add(trimmed);
+         }
+      }
+      return parsed;
+   }
+
+   /**
+    * Tenant of a request.
+    *
+    * @param id Value of the {@value #TENANT_HEADER} header, or null.
+    * @return The tenant, the default tenant when the id is null or empty.
+    * @throws NoSuchElementException If the tenant is not configured.
+    */
+   public Tenant resolve(String id) {
+      Tenant tenant = find(id);
+      if (tenant == null) {
+         throw new NoSuchElementException("Unknown tenant " + id);
+      }
+      return tenant;
+   }
+
+   /**
+    * Tenant of a request, if configured.
+    *
+    * @param id Value of the {@value #TENANT_HEADER} header, or null.
+    * @return The tenant, the default tenant when the id is null or empty, or null if the tenant is not configured.
+    */
+   public Tenant find(String id) {
+      return tenants.get(id == null || id.isEmpty() ? DEFAULT_TENANT : id);
+   }
+
+   public Collection<Tenant> getAll() {
+      return Collections.unmodifiableCollection(tenants.values());
+   }
+}
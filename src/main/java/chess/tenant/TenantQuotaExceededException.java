@@ -0,0 +1,13 @@
+package chess.tenant;
+
+/**
+ * Thrown when a tournament would take a tenant over its heap quota.
+ */
+public class TenantQuotaExceededException extends RuntimeException {
+
+   private static final long serialVersionUID = 1L;
+
+   public TenantQuotaExceededException(String message) {
+      super(message);
+   }
+}
@@ -0,0 +1,36 @@
+package chess.tenant;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+
+/**
+ * Records the latency of each request in the {@link RequestMetrics} of its tenant, from the time the request is
+ * matched until the response is sent, after a suspended request is resumed. Requests naming an unknown tenant are
+ * not recorded.
+ */
+public class TenantRequestFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+   private static final String START_PROPERTY = TenantRequestFilter.class.getName() + ".start";
+
+   private final TenantDirectory tenants;
+
+   public TenantRequestFilter(TenantDirectory tenants) {
+      this.tenants = tenants;
+   }
+
+   @Override
+   public void filter(ContainerRequestContext request) {
+      request.setProperty(START_PROPERTY, System.nanoTime());
+   }
+
+   @Override
+   public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+      Object start = request.getProperty(START_PROPERTY);
+      Tenant tenant = tenants.find(request.getHeaderString(TenantDirectory.TENANT_HEADER));
+      if (start instanceof Long && tenant != null) {
+         tenant.getRequestMetrics().record(System.nanoTime() - (Long) start, response.getStatus());
+      }
+   }
+}
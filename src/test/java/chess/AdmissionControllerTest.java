@@ -0,0 +1,73 @@
+package chess;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import chess.admission.AdmissionController;
+import chess.admission.AdmissionRejectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdmissionControllerTest {
+
+   @Test
+   public void rejectsOverCostBudget() {
+      AdmissionController controller = new AdmissionController(1000, 10, 10);
+      AdmissionController.Permit first = controller.acquire("a", 600);
+      assertRejected(controller, "b", 600);
+
+      first.release();
+      controller.acquire("b", 600);
+
+      Map<String, Object> metrics = controller.getMetrics();
+      assertEquals(1, metrics.get("inFlight"));
+      assertEquals(600L, metrics.get("inFlightCost"));
+      assertEquals(2L, metrics.get("admitted"));
+      assertEquals(1L, metrics.get("rejectedOverCapacity"));
+   }
+
+   @Test
+   public void rejectsOverClientLimit() {
+      AdmissionController controller = new AdmissionController(1000, 10, 2);
+      controller.acquire("noisy", 10);
+      AdmissionController.Permit second = controller.acquire("noisy", 10);
+      assertRejected(controller, "noisy", 10);
+      controller.acquire("quiet", 10);
+
+      second.release();
+      second.release();
+      controller.acquire("noisy", 10);
+      assertEquals(1L, controller.getMetrics().get("rejectedOverClientLimit"));
+      assertEquals(3, controller.getMetrics().get("inFlight"));
+   }
+
+   @Test
+   public void requestCostlierThanBudgetRunsAlone() {
+      AdmissionController controller = new AdmissionController(1000, 10, 10);
+      AdmissionController.Permit huge = controller.acquire("a", AdmissionController.ratingCost(5000, 12500));
+      assertRejected(controller, "b", 1);
+      huge.release();
+      controller.acquire("b", 1);
+   }
+
+   @Test
+   public void rejectsOverMaxAdmitted() {
+      AdmissionController controller = new AdmissionController(1000, 1, 10);
+      controller.acquire("a", 1);
+      AdmissionRejectedException rejected = assertRejected(controller, "b", 1);
+      assertTrue(rejected.getRetryAfterSeconds() >= 1);
+   }
+
+   private static AdmissionRejectedException assertRejected(AdmissionController controller, String client, long cost) {
+      try {
+         controller.acquire(client, cost);
+         fail("Expected a rejection");
+         return null;
+      } catch (AdmissionRejectedException e) {
+         return e;
+      }
+   }
+}
@@ -0,0 +1,194 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import chess.io.CrosstableWriter;
+import chess.models.Crosstable;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+import chess.registry.TournamentRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CrosstableTest {
+
+   @Test
+   public void rowsHoldTheGamesSortedOnTheOpponent() {
+      Tournament tournament = new Tournament(players());
+      tournament.addRound(round(tournament, 1, 2, 1, 3, 4, 0.5));
+      tournament.addRound(round(tournament, 4, 1, 0, 2, 3, 1));
+
+      Crosstable crosstable = Crosstable.of(tournament, false);
+
+      assertEquals(4, crosstable.size());
+      assertEquals(2, crosstable.getRoundCount());
+      List<String> games = new ArrayList<>();
+      crosstable.forEachGame(0, 0, 4, (column, round, white, result, delta) ->
+            games.add(column + ":" + round + ":" + white + ":" + result));
+      assertEquals(Arrays.asList("1:0:true:1.0", "3:1:false:1.0"), games);
+
+      games.clear();
+      crosstable.forEachGame(0, 2, 4, (column, round, white, result, delta) -> games.add(column + ":" + round));
+      assertEquals(Arrays.asList("3:1"), games);
+   }
+
+   @Test
+   public void deltasAreTheCellsOfTheResultMatrix() {
+      Tournament tournament = new Tournament(players());
+      tournament.addRound(round(tournament, 1, 2, 1, 3, 4, 0.5));
+      tournament.addRound(round(tournament, 4, 1, 0, 2, 3, 1));
+      tournament.computeTournamentRatings();
+
+      Crosstable crosstable = Crosstable.of(tournament, true);
+
+      for (int row = 0; row < crosstable.size(); row++) {
+         int player = indexOf(tournament, crosstable.getId(row));
+         crosstable.forEachGame(row, 0, crosstable.size(), (column, round, white, result, delta) -> assertEquals(
+               tournament.getResult(player, indexOf(tournament, crosstable.getId(column))), delta, 0));
+      }
+      assertEquals(tournament.getPlayersStanding()[0].getId(), crosstable.getId(0));
+   }
+
+   @Test
+   public void getResultMatrixReturnsACopy() {
+      Tournament tournament = new Tournament(players());
+      tournament.addRound(round(tournament, 1, 2, 1, 3, 4, 0.5));
+      tournament.computeTournamentRatings();
+      double before = tournament.getResult(0, 1);
+
+      tournament.getResultMatrix()[0][1] = before + 100;
+
+      assertEquals(before, tournament.getResult(0, 1), 0);
+   }
+
+   @Test
+   public void pageIsWrittenAsJson() throws IOException {
+      Crosstable crosstable = registeredCrosstable();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+      new CrosstableWriter(crosstable, 1, 2, 0, 2).writeJson(out);
+
+      JsonNode page = new ObjectMapper().readTree(out.toByteArray());
+      assertEquals(4, page.get("players").asInt());
+      assertEquals(2, page.get("rows").size());
+      JsonNode row = page.get("rows").get(0);
+      assertEquals(2, row.get("rank").asInt());
+      assertEquals(2, row.get("id").asInt());
+      assertEquals(1, row.get("cells").size());
+      JsonNode cell = row.get("cells").get(0);
+      assertEquals(1, cell.get("opponent").asInt());
+      assertEquals("black", cell.get("games").get(0).get("color").asText());
+      assertEquals(0, cell.get("games").get(0).get("result").asDouble(), 0);
+      assertEquals(2, page.get("rows").get(1).get("cells").get(0).get("opponent").asInt());
+   }
+
+   @Test
+   public void pageIsWrittenAsCsv() throws IOException {
+      Crosstable crosstable = registeredCrosstable();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+      new CrosstableWriter(crosstable, 0, 10, 1, 3).writeCsv(out);
+
+      String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+      assertEquals(5, lines.length);
+      assertEquals("Rang;Id;Nom;Ancienne cote;Nouvelle cote;Points;2;3;4", lines[0]);
+      assertTrue(lines[1], lines[1].endsWith(";+B1 (+0.0);;-N2 (+0.0)"));
+      assertTrue(lines[3], lines[3].endsWith(";-N2 (+0.0);;=B1 (+0.0)"));
+   }
+
+   @Test
+   public void csvCellsEndWithTheRatingAdjustmentOfThePair() throws IOException {
+      Tournament tournament = new Tournament(players());
+      tournament.addRound(round(tournament, 1, 2, 1, 3, 4, 0.5));
+      tournament.addRound(round(tournament, 2, 1, 1, 4, 3, 1));
+      tournament.computeTournamentRatings();
+      Crosstable crosstable = Crosstable.of(tournament, true);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+      new CrosstableWriter(crosstable, 0, 4, 0, 4).writeCsv(out);
+
+      String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+      int row = rowOf(crosstable, 1);
+      int column = rowOf(crosstable, 2);
+      double[] delta = new double[1];
+      crosstable.forEachGame(row, column, column + 1, (c, round, white, result, d) -> delta[0] = d);
+      String cell = lines[row + 1].split(";", -1)[6 + column];
+      assertEquals("+B1 -N2 (" + String.format(Locale.ROOT, "%+.1f", delta[0]) + ")", cell);
+   }
+
+   @Test
+   public void crosstableIsBuiltOncePerSnapshot() {
+      TournamentRegistry registry = new TournamentRegistry();
+      registry.register("cached", players());
+      registry.addRound("cached", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5))).join();
+
+      Crosstable first = registry.getCrosstable("cached").join();
+      assertSame(first, registry.getCrosstable("cached").join());
+
+      registry.rate("cached").join();
+      Crosstable rated = registry.getCrosstable("cached").join();
+      assertNotSame(first, rated);
+      assertSame(rated, registry.getCrosstable("cached").join());
+   }
+
+   private static int rowOf(Crosstable crosstable, int id) {
+      for (int row = 0; row < crosstable.size(); row++) {
+         if (crosstable.getId(row) == id) {
+            return row;
+         }
+      }
+      throw new AssertionError("Player " + id + " is missing");
+   }
+
+   private Crosstable registeredCrosstable() {
+      TournamentRegistry registry = new TournamentRegistry();
+      registry.register("crosstable", players());
+      registry.addRound("crosstable", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5)));
+      registry.addRound("crosstable", Arrays.asList(new GameRecord(4, 1, 1), new GameRecord(2, 3, 1)));
+      return registry.getCrosstable("crosstable").join();
+   }
+
+   private static List<Player> players() {
+      List<Player> players = new ArrayList<>();
+      double[] ratings = {1800, 1600, 1500, 1400};
+      for (int i = 0; i < ratings.length; i++) {
+         Player player = new Player("Doe", "Player" + i, ratings[i], 0);
+         player.setId(i + 1);
+         players.add(player);
+      }
+      return players;
+   }
+
+   private static Round round(Tournament tournament, int white1, int black1, double result1, int white2,
+                              int black2, double result2) {
+      Round round = new Round();
+      round.addGame(tournament.getPlayers().get(white1 - 1), tournament.getPlayers().get(black1 - 1), result1);
+      round.addGame(tournament.getPlayers().get(white2 - 1), tournament.getPlayers().get(black2 - 1), result2);
+      return round;
+   }
+
+   private static int indexOf(Tournament tournament, int id) {
+      for (Player player : tournament.getPlayers()) {
+         if (player.getId() == id) {
+            return tournament.indexOf(player);
+         }
+      }
+      throw new AssertionError(id);
+   }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.monitoring.RatingPhase;
+import chess.monitoring.RatingPhaseEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderEventsTest {
+
+   @Test
+   public void ratingPhasesAreRecorded() throws Exception {
+      List<Player> players = new ArrayList<>();
+      players.add(new Player("Doe", "John", 1800));
+      players.add(new Player("Roe", "Jane", 1500, 5));
+      players.add(new Player("Poe", "Jim", 0, 0));
+      players.add(new Player("Moe", "Jack", 1600));
+      Tournament tournament = new Tournament(players);
+      tournament.setId("open-2024");
+      Round round = new Round();
+      round.addGame(players.get(0), players.get(1), 1);
+      round.addGame(players.get(2), players.get(3), 0.5);
+      tournament.addRound(round);
+
+      Path file = Files.createTempFile("rating", ".jfr");
+      try (Recording recording = new Recording()) {
+         recording.enable(RatingPhaseEvent.class).withThreshold(Duration.ZERO);
+         recording.start();
+         tournament.computeTournamentRatings();
+         recording.stop();
+         recording.dump(file);
+
+         Set<String> phases = new TreeSet<>();
+         for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("chess.RatingPhase")) {
+               assertEquals("open-2024", event.getString("tournamentId"));
+               assertEquals(4, event.getInt("playerCount"));
+               assertEquals(2, event.getInt("gameCount"));
+               phases.add(event.getString("phase"));
+            }
+         }
+         assertTrue(phases.toString(), phases.contains(RatingPhase.CLASSIFICATION));
+         assertTrue(phases.contains(RatingPhase.UNRATED_PLAYERS));
+         assertTrue(phases.contains(RatingPhase.PROVISIONAL_PLAYERS));
+         assertTrue(phases.contains(RatingPhase.RESULT_MATRIX));
+         assertTrue(phases.contains(RatingPhase.PERMANENT_PLAYERS));
+         assertTrue(phases.contains(RatingPhase.STANDING));
+      } finally {
+         Files.deleteIfExists(file);
+      }
+   }
+}
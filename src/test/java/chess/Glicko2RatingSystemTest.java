@@ -0,0 +1,105 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.rating.Glicko2RatingSystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Glicko2RatingSystemTest {
+
+   /**
+    * Example of the paper of Glickman: a player rated 1500 beats a player rated 1400 and loses to players rated 1550
+    * and 1700.
+    */
+   @Test
+   public void ratePeriodMatchesTheExampleOfThePaper() {
+      double[] ratings = {1500, 1400, 1550, 1700};
+      double[] deviations = {200, 30, 100, 300};
+      double[] volatilities = {0.06, 0.06, 0.06, 0.06};
+
+      Glicko2RatingSystem.ratePeriod(ratings, deviations, volatilities, new int[]{0, 0, 0}, new int[]{1, 2, 3},
+            new double[]{1, 0, 0}, 0.5);
+
+      assertEquals(1464.06, ratings[0], 0.01);
+      assertEquals(151.52, deviations[0], 0.01);
+      assertEquals(0.05999, volatilities[0], 0.00001);
+   }
+
+   @Test
+   public void deviationOfAbsentPlayerGrows() {
+      double[] ratings = {1500};
+      double[] deviations = {50};
+      double[] volatilities = {0.06};
+
+      Glicko2RatingSystem.ratePeriod(ratings, deviations, volatilities, new int[0], new int[0], new double[0], 0.5);
+
+      assertEquals(1500, ratings[0], 0);
+      assertEquals(Math.sqrt(50 * 50 + 0.06 * 0.06 * 173.7178 * 173.7178), deviations[0], 0.001);
+   }
+
+   @Test
+   public void tournamentDelegatesToTheRatingSystem() {
+      Glicko2RatingSystem glicko = new Glicko2RatingSystem();
+      List<Player> players = new ArrayList<>();
+      for (int id = 1; id <= 4; id++) {
+         Player player = new Player("Doe", "John" + id, id == 4 ? 0 : 1500);
+         player.setId(id);
+         players.add(player);
+      }
+
+      for (int period = 0; period < 2; period++) {
+         Tournament tournament = new Tournament(players, glicko);
+         assertSame(glicko, tournament.getRatingSystem());
+         Round round = new Round();
+         round.addGame(players.get(0), players.get(1), 1);
+         round.addGame(players.get(2), players.get(3), 0.5);
+         tournament.addRound(round);
+         tournament.computeTournamentRatings();
+         assertSame(players.get(0), tournament.getPlayersStanding()[0]);
+      }
+
+      assertTrue(players.get(0).getRating() > players.get(0).getOldRating());
+      assertTrue(players.get(1).getRating() < 1500);
+      assertEquals(1500, players.get(3).getRating(), 0.000001);
+      assertEquals(2, players.get(0).getWins());
+      assertEquals(2, players.get(2).getTies());
+      assertTrue(glicko.getDeviation(1) < glicko.getDeviation(99));
+      assertEquals(Glicko2RatingSystem.DEFAULT_DEVIATION, glicko.getDeviation(99), 0);
+   }
+
+   @Test
+   public void playersWithoutDistinctIdsAreRejected() {
+      Glicko2RatingSystem glicko = new Glicko2RatingSystem();
+      for (int duplicateId : new int[]{0, 1}) {
+         List<Player> players = new ArrayList<>();
+         for (int id = 1; id <= 2; id++) {
+            Player player = new Player("Doe", "John" + id, 1500);
+            player.setId(id == 2 ? duplicateId : id);
+            players.add(player);
+         }
+         Tournament tournament = new Tournament(players, glicko);
+         Round round = new Round();
+         round.addGame(players.get(0), players.get(1), 1);
+         tournament.addRound(round);
+
+         try {
+            glicko.rate(tournament);
+            fail("Player id " + duplicateId + " should be rejected");
+         } catch (IllegalArgumentException expected) {
+            assertEquals(0, players.get(0).getWins());
+            assertEquals(1500, players.get(0).getRating(), 0);
+            assertEquals(Glicko2RatingSystem.DEFAULT_DEVIATION, glicko.getDeviation(1), 0);
+         }
+      }
+   }
+}
@@ -0,0 +1,124 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import chess.models.PerformanceRatingSolver;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceRatingSolverTest {
+
+   @Test
+   public void onlyRatedOpponents() {
+      PerformanceRatingSolver solver = new PerformanceRatingSolver(1);
+      solver.addGameAgainstRated(0, 1500, 1);
+      solver.addGameAgainstRated(0, 1700, 0.5);
+      assertEquals(1800, solver.solve()[0], 0.0);
+      assertEquals(2, solver.getGamesPlayed(0));
+   }
+
+   @Test
+   public void unratedPlayersWhoOnlyPlayedEachOther() {
+      PerformanceRatingSolver solver = new PerformanceRatingSolver(2);
+      solver.addGameAgainstUnrated(0, 1, 1);
+      solver.addGameAgainstUnrated(1, 0, 0);
+      double[] ratings = solver.solve();
+      assertEquals(1300, ratings[0], 0.01);
+      assertEquals(900, ratings[1], 0.01);
+   }
+
+   @Test
+   public void largePoolIsIndependentOfPlayerOrder() {
+      int size = 10000;
+      Random random = new Random(17);
+      int[][] games = new int[size * 3][];
+      for (int g = 0; g < games.length; g++) {
+         int player = random.nextInt(size);
+         int opponent = random.nextInt(3) == 0 ? -1 - random.nextInt(1000) : random.nextInt(size);
+         if (opponent == player) {
+            opponent = (player + 1) % size;
+         }
+         games[g] = new int[]{player, opponent, random.nextInt(3)};
+      }
+
+      List<Integer> order = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+         order.add(i);
+      }
+      Collections.shuffle(order, random);
+      int[] permutation = order.stream().mapToInt(Integer::intValue).toArray();
+
+      double[] ratings = solve(size, games, null);
+      double[] permutedRatings = solve(size, games, permutation);
+      for (int p = 0; p < size; p++) {
+         assertEquals(ratings[p], permutedRatings[permutation[p]], 0.05);
+      }
+   }
+
+   private static double[] solve(int size, int[][] games, int[] permutation) {
+      PerformanceRatingSolver solver = new PerformanceRatingSolver(size);
+      for (int[] game : games) {
+         int player = permutation == null ? game[0] : permutation[game[0]];
+         double result = game[2] / 2.0;
+         if (game[1] < 0) {
+            solver.addGameAgainstRated(player, 1000 - game[1], result);
+         } else {
+            int opponent = permutation == null ? game[1] : permutation[game[1]];
+            solver.addGameAgainstUnrated(player, opponent, result);
+            solver.addGameAgainstUnrated(opponent, player, 1 - result);
+         }
+      }
+      double[] ratings = solver.solve();
+      assertTrue(solver.getIterations() < PerformanceRatingSolver.DEFAULT_MAX_ITERATIONS);
+      return ratings;
+   }
+
+   @Test
+   public void tournamentRatingOfNewPlayersIsIndependentOfOrder() {
+      double[] forward = rateClubEvent(false);
+      double[] backward = rateClubEvent(true);
+      assertEquals(forward[0], backward[0], 0.0);
+      assertEquals(forward[1], backward[1], 0.0);
+      assertTrue(forward[0] > forward[1]);
+   }
+
+   private static double[] rateClubEvent(boolean reverse) {
+      Player rated1 = new Player("Forest", "Jimmy", 1600);
+      Player rated2 = new Player("Fortin", "Robert", 1400);
+      Player new1 = new Player("Poirier", "Louis", 0);
+      Player new2 = new Player("Marquis", "Richard", 0);
+
+      List<Player> players = new ArrayList<>();
+      players.add(rated1);
+      players.add(rated2);
+      players.add(new1);
+      players.add(new2);
+      if (reverse) {
+         Collections.reverse(players);
+      }
+      Tournament tournament = new Tournament(players);
+
+      Round round1 = new Round();
+      round1.addGame(new1, new2, 1);
+      round1.addGame(rated1, rated2, 0.5);
+      tournament.addRound(round1);
+
+      Round round2 = new Round();
+      round2.addGame(new1, rated2, 0.5);
+      round2.addGame(new2, rated1, 0);
+      tournament.addRound(round2);
+
+      tournament.computeTournamentRatings();
+      assertEquals(2, new1.getUnratedGamesPlayed());
+      return new double[]{new1.getRating(), new2.getRating()};
+   }
+}
@@ -0,0 +1,183 @@
+package chess;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.store.PlayerPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PlayerPoolTest {
+
+   private static final int PLAYERS = 200_000;
+
+   @Test
+   public void viewsWriteThroughToThePool() {
+      PlayerPool pool = new PlayerPool();
+      Player player = new Player("Doe", "John", 1500, 3);
+      player.setId(7);
+      pool.add(player);
+      Player view = pool.get(7);
+
+      view.setRating(1520);
+      view.addWin();
+      view.addTie();
+
+      Player other = pool.get(7);
+      assertEquals(1520, other.getRating(), 0);
+      assertEquals(1, other.getWins());
+      assertEquals(1, other.getTies());
+      assertEquals(1.5, other.getScore(), 0);
+      assertEquals(3, other.getUnratedGamesPlayed());
+      assertEquals("Doe John", other.getFullName());
+      assertEquals(1500, player.getRating(), 0);
+      assertNull(pool.get(8));
+      assertFalse(pool.contains(8));
+   }
+
+   @Test
+   public void addReplacesThePlayerWithTheSameId() {
+      PlayerPool pool = new PlayerPool(1);
+      for (int id = 0; id < 100; id++) {
+         Player player = new Player("Doe", "John", 1000 + id);
+         player.setId(id);
+         pool.add(player);
+      }
+      Player replacement = new Player("Roe", "Jane", 2000);
+      replacement.setId(42);
+      replacement.setFullName("Jane Roe");
+      pool.add(replacement);
+
+      assertEquals(100, pool.size());
+      assertEquals(2000, pool.get(42).getRating(), 0);
+      assertEquals("Jane Roe", pool.get(42).getFullName());
+      assertEquals("Roe", pool.get(42).getLastName());
+      assertEquals(1099, pool.get(99).getRating(), 0);
+      assertEquals(4, pool.getDistinctNameCount());
+   }
+
+   @Test
+   public void pooledPlayersAreRated() {
+      PlayerPool pool = new PlayerPool();
+      for (int id = 1; id <= 2; id++) {
+         Player player = new Player("Doe", "John" + id, 1500);
+         player.setId(id);
+         pool.add(player);
+      }
+      List<Player> players = pool.getAll();
+      Tournament tournament = new Tournament(players);
+      Round round = new Round();
+      round.addGame(players.get(0), players.get(1), 1.0);
+      tournament.addRound(round);
+      tournament.computeTournamentRatings();
+
+      assertTrue(pool.get(1).getRating() > 1500);
+      assertTrue(pool.get(2).getRating() < 1500);
+      assertEquals(1, pool.get(1).getWins());
+   }
+
+   @Test
+   public void viewsShareTheStateOfTheirPlayer() {
+      PlayerPool pool = new PlayerPool();
+      Player player = new Player("Doe", "John", 1500);
+      player.setId(7);
+      pool.add(player);
+      Player view = pool.get(7);
+
+      assertNotSame(view, pool.get(7));
+      player.setRating(1600);
+      pool.add(player);
+      assertEquals(1600, view.getRating(), 0);
+      try {
+         view.setId(8);
+         fail("The id of a pooled player is fixed");
+      } catch (UnsupportedOperationException expected) {
+         assertEquals(7, view.getId());
+      }
+   }
+
+   /**
+    * Heap retained by a roster of players, measured after a full collection: the pool, once every player was read
+    * through a view, against a list of {@link Player} objects with the same names.
+    */
+   @Test
+   public void poolUsesLessThanHalfTheHeapOfPlayerObjects() {
+      long before = usedHeap();
+      PlayerPool pool = new PlayerPool(PLAYERS);
+      for (int id = 0; id < PLAYERS; id++) {
+         pool.add(player(id));
+      }
+      double ratings = scan(pool);
+      long poolHeap = usedHeap() - before;
+      assertEquals(PLAYERS, pool.size());
+      assertEquals(5300, pool.getDistinctNameCount());
+      pool = null;
+
+      before = usedHeap();
+      List<Player> players = new ArrayList<>(PLAYERS);
+      for (int id = 0; id < PLAYERS; id++) {
+         players.add(player(id));
+      }
+      long listHeap = usedHeap() - before;
+
+      assertEquals(PLAYERS, players.size());
+      assertTrue(ratings > 0);
+      assertTrue("pool " + poolHeap + " bytes, players " + listHeap + " bytes", poolHeap * 2 < listHeap);
+   }
+
+   /**
+    * Reads every player through a view, in a method of its own so that the views are no longer referenced by the
+    * stack once it returns.
+    */
+   private static double scan(PlayerPool pool) {
+      double ratings = 0;
+      for (Player view : pool.getAll()) {
+         ratings += view.getRating() + view.getFullName().length();
+      }
+      return ratings;
+   }
+
+   private static Player player(int id) {
+      Player player = new Player(lastName(id), firstName(id), 1000 + id % 1400);
+      player.setId(id);
+      return player;
+   }
+
+   /**
+    * Heap used once the collections no longer free anything.
+    */
+   private static long usedHeap() {
+      MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      long used = Long.MAX_VALUE;
+      for (int i = 0; i < 10; i++) {
+         memory.gc();
+         long after = memory.getHeapMemoryUsage().getUsed();
+         if (after >= used) {
+            return after;
+         }
+         used = after;
+      }
+      return used;
+   }
+
+   private static String lastName(int id) {
+      return "Last" + id % 5000;
+   }
+
+   private static String firstName(int id) {
+      return "First" + id % 300;
+   }
+
+}
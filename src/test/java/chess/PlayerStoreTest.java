@@ -0,0 +1,156 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.store.PlayerField;
+import chess.store.PlayerStore;
+import chess.store.RatingSnapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PlayerStoreTest {
+
+   private PlayerStore store;
+
+   @Before
+   public void setUp() {
+      store = new PlayerStore();
+      for (int id = 10; id > 0; id--) {
+         Player player = new Player("Doe", "John" + id, 1000 + id);
+         player.setId(id);
+         store.put(player);
+      }
+   }
+
+   @Test
+   public void keysetPagination() {
+      List<Player> first = store.page(null, 4);
+      assertEquals(4, first.size());
+      assertEquals(1, first.get(0).getId());
+      assertEquals(4, first.get(3).getId());
+
+      List<Player> second = store.page(4, 4);
+      assertEquals(5, second.get(0).getId());
+
+      List<Player> last = store.page(8, 4);
+      assertEquals(2, last.size());
+      assertEquals(10, last.get(1).getId());
+
+      assertTrue(store.page(10, 4).isEmpty());
+   }
+
+   @Test
+   public void batchLookupKeepsRequestOrderAndSkipsUnknownIds() {
+      List<Player> found = store.getAll(Arrays.asList(7, 42, 2, null, 9));
+      assertEquals(3, found.size());
+      assertEquals(7, found.get(0).getId());
+      assertEquals(2, found.get(1).getId());
+      assertEquals(9, found.get(2).getId());
+   }
+
+   @Test
+   public void commitIsPublishedAtomicallyAsANewVersion() {
+      RatingSnapshot before = store.current();
+      Player first = new Player(store.get(1));
+      Player second = new Player(store.get(2));
+      first.setRating(1500);
+      second.setRating(1600);
+
+      RatingSnapshot after = store.commit(Arrays.asList(first, second));
+      first.setRating(0);
+
+      assertEquals(before.getVersion() + 1, after.getVersion());
+      assertEquals(1001, before.get(1).getRating(), 0);
+      assertEquals(1002, before.get(2).getRating(), 0);
+      assertEquals(1500, after.get(1).getRating(), 0);
+      assertEquals(1600, store.get(2).getRating(), 0);
+      assertSame(before.get(3), after.get(3));
+      assertEquals(10, after.size());
+   }
+
+   @Test
+   public void oldVersionsAreReclaimedUnlessPinned() {
+      PlayerStore versioned = new PlayerStore(2);
+      for (int id = 1; id <= 5; id++) {
+         Player player = new Player("Doe", "John" + id, 1000 + id);
+         player.setId(id);
+         versioned.put(player);
+      }
+      assertEquals(2, versioned.getRetainedVersionCount());
+      assertNull(versioned.pin(3));
+
+      RatingSnapshot pinned = versioned.pin(4);
+      assertEquals(4, pinned.size());
+      versioned.put(new Player(versioned.get(1)));
+      versioned.put(new Player(versioned.get(1)));
+      assertNotNull(versioned.pin(4));
+      versioned.release(pinned);
+      versioned.release(pinned);
+      assertNull(versioned.pin(4));
+      assertEquals(2, versioned.getRetainedVersionCount());
+   }
+
+   @Test
+   public void sparseIdsAreIteratedInOrder() {
+      PlayerStore sparse = new PlayerStore();
+      Random random = new Random(3);
+      TreeMap<Integer, Player> expected = new TreeMap<>();
+      List<Player> batch = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+         int id = i % 10 == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(5000);
+         Player player = new Player("Doe", "John", id);
+         player.setId(id);
+         batch.add(player);
+         expected.put(id, player);
+         if (batch.size() == 100) {
+            sparse.commit(batch);
+            batch.clear();
+         }
+      }
+      Player last = new Player("Doe", "Max", 0);
+      last.setId(Integer.MAX_VALUE);
+      sparse.put(last);
+      expected.put(Integer.MAX_VALUE, last);
+
+      assertEquals(expected.size(), sparse.size());
+      List<Integer> ids = new ArrayList<>();
+      sparse.getAll().forEach(player -> ids.add(player.getId()));
+      assertEquals(new ArrayList<>(expected.keySet()), ids);
+
+      Integer after = expected.keySet().toArray(new Integer[0])[500];
+      List<Player> page = sparse.page(after, 3);
+      assertEquals(expected.higherKey(after).intValue(), page.get(0).getId());
+      assertTrue(sparse.page(Integer.MAX_VALUE, 3).isEmpty());
+      assertNull(sparse.get(-1));
+   }
+
+   @Test
+   public void projection() {
+      List<Map<String, Object>> projected = PlayerField.project(store.page(null, 2),
+            PlayerField.parse("rating, id"));
+      assertEquals(2, projected.size());
+      assertEquals(Arrays.asList("id", "rating"), Arrays.asList(projected.get(0).keySet().toArray()));
+      assertEquals(1, projected.get(0).get("id"));
+      assertEquals(1001.0, projected.get(0).get("rating"));
+      assertEquals(EnumSet.noneOf(PlayerField.class), PlayerField.parse(""));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void unknownProjectionField() {
+      PlayerField.parse("id,password");
+   }
+}
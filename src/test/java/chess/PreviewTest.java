@@ -0,0 +1,82 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.ws.rs.BadRequestException;
+
+import org.junit.Test;
+
+import chess.api.PairingEntry;
+import chess.api.PreviewRequest;
+import chess.api.PreviewResult;
+import chess.models.Game;
+import chess.models.Player;
+
+import static org.junit.Assert.assertEquals;
+
+public class PreviewTest {
+
+   @Test
+   public void pairingsMatchSingleGameDeltas() {
+      List<PairingEntry> pairings = new ArrayList<>();
+      List<Player[]> boards = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+         Player white = new Player("White", "" + i, 1000 + i * 1.7);
+         Player black = new Player("Black", "" + i, 2200 - i * 0.9);
+         pairings.add(new PairingEntry(white.getRating(), black.getRating()));
+         boards.add(new Player[]{white, black});
+      }
+      PreviewRequest request = new PreviewRequest();
+      request.setPairings(pairings);
+
+      PreviewResult result = new ChessService().preview(request);
+
+      for (int i = 0; i < boards.size(); i++) {
+         Player white = boards.get(i)[0];
+         Player black = boards.get(i)[1];
+         assertEquals(Game.getDeltaFromGame(white, black, 1), result.getWinDeltas()[i], 1e-9);
+         assertEquals(Game.getDeltaFromGame(white, black, 0.5), result.getDrawDeltas()[i], 1e-9);
+         assertEquals(Game.getDeltaFromGame(white, black, 0), result.getLossDeltas()[i], 1e-9);
+         assertEquals(-Game.getDeltaFromGame(black, white, 0), result.getWinDeltas()[i], 1e-9);
+      }
+   }
+
+   @Test
+   public void playersCanBeGivenById() {
+      PairingEntry pairing = new PairingEntry();
+      pairing.setWhite(1);
+      pairing.setBlackRating(1783.0);
+      PreviewRequest request = new PreviewRequest();
+      request.setPairings(Arrays.asList(pairing));
+
+      PreviewResult result = new ChessService().preview(request);
+      assertEquals(0, result.getRatingDifferences()[0], 0);
+      assertEquals(0.5, result.getExpectedScores()[0], 0);
+   }
+
+   @Test
+   public void gridCoversTheTable() {
+      PreviewRequest request = new PreviewRequest();
+      request.setFrom(-800.0);
+      request.setTo(800.0);
+      request.setStep(1.0);
+
+      PreviewResult result = new ChessService().preview(request);
+      assertEquals(1601, result.getExpectedScores().length);
+      assertEquals(0.0, result.getExpectedScores()[0], 0);
+      assertEquals(0.5, result.getExpectedScores()[800], 0);
+      assertEquals(0.51, result.getExpectedScores()[804], 1e-9);
+      assertEquals(0.49, result.getExpectedScores()[796], 1e-9);
+      assertEquals(1.0, result.getExpectedScores()[1600], 0);
+   }
+
+   @Test(expected = BadRequestException.class)
+   public void rejectsPairingsAndGridTogether() {
+      PreviewRequest request = new PreviewRequest();
+      request.setPairings(new ArrayList<>());
+      request.setStep(1.0);
+      new ChessService().preview(request);
+   }
+}
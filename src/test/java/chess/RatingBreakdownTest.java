@@ -0,0 +1,212 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.models.RatingBreakdown;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+import chess.registry.RatingCache;
+import chess.registry.TournamentRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RatingBreakdownTest {
+
+   private static final int PLAYERS = 8;
+
+   private static final int ROUNDS = 5;
+
+   @Test
+   public void permanentRatingIsTheSumOfTheGameDeltasAndTheBonus() {
+      Tournament tournament = tournament();
+      tournament.computeTournamentRatings();
+
+      boolean bonusSeen = false;
+      for (Player player : tournament.getPlayers()) {
+         if (player.getId() == PLAYERS) {
+            continue;
+         }
+         RatingBreakdown breakdown = RatingBreakdown.of(tournament, player);
+         assertTrue(breakdown.isRatedAsPermanent());
+         assertEquals(ROUNDS, breakdown.getGames().size());
+         assertEquals(player.getOldRating(), breakdown.getGameRating(), 0);
+         assertEquals(player.getRating(), breakdown.getGameRating() + breakdown.getTotalDelta() + breakdown.getBonus(),
+               1e-9);
+
+         double matrixDelta = 0;
+         for (int column = 0; column < PLAYERS; column++) {
+            matrixDelta += tournament.getResult(tournament.indexOf(player), column);
+         }
+         assertEquals(matrixDelta, breakdown.getTotalDelta(), 1e-9);
+         bonusSeen |= breakdown.getBonus() > 0;
+      }
+      assertTrue(bonusSeen);
+   }
+
+   @Test
+   public void gamesAreListedInRoundOrder() {
+      Tournament tournament = tournament();
+      tournament.computeTournamentRatings();
+      Player first = tournament.getPlayers().get(0);
+
+      RatingBreakdown breakdown = RatingBreakdown.of(tournament, first);
+
+      for (int r = 0; r < ROUNDS; r++) {
+         RatingBreakdown.GameDelta game = breakdown.getGames().get(r);
+         assertEquals(r + 1, game.getRound());
+         Player opponent = player(tournament, game.getOpponentId());
+         double opponentRating = opponent.getId() == PLAYERS ? opponent.getRating() : opponent.getOldRating();
+         assertEquals(opponentRating, game.getOpponentRating(), 0);
+         assertEquals(32 * (game.getActualScore() - game.getExpectedScore()), game.getDelta(), 1e-12);
+      }
+   }
+
+   @Test
+   public void unratedPlayerIsRatedOnPerformance() {
+      Tournament tournament = tournament();
+      tournament.computeTournamentRatings();
+      Player unrated = player(tournament, PLAYERS);
+
+      RatingBreakdown breakdown = RatingBreakdown.of(tournament, unrated);
+
+      assertFalse(breakdown.isRatedAsPermanent());
+      assertEquals(unrated.getRating(), breakdown.getGameRating(), 0);
+      assertEquals(0, breakdown.getBonus(), 0);
+      assertEquals(ROUNDS, breakdown.getGames().size());
+   }
+
+   @Test
+   public void breakdownSurvivesARatingRestoredFromTheCache() {
+      TournamentRegistry registry = new TournamentRegistry(TournamentRegistry.defaultExecutor(), new RatingCache(100));
+      RatingBreakdown computed = rateAndExplain(registry, "first");
+      RatingBreakdown restored = rateAndExplain(registry, "second");
+
+      assertTrue(restored.isRatedAsPermanent());
+      assertEquals(computed.getTotalDelta(), restored.getTotalDelta(), 0);
+      assertEquals(computed.getBonus(), restored.getBonus(), 0);
+      assertEquals(computed.getGames().size(), restored.getGames().size());
+   }
+
+   @Test
+   public void breakdownNeedsARatedTournamentAndARegisteredPlayer() {
+      TournamentRegistry registry = new TournamentRegistry();
+      register(registry, "open");
+
+      assertFailure(IllegalStateException.class, () -> registry.getRatingBreakdown("open", 1).join());
+      registry.rate("open").join();
+      assertFailure(NoSuchElementException.class, () -> registry.getRatingBreakdown("open", 99).join());
+   }
+
+   @Test
+   public void ratedTournamentIsExplainedByConcurrentReaders() throws Exception {
+      TournamentRegistry registry = new TournamentRegistry();
+      register(registry, "open");
+      registry.rate("open").join();
+
+      ExecutorService readers = Executors.newFixedThreadPool(4);
+      try {
+         List<Future<RatingBreakdown>> breakdowns = new ArrayList<>();
+         for (int i = 0; i < 64; i++) {
+            int playerId = i % PLAYERS + 1;
+            breakdowns.add(readers.submit(() -> registry.getRatingBreakdown("open", playerId).join()));
+         }
+         for (int i = 0; i < breakdowns.size(); i++) {
+            RatingBreakdown breakdown = breakdowns.get(i).get();
+            assertEquals(i % PLAYERS + 1, breakdown.getPlayerId());
+            assertEquals(ROUNDS, breakdown.getGames().size());
+         }
+      } finally {
+         readers.shutdown();
+      }
+   }
+
+   private static RatingBreakdown rateAndExplain(TournamentRegistry registry, String id) {
+      register(registry, id);
+      registry.rate(id).join();
+      return registry.getRatingBreakdown(id, 1).join();
+   }
+
+   private static void register(TournamentRegistry registry, String id) {
+      registry.register(id, players());
+      for (int r = 0; r < ROUNDS; r++) {
+         List<GameRecord> games = new ArrayList<>();
+         for (int[] pairing : pairings(r)) {
+            games.add(new GameRecord(pairing[0], pairing[1], result(r, pairing[0])));
+         }
+         registry.addRound(id, games);
+      }
+   }
+
+   private static Tournament tournament() {
+      Tournament tournament = new Tournament(players());
+      for (int r = 0; r < ROUNDS; r++) {
+         Round round = new Round();
+         for (int[] pairing : pairings(r)) {
+            round.addGame(player(tournament, pairing[0]), player(tournament, pairing[1]), result(r, pairing[0]));
+         }
+         tournament.addRound(round);
+      }
+      return tournament;
+   }
+
+   private static List<Player> players() {
+      List<Player> players = new ArrayList<>();
+      for (int i = 1; i <= PLAYERS; i++) {
+         // The last player is unrated.
+         Player player = new Player("Doe", "Player" + i, i == PLAYERS ? 0 : 2000 - 60 * i);
+         player.setId(i);
+         players.add(player);
+      }
+      return players;
+   }
+
+   /**
+    * Round robin pairings of the circle method, player 1 staying in place.
+    */
+   private static List<int[]> pairings(int round) {
+      List<int[]> pairings = new ArrayList<>();
+      int rotating = PLAYERS - 1;
+      for (int board = 0; board < PLAYERS / 2; board++) {
+         int white = board == 0 ? 1 : (round + board) % rotating + 2;
+         int black = (round - board + rotating) % rotating + 2;
+         pairings.add(round % 2 == 0 ? new int[]{white, black} : new int[]{black, white});
+      }
+      return pairings;
+   }
+
+   /**
+    * Mixed results: the lower rated players win with white in some rounds, so that some of them earn a bonus.
+    */
+   private static double result(int round, int white) {
+      if (round % 3 == 2) {
+         return 0.5;
+      }
+      return round % 2 == 0 ? (white > PLAYERS / 2 ? 1 : 0) : (white > PLAYERS / 2 ? 0 : 1);
+   }
+
+   private static Player player(Tournament tournament, int id) {
+      return tournament.getPlayers().get(id - 1);
+   }
+
+   private static void assertFailure(Class<? extends Exception> expected, Runnable call) {
+      try {
+         call.run();
+         fail("Expected " + expected.getSimpleName());
+      } catch (CompletionException e) {
+         assertEquals(expected, e.getCause().getClass());
+      }
+   }
+}
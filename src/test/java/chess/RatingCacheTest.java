@@ -0,0 +1,84 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.rating.GameRecord;
+import chess.registry.PlayerSnapshot;
+import chess.registry.RatingCache;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+
+import static org.junit.Assert.assertEquals;
+
+public class RatingCacheTest {
+
+   private RatingCache cache;
+
+   private TournamentRegistry registry;
+
+   @Before
+   public void setUp() {
+      cache = new RatingCache(10);
+      registry = new TournamentRegistry(TournamentRegistry.defaultExecutor(), cache);
+   }
+
+   @Test
+   public void identicalTournamentIsAnsweredFromTheCache() {
+      TournamentSnapshot first = rate("first", "Doe", 1);
+      TournamentSnapshot second = rate("second", "Roe", 1);
+
+      assertEquals(1L, cache.getMetrics().get("hits"));
+      assertEquals(1L, cache.getMetrics().get("misses"));
+      assertEquals(0.5, cache.getMetrics().get("hitRate"));
+      assertEquals(first.getStanding().size(), second.getStanding().size());
+      for (int i = 0; i < first.getStanding().size(); i++) {
+         PlayerSnapshot expected = first.getStanding().get(i);
+         PlayerSnapshot actual = second.getStanding().get(i);
+         assertEquals(expected.getId(), actual.getId());
+         assertEquals("Roe", actual.getLastName());
+         assertEquals(expected.getRating(), actual.getRating(), 0);
+         assertEquals(expected.getScore(), actual.getScore(), 0);
+      }
+   }
+
+   @Test
+   public void differentResultIsComputed() {
+      rate("first", "Doe", 1);
+      rate("second", "Doe", 0.5);
+
+      assertEquals(0L, cache.getMetrics().get("hits"));
+      assertEquals(2L, cache.getMetrics().get("misses"));
+   }
+
+   @Test
+   public void leastRecentlyUsedOutcomesAreEvicted() {
+      rate("a", "Doe", 1);
+      rate("b", "Doe", 0.5);
+      rate("c", "Doe", 0);
+
+      assertEquals(1L, cache.getMetrics().get("evictions"));
+      assertEquals(8L, cache.getMetrics().get("players"));
+      rate("d", "Doe", 1);
+      assertEquals(0L, cache.getMetrics().get("hits"));
+   }
+
+   private TournamentSnapshot rate(String id, String lastName, double firstResult) {
+      List<Player> players = new ArrayList<>();
+      double[] ratings = {1800, 1600, 0, 1400};
+      for (int i = 0; i < ratings.length; i++) {
+         Player player = new Player(lastName, "Player" + i, ratings[i], ratings[i] == 0 ? 0 : 3 * (i % 2));
+         player.setId(i + 1);
+         players.add(player);
+      }
+      registry.register(id, players);
+      registry.addRound(id, Arrays.asList(new GameRecord(1, 2, firstResult), new GameRecord(3, 4, 0.5)));
+      registry.addRound(id, Arrays.asList(new GameRecord(1, 3, 1), new GameRecord(2, 4, 0)));
+      return registry.rate(id).join();
+   }
+}
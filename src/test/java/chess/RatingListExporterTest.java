@@ -0,0 +1,123 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import chess.io.RatingListExporter;
+import chess.io.RatingListExporter.Format;
+import chess.io.RatingListExporter.Order;
+import chess.models.Player;
+
+import static org.junit.Assert.assertEquals;
+
+public class RatingListExporterTest {
+
+   private ExecutorService executor;
+   private Path file;
+
+   @Before
+   public void setUp() throws IOException {
+      executor = Executors.newFixedThreadPool(4);
+      file = Files.createTempFile("ratings", ".csv");
+   }
+
+   @After
+   public void tearDown() throws IOException {
+      executor.shutdown();
+      Files.deleteIfExists(file);
+   }
+
+   private static List<Player> players(int count) {
+      Random random = new Random(7);
+      List<Player> players = new ArrayList<>();
+      for (int id = 1; id <= count; id++) {
+         Player player = new Player("Doe" + random.nextInt(500), "John", 800 + random.nextInt(1600) + 0.5);
+         player.setId(id);
+         player.setRatingPermanent(id % 3 != 0);
+         player.setUnratedGamesPlayed(id % 25);
+         players.add(player);
+      }
+      return players;
+   }
+
+   private RatingListExporter exporter(Order order, Format format) {
+      // Small chunks and buffers so that rows are split across buffer flushes and chunks.
+      return new RatingListExporter(order, format, executor, 4, 37, 64);
+   }
+
+   @Test
+   public void csvMatchesSequentialEncoding() throws IOException {
+      List<Player> players = players(5000);
+      Player special = players.get(0);
+      special.setFullName("L\u00e9vesque; \"Sam\" \ud83d\ude00");
+
+      long size = exporter(Order.RATING, Format.CSV).export(players, file);
+
+      List<Player> sorted = new ArrayList<>(players);
+      sorted.sort(Comparator.comparingDouble(Player::getRating).reversed()
+            .thenComparing(Player::getFullName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Player::getFullName)
+            .thenComparingInt(Player::getId));
+      StringBuilder expected = new StringBuilder("Id;Nom;Cote;Cote permanente;Parties provisoires\n");
+      for (Player player : sorted) {
+         String name = player == special ? "\"L\u00e9vesque; \"\"Sam\"\" \ud83d\ude00\"" : player.getFullName();
+         expected.append(player.getId()).append(';').append(name).append(';')
+               .append((long) Math.rint(player.getRating())).append(';')
+               .append(player.isRatingPermanent() ? "oui" : "non").append(';')
+               .append(player.getUnratedGamesPlayed()).append('\n');
+      }
+      byte[] bytes = Files.readAllBytes(file);
+      assertEquals(bytes.length, size);
+      assertEquals(expected.toString(), new String(bytes, StandardCharsets.UTF_8));
+   }
+
+   @Test
+   public void jsonLinesAreSortedByName() throws IOException {
+      List<Player> players = players(3000);
+      players.get(5).setFullName("Back\\slash \"quoted\"\ttab");
+
+      exporter(Order.NAME, Format.JSON_LINES).export(players, file);
+
+      ObjectMapper mapper = new ObjectMapper();
+      List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+      assertEquals(players.size(), lines.size());
+      JsonNode previous = null;
+      for (String line : lines) {
+         JsonNode row = mapper.readTree(line);
+         Player player = players.get(row.get("id").asInt() - 1);
+         assertEquals(player.getFullName(), row.get("fullName").asText());
+         assertEquals(Math.rint(player.getRating()), row.get("rating").asDouble(), 0);
+         assertEquals(player.isRatingPermanent(), row.get("ratingPermanent").asBoolean());
+         assertEquals(player.getUnratedGamesPlayed(), row.get("unratedGamesPlayed").asInt());
+         if (previous != null) {
+            int compare = String.CASE_INSENSITIVE_ORDER.compare(previous.get("fullName").asText(),
+                  row.get("fullName").asText());
+            assertEquals(true, compare <= 0);
+         }
+         previous = row;
+      }
+   }
+
+   @Test
+   public void emptyListHasOnlyTheHeader() throws IOException {
+      long size = exporter(Order.NAME, Format.CSV).export(new ArrayList<>(), file);
+      assertEquals("Id;Nom;Cote;Cote permanente;Parties provisoires\n",
+            new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+      assertEquals(Files.size(file), size);
+   }
+}
@@ -0,0 +1,123 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.rating.GameRecord;
+import chess.rating.RatedEvent;
+import chess.rating.RatingReplay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RatingReplayTest {
+
+   private static final int PLAYERS = 60;
+   private static final int EVENTS = 40;
+
+   private List<RatedEvent> history;
+
+   @Before
+   public void setUp() {
+      Random random = new Random(42);
+      history = new ArrayList<>();
+      for (int e = 0; e < EVENTS; e++) {
+         history.add(randomEvent(random, 8, 4));
+      }
+   }
+
+   @Test
+   public void correctionFromCheckpointMatchesFullReplay() {
+      RatingReplay checkpointed = newReplay(4);
+      RatingReplay full = newReplay(Integer.MAX_VALUE);
+      history.forEach(checkpointed::append);
+      history.forEach(full::append);
+      assertTrue(checkpointed.getSnapshotCount() > 1);
+      assertEquals(1, full.getSnapshotCount());
+
+      RatedEvent corrected = randomEvent(new Random(7), 8, 4);
+      Set<Integer> changedCheckpointed = checkpointed.replaceEvent(17, corrected);
+      Set<Integer> changedFull = full.replaceEvent(17, corrected);
+
+      assertFalse(changedCheckpointed.isEmpty());
+      assertEquals(changedFull, changedCheckpointed);
+      for (int id = 0; id < PLAYERS; id++) {
+         assertEquals(full.getRating(id), checkpointed.getRating(id), 0.0);
+         assertEquals(full.getUnratedGamesPlayed(id), checkpointed.getUnratedGamesPlayed(id));
+      }
+   }
+
+   @Test
+   public void correctionOfLastEventOnlyChangesItsPlayers() {
+      RatingReplay replay = newReplay(8);
+      history.forEach(replay::append);
+
+      RatedEvent last = history.get(EVENTS - 1);
+      List<List<GameRecord>> rounds = new ArrayList<>(last.getRounds());
+      List<GameRecord> firstRound = new ArrayList<>(rounds.get(0));
+      GameRecord game = firstRound.get(0);
+      firstRound.set(0, new GameRecord(game.getWhiteId(), game.getBlackId(), game.getResult() == 1 ? 0 : 1));
+      rounds.set(0, firstRound);
+
+      Set<Integer> changed = replay.replaceEvent(EVENTS - 1, new RatedEvent(rounds));
+
+      assertTrue(changed.contains(game.getWhiteId()));
+      assertTrue(changed.contains(game.getBlackId()));
+      for (int id : changed) {
+         assertTrue(contains(last.getParticipantIds(), id));
+      }
+   }
+
+   @Test
+   public void replayWithoutChangeReportsNothing() {
+      RatingReplay replay = newReplay(5);
+      history.forEach(replay::append);
+      assertTrue(replay.replayFrom(0).isEmpty());
+      assertTrue(replay.replayFrom(23).isEmpty());
+      assertEquals(EVENTS, replay.getEventCount());
+   }
+
+   private static RatingReplay newReplay(int snapshotInterval) {
+      RatingReplay replay = new RatingReplay(snapshotInterval);
+      for (int id = 0; id < PLAYERS; id++) {
+         replay.seedPlayer(id, 1200 + 10 * id, 0);
+      }
+      return replay;
+   }
+
+   private static RatedEvent randomEvent(Random random, int size, int numberOfRounds) {
+      List<Integer> roster = new ArrayList<>();
+      while (roster.size() < size) {
+         int id = random.nextInt(PLAYERS);
+         if (!roster.contains(id)) {
+            roster.add(id);
+         }
+      }
+      List<List<GameRecord>> rounds = new ArrayList<>();
+      for (int r = 0; r < numberOfRounds; r++) {
+         List<GameRecord> games = new ArrayList<>();
+         for (int board = 0; board < size / 2; board++) {
+            int white = roster.get((board + r) % size);
+            int black = roster.get((size - 1 - board + r) % size);
+            games.add(new GameRecord(white, black, random.nextInt(3) / 2.0));
+         }
+         rounds.add(games);
+      }
+      return new RatedEvent(rounds);
+   }
+
+   private static boolean contains(int[] ids, int id) {
+      for (int candidate : ids) {
+         if (candidate == id) {
+            return true;
+         }
+      }
+      return false;
+   }
+}
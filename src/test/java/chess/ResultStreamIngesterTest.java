@@ -0,0 +1,111 @@
+package chess;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.registry.ResultStreamIngester;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultStreamIngesterTest {
+
+   private static final int PLAYERS = 2000;
+
+   private TournamentRegistry registry;
+
+   @Before
+   public void setUp() {
+      registry = new TournamentRegistry();
+      List<Player> players = new ArrayList<>();
+      for (int id = 1; id <= PLAYERS; id++) {
+         Player player = new Player("Doe", "John" + id, 1000 + id % 1400);
+         player.setId(id);
+         players.add(player);
+      }
+      registry.register("relay", players);
+   }
+
+   @Test
+   public void resultsAreAddedInBatchesAndAcknowledged() throws IOException {
+      StringBuilder results = new StringBuilder();
+      int rounds = 50;
+      for (int round = 1; round <= rounds; round++) {
+         for (int white = 1; white <= PLAYERS; white += 2) {
+            int black = (white + 2 * round - 2) % PLAYERS + 1;
+            results.append("{\"round\":").append(round).append(",\"white\":").append(white)
+                  .append(",\"black\":").append(black).append(",\"result\":").append(white % 3 / 2.0)
+                  .append(",\"board\":{\"serial\":\"DGT-").append(white).append("\"}}\n");
+         }
+      }
+      ByteArrayOutputStream acks = new ByteArrayOutputStream();
+      ResultStreamIngester ingester = new ResultStreamIngester(registry, "relay", 400);
+
+      long accepted = ingester.ingest(input(results.toString()), acks);
+
+      assertEquals(rounds * PLAYERS / 2, accepted);
+      TournamentSnapshot snapshot = registry.getSnapshot("relay");
+      assertEquals(rounds, snapshot.getRoundCount());
+      assertEquals(rounds * PLAYERS / 2, snapshot.getGameCount());
+      String[] lines = acks.toString("UTF-8").split("\n");
+      assertEquals(rounds * 3 + 1, lines.length);
+      assertEquals("{\"accepted\":400,\"rounds\":1,\"version\":1}", lines[0]);
+      assertEquals("{\"accepted\":50000,\"rounds\":50,\"version\":150,\"done\":true}", lines[lines.length - 1]);
+   }
+
+   @Test
+   public void resultsOfARoundMaySpanSeveralBatches() throws IOException {
+      String results = "{\"round\":1,\"white\":1,\"black\":2,\"result\":1}\n"
+            + "\n"
+            + "{\"round\":1,\"white\":3,\"black\":4,\"result\":0.5}\n"
+            + "{\"round\":2,\"white\":1,\"black\":3,\"result\":0}";
+      ByteArrayOutputStream acks = new ByteArrayOutputStream();
+
+      assertEquals(3, new ResultStreamIngester(registry, "relay", 1).ingest(input(results), acks));
+
+      TournamentSnapshot snapshot = registry.getSnapshot("relay");
+      assertEquals(2, snapshot.getRoundCount());
+      assertEquals(3, snapshot.getGameCount());
+      assertTrue(acks.toString("UTF-8").endsWith("\"done\":true}\n"));
+   }
+
+   @Test
+   public void errorEndsTheStreamAndKeepsTheAppliedBatches() throws IOException {
+      String results = "{\"round\":1,\"white\":1,\"black\":2,\"result\":1}\n"
+            + "{\"round\":2,\"white\":1,\"black\":3,\"result\":1}\n"
+            + "{\"round\":2,\"white\":3,\"black\":4,\"result\":1}\n"
+            + "{\"round\":3,\"white\":1,\"black\":3,\"result\":1}\n";
+      ByteArrayOutputStream acks = new ByteArrayOutputStream();
+
+      assertEquals(1, new ResultStreamIngester(registry, "relay", 10).ingest(input(results), acks));
+
+      assertEquals(1, registry.getSnapshot("relay").getRoundCount());
+      String[] lines = acks.toString("UTF-8").split("\n");
+      assertEquals(2, lines.length);
+      assertTrue(lines[1], lines[1].contains("\"violations\":[\"Round 2, game 2: Player 3 is paired twice"));
+   }
+
+   @Test
+   public void malformedLineIsReported() throws IOException {
+      String results = "{\"round\":1,\"white\":1,\"black\":2,\"result\":1}\n{\"round\":1,\"white\":3,\n";
+      ByteArrayOutputStream acks = new ByteArrayOutputStream();
+
+      assertEquals(1, new ResultStreamIngester(registry, "relay", 10).ingest(input(results), acks));
+
+      assertTrue(acks.toString("UTF-8"), acks.toString("UTF-8").contains("\"error\":\"Line 2: "));
+   }
+
+   private static ByteArrayInputStream input(String results) {
+      return new ByteArrayInputStream(results.getBytes(StandardCharsets.UTF_8));
+   }
+}
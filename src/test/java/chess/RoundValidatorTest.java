@@ -0,0 +1,124 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import chess.models.InvalidRoundException;
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.RoundValidator;
+import chess.models.RoundViolation;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RoundValidatorTest {
+
+   @Test
+   public void validRoundHasNoViolation() {
+      RoundValidator validator = new RoundValidator(new int[]{10, 11, 12, 13});
+      List<GameRecord> games = Arrays.asList(new GameRecord(10, 11, 1), new GameRecord(12, 13, 0.5));
+
+      assertTrue(validate(validator, games).isEmpty());
+   }
+
+   @Test
+   public void everyViolationOfARoundIsReported() {
+      RoundValidator validator = new RoundValidator(new int[]{1, 2, 3, 4, 5});
+      List<GameRecord> games = Arrays.asList(
+            new GameRecord(1, 2, 1),
+            new GameRecord(3, 3, 0),
+            new GameRecord(2, 4, 0.25),
+            new GameRecord(5, 99, 1));
+
+      List<RoundViolation> violations = validate(validator, games);
+
+      assertEquals(4, violations.size());
+      assertViolation(violations.get(0), RoundViolation.Kind.SELF_PAIRING, 1, 3);
+      assertViolation(violations.get(1), RoundViolation.Kind.PAIRED_TWICE, 2, 2);
+      assertViolation(violations.get(2), RoundViolation.Kind.INVALID_RESULT, 2, 2);
+      assertViolation(violations.get(3), RoundViolation.Kind.UNKNOWN_PLAYER, 3, 99);
+      assertEquals("Round 3, game 4: Player 99 is not registered", violations.get(3).getMessage());
+   }
+
+   @Test
+   public void roundsAreValidatedIndependently() {
+      RoundValidator validator = new RoundValidator(new int[]{1, 2});
+      List<List<GameRecord>> rounds = Arrays.asList(
+            Collections.singletonList(new GameRecord(1, 2, 1)),
+            Arrays.asList(new GameRecord(2, 1, 0), new GameRecord(1, 2, 0.5)));
+
+      List<RoundViolation> violations = validator.validateRounds(0, rounds, GameRecord::getWhiteId,
+            GameRecord::getBlackId, GameRecord::getResult);
+
+      assertEquals(2, violations.size());
+      assertEquals(1, violations.get(0).getRound());
+      assertEquals(1, violations.get(0).getGame());
+   }
+
+   @Test
+   public void sparseIdsAreIndexed() {
+      int[] ids = {Integer.MIN_VALUE, -7, 0, 1_000_000, Integer.MAX_VALUE};
+      RoundValidator validator = new RoundValidator(ids);
+      for (int i = 0; i < ids.length; i++) {
+         assertEquals(i, validator.indexOf(ids[i]));
+      }
+      assertEquals(-1, validator.indexOf(1));
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void duplicateRegistrationIsRejected() {
+      new RoundValidator(new int[]{1, 2, 1});
+   }
+
+   @Test
+   public void tournamentRejectsRoundsWithPlayersFromElsewhere() {
+      Player registered = new Player("Doe", "John", 1500);
+      Player other = new Player("Roe", "Jane", 1500);
+      Tournament tournament = new Tournament(new ArrayList<>(Collections.singletonList(registered)));
+      Round round = new Round();
+      round.addGame(registered, other, 1);
+      try {
+         tournament.addRound(round);
+         fail("The round should be rejected");
+      } catch (InvalidRoundException e) {
+         assertEquals(1, e.getViolations().size());
+         assertEquals(RoundViolation.Kind.UNKNOWN_PLAYER, e.getViolations().get(0).getKind());
+      }
+      assertTrue(tournament.getRounds().isEmpty());
+   }
+
+   @Test
+   public void largeRoundIsValidatedInOnePass() {
+      int players = 100_000;
+      int[] ids = new int[players];
+      List<GameRecord> games = new ArrayList<>(players / 2);
+      for (int i = 0; i < players; i++) {
+         ids[i] = 3 * i + 1;
+      }
+      for (int i = 0; i < players; i += 2) {
+         games.add(new GameRecord(ids[i], ids[i + 1], (i / 2 % 3) / 2.0));
+      }
+      RoundValidator validator = new RoundValidator(ids);
+
+      assertTrue(validate(validator, games).isEmpty());
+   }
+
+   private static List<RoundViolation> validate(RoundValidator validator, List<GameRecord> games) {
+      return validator.validateRound(2, games, GameRecord::getWhiteId, GameRecord::getBlackId,
+            GameRecord::getResult);
+   }
+
+   private static void assertViolation(RoundViolation violation, RoundViolation.Kind kind, int game, int playerId) {
+      assertEquals(kind, violation.getKind());
+      assertEquals(game, violation.getGame());
+      assertEquals(playerId, violation.getPlayerId());
+   }
+}
@@ -0,0 +1,211 @@
+package chess;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import chess.models.Player;
+import chess.models.Round;
+import chess.models.Tournament;
+import chess.rating.GameRecord;
+import chess.rating.RatedEvent;
+import chess.shard.ConsistentHashRing;
+import chess.shard.ShardCoordinator;
+import chess.shard.ShardNode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShardCoordinatorTest {
+
+   private final List<ShardNode> nodes = new ArrayList<>();
+   private ShardCoordinator coordinator;
+
+   @After
+   public void tearDown() throws IOException {
+      if (coordinator != null) {
+         coordinator.close();
+      }
+      for (ShardNode node : nodes) {
+         node.close();
+      }
+   }
+
+   private ShardNode startNode() throws IOException {
+      ShardNode node = ShardNode.start(0);
+      nodes.add(node);
+      return node;
+   }
+
+   private static List<Player> players(int count) {
+      List<Player> players = new ArrayList<>();
+      for (int id = 1; id <= count; id++) {
+         Player player = new Player("Doe", "John" + id, 1200 + 7 * id);
+         player.setId(id);
+         players.add(player);
+      }
+      return players;
+   }
+
+   @Test
+   public void ringSpreadsIdsAndMovesFewOnAdd() {
+      ConsistentHashRing<String> ring = new ConsistentHashRing<>();
+      for (int i = 0; i < 4; i++) {
+         ring.add("node" + i, "node" + i);
+      }
+      Map<String, Integer> counts = new HashMap<>();
+      String[] before = new String[100000];
+      for (int id = 0; id < before.length; id++) {
+         before[id] = ring.nodeFor(id);
+         counts.merge(before[id], 1, Integer::sum);
+      }
+      for (int count : counts.values()) {
+         assertTrue("count " + count, Math.abs(count - 25000) < 3000);
+      }
+
+      ring.add("node4", "node4");
+      int moved = 0;
+      for (int id = 0; id < before.length; id++) {
+         String owner = ring.nodeFor(id);
+         if (!owner.equals(before[id])) {
+            assertEquals("node4", owner);
+            moved++;
+         }
+      }
+      assertTrue("moved " + moved, moved > 15000 && moved < 25000);
+   }
+
+   @Test
+   public void ratesTournamentAcrossShardsLikeALocalTournament() throws IOException {
+      coordinator = new ShardCoordinator();
+      for (int i = 0; i < 3; i++) {
+         coordinator.addNode(startNode().getAddress());
+      }
+      coordinator.putPlayers(players(30));
+
+      List<List<GameRecord>> rounds = new ArrayList<>();
+      for (int r = 0; r < 4; r++) {
+         List<GameRecord> round = new ArrayList<>();
+         for (int i = 1; i <= 10; i += 2) {
+            round.add(new GameRecord(i, i + 1 + 2 * r, (i + r) % 3 == 0 ? 0.5 : (i % 4 == 1 ? 1 : 0)));
+         }
+         rounds.add(round);
+      }
+      RatedEvent event = new RatedEvent(rounds);
+      coordinator.rate(event);
+
+      Map<Integer, Player> local = new HashMap<>();
+      List<Player> participants = new ArrayList<>();
+      for (int id : event.getParticipantIds()) {
+         Player player = players(30).get(id - 1);
+         local.put(id, player);
+         participants.add(player);
+      }
+      Tournament tournament = new Tournament(participants);
+      for (List<GameRecord> games : rounds) {
+         Round round = new Round();
+         games.forEach(g -> round.addGame(local.get(g.getWhiteId()), local.get(g.getBlackId()), g.getResult()));
+         tournament.addRound(round);
+      }
+      tournament.computeTournamentRatings();
+
+      Map<Integer, Player> stored = coordinator.getPlayers(IntStream.rangeClosed(1, 30).toArray());
+      assertEquals(30, stored.size());
+      for (int id = 1; id <= 30; id++) {
+         double expected = local.containsKey(id) ? local.get(id).getRating() : 1200 + 7 * id;
+         assertEquals(expected, stored.get(id).getRating(), 0);
+      }
+      int total = nodes.stream().mapToInt(ShardNode::size).sum();
+      assertEquals(30, total);
+   }
+
+   @Test
+   public void addingNodesRebalancesWithoutLosingPlayers() throws IOException {
+      coordinator = new ShardCoordinator();
+      coordinator.addNode(startNode().getAddress());
+      coordinator.putPlayers(players(2000));
+      assertEquals(2000, nodes.get(0).size());
+
+      int moved = coordinator.addNode(startNode().getAddress());
+      assertEquals(nodes.get(1).size(), moved);
+      assertTrue("moved " + moved, moved > 600 && moved < 1400);
+      moved = coordinator.addNode(startNode().getAddress());
+      assertEquals(nodes.get(2).size(), moved);
+
+      assertEquals(2000, nodes.stream().mapToInt(ShardNode::size).sum());
+      Map<Integer, Player> stored = coordinator.getPlayers(IntStream.rangeClosed(1, 2000).toArray());
+      assertEquals(2000, stored.size());
+      assertEquals(1200 + 7 * 1500, stored.get(1500).getRating(), 0);
+   }
+
+   @Test
+   public void failedMoveLeavesThePlayersOnTheirNode() throws IOException {
+      coordinator = new ShardCoordinator();
+      coordinator.addNode(startNode().getAddress());
+      coordinator.putPlayers(players(2000));
+      ShardNode unreachable = ShardNode.start(0);
+      unreachable.close();
+
+      try {
+         coordinator.addNode(unreachable.getAddress());
+         fail();
+      } catch (IOException expected) {
+      }
+      assertEquals(1, coordinator.getNodeCount());
+      assertEquals(2000, nodes.get(0).size());
+      Map<Integer, Player> stored = coordinator.getPlayers(IntStream.rangeClosed(1, 2000).toArray());
+      assertEquals(2000, stored.size());
+
+      int moved = coordinator.addNode(startNode().getAddress());
+      assertEquals(nodes.get(1).size(), moved);
+      assertEquals(2000, nodes.stream().mapToInt(ShardNode::size).sum());
+   }
+
+   @Test
+   public void rejectsDuplicateNode() throws IOException {
+      coordinator = new ShardCoordinator();
+      ShardNode node = startNode();
+      coordinator.addNode(node.getAddress());
+      coordinator.putPlayers(players(10));
+
+      try {
+         coordinator.addNode(node.getAddress());
+         fail();
+      } catch (IllegalStateException expected) {
+      }
+      assertEquals(1, coordinator.getNodeCount());
+      assertEquals(10, coordinator.getPlayers(IntStream.rangeClosed(1, 10).toArray()).size());
+   }
+
+   @Test
+   public void playersWithoutNamesAreStored() throws IOException {
+      coordinator = new ShardCoordinator();
+      coordinator.addNode(startNode().getAddress());
+      Player player = new Player(null, null, 1500);
+      player.setId(1);
+      coordinator.putPlayers(Collections.singletonList(player));
+
+      Player stored = coordinator.getPlayers(new int[]{1}).get(1);
+      assertNull(stored.getLastName());
+      assertNull(stored.getFirstName());
+      assertEquals(1500, stored.getRating(), 0);
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void rejectsUnknownParticipant() throws IOException {
+      coordinator = new ShardCoordinator();
+      coordinator.addNode(startNode().getAddress());
+      coordinator.putPlayers(players(2));
+      coordinator.rate(new RatedEvent(Collections.singletonList(Arrays.asList(new GameRecord(1, 3, 1)))));
+   }
+}
@@ -0,0 +1,165 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import chess.admission.AdmissionController;
+import chess.models.Player;
+import chess.rating.GameRecord;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+import chess.tenant.RequestMetrics;
+import chess.tenant.Tenant;
+import chess.tenant.TenantDirectory;
+import chess.tenant.TenantQuotaExceededException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TenantTest {
+
+   @Test
+   public void tournamentsAreBoundedByTheHeapQuota() {
+      Tenant tenant = tenant("quebec", 1, Tenant.footprint(4) + Tenant.footprint(2));
+      tenant.register("first", players(4));
+
+      try {
+         tenant.register("second", players(4));
+         fail("The quota should be exceeded");
+      } catch (TenantQuotaExceededException expected) {
+         assertEquals(Tenant.footprint(4), tenant.getReservedHeap());
+      }
+
+      assertTrue(tenant.remove("first"));
+      assertFalse(tenant.remove("first"));
+      assertEquals(0, tenant.getReservedHeap());
+      tenant.register("second", players(4));
+   }
+
+   @Test
+   public void rejectedRegistrationReleasesItsQuota() {
+      Tenant tenant = tenant("quebec", 1, Tenant.footprint(4));
+      tenant.register("first", players(2));
+
+      try {
+         tenant.register("first", players(2));
+         fail("The id is already registered");
+      } catch (IllegalStateException expected) {
+         assertEquals(Tenant.footprint(2), tenant.getReservedHeap());
+      }
+   }
+
+   @Test
+   public void busyTenantDoesNotDelayTheOthers() throws Exception {
+      ThreadPoolExecutor noisyExecutor = Tenant.newExecutor("noisy", 1);
+      Tenant noisy = tenant("noisy", noisyExecutor, Long.MAX_VALUE);
+      Tenant quiet = tenant("quiet", 1, Long.MAX_VALUE);
+      noisy.register("batch", players(4));
+      quiet.register("live", players(4));
+
+      // Occupies the only thread of the noisy tenant, as a long rating would.
+      CountDownLatch release = new CountDownLatch(1);
+      noisyExecutor.execute(() -> awaitQuietly(release));
+      CompletableFuture<TournamentSnapshot> queued = noisy.getRegistry().addRound("batch", round());
+      try {
+         TournamentSnapshot live = quiet.getRegistry().addRound("live", round()).get(10, TimeUnit.SECONDS);
+         assertEquals(1, live.getVersion());
+         assertFalse(queued.isDone());
+      } finally {
+         release.countDown();
+      }
+      assertEquals(1, queued.get(10, TimeUnit.SECONDS).getVersion());
+   }
+
+   @Test
+   public void requestsAreRoutedByTenantId() {
+      Tenant defaultTenant = tenant(TenantDirectory.DEFAULT_TENANT, 1, Long.MAX_VALUE);
+      Tenant quebec = tenant("quebec", 1, Long.MAX_VALUE);
+      TenantDirectory tenants = new TenantDirectory(Arrays.asList(defaultTenant, quebec));
+
+      assertSame(defaultTenant, tenants.resolve(null));
+      assertSame(defaultTenant, tenants.resolve(""));
+      assertSame(quebec, tenants.resolve("quebec"));
+      assertNull(tenants.find("ontario"));
+      try {
+         tenants.resolve("ontario");
+         fail("The tenant is not configured");
+      } catch (NoSuchElementException expected) {
+      }
+   }
+
+   @Test
+   public void tenantIdsAreParsed() {
+      assertEquals(Arrays.asList("default", "quebec", "ontario"),
+            new ArrayList<>(TenantDirectory.parseIds(" quebec,,ontario,quebec ")));
+      assertEquals(Collections.singletonList("default"), new ArrayList<>(TenantDirectory.parseIds(null)));
+      try {
+         TenantDirectory.parseIds("../etc");
+         fail("The id is invalid");
+      } catch (IllegalArgumentException expected) {
+      }
+   }
+
+   @Test
+   public void requestMetricsReportPercentilesAndErrors() {
+      RequestMetrics metrics = new RequestMetrics();
+      for (int i = 0; i < 99; i++) {
+         metrics.record(TimeUnit.MICROSECONDS.toNanos(100), 200);
+      }
+      metrics.record(TimeUnit.MILLISECONDS.toNanos(50), 500);
+      metrics.record(TimeUnit.MICROSECONDS.toNanos(10), 429);
+
+      assertEquals(101L, metrics.getMetrics().get("requests"));
+      assertEquals(1L, metrics.getMetrics().get("serverErrors"));
+      assertEquals(1L, metrics.getMetrics().get("rejected"));
+      assertEquals(0.128, metrics.getPercentileMillis(0.5), 0);
+      assertEquals(0.128, metrics.getPercentileMillis(0.98), 0);
+      assertEquals(65.536, metrics.getPercentileMillis(1), 0);
+      assertEquals(50.0, metrics.getMetrics().get("maxMillis"));
+      assertEquals(101 / 60.0, metrics.getRequestsPerSecond(), 1e-9);
+   }
+
+   private static Tenant tenant(String id, int threads, long heapQuota) {
+      return tenant(id, Tenant.newExecutor(id, threads), heapQuota);
+   }
+
+   private static Tenant tenant(String id, ThreadPoolExecutor executor, long heapQuota) {
+      return new Tenant(id, executor, new TournamentRegistry(executor), null, new AdmissionController(1000, 1, 1),
+            heapQuota);
+   }
+
+   private static List<Player> players(int count) {
+      List<Player> players = new ArrayList<>();
+      for (int i = 1; i <= count; i++) {
+         Player player = new Player("Doe", "Player" + i, 1500 + 10 * i);
+         player.setId(i);
+         players.add(player);
+      }
+      return players;
+   }
+
+   private static List<GameRecord> round() {
+      return Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5));
+   }
+
+   private static void awaitQuietly(CountDownLatch latch) {
+      try {
+         latch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
@@ -0,0 +1,290 @@
+package chess;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.models.Crosstable;
+import chess.models.Player;
+import chess.rating.GameRecord;
+import chess.registry.PlayerSnapshot;
+import chess.registry.TournamentJournal;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TournamentJournalTest {
+
+   private Path file;
+   private ExecutorService executor;
+
+   @Before
+   public void setUp() throws Exception {
+      file = Files.createTempFile("tournaments", ".wal");
+      executor = TournamentRegistry.defaultExecutor();
+   }
+
+   @After
+   public void tearDown() throws Exception {
+      executor.shutdownNow();
+      Files.deleteIfExists(file);
+   }
+
+   @Test
+   public void tournamentsInProgressSurviveRestart() throws Exception {
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         registry.register("weekend-open", roster());
+         registry.addRound("weekend-open", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5)));
+         registry.addRound("weekend-open", Arrays.asList(new GameRecord(1, 3, 0))).join();
+      }
+
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         TournamentSnapshot recovered = registry.getSnapshot("weekend-open");
+         assertEquals(2, recovered.getRoundCount());
+         assertEquals(3, recovered.getGameCount());
+
+         TournamentSnapshot rated = registry.rate("weekend-open").join();
+         assertEquals(3, rated.getStanding().get(0).getId());
+      }
+   }
+
+   @Test
+   public void ratedTournamentsSurviveCompactionAndRestart() throws Exception {
+      TournamentSnapshot rated;
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         registry.register("rated", roster());
+         registry.register("pending", roster());
+         registry.addRound("rated", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5)));
+         registry.addRound("rated", Arrays.asList(new GameRecord(1, 3, 0), new GameRecord(2, 4, 1)));
+         registry.addRound("pending", Arrays.asList(new GameRecord(3, 4, 1))).join();
+         rated = registry.rate("rated").join();
+         journal.compact().join();
+      }
+
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         TournamentSnapshot recovered = registry.getSnapshot("rated");
+         assertTrue(recovered.isRated());
+         assertEquals(2, recovered.getRoundCount());
+         for (int i = 0; i < rated.getStanding().size(); i++) {
+            PlayerSnapshot expected = rated.getStanding().get(i);
+            PlayerSnapshot actual = recovered.getStanding().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getRating(), actual.getRating(), 0);
+            assertEquals(expected.getOldRating(), actual.getOldRating(), 0);
+            assertEquals(expected.getScore(), actual.getScore(), 0);
+         }
+         assertPublished(rated, registry.getRecoveredRatings());
+         assertEquals(1, registry.getSnapshot("pending").getRoundCount());
+      }
+   }
+
+   @Test
+   public void removedTournamentsAreCompactedOutOfTheLog() throws Exception {
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         registry.register("removed", roster());
+         registry.register("pending", roster());
+         registry.addRound("removed", Arrays.asList(new GameRecord(1, 2, 1)));
+         registry.addRound("pending", Arrays.asList(new GameRecord(3, 4, 1))).join();
+         long before = journal.size();
+         assertTrue(registry.remove("removed"));
+         assertFalse(registry.remove("removed"));
+
+         journal.compact().join();
+         assertTrue(journal.size() < before);
+      }
+
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         assertNull(registry.getSnapshot("removed"));
+         assertEquals(1, registry.getSnapshot("pending").getRoundCount());
+      }
+   }
+
+   @Test
+   public void removedRatedTournamentsLeaveOnlyTheirRatings() throws Exception {
+      long compactedSize = 0;
+      TournamentSnapshot last = null;
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         for (int t = 0; t < 20; t++) {
+            registry.register("weekly", roster());
+            registry.addRound("weekly", Arrays.asList(new GameRecord(1 + t % 4, 1 + (t + 1) % 4, 1),
+                  new GameRecord(1 + (t + 2) % 4, 1 + (t + 3) % 4, 0.5)));
+            last = registry.rate("weekly").join();
+            assertTrue(registry.remove("weekly"));
+            journal.compact().join();
+            if (t == 0) {
+               compactedSize = journal.size();
+            }
+         }
+         // The log holds the checkpoint of the four players only, whatever the number of tournaments.
+         assertEquals(compactedSize, journal.size());
+      }
+
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         assertTrue(registry.getIds().isEmpty());
+         assertPublished(last, registry.getRecoveredRatings());
+      }
+   }
+
+   @Test
+   public void checkpointKeepsTheLastPublishedRatings() throws Exception {
+      TournamentSnapshot later;
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         registry.register("earlier", roster());
+         registry.addRound("earlier", Arrays.asList(new GameRecord(1, 2, 0), new GameRecord(3, 4, 1)));
+         registry.rate("earlier").join();
+         registry.register("later", roster());
+         registry.addRound("later", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0)));
+         later = registry.rate("later").join();
+         assertTrue(registry.remove("later"));
+         journal.compact().join();
+      }
+
+      for (int restart = 0; restart < 2; restart++) {
+         try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+            TournamentRegistry registry = new TournamentRegistry(executor, journal);
+            // The earlier tournament is kept since it is not removed, but its ratings were replaced by the later one.
+            assertTrue(registry.getSnapshot("earlier").isRated());
+            assertPublished(later, registry.getRecoveredRatings());
+            journal.compact().join();
+         }
+      }
+   }
+
+   @Test
+   public void removedIdCanBeRegisteredAgain() throws Exception {
+      TournamentSnapshot rated;
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         registry.register("open", roster());
+         registry.addRound("open", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0)));
+         rated = registry.rate("open").join();
+         assertTrue(registry.remove("open"));
+         registry.register("open", roster().subList(0, 2));
+         registry.addRound("open", Arrays.asList(new GameRecord(2, 1, 0.5))).join();
+      }
+
+      for (int restart = 0; restart < 2; restart++) {
+         try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+            TournamentRegistry registry = new TournamentRegistry(executor, journal);
+            TournamentSnapshot recovered = registry.getSnapshot("open");
+            assertFalse(recovered.isRated());
+            assertEquals(2, recovered.getStanding().size());
+            assertEquals(1, recovered.getRoundCount());
+            // The ratings published by the removed tournament are kept.
+            assertPublished(rated, registry.getRecoveredRatings());
+            journal.compact().join();
+         }
+      }
+   }
+
+   @Test
+   public void crosstableWaitsForTheLastMutationToBeDurable() throws Exception {
+      try (TournamentJournal journal = new TournamentJournal(file, 200_000)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         registry.register("pending", roster());
+         CompletableFuture<TournamentSnapshot> round = registry.addRound("pending",
+               Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5)));
+
+         Crosstable crosstable = registry.getCrosstable("pending").join();
+         assertTrue(round.isDone());
+         assertEquals(1, crosstable.getRoundCount());
+         assertSame(crosstable, registry.getCrosstable("pending").join());
+      }
+   }
+
+   @Test
+   public void onlyTheAcceptedRegistrationIsLogged() throws Exception {
+      int contenders = 8;
+      int size = 0;
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         CountDownLatch start = new CountDownLatch(1);
+         List<CompletableFuture<Integer>> registrations = new ArrayList<>();
+         for (int c = 0; c < contenders; c++) {
+            List<Player> players = roster().subList(0, 2 + c % 3);
+            registrations.add(CompletableFuture.supplyAsync(() -> {
+               awaitQuietly(start);
+               registry.register("open", players);
+               return players.size();
+            }));
+         }
+         start.countDown();
+         int accepted = 0;
+         for (CompletableFuture<Integer> registration : registrations) {
+            try {
+               size = registration.join();
+               accepted++;
+            } catch (CompletionException e) {
+               assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+         }
+         assertEquals(1, accepted);
+         assertEquals(size, registry.getSnapshot("open").getStanding().size());
+      }
+
+      try (TournamentJournal journal = new TournamentJournal(file, 200)) {
+         TournamentRegistry registry = new TournamentRegistry(executor, journal);
+         assertEquals(size, registry.getSnapshot("open").getStanding().size());
+         registry.addRound("open", Arrays.asList(new GameRecord(1, 2, 1))).join();
+      }
+   }
+
+   private static void assertPublished(TournamentSnapshot rated, List<Player> recovered) {
+      Map<Integer, Player> byId = new HashMap<>();
+      recovered.forEach(player -> byId.put(player.getId(), player));
+      assertEquals(rated.getStanding().size(), byId.size());
+      for (PlayerSnapshot expected : rated.getStanding()) {
+         Player actual = byId.get(expected.getId());
+         assertEquals(expected.getRating(), actual.getRating(), 0);
+         assertEquals(expected.getOldRating(), actual.getOldRating(), 0);
+         assertEquals(expected.isRatingPermanent(), actual.isRatingPermanent());
+         assertEquals(expected.getUnratedGamesPlayed(), actual.getUnratedGamesPlayed());
+         assertEquals(expected.getLastName(), actual.getLastName());
+      }
+   }
+
+   private static void awaitQuietly(CountDownLatch latch) {
+      try {
+         latch.await();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private static List<Player> roster() {
+      List<Player> players = new ArrayList<>();
+      double[] ratings = {1800, 1600, 1500, 1400};
+      for (int i = 0; i < ratings.length; i++) {
+         Player player = new Player("Doe", "Player" + (i + 1), ratings[i]);
+         player.setId(i + 1);
+         players.add(player);
+      }
+      return players;
+   }
+}
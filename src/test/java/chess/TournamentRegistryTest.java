@@ -0,0 +1,118 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.models.InvalidRoundException;
+import chess.models.Player;
+import chess.rating.GameRecord;
+import chess.registry.TournamentRegistry;
+import chess.registry.TournamentSnapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TournamentRegistryTest {
+
+   private ExecutorService executor;
+   private TournamentRegistry registry;
+
+   @Before
+   public void setUp() {
+      executor = Executors.newFixedThreadPool(4);
+      registry = new TournamentRegistry(executor);
+   }
+
+   @After
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   @Test
+   public void concurrentTournamentsAreRatedIndependently() throws Exception {
+      List<CompletableFuture<TournamentSnapshot>> rated = new ArrayList<>();
+      for (int t = 0; t < 50; t++) {
+         String id = "event-" + t;
+         registry.register(id, roster());
+         for (int r = 0; r < 5; r++) {
+            registry.addRound(id, Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 4, 0.5)));
+         }
+         rated.add(registry.rate(id));
+      }
+
+      for (CompletableFuture<TournamentSnapshot> future : rated) {
+         TournamentSnapshot snapshot = future.get(10, TimeUnit.SECONDS);
+         assertTrue(snapshot.isRated());
+         assertEquals(6, snapshot.getVersion());
+         assertEquals(5, snapshot.getRoundCount());
+         assertEquals(10, snapshot.getGameCount());
+         assertEquals(1, snapshot.getStanding().get(0).getId());
+         assertEquals(5, snapshot.getStanding().get(0).getWins());
+      }
+      assertEquals(50, registry.getIds().size());
+   }
+
+   @Test
+   public void readersSeePublishedSnapshots() throws Exception {
+      TournamentSnapshot initial = registry.register("open", roster());
+      assertEquals(0, initial.getVersion());
+      assertFalse(initial.isRated());
+
+      TournamentSnapshot afterRound = registry.addRound("open", Arrays.asList(new GameRecord(1, 2, 0))).get();
+      assertEquals(1, afterRound.getRoundCount());
+      assertEquals(0, initial.getRoundCount());
+      assertEquals(afterRound.getVersion(), registry.getSnapshot("open").getVersion());
+   }
+
+   @Test
+   public void rejectedMutationsLeaveTournamentUnchanged() throws Exception {
+      registry.register("closed", roster());
+      assertFailsWith(InvalidRoundException.class,
+            registry.addRound("closed", Arrays.asList(new GameRecord(1, 2, 1), new GameRecord(3, 99, 1))));
+      assertEquals(0, registry.getSnapshot("closed").getRoundCount());
+
+      registry.addRound("closed", Arrays.asList(new GameRecord(1, 2, 1)));
+      registry.rate("closed").get();
+      assertFailsWith(IllegalStateException.class, registry.rate("closed"));
+      assertFailsWith(IllegalStateException.class, registry.addRound("closed", Arrays.asList(new GameRecord(1, 2, 1))));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void duplicateTournamentId() {
+      registry.register("dup", roster());
+      registry.register("dup", roster());
+   }
+
+   private static void assertFailsWith(Class<? extends Throwable> expected, CompletableFuture<?> future)
+         throws InterruptedException {
+      try {
+         future.get();
+         fail("Expected " + expected.getSimpleName());
+      } catch (ExecutionException e) {
+         assertEquals(expected, e.getCause().getClass());
+      }
+   }
+
+   private static List<Player> roster() {
+      List<Player> players = new ArrayList<>();
+      double[] ratings = {1800, 1600, 1500, 1400};
+      for (int i = 0; i < ratings.length; i++) {
+         Player player = new Player("Doe", "Player" + (i + 1), ratings[i]);
+         player.setId(i + 1);
+         players.add(player);
+      }
+      return players;
+   }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WarmUpTest {
+
+   @Test
+   public void stopsAtTheIterationBudget() {
+      WarmUp warmUp = new WarmUp(60_000, 20);
+      assertFalse(warmUp.isReady());
+      warmUp.run();
+      assertTrue(warmUp.isReady());
+      assertEquals(20, warmUp.getCompletedIterations());
+   }
+
+   @Test
+   public void stopsAtTheTimeBudget() throws InterruptedException {
+      WarmUp warmUp = new WarmUp(50, Integer.MAX_VALUE);
+      warmUp.start();
+      assertTrue(warmUp.await(10, TimeUnit.SECONDS));
+      assertTrue(warmUp.getCompletedIterations() > 0);
+   }
+
+   @Test
+   public void readinessIsReportedOnceWarm() {
+      WarmUp warmUp = new WarmUp(0, 0);
+      HealthService health = new HealthService(warmUp);
+      assertEquals(503, health.ready().getStatus());
+
+      warmUp.run();
+      Response ready = health.ready();
+      assertEquals(200, ready.getStatus());
+      assertEquals(Boolean.TRUE, ((Map<?, ?>) ready.getEntity()).get("ready"));
+      assertEquals(0, warmUp.getCompletedIterations());
+   }
+}
@@ -0,0 +1,117 @@
+package chess;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import chess.models.Player;
+import chess.server.ChessServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WireFormatTest {
+
+   private static ChessServer server;
+
+   @BeforeClass
+   public static void startServer() {
+      server = ChessServer.start(0);
+   }
+
+   @AfterClass
+   public static void stopServer() {
+      server.stop();
+   }
+
+   private static HttpURLConnection get(String path, String accept) throws IOException {
+      HttpURLConnection connection = (HttpURLConnection) new URL(server.getBaseUri().toURL(), path).openConnection();
+      connection.setRequestProperty("Accept", accept);
+      return connection;
+   }
+
+   private static JsonNode read(HttpURLConnection connection, ObjectMapper mapper) throws IOException {
+      try (InputStream body = connection.getInputStream()) {
+         assertEquals(200, connection.getResponseCode());
+         return mapper.readTree("gzip".equals(connection.getContentEncoding()) ? new GZIPInputStream(body) : body);
+      } finally {
+         connection.disconnect();
+      }
+   }
+
+   private static List<Player> players(int count) {
+      List<Player> players = new ArrayList<>();
+      for (int id = 1; id <= count; id++) {
+         Player player = new Player("Doe", "John" + id, 1000 + id);
+         player.setId(id);
+         players.add(player);
+      }
+      return players;
+   }
+
+   @Test
+   public void binaryFormatsCarryTheSameDocumentAsJson() throws Exception {
+      List<Player> players = players(200);
+      ObjectMapper json = new ObjectMapper();
+      JsonNode expected = json.readTree(json.writeValueAsBytes(players));
+
+      ObjectMapper smile = new ObjectMapper(new SmileFactory());
+      ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+      assertEquals(expected, smile.readTree(smile.writeValueAsBytes(players)));
+      assertEquals(expected, cbor.readTree(cbor.writeValueAsBytes(players)));
+   }
+
+   @Test
+   public void smileIsSmallerThanJson() throws Exception {
+      List<Player> players = players(200);
+      int jsonSize = new ObjectMapper().writeValueAsBytes(players).length;
+      int smileSize = new ObjectMapper(new SmileFactory()).writeValueAsBytes(players).length;
+      assertTrue("smile " + smileSize + " json " + jsonSize, smileSize < jsonSize);
+   }
+
+   @Test
+   public void applicationNegotiatesTheBinaryFormats() throws Exception {
+      HttpURLConnection json = get("chess/players", MediaType.APPLICATION_JSON);
+      JsonNode expected = read(json, new ObjectMapper());
+      assertTrue(expected.isArray());
+
+      HttpURLConnection smile = get("chess/players", ChessMediaTypes.APPLICATION_SMILE);
+      JsonNode smileBody = read(smile, new ObjectMapper(new SmileFactory()));
+      assertEquals(ChessMediaTypes.APPLICATION_SMILE, smile.getContentType());
+      assertEquals(expected, smileBody);
+
+      HttpURLConnection cbor = get("chess/players", ChessMediaTypes.APPLICATION_CBOR);
+      JsonNode cborBody = read(cbor, new ObjectMapper(new CBORFactory()));
+      assertEquals(ChessMediaTypes.APPLICATION_CBOR, cbor.getContentType());
+      assertEquals(expected, cborBody);
+   }
+
+   @Test
+   public void applicationCompressesResponsesForGzipClients() throws Exception {
+      HttpURLConnection plain = get("chess/players", MediaType.APPLICATION_JSON);
+      JsonNode expected = read(plain, new ObjectMapper());
+      assertNull(plain.getContentEncoding());
+
+      HttpURLConnection gzip = get("chess/players", MediaType.APPLICATION_JSON);
+      gzip.setRequestProperty("Accept-Encoding", "gzip");
+      JsonNode body = read(gzip, new ObjectMapper());
+      assertEquals("gzip", gzip.getContentEncoding());
+      assertEquals(expected, body);
+   }
+}
@@ -0,0 +1,164 @@
+package chess;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chess.io.WriteAheadLog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WriteAheadLogTest {
+
+   private Path file;
+
+   @Before
+   public void setUp() throws Exception {
+      file = Files.createTempFile("chess", ".wal");
+   }
+
+   @After
+   public void tearDown() throws Exception {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".compact"));
+   }
+
+   @Test
+   public void concurrentAppendsAreDurableAndReplayed() throws Exception {
+      ExecutorService submitters = Executors.newFixedThreadPool(8);
+      try (WriteAheadLog log = new WriteAheadLog(file, 500)) {
+         List<Future<?>> done = new ArrayList<>();
+         for (int t = 0; t < 8; t++) {
+            int thread = t;
+            done.add(submitters.submit(() -> {
+               for (int i = 0; i < 200; i++) {
+                  log.append(("result " + thread + "-" + i).getBytes(StandardCharsets.UTF_8)).join();
+               }
+            }));
+         }
+         for (Future<?> future : done) {
+            future.get();
+         }
+      } finally {
+         submitters.shutdown();
+      }
+
+      try (WriteAheadLog reopened = new WriteAheadLog(file, 0)) {
+         List<String> records = read(reopened);
+         assertEquals(1600, records.size());
+         assertTrue(records.contains("result 7-199"));
+      }
+   }
+
+   @Test
+   public void tornRecordIsDiscarded() throws Exception {
+      try (WriteAheadLog log = new WriteAheadLog(file, 0)) {
+         log.append(bytes("first")).join();
+         log.append(bytes("second")).join();
+      }
+      long size = Files.size(file);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+         channel.truncate(size - 2);
+      }
+
+      try (WriteAheadLog log = new WriteAheadLog(file, 0)) {
+         List<String> records = read(log);
+         assertEquals(1, records.size());
+         log.append(bytes("third")).join();
+         assertEquals(2, read(log).size());
+         assertEquals("third", read(log).get(1));
+      }
+   }
+
+   @Test
+   public void compactionKeepsFilteredRecords() throws Exception {
+      try (WriteAheadLog log = new WriteAheadLog(file, 0)) {
+         List<CompletableFuture<Void>> appends = new ArrayList<>();
+         for (int i = 0; i < 100; i++) {
+            appends.add(log.append(bytes((i % 2 == 0 ? "keep " : "drop ") + i)));
+         }
+         appends.forEach(CompletableFuture::join);
+         long before = log.size();
+         log.compact(record -> StandardCharsets.UTF_8.decode(record).toString().startsWith("keep")).join();
+         assertTrue(log.size() < before);
+
+         log.append(bytes("keep after")).join();
+         List<String> records = read(log);
+         assertEquals(51, records.size());
+         assertEquals("keep after", records.get(50));
+      }
+   }
+
+   @Test
+   public void compactionCanDropRecordsMadeObsoleteByLaterOnes() throws Exception {
+      try (WriteAheadLog log = new WriteAheadLog(file, 0)) {
+         for (int i = 0; i < 30; i++) {
+            log.append(bytes("key" + i % 3 + "=" + i));
+         }
+         log.append(bytes("key0=last")).join();
+         Map<String, String> lastValues = new HashMap<>();
+         log.compact(record -> {
+            String[] entry = StandardCharsets.UTF_8.decode(record).toString().split("=");
+            lastValues.put(entry[0], entry[1]);
+         }, record -> {
+            String[] entry = StandardCharsets.UTF_8.decode(record).toString().split("=");
+            return entry[1].equals(lastValues.get(entry[0]));
+         }).join();
+
+         assertEquals(Arrays.asList("key1=28", "key2=29", "key0=last"), read(log));
+      }
+   }
+
+   @Test
+   public void failingCompactionLeavesTheLogWorking() throws Exception {
+      try (WriteAheadLog log = new WriteAheadLog(file, 0)) {
+         log.append(bytes("first")).join();
+         IllegalStateException error = new IllegalStateException("corrupted record");
+         CompletableFuture<Void> compaction = log.compact(record -> {
+            throw error;
+         }, record -> true);
+
+         try {
+            compaction.join();
+            fail("The compaction should fail");
+         } catch (CompletionException e) {
+            assertSame(error, e.getCause());
+         }
+         log.append(bytes("second")).get(10, TimeUnit.SECONDS);
+         log.compact(record -> !StandardCharsets.UTF_8.decode(record).toString().equals("first"))
+               .get(10, TimeUnit.SECONDS);
+         assertEquals(Arrays.asList("second"), read(log));
+      }
+   }
+
+   private static byte[] bytes(String value) {
+      return value.getBytes(StandardCharsets.UTF_8);
+   }
+
+   private static List<String> read(WriteAheadLog log) throws Exception {
+      List<String> records = new ArrayList<>();
+      log.replay(record -> records.add(StandardCharsets.UTF_8.decode(record).toString()));
+      return records;
+   }
+}
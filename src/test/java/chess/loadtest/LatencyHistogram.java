@@ -0,0 +1,94 @@
+package chess.loadtest;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds. Each power of two is split in 64 linear sub-buckets, which
+ * keeps the relative error of every recorded value under 2% with a fixed memory footprint. Not thread-safe: each
+ * load generator thread records in its own histogram, and the histograms are merged at the end of the run.
+ */
+public class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 6;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int BUCKETS = 64 - SUB_BUCKET_BITS;
+
+   private final long[] counts = new long[(BUCKETS + 1) * SUB_BUCKETS];
+   private long totalCount = 0;
+   private long max = 0;
+   private long min = Long.MAX_VALUE;
+   private double sum = 0;
+
+   public void record(long valueNanos) {
+      long value = Math.max(0, valueNanos);
+      counts[index(value)]++;
+      totalCount++;
+      sum += value;
+      max = Math.max(max, value);
+      min = Math.min(min, value);
+   }
+
+   public void merge(LatencyHistogram other) {
+      for (int i = 0; i < counts.length; i++) {
+         counts[i] += other.counts[i];
+      }
+      totalCount += other.totalCount;
+      sum += other.sum;
+      max = Math.max(max, other.max);
+      min = Math.min(min, other.min);
+   }
+
+   public long getCount() {
+      return totalCount;
+   }
+
+   public long getMax() {
+      return max;
+   }
+
+   public long getMin() {
+      return totalCount == 0 ? 0 : min;
+   }
+
+   public double getMean() {
+      return totalCount == 0 ? 0 : sum / totalCount;
+   }
+
+   /**
+    * Value at a given percentile, reported as the upper bound of the bucket containing it.
+    *
+    * @param percentile Percentile between 0 and 100, such as 99.9.
+    * @return The latency in nanoseconds.
+    */
+   public long getValueAtPercentile(double percentile) {
+      if (totalCount == 0) {
+         return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+         seen += counts[i];
+         if (seen >= rank) {
+            return Math.min(max, upperBound(i));
+         }
+      }
+      return max;
+   }
+
+   private static int index(long value) {
+      if (value < SUB_BUCKETS) {
+         return (int) value;
+      }
+      int highestBit = 63 - Long.numberOfLeadingZeros(value);
+      int bucket = highestBit - SUB_BUCKET_BITS + 1;
+      int subBucket = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+      return bucket * SUB_BUCKETS + subBucket;
+   }
+
+   private static long upperBound(int index) {
+      int bucket = index / SUB_BUCKETS;
+      int subBucket = index % SUB_BUCKETS;
+      if (bucket == 0) {
+         return subBucket;
+      }
+      return ((long) (SUB_BUCKETS + subBucket + 1) << (bucket - 1)) - 1;
+   }
+}
@@ -0,0 +1,262 @@
+package chess.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import chess.loadtest.LoadTestConfig.Operation;
+
+/**
+ * Drives a mixed workload against the REST service and records the latency of each operation.
+ * <p>
+ * In the open model, request {@code i} is due at {@code start + i / rate} whatever the state of the previous
+ * requests, and its latency is measured from that intended start time. A stalled service thus shows up in the
+ * percentiles instead of silently slowing down the load generator (coordinated omission). In the closed model,
+ * each thread sends its next request as soon as the previous one is answered, and latencies are service times.
+ */
+public class LoadGenerator {
+
+   /**
+    * Number of recently submitted tournaments whose standings are polled.
+    */
+   private static final int POLLED_TOURNAMENTS = 64;
+
+   private final LoadTestConfig config;
+
+   private final ConcurrentLinkedDeque<String> submittedTournaments = new ConcurrentLinkedDeque<>();
+
+   public LoadGenerator(LoadTestConfig config) {
+      this.config = config;
+   }
+
+   /**
+    * Runs the warm-up and the measured period.
+    *
+    * @return The report of the measured period.
+    * @throws InterruptedException Thrown if interrupted while waiting for the load generator threads.
+    */
+   public Map<String, Object> run() throws InterruptedException {
+      long start = System.nanoTime();
+      long measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+      long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+
+      List<Worker> workers = new ArrayList<>();
+      List<Thread> threads = new ArrayList<>();
+      for (int w = 0; w < config.threads; w++) {
+         Worker worker = new Worker(w, start, measureFrom, end);
+         Thread thread = new Thread(worker, "load-generator-" + w);
+         workers.add(worker);
+         threads.add(thread);
+         thread.start();
+      }
+      for (Thread thread : threads) {
+         thread.join();
+      }
+
+      Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+      Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+      LatencyHistogram all = new LatencyHistogram();
+      long allErrors = 0;
+      for (Operation operation : Operation.values()) {
+         histograms.put(operation, new LatencyHistogram());
+         errors.put(operation, 0L);
+      }
+      for (Worker worker : workers) {
+         for (Operation operation : Operation.values()) {
+            histograms.get(operation).merge(worker.histograms.get(operation));
+            errors.merge(operation, worker.errors.get(operation), Long::sum);
+            all.merge(worker.histograms.get(operation));
+            allErrors += worker.errors.get(operation);
+         }
+      }
+
+      Map<String, Object> report = new LinkedHashMap<>();
+      report.put("model", config.isOpenModel() ? "open" : "closed");
+      report.put("targetRate", config.rate);
+      report.put("threads", config.threads);
+      report.put("durationSeconds", config.durationSeconds);
+      report.put("warmupSeconds", config.warmupSeconds);
+      report.put("mix", config.mix);
+      report.put("throughput", all.getCount() / (double) config.durationSeconds);
+      report.put("all", summary(all, allErrors));
+      Map<String, Object> operations = new LinkedHashMap<>();
+      for (Operation operation : Operation.values()) {
+         operations.put(operation.name().toLowerCase(), summary(histograms.get(operation), errors.get(operation)));
+      }
+      report.put("operations", operations);
+      return report;
+   }
+
+   private static Map<String, Object> summary(LatencyHistogram histogram, long errors) {
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("count", histogram.getCount());
+      summary.put("errors", errors);
+      summary.put("meanMs", histogram.getMean() / 1e6);
+      summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1e6);
+      summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1e6);
+      summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1e6);
+      summary.put("maxMs", histogram.getMax() / 1e6);
+      return summary;
+   }
+
+   private final class Worker implements Runnable {
+
+      private final int index;
+      private final long start;
+      private final long measureFrom;
+      private final long end;
+      private final Random random;
+      private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+      private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+      private final int totalWeight;
+      private int submitted = 0;
+
+      Worker(int index, long start, long measureFrom, long end) {
+         this.index = index;
+         this.start = start;
+         this.measureFrom = measureFrom;
+         this.end = end;
+         this.random = new Random(index);
+         for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+            errors.put(operation, 0L);
+         }
+         this.totalWeight = config.mix.values().stream().mapToInt(Integer::intValue).sum();
+      }
+
+      @Override
+      public void run() {
+         long interval = config.isOpenModel() ? (long) (TimeUnit.SECONDS.toNanos(1) / config.rate) : 0;
+         for (long request = index; ; request += config.threads) {
+            long intendedStart;
+            if (config.isOpenModel()) {
+               intendedStart = start + request * interval;
+               if (intendedStart >= end) {
+                  return;
+               }
+               long wait = intendedStart - System.nanoTime();
+               if (wait > 0) {
+                  LockSupport.parkNanos(wait);
+               }
+            } else {
+               intendedStart = System.nanoTime();
+               if (intendedStart >= end) {
+                  return;
+               }
+            }
+
+            Operation operation = nextOperation();
+            boolean success;
+            try {
+               success = execute(operation);
+            } catch (IOException e) {
+               success = false;
+            }
+            if (intendedStart >= measureFrom) {
+               histograms.get(operation).record(System.nanoTime() - intendedStart);
+               if (!success) {
+                  errors.merge(operation, 1L, Long::sum);
+               }
+            }
+         }
+      }
+
+      private Operation nextOperation() {
+         int pick = random.nextInt(totalWeight);
+         for (Map.Entry<Operation, Integer> weight : config.mix.entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+               return weight.getKey();
+            }
+         }
+         return Operation.PLAYERS;
+      }
+
+      private boolean execute(Operation operation) throws IOException {
+         switch (operation) {
+            case SUBMIT:
+               String id = "load-" + index + "-" + submitted++;
+               boolean created = send("POST", "chess/tournaments?rate=true", tournamentJson(id)) == 201;
+               if (created) {
+                  submittedTournaments.addFirst(id);
+                  if (submittedTournaments.size() > POLLED_TOURNAMENTS) {
+                     submittedTournaments.pollLast();
+                  }
+               }
+               return created;
+            case STANDINGS:
+               String polled = submittedTournaments.peekFirst();
+               if (polled != null) {
+                  return send("GET", "chess/tournaments/" + polled, null) == 200;
+               }
+               return send("GET", "chess/players", null) == 200;
+            default:
+               return send("GET", "chess/players", null) == 200;
+         }
+      }
+
+      private String tournamentJson(String id) {
+         StringBuilder json = new StringBuilder("{\"id\":\"").append(id).append("\",\"players\":[");
+         int size = config.tournamentSize;
+         for (int p = 0; p < size; p++) {
+            json.append(p == 0 ? "" : ",")
+                  .append("{\"id\":").append(p + 1)
+                  .append(",\"lastName\":\"Player\",\"firstName\":\"").append(p + 1)
+                  .append("\",\"rating\":").append(1000 + random.nextInt(1200)).append('}');
+         }
+         json.append("],\"rounds\":[");
+         for (int r = 0; r < config.rounds; r++) {
+            json.append(r == 0 ? "[" : ",[");
+            for (int board = 0; board < size / 2; board++) {
+               int white = (board + r) % size + 1;
+               int black = (size - 1 - board + r) % size + 1;
+               json.append(board == 0 ? "" : ",")
+                     .append("{\"white\":").append(white)
+                     .append(",\"black\":").append(black)
+                     .append(",\"result\":").append(random.nextInt(3) / 2.0).append('}');
+            }
+            json.append(']');
+         }
+         return json.append("]}").toString();
+      }
+
+      private int send(String method, String path, String body) throws IOException {
+         HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl() + path).openConnection();
+         connection.setRequestMethod(method);
+         connection.setRequestProperty("Accept", "application/json");
+         if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+               out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+         }
+         int status = connection.getResponseCode();
+         try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+               byte[] buffer = new byte[8192];
+               while (in.read(buffer) >= 0) {
+                  // drain the response so that the connection is reused
+               }
+            }
+         }
+         return status;
+      }
+   }
+
+   private String baseUrl() {
+      return config.url.endsWith("/") ? config.url : config.url + "/";
+   }
+}
@@ -0,0 +1,96 @@
+package chess.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadGeneratorTest {
+
+   private HttpServer server;
+
+   @Before
+   public void setUp() throws IOException {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      server.setExecutor(Executors.newFixedThreadPool(4));
+      server.createContext("/chess/players", exchange -> reply(exchange, 200, "[]"));
+      server.createContext("/chess/tournaments", exchange -> {
+         boolean submission = "POST".equals(exchange.getRequestMethod());
+         reply(exchange, submission ? 201 : 200, "{}");
+      });
+      server.start();
+   }
+
+   @After
+   public void tearDown() {
+      server.stop(0);
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void openModelReportsEveryOperation() throws Exception {
+      LoadTestConfig config = new LoadTestConfig();
+      config.url = "http://localhost:" + server.getAddress().getPort();
+      config.durationSeconds = 1;
+      config.warmupSeconds = 0;
+      config.rate = 200;
+      config.threads = 4;
+      config.tournamentSize = 6;
+      config.rounds = 2;
+
+      Map<String, Object> report = new LoadGenerator(config).run();
+
+      assertEquals("open", report.get("model"));
+      Map<String, Object> all = (Map<String, Object>) report.get("all");
+      long count = (Long) all.get("count");
+      assertTrue("count " + count, count > 150 && count <= 200);
+      assertEquals(0L, all.get("errors"));
+      Map<String, Object> operations = (Map<String, Object>) report.get("operations");
+      assertTrue((Long) ((Map<String, Object>) operations.get("submit")).get("count") > 0);
+      assertTrue((Double) all.get("p999Ms") >= (Double) all.get("p50Ms"));
+   }
+
+   @Test
+   public void histogramPercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 1; i <= 1000; i++) {
+         histogram.record(i * 1000L);
+      }
+      assertEquals(1000, histogram.getCount());
+      assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.02);
+      assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.02);
+      assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+
+      LatencyHistogram other = new LatencyHistogram();
+      other.record(5_000_000);
+      histogram.merge(other);
+      assertEquals(5_000_000, histogram.getMax());
+      assertEquals(1000, histogram.getMin());
+   }
+
+   private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+      try (InputStream in = exchange.getRequestBody()) {
+         while (in.read() >= 0) {
+            // consume the request
+         }
+      }
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+         out.write(bytes);
+      }
+   }
+}
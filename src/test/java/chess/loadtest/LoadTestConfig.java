@@ -0,0 +1,83 @@
+package chess.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties.
+ * <ul>
+ * <li>{@code loadtest.url}: base URL of the service; when absent, the service is started in-process.</li>
+ * <li>{@code loadtest.duration} and {@code loadtest.warmup}: measured and discarded seconds.</li>
+ * <li>{@code loadtest.rate}: requests per second of the open model; 0 selects the closed model.</li>
+ * <li>{@code loadtest.threads}: concurrent connections.</li>
+ * <li>{@code loadtest.mix}: operation weights, such as {@code players:70,submit:10,standings:20}.</li>
+ * <li>{@code loadtest.tournamentSize} and {@code loadtest.rounds}: shape of the submitted tournaments.</li>
+ * <li>{@code loadtest.output}: JSON report file.</li>
+ * </ul>
+ */
+public class LoadTestConfig {
+
+   String url;
+   int durationSeconds = 30;
+   int warmupSeconds = 5;
+   double rate = 0;
+   int threads = 16;
+   Map<Operation, Integer> mix = parseMix("players:70,submit:10,standings:20");
+   int tournamentSize = 40;
+   int rounds = 6;
+   String output = "target/loadtest/report-" + System.currentTimeMillis() + ".json";
+
+   /**
+    * Operations of the mixed workload.
+    */
+   public enum Operation {
+      PLAYERS("players"),
+      SUBMIT("submit"),
+      STANDINGS("standings");
+
+      private final String key;
+
+      Operation(String key) {
+         this.key = key;
+      }
+
+      static Operation fromKey(String key) {
+         for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+               return operation;
+            }
+         }
+         throw new IllegalArgumentException("Unknown operation in the workload mix: " + key);
+      }
+   }
+
+   public static LoadTestConfig fromSystemProperties() {
+      LoadTestConfig config = new LoadTestConfig();
+      config.url = System.getProperty("loadtest.url");
+      config.durationSeconds = Integer.getInteger("loadtest.duration", config.durationSeconds);
+      config.warmupSeconds = Integer.getInteger("loadtest.warmup", config.warmupSeconds);
+      config.rate = Double.parseDouble(System.getProperty("loadtest.rate", String.valueOf(config.rate)));
+      config.threads = Integer.getInteger("loadtest.threads", config.threads);
+      config.tournamentSize = Integer.getInteger("loadtest.tournamentSize", config.tournamentSize);
+      config.rounds = Integer.getInteger("loadtest.rounds", config.rounds);
+      config.output = System.getProperty("loadtest.output", config.output);
+      String mix = System.getProperty("loadtest.mix");
+      if (mix != null) {
+         config.mix = parseMix(mix);
+      }
+      return config;
+   }
+
+   static Map<Operation, Integer> parseMix(String mix) {
+      Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+      for (String entry : mix.split(",")) {
+         String[] keyValue = entry.trim().split(":");
+         weights.put(Operation.fromKey(keyValue[0].trim()), Integer.parseInt(keyValue[1].trim()));
+      }
+      return weights;
+   }
+
+   boolean isOpenModel() {
+      return rate > 0;
+   }
+}
@@ -0,0 +1,49 @@
+package chess.loadtest;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import chess.WarmUp;
+import chess.server.ChessServer;
+
+/**
+ * Entry point of the load test, run with {@code mvn -Ploadtest verify}. Unless {@code loadtest.url} is set, the
+ * service is started in-process on a free local port, so the test works fully offline. The report is printed and
+ * written as JSON so that runs can be compared. See {@link LoadTestConfig} for the settings.
+ */
+public final class LoadTestRunner {
+
+   private LoadTestRunner() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+      ChessServer server = null;
+      if (config.url == null) {
+         server = ChessServer.start(0);
+         config.url = server.getBaseUri().toString();
+         // Measure the warm service, as the load balancer would route traffic to it.
+         WarmUp.get().await(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      }
+      try {
+         Map<String, Object> report = new LoadGenerator(config).run();
+         report.put("url", config.url);
+
+         ObjectMapper mapper = new ObjectMapper();
+         File output = new File(config.output);
+         if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+         }
+         mapper.writerWithDefaultPrettyPrinter().writeValue(output, report);
+         System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+         System.out.println("Load test report written to " + output.getAbsolutePath());
+      } finally {
+         if (server != null) {
+            server.stop();
+         }
+      }
+   }
+}
@@ -0,0 +1,60 @@
+package chess.rating;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of a Glicko-2 rating period of {@code glicko2bench.players} players playing
+ * {@code glicko2bench.gamesPerPlayer} games each, run with {@code mvn -Pglicko2bench verify}. The period is rated
+ * {@code glicko2bench.periods} times after as many warm-up periods, sequentially with a common pool of one thread
+ * if {@code -Djava.util.concurrent.ForkJoinPool.common.parallelism=1} is given.
+ */
+public final class Glicko2Benchmark {
+
+   private Glicko2Benchmark() {
+   }
+
+   public static void main(String[] args) {
+      int playerCount = Integer.getInteger("glicko2bench.players", 100000);
+      int gamesPerPlayer = Integer.getInteger("glicko2bench.gamesPerPlayer", 10);
+      int periods = Integer.getInteger("glicko2bench.periods", 20);
+
+      Random random = new Random(42);
+      double[] ratings = new double[playerCount];
+      double[] deviations = new double[playerCount];
+      double[] volatilities = new double[playerCount];
+      for (int i = 0; i < playerCount; i++) {
+         ratings[i] = 1000 + random.nextInt(1400);
+         deviations[i] = 30 + random.nextInt(320);
+         volatilities[i] = 0.06;
+      }
+      int gameCount = playerCount / 2 * gamesPerPlayer;
+      int[] white = new int[gameCount];
+      int[] black = new int[gameCount];
+      double[] results = new double[gameCount];
+      for (int g = 0; g < gameCount; g++) {
+         white[g] = random.nextInt(playerCount);
+         black[g] = (white[g] + 1 + random.nextInt(playerCount - 1)) % playerCount;
+         results[g] = random.nextInt(3) / 2.0;
+      }
+
+      for (int i = 0; i < periods; i++) {
+         ratePeriod(ratings, deviations, volatilities, white, black, results);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < periods; i++) {
+         ratePeriod(ratings, deviations, volatilities, white, black, results);
+      }
+      long elapsed = System.nanoTime() - start;
+
+      System.out.println("players;games;threads;ms/period");
+      System.out.printf("%d;%d;%d;%.1f%n", playerCount, gameCount, Runtime.getRuntime().availableProcessors(),
+            elapsed / (double) TimeUnit.MILLISECONDS.toNanos(1) / periods);
+   }
+
+   private static void ratePeriod(double[] ratings, double[] deviations, double[] volatilities, int[] white,
+                                  int[] black, double[] results) {
+      Glicko2RatingSystem.ratePeriod(ratings, deviations, volatilities, white, black, results,
+            Glicko2RatingSystem.DEFAULT_TAU);
+   }
+}
@@ -0,0 +1,100 @@
+package chess.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import chess.models.Player;
+import chess.rating.GameRecord;
+import chess.rating.RatedEvent;
+
+/**
+ * Measures the tournament rating throughput of a {@link ShardCoordinator} for an increasing number of in-process
+ * {@link ShardNode}s, run with {@code mvn -Pshardbench verify}. Each client thread rates random tournaments of
+ * {@code shardbench.tournamentSize} players over {@code shardbench.players} players for
+ * {@code shardbench.seconds}, once per node count of {@code shardbench.nodes}.
+ */
+public final class ShardBenchmark {
+
+   private ShardBenchmark() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      String[] nodeCounts = System.getProperty("shardbench.nodes", "1,2,4,8").split(",");
+      int playerCount = Integer.getInteger("shardbench.players", 100000);
+      int threads = Integer.getInteger("shardbench.threads", 16);
+      int seconds = Integer.getInteger("shardbench.seconds", 10);
+      int tournamentSize = Integer.getInteger("shardbench.tournamentSize", 16);
+
+      List<Player> players = new ArrayList<>();
+      for (int id = 1; id <= playerCount; id++) {
+         Player player = new Player("Player", Integer.toString(id), 1000 + id % 1400);
+         player.setId(id);
+         players.add(player);
+      }
+
+      System.out.println("nodes;tournaments;tournaments/s");
+      for (String nodeCount : nodeCounts) {
+         List<ShardNode> nodes = new ArrayList<>();
+         try (ShardCoordinator coordinator = new ShardCoordinator()) {
+            for (int i = 0; i < Integer.parseInt(nodeCount.trim()); i++) {
+               ShardNode node = ShardNode.start(0);
+               nodes.add(node);
+               coordinator.addNode(node.getAddress());
+            }
+            coordinator.putPlayers(players);
+            long count = run(coordinator, playerCount, threads, seconds, tournamentSize);
+            System.out.println(nodes.size() + ";" + count + ";" + count / seconds);
+         } finally {
+            for (ShardNode node : nodes) {
+               node.close();
+            }
+         }
+      }
+   }
+
+   private static long run(ShardCoordinator coordinator, int playerCount, int threads, int seconds,
+                           int tournamentSize) throws Exception {
+      ExecutorService clients = Executors.newFixedThreadPool(threads);
+      long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+      List<Future<Long>> results = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+         long seed = t;
+         results.add(clients.submit(() -> {
+            Random random = new Random(seed);
+            long rated = 0;
+            while (System.nanoTime() < end) {
+               coordinator.rate(randomTournament(random, playerCount, tournamentSize));
+               rated++;
+            }
+            return rated;
+         }));
+      }
+      long total = 0;
+      for (Future<Long> result : results) {
+         total += result.get();
+      }
+      clients.shutdown();
+      return total;
+   }
+
+   /**
+    * A round robin of 4 rounds between distinct random players.
+    */
+   private static RatedEvent randomTournament(Random random, int playerCount, int size) {
+      int[] ids = random.ints(1, playerCount + 1).distinct().limit(size).toArray();
+      List<List<GameRecord>> rounds = new ArrayList<>();
+      for (int r = 1; r <= 4; r++) {
+         List<GameRecord> round = new ArrayList<>();
+         for (int i = 0; i < size / 2; i++) {
+            round.add(new GameRecord(ids[i], ids[(i + r) % (size / 2) + size / 2], random.nextInt(3) / 2.0));
+         }
+         rounds.add(round);
+      }
+      return new RatedEvent(rounds);
+   }
+}